@@ -0,0 +1,52 @@
+
+package pubmed.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pubmed.article.PubmedArticleXmlParser;
+import pubmed.xml.PubmedArticleElement;
+
+/**
+ * Compares the two ways of extracting article content from a parsed
+ * document tree: the element decorators in {@code pubmed.xml} (used by
+ * the content and flat files) and the article parser in {@code
+ * pubmed.article} (used by the database tables).
+ *
+ * <p>Each operation extracts one article, so the throughput is in
+ * articles per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArticleExtractBenchmark {
+    /**
+     * Decorates an article element and reads every field that is
+     * written to a content file.
+     */
+    @Benchmark public void elementTree(ArticleFixture fixture, Blackhole blackhole) {
+        PubmedArticleElement article = PubmedArticleElement.from(fixture.next());
+
+        blackhole.consume(article.getPMID());
+        blackhole.consume(article.getDOI());
+        blackhole.consume(article.getArticleTitle());
+        blackhole.consume(article.getAbstract());
+        blackhole.consume(article.getPubmedJournal());
+        blackhole.consume(article.resolvePublicationDate());
+        blackhole.consume(article.getMeshHeadingList());
+        blackhole.consume(article.getChemicalList());
+        blackhole.consume(article.getKeywordList());
+        blackhole.consume(article.getPublicationTypes());
+    }
+
+    /**
+     * Parses an article element into a {@code PubmedArticle} object.
+     */
+    @Benchmark public void articleParser(ArticleFixture fixture, Blackhole blackhole) {
+        blackhole.consume(PubmedArticleXmlParser.parse(fixture.next()));
+    }
+}
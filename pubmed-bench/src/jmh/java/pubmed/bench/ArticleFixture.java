@@ -0,0 +1,93 @@
+
+package pubmed.bench;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import pubmed.xml.PubmedArticleElement;
+import pubmed.xml.PubmedXmlBuilder;
+
+/**
+ * Holds the {@code PubmedArticle} elements parsed from a fixture
+ * file and hands them out one at a time, in file order, cycling back
+ * to the first article after the last.
+ */
+@State(Scope.Thread)
+public class ArticleFixture {
+    /**
+     * Name of the system property that specifies the fixture
+     * directory (set by the build script).
+     */
+    public static final String DATA_DIR_PROPERTY = "pubmed.bench.dataDir";
+
+    /**
+     * Default fixture directory, relative to the benchmark project.
+     */
+    public static final String DATA_DIR_DEFAULT = "../pubmed-lib/data/test";
+
+    /**
+     * The name of the fixture file in the fixture directory.
+     */
+    @Param({ "pubmed20n0001.xml.gz", "pubmed20n1203.xml.gz" })
+    public String fileName;
+
+    private List<Element> articles;
+    private int cursor;
+
+    /**
+     * Resolves a fixture file in the fixture directory.
+     *
+     * @param fileName the name of the fixture file.
+     *
+     * @return the fixture file.
+     */
+    public static File resolve(String fileName) {
+        return new File(System.getProperty(DATA_DIR_PROPERTY, DATA_DIR_DEFAULT), fileName);
+    }
+
+    /**
+     * Parses the fixture file.
+     */
+    @Setup(Level.Trial) public void setUp() {
+        Document document = PubmedXmlBuilder.build(resolve(fileName));
+
+        articles = new ArrayList<Element>(document.getRootElement().getChildren(PubmedArticleElement.TAG_NAME));
+        cursor = 0;
+
+        if (articles.isEmpty())
+            throw new IllegalStateException("No articles in fixture file: " + fileName);
+    }
+
+    /**
+     * Returns the next article element.
+     *
+     * @return the next article element.
+     */
+    public Element next() {
+        Element article = articles.get(cursor);
+
+        if (++cursor == articles.size())
+            cursor = 0;
+
+        return article;
+    }
+
+    /**
+     * Returns the number of articles in the fixture file.
+     *
+     * @return the number of articles in the fixture file.
+     */
+    public int size() {
+        return articles.size();
+    }
+}
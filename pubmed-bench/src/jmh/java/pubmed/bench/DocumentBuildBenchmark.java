@@ -0,0 +1,56 @@
+
+package pubmed.bench;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.jdom2.Document;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import pubmed.xml.ArticleField;
+import pubmed.xml.ArticleProjection;
+import pubmed.xml.PubmedXmlBuilder;
+import pubmed.xml.XmlParseMode;
+
+/**
+ * Measures the time to inflate and parse an entire fixture file into
+ * a document tree, for each parse mode and for a complete and a
+ * title-only projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DocumentBuildBenchmark {
+    @Param({ "pubmed20n0001.xml.gz", "pubmed20n1203.xml.gz" })
+    public String fileName;
+
+    @Param({ "STANDARD", "FAST" })
+    public XmlParseMode mode;
+
+    @Param({ "ALL", "TITLE" })
+    public String projection;
+
+    private File file;
+    private ArticleProjection articleProjection;
+
+    @Setup public void setUp() {
+        file = ArticleFixture.resolve(fileName);
+
+        if (projection.equals("ALL"))
+            articleProjection = ArticleProjection.ALL;
+        else
+            articleProjection = ArticleProjection.of(ArticleField.valueOf(projection));
+    }
+
+    @Benchmark public Document build() {
+        return PubmedXmlBuilder.build(file, articleProjection, mode);
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * Measures the throughput and allocation of the XML parse paths.
+ *
+ * <p>Run with {@code ./gradlew :pubmed-bench:jmh}.  The results are
+ * written to {@code pubmed-bench/build/reports/jmh}.  Each operation
+ * in {@link pubmed.bench.ArticleExtractBenchmark} processes exactly
+ * one article, so the throughput is in articles per second.  The
+ * {@code gc.alloc.rate.norm} metric from the gc profiler is the number
+ * of bytes allocated per article.
+ */
+package pubmed.bench;
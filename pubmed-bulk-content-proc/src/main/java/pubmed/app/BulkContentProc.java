@@ -1,15 +1,9 @@
 
 package pubmed.app;
 
-import java.util.List;
-
-import jam.util.ListUtil;
-
 import pubmed.bulk.BulkFile;
+import pubmed.bulk.BulkFileContentProcessor;
 import pubmed.bulk.BulkFileProcessor;
-import pubmed.bulk.DocumentContentFile;
-import pubmed.delcit.DeleteCitationFile;
-import pubmed.xml.PubmedXmlDocument;
 
 /**
  * Generates content files for all {@code PubMed} bulk XML files in a
@@ -26,15 +20,7 @@ public final class BulkContentProc extends BulkFileProcessor {
     public static final BulkContentProc INSTANCE = new BulkContentProc();
 
     @Override public void processFile(BulkFile bulkFile) {
-        PubmedXmlDocument document = bulkFile.getDocument();
-
-        List<DocumentContentFile> unprocessed =
-            ListUtil.filter(bulkFile.getContentFiles(), file -> !file.exists());
-
-        for (DocumentContentFile contentFile : unprocessed)
-            contentFile.processDocument(document, false);
-
-        DeleteCitationFile.instance().add(document);
+        BulkFileContentProcessor.INSTANCE.processFile(bulkFile);
     }
 
     private static void usage() {
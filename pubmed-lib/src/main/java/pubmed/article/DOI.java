@@ -1,17 +1,16 @@
 
 package pubmed.article;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import jam.lang.KeyedObject;
 
+import pubmed.intern.InternPool;
+
 /**
  * Represents the unique Digital Object Identifier.
  */
 public final class DOI extends KeyedObject<String> {
-    private static final Map<String, DOI> instances =
-        new HashMap<String, DOI>();
+    private static final InternPool<String, DOI> instances =
+        InternPool.create("DOI", DOI::new);
 
     private DOI(String doi) {
         super(doi);
@@ -30,14 +29,7 @@ public final class DOI extends KeyedObject<String> {
      * @return the {@code DOI} object for the given identifier string.
      */
     public static DOI instance(String doi) {
-        DOI instance = instances.get(doi);
-
-        if (instance == null) {
-            instance = new DOI(doi);
-            instances.put(doi, instance);
-        }
-
-        return instance;
+        return instances.intern(doi);
     }
 
     /**
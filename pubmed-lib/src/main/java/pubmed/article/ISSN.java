@@ -1,20 +1,20 @@
 
 package pubmed.article;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import jam.lang.JamException;
 import jam.lang.KeyedObject;
 
+import pubmed.intern.InternPool;
+
 /**
  * Represents an International Standard Serial Number.
  */
 public final class ISSN extends KeyedObject<String> {
-    private static final Map<String, ISSN> instances =
-        new HashMap<String, ISSN>();
+    private static final InternPool<String, ISSN> instances =
+        InternPool.create("ISSN", ISSN::new);
 
     private static final Predicate<String> VALIDATOR =
         Pattern.compile("^[0-9]{4}-[0-9]{3}[0-9xX]$").asMatchPredicate();
@@ -40,14 +40,7 @@ public final class ISSN extends KeyedObject<String> {
      * ISSN.
      */
     public static ISSN instance(String issn) {
-        ISSN instance = instances.get(issn);
-
-        if (instance == null) {
-            instance = new ISSN(issn);
-            instances.put(issn, instance);
-        }
-
-        return instance;
+        return instances.intern(issn);
     }
 
     /**
@@ -1,20 +1,20 @@
 
 package pubmed.article;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import jam.lang.JamException;
 import jam.lang.KeyedObject;
 
+import pubmed.intern.InternPool;
+
 /**
  * Represents the unique {@code ORCID} identifier.
  */
 public final class ORCID extends KeyedObject<String> {
-    private static final Map<String, ORCID> instances =
-        new HashMap<String, ORCID>();
+    private static final InternPool<String, ORCID> instances =
+        InternPool.create("ORCID", ORCID::new);
 
     private static final int ID_LENGTH = 19;
 
@@ -42,14 +42,7 @@ public final class ORCID extends KeyedObject<String> {
      */
     public static ORCID instance(String orcid) {
         orcid = normalize(orcid);
-        ORCID instance = instances.get(orcid);
-
-        if (instance == null) {
-            instance = new ORCID(orcid);
-            instances.put(orcid, instance);
-        }
-
-        return instance;
+        return instances.intern(orcid);
     }
 
     /**
@@ -0,0 +1,232 @@
+
+package pubmed.article;
+
+import java.util.Arrays;
+
+/**
+ * Provides an immutable map from article identifiers to primitive
+ * integers, stored as parallel arrays sorted by identifier.
+ *
+ * <p>Lookups are binary searches over the identifiers; neither the
+ * keys nor the values are boxed.
+ */
+public final class PmidIntMap {
+    private final int[] keys;
+    private final int[] values;
+
+    private static final PmidIntMap EMPTY = new PmidIntMap(new int[0], new int[0]);
+
+    private PmidIntMap(int[] keys, int[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    /**
+     * Builds maps one entry at a time.  Entries may be added in any
+     * order; if an identifier is added more than once, the last value
+     * is retained.
+     */
+    public static final class Builder {
+        private int[] keys;
+        private int[] values;
+        private int size = 0;
+
+        private Builder(int capacity) {
+            this.keys = new int[Math.max(8, capacity)];
+            this.values = new int[keys.length];
+        }
+
+        /**
+         * Adds an entry to the map under construction.
+         *
+         * @param id the integer value of the identifier.
+         *
+         * @param value the value to associate with the identifier.
+         *
+         * @return this builder, for chaining.
+         *
+         * @throws IllegalArgumentException unless the identifier is
+         * positive.
+         */
+        public Builder put(int id, int value) {
+            if (id < 1)
+                throw new IllegalArgumentException("PMIDs must be positive.");
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+
+            keys[size] = id;
+            values[size] = value;
+            ++size;
+
+            return this;
+        }
+
+        /**
+         * Adds an entry to the map under construction.
+         *
+         * @param pmid the identifier.
+         *
+         * @param value the value to associate with the identifier.
+         *
+         * @return this builder, for chaining.
+         */
+        public Builder put(PMID pmid, int value) {
+            return put(pmid.intValue(), value);
+        }
+
+        /**
+         * Creates the map containing every entry added to this
+         * builder.
+         *
+         * @return the map containing every entry added to this
+         * builder.
+         */
+        public PmidIntMap build() {
+            int[] order = PmidSet.orderDistinct(keys, size);
+
+            int[] sortedKeys = new int[order.length];
+            int[] sortedValues = new int[order.length];
+
+            for (int index = 0; index < order.length; ++index) {
+                sortedKeys[index] = keys[order[index]];
+                sortedValues[index] = values[order[index]];
+            }
+
+            return new PmidIntMap(sortedKeys, sortedValues);
+        }
+    }
+
+    /**
+     * Creates a new map builder.
+     *
+     * @return a new map builder.
+     */
+    public static Builder builder() {
+        return new Builder(8);
+    }
+
+    /**
+     * Creates a new map builder with a given initial capacity.
+     *
+     * @param capacity the expected number of entries.
+     *
+     * @return a new map builder.
+     */
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @return the empty map.
+     */
+    public static PmidIntMap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Determines whether this map contains an identifier.
+     *
+     * @param id the integer value of the identifier.
+     *
+     * @return {@code true} iff this map contains the identifier.
+     */
+    public boolean containsKey(int id) {
+        return Arrays.binarySearch(keys, id) >= 0;
+    }
+
+    /**
+     * Determines whether this map contains an identifier.
+     *
+     * @param pmid the identifier of interest.
+     *
+     * @return {@code true} iff this map contains the identifier.
+     */
+    public boolean containsKey(PMID pmid) {
+        return containsKey(pmid.intValue());
+    }
+
+    /**
+     * Returns the value associated with an identifier.
+     *
+     * @param id the integer value of the identifier.
+     *
+     * @param defaultValue the value to return if this map does not
+     * contain the identifier.
+     *
+     * @return the value associated with the identifier, or the
+     * default value if there is none.
+     */
+    public int get(int id, int defaultValue) {
+        int index = Arrays.binarySearch(keys, id);
+        return (index >= 0) ? values[index] : defaultValue;
+    }
+
+    /**
+     * Returns the value associated with an identifier.
+     *
+     * @param pmid the identifier of interest.
+     *
+     * @param defaultValue the value to return if this map does not
+     * contain the identifier.
+     *
+     * @return the value associated with the identifier, or the
+     * default value if there is none.
+     */
+    public int get(PMID pmid, int defaultValue) {
+        return get(pmid.intValue(), defaultValue);
+    }
+
+    /**
+     * Returns the identifier of the entry at a given position.
+     *
+     * @param index the position of the entry in identifier order.
+     *
+     * @return the integer value of the identifier at the position.
+     */
+    public int getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Returns the value of the entry at a given position.
+     *
+     * @param index the position of the entry in identifier order.
+     *
+     * @return the value at the position.
+     */
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns the identifiers in this map.
+     *
+     * @return the set of identifiers in this map.
+     */
+    public PmidSet keySet() {
+        return new PmidSet(keys);
+    }
+
+    /**
+     * Identifies empty maps.
+     *
+     * @return {@code true} iff this map has no entries.
+     */
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Returns the number of entries in this map.
+     *
+     * @return the number of entries in this map.
+     */
+    public int size() {
+        return keys.length;
+    }
+}
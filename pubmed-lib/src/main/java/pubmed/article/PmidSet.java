@@ -0,0 +1,449 @@
+
+package pubmed.article;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+/**
+ * Provides an immutable set of article identifiers stored as a sorted
+ * array of primitive integers.
+ *
+ * <p>Each identifier occupies four bytes (rather than the fifty or so
+ * bytes required by a boxed {@code PMID} in a tree or hash set), the
+ * membership test is a binary search, and unions, intersections, and
+ * differences are linear merges of the sorted arrays.  The set also
+ * implements the {@code Set<PMID>} interface, so it may be passed to
+ * code that expects a collection of boxed identifiers; its iterator
+ * creates the {@code PMID} objects on demand.
+ */
+public final class PmidSet extends AbstractSet<PMID> {
+    private final int[] ids;
+
+    private static final PmidSet EMPTY = new PmidSet(new int[0]);
+
+    PmidSet(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Builds article identifier sets one identifier at a time.
+     * Identifiers may be added in any order and may be repeated.
+     */
+    public static final class Builder {
+        private int[] ids;
+        private int size = 0;
+
+        private Builder(int capacity) {
+            this.ids = new int[Math.max(8, capacity)];
+        }
+
+        /**
+         * Adds an identifier to the set under construction.
+         *
+         * @param id the integer value of the identifier to add.
+         *
+         * @return this builder, for chaining.
+         *
+         * @throws IllegalArgumentException unless the identifier is
+         * positive.
+         */
+        public Builder add(int id) {
+            validateID(id);
+
+            if (size == ids.length)
+                ids = Arrays.copyOf(ids, 2 * size);
+
+            ids[size++] = id;
+            return this;
+        }
+
+        /**
+         * Adds an identifier to the set under construction.
+         *
+         * @param pmid the identifier to add.
+         *
+         * @return this builder, for chaining.
+         */
+        public Builder add(PMID pmid) {
+            return add(pmid.intValue());
+        }
+
+        /**
+         * Adds identifiers to the set under construction.
+         *
+         * @param pmids the identifiers to add.
+         *
+         * @return this builder, for chaining.
+         */
+        public Builder addAll(Collection<PMID> pmids) {
+            for (PMID pmid : pmids)
+                add(pmid);
+
+            return this;
+        }
+
+        /**
+         * Creates the set containing every identifier added to this
+         * builder.
+         *
+         * @return the set containing every identifier added to this
+         * builder.
+         */
+        public PmidSet build() {
+            return new PmidSet(sortDistinct(Arrays.copyOf(ids, size)));
+        }
+    }
+
+    private static void validateID(int id) {
+        if (id < 1)
+            throw new IllegalArgumentException("PMIDs must be positive.");
+    }
+
+    private static int[] sortDistinct(int[] array) {
+        Arrays.sort(array);
+
+        int count = 0;
+
+        for (int index = 0; index < array.length; ++index)
+            if (count == 0 || array[index] != array[count - 1])
+                array[count++] = array[index];
+
+        return (count == array.length) ? array : Arrays.copyOf(array, count);
+    }
+
+    /**
+     * Returns the indexes of the distinct keys in an array, in key
+     * order; where a key is repeated, the index of its last
+     * occurrence is returned.
+     *
+     * @param keys the keys to order.
+     *
+     * @param size the number of keys in the array.
+     *
+     * @return the indexes of the distinct keys in key order.
+     */
+    static int[] orderDistinct(int[] keys, int size) {
+        //
+        // Sorting the (key, index) pairs places the occurrences of
+        // each key in the order they were added...
+        //
+        long[] pairs = new long[size];
+
+        for (int index = 0; index < size; ++index)
+            pairs[index] = ((long) keys[index] << 32) | index;
+
+        Arrays.sort(pairs);
+
+        int[] order = new int[size];
+        int count = 0;
+
+        for (int index = 0; index < size; ++index) {
+            int key = (int) (pairs[index] >>> 32);
+
+            if (index + 1 < size && (int) (pairs[index + 1] >>> 32) == key)
+                continue;
+
+            order[count++] = (int) pairs[index];
+        }
+
+        return Arrays.copyOf(order, count);
+    }
+
+    /**
+     * Creates a new set builder.
+     *
+     * @return a new set builder.
+     */
+    public static Builder builder() {
+        return new Builder(8);
+    }
+
+    /**
+     * Creates a new set builder with a given initial capacity.
+     *
+     * @param capacity the expected number of identifiers.
+     *
+     * @return a new set builder.
+     */
+    public static Builder builder(int capacity) {
+        return new Builder(capacity);
+    }
+
+    /**
+     * Returns the empty set.
+     *
+     * @return the empty set.
+     */
+    public static PmidSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the set containing the given identifiers.
+     *
+     * @param ids the integer values of the identifiers.
+     *
+     * @return the set containing the given identifiers.
+     *
+     * @throws IllegalArgumentException unless every identifier is
+     * positive.
+     */
+    public static PmidSet of(int... ids) {
+        for (int id : ids)
+            validateID(id);
+
+        return new PmidSet(sortDistinct(ids.clone()));
+    }
+
+    /**
+     * Returns the set containing the identifiers in a collection.
+     *
+     * @param pmids the identifiers to include.
+     *
+     * @return the set containing the identifiers in the collection.
+     */
+    public static PmidSet copyOf(Collection<PMID> pmids) {
+        if (pmids instanceof PmidSet)
+            return (PmidSet) pmids;
+        else
+            return builder(pmids.size()).addAll(pmids).build();
+    }
+
+    /**
+     * Determines whether this set contains an identifier.
+     *
+     * @param id the integer value of the identifier.
+     *
+     * @return {@code true} iff this set contains the identifier.
+     */
+    public boolean contains(int id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    /**
+     * Determines whether this set contains an identifier.
+     *
+     * @param pmid the identifier of interest.
+     *
+     * @return {@code true} iff this set contains the identifier.
+     */
+    public boolean contains(PMID pmid) {
+        return contains(pmid.intValue());
+    }
+
+    @Override public boolean contains(Object obj) {
+        return (obj instanceof PMID) && contains((PMID) obj);
+    }
+
+    /**
+     * Returns the position of an identifier in this set.
+     *
+     * @param id the integer value of the identifier.
+     *
+     * @return the index of the identifier in ascending order, or a
+     * negative value if this set does not contain the identifier.
+     */
+    public int indexOf(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        return (index >= 0) ? index : -1;
+    }
+
+    /**
+     * Returns the identifier at a given position in this set.
+     *
+     * @param index the position of the identifier in ascending order.
+     *
+     * @return the integer value of the identifier at the position.
+     *
+     * @throws IndexOutOfBoundsException unless the index is valid.
+     */
+    public int getID(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the union of this set and another.
+     *
+     * @param that the other set.
+     *
+     * @return the set of identifiers contained in either set.
+     */
+    public PmidSet union(PmidSet that) {
+        if (that.isEmpty())
+            return this;
+
+        if (this.isEmpty())
+            return that;
+
+        int[] result = new int[this.ids.length + that.ids.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < this.ids.length && j < that.ids.length) {
+            int a = this.ids[i];
+            int b = that.ids[j];
+
+            if (a < b) {
+                result[count++] = a;
+                ++i;
+            }
+            else if (b < a) {
+                result[count++] = b;
+                ++j;
+            }
+            else {
+                result[count++] = a;
+                ++i;
+                ++j;
+            }
+        }
+
+        while (i < this.ids.length)
+            result[count++] = this.ids[i++];
+
+        while (j < that.ids.length)
+            result[count++] = that.ids[j++];
+
+        return new PmidSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns the intersection of this set and another.
+     *
+     * @param that the other set.
+     *
+     * @return the set of identifiers contained in both sets.
+     */
+    public PmidSet intersection(PmidSet that) {
+        //
+        // When one set is much smaller than the other, binary searches
+        // of the larger set are faster than a linear merge...
+        //
+        PmidSet small = (this.size() <= that.size()) ? this : that;
+        PmidSet large = (small == this) ? that : this;
+
+        int[] result = new int[small.ids.length];
+        int count = 0;
+
+        if (32 * small.ids.length < large.ids.length) {
+            for (int id : small.ids)
+                if (large.contains(id))
+                    result[count++] = id;
+        }
+        else {
+            int i = 0;
+            int j = 0;
+
+            while (i < small.ids.length && j < large.ids.length) {
+                int a = small.ids[i];
+                int b = large.ids[j];
+
+                if (a < b) {
+                    ++i;
+                }
+                else if (b < a) {
+                    ++j;
+                }
+                else {
+                    result[count++] = a;
+                    ++i;
+                    ++j;
+                }
+            }
+        }
+
+        return (count == 0) ? EMPTY : new PmidSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns the difference of this set and another.
+     *
+     * @param that the other set.
+     *
+     * @return the set of identifiers contained in this set but not in
+     * the other.
+     */
+    public PmidSet difference(PmidSet that) {
+        if (this.isEmpty() || that.isEmpty())
+            return this;
+
+        int[] result = new int[this.ids.length];
+        int count = 0;
+        int j = 0;
+
+        for (int id : this.ids) {
+            while (j < that.ids.length && that.ids[j] < id)
+                ++j;
+
+            if (j == that.ids.length || that.ids[j] != id)
+                result[count++] = id;
+        }
+
+        return (count == this.ids.length) ? this : new PmidSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * Returns the identifiers in this set as a sorted array.
+     *
+     * @return a new array containing the integer values of the
+     * identifiers in ascending order.
+     */
+    public int[] toIntArray() {
+        return ids.clone();
+    }
+
+    /**
+     * Returns the identifiers in this set as a stream.
+     *
+     * @return a stream of the integer values of the identifiers in
+     * ascending order.
+     */
+    public IntStream intStream() {
+        return Arrays.stream(ids);
+    }
+
+    @Override public Iterator<PMID> iterator() {
+        return new Iterator<PMID>() {
+            private int index = 0;
+
+            @Override public boolean hasNext() {
+                return index < ids.length;
+            }
+
+            @Override public PMID next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return PMID.instance(ids[index++]);
+            }
+        };
+    }
+
+    @Override public int size() {
+        return ids.length;
+    }
+
+    @Override public boolean equals(Object obj) {
+        if (obj instanceof PmidSet)
+            return Arrays.equals(this.ids, ((PmidSet) obj).ids);
+        else
+            return super.equals(obj);
+    }
+
+    @Override public int hashCode() {
+        //
+        // Consistent with the hash code of any other Set<PMID>...
+        //
+        int hashCode = 0;
+
+        for (int id : ids)
+            hashCode += id;
+
+        return hashCode;
+    }
+}
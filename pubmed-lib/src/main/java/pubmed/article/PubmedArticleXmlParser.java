@@ -3,6 +3,8 @@ package pubmed.article;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
@@ -13,6 +15,7 @@ import pubmed.medline.MedlineJournal;
 import pubmed.mesh.MeshDescriptorKey;
 import pubmed.mesh.MeshHeading;
 import pubmed.mesh.MeshRecordKey;
+import pubmed.xml.ArticleField;
 
 /**
  * Extracts {@code PubmedArticle} objects from their XML elements.
@@ -73,6 +76,27 @@ public final class PubmedArticleXmlParser extends PubmedXmlParser {
         this.pubmedArticleElement = pubmedArticleElement;
     }
 
+    /**
+     * The article fields that must be present to parse an article:
+     * the required elements (title, publication types, article
+     * identifiers, and journal) and the publication date sources.
+     * Projected documents that omit any of these fields cannot be
+     * parsed into articles.
+     */
+    public static final Set<ArticleField> REQUIRED_FIELDS =
+        Collections.unmodifiableSet(requiredFields());
+
+    private static Set<ArticleField> requiredFields() {
+        Set<ArticleField> fields =
+            EnumSet.of(ArticleField.TITLE,
+                       ArticleField.PUBLICATION_TYPE_LIST,
+                       ArticleField.ARTICLE_ID_LIST,
+                       ArticleField.MEDLINE_JOURNAL_INFO);
+
+        fields.addAll(ArticleField.PUBLICATION_DATE);
+        return fields;
+    }
+
     /**
      * Extracts the article from an XML element.
      *
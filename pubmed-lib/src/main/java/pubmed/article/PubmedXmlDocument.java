@@ -1,35 +1,50 @@
 
 package pubmed.article;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.jdom2.Content;
+import org.jdom2.Document;
 import org.jdom2.Element;
 import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
 
 import jam.app.JamLogger;
 import jam.lang.JamException;
 import jam.util.ListUtil;
 import jam.util.StreamUtil;
-import jam.xml.JDOMDocument;
+
+import pubmed.xml.ArticleProjection;
+import pubmed.xml.PubmedXmlBuilder;
+import pubmed.xml.PubmedXmlStream;
+import pubmed.xml.XmlParseMode;
 
 /**
  * Parses {@code PubMed} XML files.
  */
 public final class PubmedXmlDocument {
     private final File xmlFile;
+    private final ArticleProjection projection;
+    private final XmlParseMode mode;
 
-    private JDOMDocument document;
+    private Document document;
 
     private List<PMID> deleted;
     private List<PubmedArticle> latest;   // Only the latest version of each article
     private List<PubmedArticle> articles; // All articles in the XML document
 
-    private PubmedXmlDocument(File xmlFile) {
+    private PubmedXmlDocument(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
         this.xmlFile = xmlFile;
+        this.projection = projection;
+        this.mode = mode;
     }
 
     /**
@@ -57,13 +72,121 @@ public final class PubmedXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static PubmedXmlDocument parse(File xmlFile) {
+        return parse(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Extracts all articles from an XML file, parsing only the
+     * article elements retained by a projection.  The projection
+     * must retain the {@link PubmedArticleXmlParser#REQUIRED_FIELDS
+     * required fields}; the articles will contain empty values for
+     * all other fields that are not retained.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param projection the article elements to parse.
+     *
+     * @return a document object containing all (projected) articles
+     * in the XML file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static PubmedXmlDocument parse(File xmlFile, ArticleProjection projection) {
+        return parse(xmlFile, projection, XmlParseMode.resolve());
+    }
+
+    /**
+     * Extracts all articles from an XML file, parsing only the
+     * article elements retained by a projection with a given parser
+     * configuration.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param projection the article elements to parse.
+     *
+     * @param mode the parser configuration to use.
+     *
+     * @return a document object containing all (projected) articles
+     * in the XML file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static PubmedXmlDocument parse(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
         PubmedXmlDocument pubmedDocument =
-            new PubmedXmlDocument(xmlFile);
+            new PubmedXmlDocument(xmlFile, projection, mode);
 
         pubmedDocument.parse();
         return pubmedDocument;
     }
 
+    /**
+     * Extracts all articles from an XML file that has already been
+     * parsed (so that the same document tree may be shared by several
+     * consumers).
+     *
+     * @param xmlFile the article set XML file that was parsed.
+     *
+     * @param document the parsed document.
+     *
+     * @param projection the projection that was applied when the
+     * document was parsed.
+     *
+     * @return a document object containing all (projected) articles
+     * in the XML file.
+     *
+     * @throws RuntimeException if any parsing errors occur.
+     */
+    public static PubmedXmlDocument wrap(File xmlFile, Document document, ArticleProjection projection) {
+        PubmedXmlDocument pubmedDocument =
+            new PubmedXmlDocument(xmlFile, projection, XmlParseMode.resolve());
+
+        pubmedDocument.process(document);
+        return pubmedDocument;
+    }
+
+    /**
+     * Parses the articles in an XML file one at a time and passes
+     * them to a consumer, so that neither the document tree nor the
+     * full article list is ever held in memory.
+     *
+     * <p>Articles are consumed in file order and earlier versions of
+     * the same article are <em>not</em> removed; consumers that need
+     * only the latest versions must apply {@code supersedes} or make
+     * sure that later versions overwrite earlier ones.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param consumer the consumer of the parsed articles.
+     *
+     * @return the deleted citations encoded in the XML file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static List<PMID> stream(File xmlFile, Consumer<PubmedArticle> consumer) {
+        List<PMID> deleted = new ArrayList<PMID>();
+
+        PubmedXmlStream.process(xmlFile, element -> {
+                switch (element.getName()) {
+                case "PubmedArticle":
+                    PubmedArticle article = parseArticle(element);
+
+                    if (article != null)
+                        consumer.accept(article);
+                    break;
+
+                case "DeleteCitation":
+                    deleted.addAll(PubmedDeleteCitationXmlParser.parse(element));
+                    break;
+
+                default:
+                    JamLogger.info("Skipping element [%s]...", element.getName());
+                    break;
+                }
+            });
+
+        return deleted;
+    }
+
     /**
      * Returns the number of unique articles in this document (earlier
      * versions of the same article are excluded).
@@ -129,12 +252,23 @@ public final class PubmedXmlDocument {
      * has been filtered).
      *
      * @param outputFile the output file to write.
+     *
+     * @throws RuntimeException if this document was parsed with a
+     * partial projection (the output would be incomplete).
      */
     public void unparse(File outputFile) {
+        if (!projection.isComplete())
+            throw JamException.runtime("Cannot unparse projected document [%s].", xmlFile);
+
         Format format = Format.getPrettyFormat();
         format.setIndent(" ");
 
-        document.unparse(outputFile, format);
+        try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            new XMLOutputter(format).output(document, stream);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
     }
 
     /**
@@ -169,10 +303,14 @@ public final class PubmedXmlDocument {
     }
 
     private void parse() {
-        document = JDOMDocument.parse(xmlFile);
+        process(PubmedXmlBuilder.build(xmlFile, projection, mode));
+    }
+
+    private void process(Document document) {
+        this.document = document;
 
         List<Element> rootElementChildren =
-            document.getRootElementChildren();
+            document.getRootElement().getChildren();
 
         JamLogger.info("Processing [%d] article elements...", rootElementChildren.size());
 
@@ -204,11 +342,19 @@ public final class PubmedXmlDocument {
     }
 
     private void processArticle(Element element) {
+        PubmedArticle article = parseArticle(element);
+
+        if (article != null)
+            articles.add(article);
+    }
+
+    private static PubmedArticle parseArticle(Element element) {
         try {
-            articles.add(PubmedArticleXmlParser.parse(element));
+            return PubmedArticleXmlParser.parse(element);
         }
         catch (Exception ex) {
             JamLogger.warn("Article parsing exception: [%s].", ex.getMessage());
+            return null;
         }
     }
 
@@ -8,6 +8,9 @@ import org.jdom2.Element;
 
 import jam.xml.JDOMParser;
 
+import pubmed.intern.InternScope;
+import pubmed.intern.StringPool;
+
 import pubmed.medline.MedlineJournal;
 import pubmed.medline.MedlineTA;
 import pubmed.medline.NlmUniqueID;
@@ -17,6 +20,8 @@ import pubmed.mesh.MeshHeading;
 import pubmed.mesh.MeshQualifierKey;
 import pubmed.mesh.MeshRecordKey;
 
+import pubmed.xml.XmlText;
+
 /**
  * Provides a base class for {@code PubMed} element parsers.
  */
@@ -50,7 +55,7 @@ public abstract class PubmedXmlParser extends JDOMParser {
 
     private String parseAbstractText(Element element) {
         assertTagName(element, "AbstractText");
-        return element.getTextNormalize();
+        return XmlText.normalize(element);
     }
 
     private String parseStructuredAbstract(List<Element> textElements) {
@@ -59,15 +64,10 @@ public abstract class PubmedXmlParser extends JDOMParser {
         // components into a single string separated by a space
         // character....
         //
-        StringBuilder textBuilder = new StringBuilder();
-        textBuilder.append(parseAbstractText(textElements.get(0)));
+        for (Element textElement : textElements)
+            assertTagName(textElement, "AbstractText");
 
-        for (int index = 1; index < textElements.size(); ++index) {
-            textBuilder.append(" ");
-            textBuilder.append(parseAbstractText(textElements.get(index)));
-        }
-        
-        return textBuilder.toString();
+        return XmlText.normalizeJoin(textElements);
     }
 
     /**
@@ -79,7 +79,7 @@ public abstract class PubmedXmlParser extends JDOMParser {
      */
     public String parseArticleTitle(Element element) {
         assertTagName(element, "ArticleTitle");
-        return element.getValue().trim();
+        return XmlText.value(element);
     }
 
     /**
@@ -325,7 +325,7 @@ public abstract class PubmedXmlParser extends JDOMParser {
 
     private String parseKeyword(Element element) {
         assertTagName(element, "Keyword");
-        return element.getTextNormalize();
+        return InternScope.intern(element.getTextNormalize());
     }
 
     /**
@@ -374,7 +374,7 @@ public abstract class PubmedXmlParser extends JDOMParser {
         if (countryElement == null)
             return null;
         else
-            return countryElement.getTextNormalize();
+            return StringPool.COUNTRY.intern(countryElement.getTextNormalize());
     }
 
     private MedlineTA parseMedlineTA(Element medlineJournalInfoElement) {
@@ -1,17 +1,20 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.AbstractLemmaRecord;
 import pubmed.flat.AbstractLemmaTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
  * Reads and writes flat files containing lemmatized article
  * abstracts.
  */
-public final class AbstractLemmaFile extends UniqueContentFile<AbstractLemmaRecord> {
+public final class AbstractLemmaFile extends LemmaContentFile<AbstractLemmaRecord> {
     private AbstractLemmaFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, AbstractLemmaRecord::parse);
     }
 
     /**
@@ -34,6 +37,10 @@ public final class AbstractLemmaFile extends UniqueContentFile<AbstractLemmaReco
         return AbstractLemmaRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.ABSTRACT);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -1,8 +1,11 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.ArticleAbstractRecord;
 import pubmed.flat.ArticleAbstractTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -10,7 +13,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class ArticleAbstractFile extends UniqueContentFile<ArticleAbstractRecord> {
     private ArticleAbstractFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, ArticleAbstractRecord::parse);
     }
 
     /**
@@ -33,6 +36,10 @@ public final class ArticleAbstractFile extends UniqueContentFile<ArticleAbstract
         return ArticleAbstractRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.ABSTRACT);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -0,0 +1,60 @@
+
+package pubmed.bulk;
+
+import java.util.List;
+import java.util.function.Function;
+
+import pubmed.flat.PubmedFlatRecord;
+import pubmed.io.FieldReader;
+import pubmed.xml.PubmedArticleElement;
+import pubmed.xml.PubmedXmlDocument;
+
+/**
+ * Provides a base class for flat files whose records are derived from
+ * individual articles, which are {@link ContentExtractor streamed} to
+ * the physical file in batches of articles.
+ */
+public abstract class ArticleContentFile<V extends PubmedFlatRecord> extends DocumentContentFile<V> {
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     */
+    protected ArticleContentFile(BulkFile bulkFile) {
+        super(bulkFile);
+    }
+
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader.
+     */
+    protected ArticleContentFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        super(bulkFile, parser);
+    }
+
+    /**
+     * Extracts the records derived from a single article.
+     *
+     * @param element the XML article element to process.
+     *
+     * @return the records derived from the article (elements may be
+     * {@code null} for an article that does not contain the relevant
+     * data items).
+     */
+    public abstract List<V> extractArticle(PubmedArticleElement element);
+
+    @Override void generate(PubmedXmlDocument document) {
+        //
+        // Stream the records from each article to the file...
+        //
+        ContentExtractor.process(document, List.of(this), true);
+    }
+}
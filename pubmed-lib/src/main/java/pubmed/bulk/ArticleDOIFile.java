@@ -1,8 +1,11 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.ArticleDOIRecord;
 import pubmed.flat.ArticleDOITable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -10,7 +13,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class ArticleDOIFile extends UniqueContentFile<ArticleDOIRecord> {
     private ArticleDOIFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, ArticleDOIRecord::parse);
     }
 
     /**
@@ -33,6 +36,10 @@ public final class ArticleDOIFile extends UniqueContentFile<ArticleDOIRecord> {
         return ArticleDOIRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.ARTICLE_ID_LIST);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -1,8 +1,11 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.ArticleTitleRecord;
 import pubmed.flat.ArticleTitleTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -10,7 +13,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class ArticleTitleFile extends UniqueContentFile<ArticleTitleRecord> {
     private ArticleTitleFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, ArticleTitleRecord::parse);
     }
 
     /**
@@ -33,6 +36,10 @@ public final class ArticleTitleFile extends UniqueContentFile<ArticleTitleRecord
         return ArticleTitleRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.TITLE);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
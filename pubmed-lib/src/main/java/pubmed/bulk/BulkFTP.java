@@ -37,7 +37,17 @@ public final class BulkFTP {
         File localFile = new File(processDir, fileName);
         String remoteName = remoteDirName + fileName;
 
-        return FTPUtil.download(localFile, remoteName);
+        if (!FTPUtil.download(localFile, remoteName))
+            return false;
+
+        if (ContentManifest.isEnabled())
+            invalidate(BulkFile.create(localFile));
+
+        return true;
+    }
+
+    private static void invalidate(BulkFile bulkFile) {
+        ContentManifest.instance(bulkFile).invalidate(bulkFile);
     }
 
     /**
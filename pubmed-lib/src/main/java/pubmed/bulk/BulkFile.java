@@ -4,10 +4,8 @@ package pubmed.bulk;
 import java.io.File;
 import java.io.FileFilter;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.NavigableSet;
-import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
@@ -18,6 +16,8 @@ import jam.lang.JamException;
 import jam.util.ListUtil;
 
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
+import pubmed.xml.ArticleProjection;
 import pubmed.xml.PubmedArticleElement;
 import pubmed.xml.PubmedXmlDocument;
 
@@ -43,7 +43,10 @@ public final class BulkFile {
 
     private RelevanceScoreFile relevanceScoreFile = null;
 
-    private NavigableSet<PMID> pmidSet = null;
+    private PmidSet pmidSet = null;
+
+    // The leases under which this file is being processed (if any)...
+    private volatile BulkFileLeases leases = null;
 
     private BulkFile(File file) {
         this.file = FileUtil.getCanonicalFile(file);
@@ -237,6 +240,58 @@ public final class BulkFile {
         return document;
     }
 
+    /**
+     * Returns a parsed XML document that contains (at least) the
+     * article elements retained by a projection.  If the complete
+     * document has already been parsed, it is returned; otherwise,
+     * a complete projection parses and caches the complete document,
+     * while a partial projection parses only the projected elements
+     * and does not cache them.
+     *
+     * @param projection the article elements that are required.
+     *
+     * @return a parsed XML document containing the required elements.
+     */
+    public PubmedXmlDocument getDocument(ArticleProjection projection) {
+        if (projection.isComplete())
+            return getDocument();
+
+        synchronized (this) {
+            if (document != null)
+                return document;
+        }
+
+        return PubmedXmlDocument.parse(file, projection);
+    }
+
+    /**
+     * Passes the article elements in this bulk file to a consumer one
+     * at a time.  If the document has already been parsed, the cached
+     * elements are used; otherwise, the file is read in streaming mode
+     * and the document tree is never built or retained.
+     *
+     * <p>In streaming mode, articles with duplicate identifiers are
+     * passed to the consumer in file order (the last version is last)
+     * rather than being collapsed into a single element.
+     *
+     * @param consumer the consumer of the article elements.
+     *
+     * @return the deleted citations encoded in this bulk file.
+     */
+    public List<PMID> streamDocument(Consumer<PubmedArticleElement> consumer) {
+        PubmedXmlDocument parsed;
+
+        synchronized (this) {
+            parsed = document;
+        }
+
+        if (parsed == null)
+            return PubmedXmlDocument.stream(file, consumer);
+
+        parsed.getPubmedArticleElements().forEach(consumer);
+        return parsed.getDeletedCitations();
+    }
+
     /**
      * Returns the lemmatized abstract flat file derived from this
      * bulk file.
@@ -399,6 +454,30 @@ public final class BulkFile {
         return titleLemmaFile;
     }
 
+    /**
+     * Records the leases under which this file has been claimed.
+     *
+     * @param leases the leases that granted the claim.
+     */
+    void setLeases(BulkFileLeases leases) {
+        this.leases = leases;
+    }
+
+    /**
+     * Ensures that content generated from this file may still be
+     * committed: if this file was claimed under a lease, this worker
+     * must still hold it.
+     *
+     * @throws RuntimeException if the lease on this file has been
+     * lost to another worker.
+     */
+    void requireLease() {
+        BulkFileLeases current = leases;
+
+        if (current != null)
+            current.requireHeld(this);
+    }
+
     /**
      * Returns a read-only list of the document content flat files
      * derived from this bulk file.
@@ -406,7 +485,7 @@ public final class BulkFile {
      * @return a read-only list of the document content flat files
      * derived from this bulk file.
      */
-    public List<DocumentContentFile> getContentFiles() {
+    public List<DocumentContentFile<?>> getContentFiles() {
         return List.of(getAbstractLemmaFile(),
                        getArticleAbstractFile(),
                        getArticleDOIFile(),
@@ -422,23 +501,24 @@ public final class BulkFile {
 
     /**
      * Returns a read-only list of the document content flat files
-     * that have not yet been generated from this bulk file.
+     * that have not yet been generated from this bulk file (or that
+     * were generated from an earlier version of this bulk file).
      *
      * @return a read-only list of the document content flat files
      * that have not yet been generated from this bulk file.
      */
-    public List<DocumentContentFile> getUnprocessedContentFiles() {
-        return ListUtil.filter(getContentFiles(), file -> !file.exists());
+    public List<DocumentContentFile<?>> getUnprocessedContentFiles() {
+        return ListUtil.filter(getContentFiles(), file -> !file.isCurrent());
     }
 
     /**
-     * Returns an immutable navigable set containing all article
+     * Returns an immutable sorted set containing all article
      * identifiers contained in this bulk file.
      *
-     * @return an immutable navigable set containing all article
+     * @return an immutable sorted set containing all article
      * identifiers contained in this bulk file.
      */
-    public synchronized NavigableSet<PMID> getPMIDSet() {
+    public synchronized PmidSet getPMIDSet() {
         if (pmidSet == null)
             createPMIDSet();
 
@@ -446,11 +526,13 @@ public final class BulkFile {
     }
 
     private void createPMIDSet() {
-        PubmedXmlDocument document = getDocument();
-        List<PubmedArticleElement> elements = document.getPubmedArticleElements();
-
-        pmidSet = new TreeSet<PMID>(ListUtil.apply(elements, element -> element.getPMID()));
-        pmidSet = Collections.unmodifiableNavigableSet(pmidSet);
+        //
+        // Stream the file (rather than parsing the full document)
+        // unless the document is already in memory...
+        //
+        PmidSet.Builder builder = PmidSet.builder();
+        streamDocument(element -> builder.add(element.getPMID()));
+        pmidSet = builder.build();
     }
 
     @Override public boolean equals(Object obj) {
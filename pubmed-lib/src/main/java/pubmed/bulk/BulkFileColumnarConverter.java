@@ -0,0 +1,36 @@
+
+package pubmed.bulk;
+
+/**
+ * Converts the existing document content files for all {@code PubMed}
+ * bulk XML files in a given directory to the binary columnar format
+ * (see {@link PubmedFlatFile#convertColumnar()}).
+ */
+public final class BulkFileColumnarConverter extends BulkFileProcessor {
+    private BulkFileColumnarConverter() {
+        super();
+    }
+
+    /**
+     * The single bulk file columnar converter.
+     */
+    public static final BulkFileColumnarConverter INSTANCE = new BulkFileColumnarConverter();
+
+    @Override public void processFile(BulkFile bulkFile) {
+        for (DocumentContentFile<?> contentFile : bulkFile.getContentFiles())
+            contentFile.convertColumnar();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: pubmed.bulk.BulkFileColumnarConverter DIR1 [DIR2 ...]");
+        System.exit(1);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1)
+            usage();
+
+        for (String arg : args)
+            INSTANCE.processDirectory(arg);
+    }
+}
@@ -5,7 +5,6 @@ import java.io.File;
 import java.util.List;
 
 import jam.app.JamLogger;
-import jam.util.ListUtil;
 
 import pubmed.delcit.DeleteCitationFile;
 import pubmed.xml.PubmedXmlDocument;
@@ -25,13 +24,17 @@ public final class BulkFileContentProcessor extends BulkFileProcessor {
     public static final BulkFileContentProcessor INSTANCE = new BulkFileContentProcessor();
 
     @Override public void processFile(BulkFile bulkFile) {
-        PubmedXmlDocument document = bulkFile.getDocument();
+        List<DocumentContentFile<?>> unprocessed = bulkFile.getUnprocessedContentFiles();
 
-        List<DocumentContentFile> unprocessed =
-            ListUtil.filter(bulkFile.getContentFiles(), file -> !file.exists());
+        //
+        // Parse only the article fields required by the missing or
+        // stale content files (the deleted citations are always
+        // parsed)...
+        //
+        PubmedXmlDocument document =
+            bulkFile.getDocument(DocumentContentFile.projection(unprocessed));
 
-        for (DocumentContentFile contentFile : unprocessed)
-            contentFile.processDocument(document, false);
+        ContentExtractor.process(document, unprocessed, false);
 
         DeleteCitationFile.instance().add(document);
     }
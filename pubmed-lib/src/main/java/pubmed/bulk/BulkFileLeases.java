@@ -0,0 +1,433 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.lang.JamException;
+
+/**
+ * Coordinates several worker processes (on one host or on several
+ * hosts that share a file system) that process the same bulk file
+ * directory, using lease and marker files in the directory itself.
+ *
+ * <p>A worker claims a bulk file by creating its lease file, which is
+ * an atomic operation that only one worker can win.  While the worker
+ * processes the file, a background thread renews the lease by
+ * updating the modification time of the lease file.  When the file
+ * has been processed, the worker writes a marker file and removes the
+ * lease.  A lease that has not been renewed within the {@link
+ * BulkFileLeases#TIMEOUT_PROPERTY timeout} belongs to a worker that
+ * has died; another worker may reclaim it and process the file again.
+ * A worker that loses its lease (because it stalled for longer than
+ * the timeout) commits no further content from the file and abandons
+ * it to the worker that reclaimed it.  (The clocks of cooperating
+ * hosts must agree to well within the timeout.)
+ *
+ * <p>The lease and marker files are kept in a subdirectory of the
+ * bulk directory named for the processor, so different processors
+ * coordinate independently.  The marker files persist: a directory
+ * is processed again only after that subdirectory is removed.
+ */
+public final class BulkFileLeases implements AutoCloseable {
+    private final File leaseDir;
+    private final String workerID;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService renewer;
+    private final Map<File, ScheduledFuture<?>> renewals = new ConcurrentHashMap<File, ScheduledFuture<?>>();
+
+    private BulkFileLeases(File leaseDir, long timeoutMillis) {
+        this.leaseDir = leaseDir;
+        this.workerID = resolveWorkerID();
+        this.timeoutMillis = timeoutMillis;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "lease-renewer");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Name of the system property that enables cooperative processing
+     * of bulk file directories.
+     */
+    public static final String ENABLED_PROPERTY = "pubmed.bulk.lease";
+
+    /**
+     * Name of the system property that specifies the number of
+     * seconds after which an unrenewed lease expires.
+     */
+    public static final String TIMEOUT_PROPERTY = "pubmed.bulk.leaseTimeout";
+
+    /**
+     * Default lease timeout in seconds.
+     */
+    public static final long TIMEOUT_DEFAULT = 600L;
+
+    /**
+     * Name of the subdirectory (within the bulk directory) that holds
+     * the lease and marker files.
+     */
+    public static final String LEASE_DIR_NAME = ".lease";
+
+    /**
+     * Suffix for lease file names.
+     */
+    public static final String LEASE_SUFFIX = ".lease";
+
+    /**
+     * Suffix for the names of the marker files of processed files.
+     */
+    public static final String DONE_SUFFIX = ".done";
+
+    // Leases are renewed several times within each timeout period...
+    private static final int RENEWALS_PER_TIMEOUT = 4;
+
+    /**
+     * Determines whether cooperative processing has been enabled by
+     * the system property.
+     *
+     * @return {@code true} iff cooperative processing is enabled.
+     */
+    public static boolean isEnabled() {
+        return JamProperties.isSet(ENABLED_PROPERTY)
+            && Boolean.parseBoolean(JamProperties.getRequired(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Opens the leases for a bulk file directory.
+     *
+     * @param directory the bulk file directory.
+     *
+     * @param processorName the name of the processor that will claim
+     * the files.
+     *
+     * @return the leases for the directory and processor.
+     *
+     * @throws RuntimeException unless the lease directory exists or
+     * can be created.
+     */
+    public static BulkFileLeases open(File directory, String processorName) {
+        File leaseDir = new File(new File(directory, LEASE_DIR_NAME), processorName);
+
+        if (!leaseDir.isDirectory() && !leaseDir.mkdirs() && !leaseDir.isDirectory())
+            throw JamException.runtime("Could not create lease directory [%s].", leaseDir);
+
+        return new BulkFileLeases(leaseDir, 1000L * resolveTimeout());
+    }
+
+    private static long resolveTimeout() {
+        if (JamProperties.isSet(TIMEOUT_PROPERTY))
+            return Long.parseLong(JamProperties.getRequired(TIMEOUT_PROPERTY));
+        else
+            return TIMEOUT_DEFAULT;
+    }
+
+    private static String resolveWorkerID() {
+        String hostName;
+
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        }
+        catch (IOException ex) {
+            hostName = "unknown";
+        }
+
+        return hostName + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Attempts to claim a bulk file for this worker.
+     *
+     * @param bulkFile the bulk file to claim.
+     *
+     * @return {@code true} if this worker now holds the lease for the
+     * file and must process it; {@code false} if the file has been
+     * processed or is leased by another live worker.
+     *
+     * @throws RuntimeException if the lease file cannot be created
+     * for any reason other than an existing lease.
+     */
+    public boolean claim(BulkFile bulkFile) {
+        if (isDone(bulkFile))
+            return false;
+
+        File leaseFile = leaseFile(bulkFile);
+
+        if (createLease(leaseFile) || (reclaimExpired(leaseFile) && createLease(leaseFile))) {
+            //
+            // Another worker may have finished the file between the
+            // check above and the creation of the lease...
+            //
+            if (isDone(bulkFile)) {
+                leaseFile.delete();
+                return false;
+            }
+
+            bulkFile.setLeases(this);
+
+            long period = Math.max(1L, timeoutMillis / RENEWALS_PER_TIMEOUT);
+            renewals.put(leaseFile, renewer.scheduleAtFixedRate(() -> renew(leaseFile), period, period, TimeUnit.MILLISECONDS));
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean createLease(File leaseFile) {
+        try {
+            Files.write(leaseFile.toPath(), workerID.getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            return true;
+        }
+        catch (FileAlreadyExistsException ex) {
+            return false;
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not create lease [%s]: %s", leaseFile, ex.getMessage());
+        }
+    }
+
+    private boolean reclaimExpired(File leaseFile) {
+        if (!isExpired(leaseFile))
+            return false;
+
+        //
+        // Renaming the expired lease is atomic, so only one worker can
+        // reclaim it.  If the lease was renewed between the check and
+        // the rename, it is put back, unless another worker has
+        // created a new lease in the meantime...
+        //
+        File staleFile = new File(leaseFile.getPath() + "." + UUID.randomUUID() + ".stale");
+
+        try {
+            Files.move(leaseFile.toPath(), staleFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            return false;
+        }
+
+        if (!isExpired(staleFile)) {
+            restore(staleFile, leaseFile);
+            return false;
+        }
+
+        JamLogger.info("Reclaiming expired lease [%s] held by [%s]...", leaseFile, readOwner(staleFile));
+        staleFile.delete();
+
+        return true;
+    }
+
+    private static void restore(File staleFile, File leaseFile) {
+        //
+        // A link (unlike a move) never replaces an existing file...
+        //
+        try {
+            Files.createLink(leaseFile.toPath(), staleFile.toPath());
+        }
+        catch (FileAlreadyExistsException ex) {
+            JamLogger.info("Lease [%s] was replaced while it was being reclaimed.", leaseFile);
+        }
+        catch (IOException | UnsupportedOperationException ex) {
+            restoreCopy(staleFile, leaseFile);
+        }
+
+        staleFile.delete();
+    }
+
+    private static void restoreCopy(File staleFile, File leaseFile) {
+        //
+        // For file systems without hard links: a copy also fails if
+        // the target exists...
+        //
+        try {
+            Files.copy(staleFile.toPath(), leaseFile.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+        catch (IOException ex) {
+            JamLogger.info("Could not restore lease [%s]: %s", leaseFile, ex.getMessage());
+        }
+    }
+
+    private boolean isExpired(File leaseFile) {
+        long modified = leaseFile.lastModified();
+        return modified > 0L && System.currentTimeMillis() - modified > timeoutMillis;
+    }
+
+    private void renew(File leaseFile) {
+        if (workerID.equals(readOwner(leaseFile))) {
+            leaseFile.setLastModified(System.currentTimeMillis());
+        }
+        else {
+            JamLogger.info("Lost lease [%s]; no further content will be committed.", leaseFile);
+            cancelRenewal(leaseFile);
+        }
+    }
+
+    private static String readOwner(File leaseFile) {
+        try {
+            return new String(Files.readAllBytes(leaseFile.toPath()), StandardCharsets.UTF_8);
+        }
+        catch (IOException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Determines whether this worker still holds the lease on a bulk
+     * file.
+     *
+     * @param bulkFile the claimed bulk file.
+     *
+     * @return {@code true} iff this worker holds the lease on the
+     * bulk file.
+     */
+    public boolean isHeld(BulkFile bulkFile) {
+        return workerID.equals(readOwner(leaseFile(bulkFile)));
+    }
+
+    /**
+     * Ensures that this worker still holds the lease on a bulk file.
+     *
+     * @param bulkFile the claimed bulk file.
+     *
+     * @throws RuntimeException unless this worker holds the lease on
+     * the bulk file.
+     */
+    public void requireHeld(BulkFile bulkFile) {
+        if (!isHeld(bulkFile))
+            throw JamException.runtime("Lost the lease on [%s].", bulkFile.getFile());
+    }
+
+    /**
+     * Marks a claimed bulk file as processed and releases its lease.
+     *
+     * @param bulkFile the processed bulk file.
+     *
+     * @throws RuntimeException if this worker no longer holds the
+     * lease or the marker file cannot be written.
+     */
+    public void complete(BulkFile bulkFile) {
+        File leaseFile = leaseFile(bulkFile);
+        File doneFile = doneFile(bulkFile);
+
+        requireHeld(bulkFile);
+        cancelRenewal(leaseFile);
+
+        try {
+            Files.write(doneFile.toPath(), workerID.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not write marker [%s]: %s", doneFile, ex.getMessage());
+        }
+
+        release(leaseFile);
+    }
+
+    /**
+     * Releases the lease on a claimed bulk file without marking it as
+     * processed, so that another worker may claim it.
+     *
+     * @param bulkFile the claimed bulk file.
+     */
+    public void release(BulkFile bulkFile) {
+        File leaseFile = leaseFile(bulkFile);
+
+        cancelRenewal(leaseFile);
+        release(leaseFile);
+    }
+
+    private void release(File leaseFile) {
+        if (workerID.equals(readOwner(leaseFile)))
+            leaseFile.delete();
+    }
+
+    private void cancelRenewal(File leaseFile) {
+        ScheduledFuture<?> renewal = renewals.remove(leaseFile);
+
+        if (renewal != null)
+            renewal.cancel(false);
+    }
+
+    /**
+     * Determines whether a bulk file has been processed by any
+     * worker.
+     *
+     * @param bulkFile the bulk file to examine.
+     *
+     * @return {@code true} iff the bulk file has been processed.
+     */
+    public boolean isDone(BulkFile bulkFile) {
+        return doneFile(bulkFile).exists();
+    }
+
+    /**
+     * Determines whether every bulk file in an array has been
+     * processed by some worker.
+     *
+     * @param bulkFiles the bulk files to examine.
+     *
+     * @return {@code true} iff every bulk file has been processed.
+     */
+    public boolean isDone(BulkFile[] bulkFiles) {
+        for (BulkFile bulkFile : bulkFiles)
+            if (!isDone(bulkFile))
+                return false;
+
+        return true;
+    }
+
+    /**
+     * Waits for other workers to make progress: one renewal period,
+     * so that a lease held by a dead worker may expire.
+     */
+    public void await() {
+        try {
+            Thread.sleep(Math.max(1L, timeoutMillis / RENEWALS_PER_TIMEOUT));
+        }
+        catch (InterruptedException ex) {
+            throw JamException.runtime(ex);
+        }
+    }
+
+    /**
+     * Returns the unique identifier of this worker.
+     *
+     * @return the unique identifier of this worker.
+     */
+    public String getWorkerID() {
+        return workerID;
+    }
+
+    private File leaseFile(BulkFile bulkFile) {
+        return new File(leaseDir, bulkFile.getBaseName() + LEASE_SUFFIX);
+    }
+
+    private File doneFile(BulkFile bulkFile) {
+        return new File(leaseDir, bulkFile.getBaseName() + DONE_SUFFIX);
+    }
+
+    /**
+     * Stops renewing leases; leases still held by this worker will
+     * expire.
+     */
+    @Override public void close() {
+        renewer.shutdownNow();
+        renewals.clear();
+    }
+}
@@ -2,15 +2,57 @@
 package pubmed.bulk;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.lang.JamException;
+
+import pubmed.intern.InternPool;
+import pubmed.intern.InternScope;
+import pubmed.metrics.FileMetrics;
+import pubmed.metrics.PipelineMetrics;
 
 /**
  * Provides a base class to identify and process all {@code PubMed}
  * bulk XML files in a given directory.
+ *
+ * <p>By default the files are processed one at a time.  If the system
+ * property {@link BulkFileProcessor#CONCURRENCY_PROPERTY} is greater
+ * than one (and the processor {@link
+ * BulkFileProcessor#supportsConcurrency() supports it}), several files
+ * are processed at once.  A file is admitted only when a thread is
+ * free and its estimated heap requirement (the compressed file size
+ * times {@link BulkFileProcessor#HEAP_FACTOR_PROPERTY}) fits within
+ * the unreserved part of the heap budget.  Files are admitted in
+ * directory order, their completion is logged in directory order, and
+ * {@link BulkFileProcessor#postProcess(File)} runs after every file
+ * has finished.
+ *
+ * <p>If the system property {@link BulkFileLeases#ENABLED_PROPERTY} is
+ * {@code true}, several processes may process the same directory
+ * cooperatively: each process claims the files that no other process
+ * has claimed (see {@link BulkFileLeases}), then waits until every
+ * file has been processed by some process, reclaiming the files of
+ * any process that dies.  Each process then runs its own {@link
+ * BulkFileProcessor#postProcess(File)}.
+ *
+ * <p>Each directory is processed as one run of the {@link
+ * PipelineMetrics pipeline metrics}, with a breakdown for each file;
+ * the run may be monitored through JMX and its report is written when
+ * the directory is finished.
  */
 public abstract class BulkFileProcessor {
     private BulkFile[] bulkFileArray;
+    private BulkFileLeases leases;
+    private PipelineMetrics metrics;
 
     /**
      * Creates a new bulk file processor.
@@ -18,6 +60,38 @@ public abstract class BulkFileProcessor {
     protected BulkFileProcessor() {
     }
 
+    /**
+     * Name of the system property that specifies the maximum number
+     * of bulk files to process concurrently.
+     */
+    public static final String CONCURRENCY_PROPERTY = "pubmed.bulk.concurrency";
+
+    /**
+     * Default number of bulk files to process concurrently.
+     */
+    public static final int CONCURRENCY_DEFAULT = 1;
+
+    /**
+     * Name of the system property that specifies the estimated number
+     * of heap bytes required to process each byte of a compressed bulk
+     * file.
+     */
+    public static final String HEAP_FACTOR_PROPERTY = "pubmed.bulk.heapFactor";
+
+    /**
+     * Default estimate of the heap bytes required per compressed byte.
+     */
+    public static final double HEAP_FACTOR_DEFAULT = 40.0;
+
+    /**
+     * Fraction of the maximum heap size that may be reserved by the
+     * bulk files being processed concurrently.
+     */
+    public static final double HEAP_BUDGET_FRACTION = 0.75;
+
+    // Heap reservations are counted in units of kilobytes...
+    private static final long HEAP_UNIT = 1024L;
+
     /**
      * Processes a single bulk XML file.
      *
@@ -46,15 +120,220 @@ public abstract class BulkFileProcessor {
      * directory and all files are processed successfully.
      */
     public synchronized void processDirectory(File directory) {
-        bulkFileArray = BulkFile.list(directory);
+        int concurrency = resolveConcurrency();
+        metrics = PipelineMetrics.begin(getClass().getSimpleName());
 
-        for (int fileIndex = 0; fileIndex < bulkFileArray.length; ++fileIndex)
-            processFile(fileIndex);
+        if (BulkFileLeases.isEnabled()) {
+            processLeased(directory, concurrency);
+        }
+        else {
+            bulkFileArray = BulkFile.list(directory);
+            processFiles(concurrency);
+        }
 
         postProcess(directory);
+        InternPool.logStatistics();
+
+        metrics.logStatistics();
+        metrics.writeReport();
+
         JamLogger.info("DONE!");
     }
 
+    private void processFiles(int concurrency) {
+        if (concurrency > 1 && supportsConcurrency())
+            processConcurrent(concurrency);
+        else
+            processSerial();
+    }
+
+    private void processLeased(File directory, int concurrency) {
+        //
+        // Processors that may not run on several threads at once may
+        // not run in several processes either...
+        //
+        if (!supportsConcurrency())
+            throw JamException.runtime("Processor [%s] does not support cooperative processing.", getClass().getSimpleName());
+
+        leases = BulkFileLeases.open(directory, getClass().getSimpleName());
+        JamLogger.info("Processing [%s] cooperatively as worker [%s]...", directory, leases.getWorkerID());
+
+        try {
+            while (true) {
+                bulkFileArray = BulkFile.list(directory);
+                processFiles(concurrency);
+
+                if (leases.isDone(BulkFile.list(directory)))
+                    break;
+
+                JamLogger.info("Waiting for files leased by other workers...");
+                leases.await();
+            }
+        }
+        finally {
+            leases.close();
+            leases = null;
+        }
+    }
+
+    /**
+     * Identifies processors whose {@link
+     * BulkFileProcessor#processFile(BulkFile)} method may be called on
+     * several files at once from different threads.
+     *
+     * <p>This base class implementation returns {@code true};
+     * subclasses that write to shared resources should override it.
+     *
+     * @return {@code true} iff this processor may process several
+     * files concurrently.
+     */
+    protected boolean supportsConcurrency() {
+        return true;
+    }
+
+    private static int resolveConcurrency() {
+        if (JamProperties.isSet(CONCURRENCY_PROPERTY))
+            return Integer.parseInt(JamProperties.getRequired(CONCURRENCY_PROPERTY));
+        else
+            return CONCURRENCY_DEFAULT;
+    }
+
+    private static double resolveHeapFactor() {
+        if (JamProperties.isSet(HEAP_FACTOR_PROPERTY))
+            return Double.parseDouble(JamProperties.getRequired(HEAP_FACTOR_PROPERTY));
+        else
+            return HEAP_FACTOR_DEFAULT;
+    }
+
+    private void processSerial() {
+        for (int fileIndex = 0; fileIndex < bulkFileArray.length; ++fileIndex)
+            if (claim(fileIndex))
+                processFile(fileIndex);
+    }
+
+    private boolean claim(int fileIndex) {
+        return leases == null || leases.claim(bulkFileArray[fileIndex]);
+    }
+
+    private void processConcurrent(int concurrency) {
+        int heapBudget = (int) Math.min(Integer.MAX_VALUE, (long) (HEAP_BUDGET_FRACTION * Runtime.getRuntime().maxMemory()) / HEAP_UNIT);
+        double heapFactor = resolveHeapFactor();
+
+        Semaphore threadSlots = new Semaphore(concurrency);
+        Semaphore heapUnits = new Semaphore(heapBudget);
+
+        List<Future<?>> futures = new ArrayList<Future<?>>(bulkFileArray.length);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        JamLogger.info("Processing [%d] files with [%d] threads and a heap budget of [%d] MB...",
+                       bulkFileArray.length, concurrency, heapBudget / 1024);
+        try {
+            int completed = 0;
+
+            for (int fileIndex = 0; fileIndex < bulkFileArray.length; ++fileIndex) {
+                if (leases != null && leases.isDone(bulkFileArray[fileIndex]))
+                    continue;
+
+                //
+                // A file larger than the entire budget is admitted by
+                // itself, once every other reservation is released...
+                //
+                int fileUnits = (int) Math.min(heapBudget, heapFactor * bulkFileArray[fileIndex].getFile().length() / HEAP_UNIT);
+
+                completed = awaitPermits(threadSlots, 1, futures, completed);
+                completed = awaitPermits(heapUnits, fileUnits, futures, completed);
+
+                //
+                // The file is claimed only once it can start, so that its
+                // lease is not held (and renewed) while it waits...
+                //
+                if (!claim(fileIndex)) {
+                    heapUnits.release(fileUnits);
+                    threadSlots.release();
+                    continue;
+                }
+
+                final int submitIndex = fileIndex;
+
+                futures.add(executor.submit(() -> {
+                            try {
+                                processFile(submitIndex);
+                            }
+                            finally {
+                                heapUnits.release(fileUnits);
+                                threadSlots.release();
+                            }
+                        }));
+            }
+
+            while (completed < futures.size())
+                completed = awaitCompletion(futures, completed);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int awaitPermits(Semaphore semaphore, int permits, List<Future<?>> futures, int completed) {
+        try {
+            while (!semaphore.tryAcquire(permits, 1, TimeUnit.SECONDS))
+                completed = logCompleted(futures, completed);
+
+            return logCompleted(futures, completed);
+        }
+        catch (InterruptedException ex) {
+            throw JamException.runtime(ex);
+        }
+    }
+
+    private int awaitCompletion(List<Future<?>> futures, int completed) {
+        try {
+            futures.get(completed).get();
+        }
+        catch (ExecutionException ex) {
+            rethrow(ex);
+        }
+        catch (InterruptedException ex) {
+            throw JamException.runtime(ex);
+        }
+
+        return logCompleted(futures, completed);
+    }
+
+    private int logCompleted(List<Future<?>> futures, int completed) {
+        //
+        // Report completion in directory order: a file that finishes
+        // early is reported after all of the files that precede it...
+        //
+        while (completed < futures.size() && futures.get(completed).isDone()) {
+            try {
+                futures.get(completed).get();
+            }
+            catch (ExecutionException ex) {
+                rethrow(ex);
+            }
+            catch (InterruptedException ex) {
+                throw JamException.runtime(ex);
+            }
+
+            ++completed;
+            JamLogger.info("Completed file [%d] of [%d]...", completed, bulkFileArray.length);
+        }
+
+        return completed;
+    }
+
+    private static void rethrow(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+
+        if (cause instanceof RuntimeException)
+            throw (RuntimeException) cause;
+        else if (cause instanceof Error)
+            throw (Error) cause;
+        else
+            throw JamException.runtime(cause);
+    }
+
     private void processFile(int fileIndex) {
         BulkFile bulkFile = bulkFileArray[fileIndex];
 
@@ -63,8 +342,30 @@ public abstract class BulkFileProcessor {
         JamLogger.info(bulkFile);
 	JamLogger.info("************************************************************************");
 
-        try {
+        InternScope scope = InternScope.open(bulkFile.getFile().getName());
+        FileMetrics fileMetrics = metrics.openFile(bulkFile.getBaseName(), bulkFile.getFile().length());
+
+        try (scope; fileMetrics) {
             processFile(bulkFile);
+
+            if (leases != null)
+                leases.complete(bulkFile);
+        }
+        catch (RuntimeException | Error ex) {
+            if (leases != null && !leases.isHeld(bulkFile)) {
+                //
+                // Another worker reclaimed the file after this worker
+                // stalled; no content was committed after the lease was
+                // lost, and the other worker will finish the file...
+                //
+                JamLogger.info("Abandoned file [%s] after losing its lease.", bulkFile.getFile());
+                return;
+            }
+
+            if (leases != null)
+                leases.release(bulkFile);
+
+            throw ex;
         }
         finally {
             //
@@ -40,6 +40,13 @@ public abstract class BulkFileRelevanceProcessor extends BulkFileProcessor {
         RelevanceSummarySubjectFile.process(bulkFile, subjects);
     }
 
+    @Override protected boolean supportsConcurrency() {
+        //
+        // The relevance summary files are shared by all bulk files...
+        //
+        return false;
+    }
+
     @Override protected void postProcess(File directory) {
         if (!directory.getName().equals("baseline"))
             removeDeletedCitations();
@@ -2,9 +2,11 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import pubmed.flat.ChemicalRecord;
 import pubmed.flat.ChemicalTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -13,7 +15,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class ChemicalFile extends MultiContentFile<ChemicalRecord> {
     private ChemicalFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, ChemicalRecord::parse);
     }
 
     /**
@@ -36,6 +38,10 @@ public final class ChemicalFile extends MultiContentFile<ChemicalRecord> {
         return ChemicalRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.CHEMICAL_LIST);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
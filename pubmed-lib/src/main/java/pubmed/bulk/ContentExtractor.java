@@ -0,0 +1,291 @@
+
+package pubmed.bulk;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import jam.app.JamLogger;
+
+import pubmed.article.PMID;
+import pubmed.flat.PubmedFlatRecord;
+import pubmed.intern.InternScope;
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.metrics.StageRecorder;
+import pubmed.xml.PubmedArticleElement;
+import pubmed.xml.PubmedXmlDocument;
+
+/**
+ * Generates several document content files from a parsed bulk file
+ * with a single traversal of its article elements.
+ *
+ * <p>The article elements are divided into batches of consecutive
+ * articles, and each batch is a fork-join task in the common pool.
+ * Within its task, each article element is visited once and passed to
+ * the record extractor of every content file in turn, instead of each
+ * content file traversing the entire document separately.  The calling
+ * thread writes the formatted batches to the content files in document
+ * order, so the files are identical to those generated one at a time.
+ *
+ * <p>The parsed document (every article element of the bulk file) is
+ * held in memory until all of the content files are written; only the
+ * extracted and formatted records are bounded, to a window of twice
+ * as many batches as the common pool has threads.  Content files that
+ * are not derived from individual articles (the deleted citations, for
+ * example) are generated from the whole document as before.
+ *
+ * <p>After each batch, checkpointed content files (the lemma files)
+ * record the last article written, and a generation that was
+ * interrupted resumes after that article.
+ *
+ * <p>The time spent extracting (or lemmatizing), formatting, and
+ * writing the records is recorded with the {@link
+ * PipelineMetrics#recorder() pipeline metrics} of the calling thread.
+ */
+public final class ContentExtractor {
+    private ContentExtractor() {
+    }
+
+    // Number of consecutive articles extracted by one task...
+    static final int BATCH_SIZE = 256;
+
+    /**
+     * Generates content files from a parsed bulk file.
+     *
+     * @param document the parsed bulk file, which must contain (at
+     * least) the fields required by every content file.
+     *
+     * @param contentFiles the content files to generate.
+     *
+     * @param overwrite whether to overwrite content files that
+     * already exist.
+     */
+    public static void process(PubmedXmlDocument document,
+                               Collection<? extends DocumentContentFile<?>> contentFiles,
+                               boolean overwrite) {
+        List<ArticleContentFile<?>> articleFiles = new ArrayList<ArticleContentFile<?>>();
+
+        for (DocumentContentFile<?> contentFile : contentFiles) {
+            if (!contentFile.mustProcess(overwrite))
+                continue;
+
+            if (contentFile instanceof ArticleContentFile)
+                articleFiles.add((ArticleContentFile<?>) contentFile);
+            else
+                contentFile.processDocument(document, overwrite);
+        }
+
+        if (!articleFiles.isEmpty())
+            processArticles(document.getPubmedArticleElements(), articleFiles);
+    }
+
+    private static void processArticles(List<PubmedArticleElement> articles, List<ArticleContentFile<?>> contentFiles) {
+        List<RecordSink<?>> sinks = new ArrayList<RecordSink<?>>(contentFiles.size());
+        int[] skipCounts = new int[contentFiles.size()];
+
+        try {
+            for (int fileIndex = 0; fileIndex < contentFiles.size(); ++fileIndex) {
+                ArticleContentFile<?> contentFile = contentFiles.get(fileIndex);
+                JamLogger.info("Generating file content: [%s]...", contentFile.getFlatFile());
+
+                RecordSink<?> sink = contentFile.openSink(false);
+                int skipCount = resolveSkipCount(articles, sink.getResumePMID());
+
+                if (skipCount < 0) {
+                    JamLogger.info("Checkpoint does not match the document; starting over.");
+                    sink.discard();
+                    sink = contentFile.openSink(false);
+                    skipCount = 0;
+                }
+
+                sinks.add(sink);
+                skipCounts[fileIndex] = skipCount;
+            }
+
+            streamArticles(articles, contentFiles, sinks, skipCounts);
+        }
+        catch (RuntimeException ex) {
+            for (RecordSink<?> sink : sinks)
+                sink.abort();
+
+            throw ex;
+        }
+
+        for (RecordSink<?> sink : sinks)
+            sink.close();
+    }
+
+    private static int resolveSkipCount(List<PubmedArticleElement> articles, PMID resumePMID) {
+        //
+        // Skip every article up to and including the last one
+        // committed before the generation was interrupted...
+        //
+        if (resumePMID == null)
+            return 0;
+
+        for (int index = 0; index < articles.size(); ++index)
+            if (articles.get(index).getPMID().equals(resumePMID))
+                return index + 1;
+
+        return -1;
+    }
+
+    private static void streamArticles(List<PubmedArticleElement> articles,
+                                       List<ArticleContentFile<?>> contentFiles,
+                                       List<RecordSink<?>> sinks,
+                                       int[] skipCounts) {
+        //
+        // Batches of articles are extracted and formatted in parallel,
+        // but at most a fixed number of batches are in flight: this
+        // thread writes the oldest batch (so the output is in document
+        // order) before the next batch is started...
+        //
+        int window = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        StageRecorder recorder = PipelineMetrics.recorder();
+        Deque<CompletableFuture<FormattedBatch>> pending = new ArrayDeque<CompletableFuture<FormattedBatch>>(window);
+
+        try {
+            for (int batchStart = 0; batchStart < articles.size(); batchStart += BATCH_SIZE) {
+                if (pending.size() >= window)
+                    writeBatch(pending.removeFirst(), sinks, skipCounts, recorder);
+
+                int start = batchStart;
+                int end = Math.min(articles.size(), batchStart + BATCH_SIZE);
+
+                pending.addLast(CompletableFuture.supplyAsync(InternScope.propagate(() -> formatBatch(articles, start, end, contentFiles, skipCounts, recorder))));
+            }
+
+            while (!pending.isEmpty())
+                writeBatch(pending.removeFirst(), sinks, skipCounts, recorder);
+        }
+        catch (RuntimeException ex) {
+            //
+            // The batches still in flight are abandoned, but they must
+            // finish before the sinks are aborted and the failure is
+            // reported, so that no extraction outlives the generation...
+            //
+            for (CompletableFuture<FormattedBatch> future : pending)
+                future.handle((batch, failure) -> batch).join();
+
+            throw ex;
+        }
+    }
+
+    private static final class FormattedBatch {
+        private final int end;
+        private final int articleCount;
+        private final PMID lastPMID;
+        private final String[] lines;
+        private final int[] recordCounts;
+
+        private FormattedBatch(int end, int articleCount, PMID lastPMID, String[] lines, int[] recordCounts) {
+            this.end = end;
+            this.articleCount = articleCount;
+            this.lastPMID = lastPMID;
+            this.lines = lines;
+            this.recordCounts = recordCounts;
+        }
+    }
+
+    private static FormattedBatch formatBatch(List<PubmedArticleElement> articles,
+                                              int start,
+                                              int end,
+                                              List<ArticleContentFile<?>> contentFiles,
+                                              int[] skipCounts,
+                                              StageRecorder recorder) {
+        StringBuilder[] builders = new StringBuilder[contentFiles.size()];
+        int[] recordCounts = new int[contentFiles.size()];
+
+        for (int fileIndex = 0; fileIndex < builders.length; ++fileIndex)
+            builders[fileIndex] = new StringBuilder();
+
+        //
+        // The extraction time is charged to the stage of each content
+        // file (lemmatization is far slower than plain extraction)...
+        //
+        Map<Stage, Long> extractNanos = new EnumMap<Stage, Long>(Stage.class);
+        long formatNanos = 0L;
+        int articleCount = 0;
+
+        for (int articleIndex = start; articleIndex < end; ++articleIndex) {
+            boolean processed = false;
+
+            for (int fileIndex = 0; fileIndex < builders.length; ++fileIndex) {
+                if (articleIndex < skipCounts[fileIndex])
+                    continue;
+
+                ArticleContentFile<?> contentFile = contentFiles.get(fileIndex);
+
+                long extractStart = System.nanoTime();
+                List<? extends PubmedFlatRecord> records = contentFile.extractArticle(articles.get(articleIndex));
+                long formatStart = System.nanoTime();
+                RecordSink.format(builders[fileIndex], records);
+
+                for (PubmedFlatRecord record : records)
+                    if (record != null)
+                        ++recordCounts[fileIndex];
+
+                formatNanos += System.nanoTime() - formatStart;
+                extractNanos.merge(contentFile.getExtractStage(), formatStart - extractStart, Long::sum);
+                processed = true;
+            }
+
+            if (processed)
+                ++articleCount;
+        }
+
+        String[] lines = new String[builders.length];
+        long chars = 0L;
+
+        for (int fileIndex = 0; fileIndex < builders.length; ++fileIndex) {
+            lines[fileIndex] = builders[fileIndex].toString();
+            chars += lines[fileIndex].length();
+        }
+
+        for (Map.Entry<Stage, Long> entry : extractNanos.entrySet())
+            recorder.record(entry.getKey(), entry.getValue(), articleCount, 0L);
+
+        recorder.record(Stage.FORMAT, formatNanos, articleCount, chars);
+        return new FormattedBatch(end, articleCount, articles.get(end - 1).getPMID(), lines, recordCounts);
+    }
+
+    private static void writeBatch(CompletableFuture<FormattedBatch> future,
+                                   List<RecordSink<?>> sinks,
+                                   int[] skipCounts,
+                                   StageRecorder recorder) {
+        FormattedBatch batch;
+
+        try {
+            batch = future.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            else
+                throw ex;
+        }
+
+        long start = System.nanoTime();
+        long chars = 0L;
+
+        for (int fileIndex = 0; fileIndex < batch.lines.length; ++fileIndex) {
+            RecordSink<?> sink = sinks.get(fileIndex);
+
+            if (batch.end > skipCounts[fileIndex]) {
+                sink.append(batch.lines[fileIndex], batch.recordCounts[fileIndex]);
+                sink.checkpoint(batch.lastPMID);
+                chars += batch.lines[fileIndex].length();
+            }
+        }
+
+        recorder.record(Stage.WRITE, System.nanoTime() - start, batch.articleCount, chars);
+    }
+}
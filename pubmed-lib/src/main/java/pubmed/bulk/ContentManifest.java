@@ -0,0 +1,682 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.flat.FlatRecord;
+import jam.lang.JamException;
+
+/**
+ * Records the flat files generated from the bulk XML files in one
+ * directory, so that the outputs of a bulk file can be identified
+ * without examining the file system and outputs derived from an
+ * earlier version of a bulk file can be identified as stale.
+ *
+ * <p>For each output, the manifest records its size, its record count
+ * (when known), and the MD5 checksum of the bulk file it was derived
+ * from; for the relevance score files, it also records the keys of
+ * the subjects that have been scored.  For each bulk file, the
+ * manifest records its size, modification time, and checksum, so the
+ * checksum is recomputed only after the file has been touched.  A bulk
+ * file that is downloaded again with the same content therefore keeps
+ * its outputs.  Each process examines a bulk file (and validates or
+ * computes its checksum) only once; bulk files are not expected to
+ * change while a process is running (see {@link
+ * ContentManifest#invalidate(BulkFile)}).
+ *
+ * <p>The manifest is a journal of pipe-delimited lines in the bulk
+ * directory ({@link ContentManifest#FILE_NAME}).  Changes are appended
+ * as single lines, so several processes may share the manifest; each
+ * process re-reads only the lines appended since its last read.  When
+ * the journal holds many superseded lines, it is compacted, but only
+ * by a process that obtains exclusive access to it: processes hold a
+ * shared lock on a companion lock file while they read or append, so
+ * a compaction never loses lines appended by another process.  Outputs
+ * that were generated before the manifest existed are adopted the
+ * first time they are found; outputs that are removed by hand (rather
+ * than through {@link PubmedFlatFile#delete()}) are not noticed.
+ *
+ * <p>The manifest is disabled unless the system property {@link
+ * ContentManifest#ENABLED_PROPERTY} is {@code true}.
+ */
+public final class ContentManifest {
+    private final File manifestFile;
+    private final File lockFile;
+
+    private final Map<String, Source> sources = new HashMap<String, Source>();
+    private final Map<String, Output> outputs = new HashMap<String, Output>();
+
+    // The checksum of each bulk file examined by this process (empty
+    // for a missing bulk file)...
+    private final Map<String, String> checksums = new HashMap<String, String>();
+
+    private Object loadedKey = null;
+    private long loadedLength = 0L;
+    private int lineCount = 0;
+
+    private static final Map<File, ContentManifest> instances = new ConcurrentHashMap<File, ContentManifest>();
+
+    private ContentManifest(File manifestFile) {
+        this.manifestFile = manifestFile;
+        this.lockFile = new File(manifestFile.getParentFile(), LOCK_FILE_NAME);
+    }
+
+    /**
+     * Name of the system property that enables the manifest ({@code
+     * false} by default).
+     */
+    public static final String ENABLED_PROPERTY = "pubmed.bulk.manifest";
+
+    /**
+     * Name of the manifest file within each bulk directory.
+     */
+    public static final String FILE_NAME = ".manifest.psv";
+
+    /**
+     * Name of the lock file that guards the manifest file.
+     */
+    public static final String LOCK_FILE_NAME = ".manifest.lock";
+
+    /**
+     * Identifies the state of a flat file in the manifest.
+     */
+    public enum Status {
+        /**
+         * The flat file was generated from the current version of its
+         * bulk file.
+         */
+        CURRENT,
+
+        /**
+         * The flat file was generated from an earlier version of its
+         * bulk file.
+         */
+        STALE,
+
+        /**
+         * The flat file is not recorded in the manifest.
+         */
+        MISSING;
+    }
+
+    // Line types in the journal...
+    private static final String SOURCE_TYPE = "S";
+    private static final String OUTPUT_TYPE = "O";
+    private static final String DELETE_TYPE = "D";
+
+    // Delimiter for the subject keys of relevance score files...
+    private static final String SUBJECT_DELIMITER = ",";
+
+    // Unknown record counts (for adopted files)...
+    private static final long UNKNOWN_COUNT = -1L;
+
+    // The journal is compacted when most of its lines are superseded...
+    private static final int COMPACTION_SLACK = 64;
+
+    private static final class Source {
+        private final long size;
+        private final long modified;
+        private final String checksum;
+
+        private Source(long size, long modified, String checksum) {
+            this.size = size;
+            this.modified = modified;
+            this.checksum = checksum;
+        }
+
+        private boolean matches(long size, long modified) {
+            return this.size == size && this.modified == modified;
+        }
+    }
+
+    private static final class Output {
+        private final long size;
+        private final long recordCount;
+        private final String checksum;
+        private final Set<String> subjects;
+
+        private Output(long size, long recordCount, String checksum, Set<String> subjects) {
+            this.size = size;
+            this.recordCount = recordCount;
+            this.checksum = checksum;
+            this.subjects = subjects;
+        }
+    }
+
+    /**
+     * Determines whether the manifest has been enabled by the system
+     * property.
+     *
+     * @return {@code true} iff the manifest has been enabled.
+     */
+    public static boolean isEnabled() {
+        return JamProperties.isSet(ENABLED_PROPERTY)
+            && Boolean.parseBoolean(JamProperties.getRequired(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Returns the manifest for the directory that contains a bulk
+     * file.
+     *
+     * @param bulkFile a bulk XML file.
+     *
+     * @return the manifest for the directory containing the bulk file.
+     */
+    public static ContentManifest instance(BulkFile bulkFile) {
+        return instance(bulkFile.getFile().getParentFile());
+    }
+
+    /**
+     * Returns the manifest for a bulk directory.  Each directory has
+     * a single manifest instance in each process.
+     *
+     * @param directory a bulk file directory.
+     *
+     * @return the manifest for the specified directory.
+     */
+    public static ContentManifest instance(File directory) {
+        File manifestFile = new File(directory, FILE_NAME).getAbsoluteFile();
+        return instances.computeIfAbsent(manifestFile, ContentManifest::new);
+    }
+
+    /**
+     * Returns the physical manifest file.
+     *
+     * @return the physical manifest file.
+     */
+    public File getManifestFile() {
+        return manifestFile;
+    }
+
+    /**
+     * Determines whether a flat file is recorded in this manifest and
+     * derived from the current version of its bulk file.
+     *
+     * @param flatFile the flat file to examine.
+     *
+     * @return the status of the flat file.
+     */
+    public synchronized Status getStatus(PubmedFlatFile<?> flatFile) {
+        refresh();
+        Output output = outputs.get(outputKey(flatFile));
+
+        if (output == null)
+            return Status.MISSING;
+
+        //
+        // Outputs of a bulk file that has been removed cannot be
+        // regenerated, so they are never stale...
+        //
+        String checksum = sourceChecksum(flatFile.getBulkFile());
+
+        if (checksum.isEmpty() || checksum.equals(output.checksum))
+            return Status.CURRENT;
+        else
+            return Status.STALE;
+    }
+
+    /**
+     * Returns the number of records in a flat file.
+     *
+     * @param flatFile the flat file to examine.
+     *
+     * @return the number of records in the flat file, or {@code -1}
+     * if the file is not recorded or its record count is unknown.
+     */
+    public synchronized long getRecordCount(PubmedFlatFile<?> flatFile) {
+        refresh();
+        Output output = outputs.get(outputKey(flatFile));
+
+        return (output != null) ? output.recordCount : UNKNOWN_COUNT;
+    }
+
+    /**
+     * Returns the keys of the subjects that have been scored in a
+     * relevance score file.
+     *
+     * @param flatFile the relevance score file.
+     *
+     * @return the keys of the scored subjects, or {@code null} if the
+     * file is not recorded in this manifest.
+     */
+    public synchronized Set<String> getSubjects(PubmedFlatFile<?> flatFile) {
+        refresh();
+        Output output = outputs.get(outputKey(flatFile));
+
+        return (output != null) ? output.subjects : null;
+    }
+
+    /**
+     * Records a flat file that has just been written.
+     *
+     * @param flatFile the flat file that was written.
+     *
+     * @param recordCount the number of records written (or {@code -1}
+     * if unknown).
+     *
+     * @param append whether the records were appended to an existing
+     * file ({@code true}) or replaced it (or created a new file).
+     */
+    public synchronized void recordOutput(PubmedFlatFile<?> flatFile, long recordCount, boolean append) {
+        refresh();
+
+        String key = outputKey(flatFile);
+        Output previous = outputs.get(key);
+
+        long totalCount = recordCount;
+        Set<String> subjects = Set.of();
+
+        if (append && previous != null) {
+            subjects = previous.subjects;
+
+            if (recordCount >= 0 && previous.recordCount >= 0)
+                totalCount = previous.recordCount + recordCount;
+            else
+                totalCount = UNKNOWN_COUNT;
+        }
+        else if (append) {
+            //
+            // Appended to a file whose earlier content is unknown...
+            //
+            totalCount = UNKNOWN_COUNT;
+        }
+
+        putOutput(flatFile, totalCount, subjects);
+    }
+
+    /**
+     * Records a flat file that was generated before this manifest
+     * existed (or while it was disabled).  The file is assumed to be
+     * derived from the current version of its bulk file.
+     *
+     * @param flatFile the existing flat file.
+     */
+    public synchronized void adopt(PubmedFlatFile<?> flatFile) {
+        refresh();
+
+        if (!outputs.containsKey(outputKey(flatFile)))
+            putOutput(flatFile, UNKNOWN_COUNT, Set.of());
+    }
+
+    /**
+     * Records the subjects that have been scored in a relevance score
+     * file.
+     *
+     * @param flatFile the relevance score file.
+     *
+     * @param subjects the keys of every subject scored in the file.
+     */
+    public synchronized void recordSubjects(PubmedFlatFile<?> flatFile, Collection<String> subjects) {
+        refresh();
+
+        Output previous = outputs.get(outputKey(flatFile));
+        long recordCount = (previous != null) ? previous.recordCount : UNKNOWN_COUNT;
+
+        putOutput(flatFile, recordCount, new LinkedHashSet<String>(subjects));
+    }
+
+    /**
+     * Removes a flat file from this manifest.
+     *
+     * @param flatFile the flat file that was deleted.
+     */
+    public synchronized void remove(PubmedFlatFile<?> flatFile) {
+        refresh();
+
+        if (outputs.containsKey(outputKey(flatFile)))
+            append(List.of(DELETE_TYPE, flatFile.getBulkFile().getBaseName(), flatFile.getSuffix()));
+    }
+
+    /**
+     * Discards the checksum of a bulk file that this process has
+     * recorded, so that the file is examined again the next time that
+     * its outputs are queried.  A process that replaces a bulk file
+     * while it is running must call this method.
+     *
+     * @param bulkFile the bulk file that was replaced.
+     */
+    public synchronized void invalidate(BulkFile bulkFile) {
+        checksums.remove(bulkFile.getBaseName());
+    }
+
+    private void putOutput(PubmedFlatFile<?> flatFile, long recordCount, Set<String> subjects) {
+        String checksum = sourceChecksum(flatFile.getBulkFile());
+
+        append(List.of(OUTPUT_TYPE,
+                       flatFile.getBulkFile().getBaseName(),
+                       flatFile.getSuffix(),
+                       Long.toString(flatFile.physicalLength()),
+                       Long.toString(recordCount),
+                       checksum,
+                       String.join(SUBJECT_DELIMITER, subjects)));
+    }
+
+    private String sourceChecksum(BulkFile bulkFile) {
+        String checksum = checksums.get(bulkFile.getBaseName());
+
+        if (checksum == null) {
+            checksum = resolveChecksum(bulkFile);
+            checksums.put(bulkFile.getBaseName(), checksum);
+        }
+
+        return checksum;
+    }
+
+    private String resolveChecksum(BulkFile bulkFile) {
+        File file = bulkFile.getFile();
+        BasicFileAttributes attributes;
+
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        }
+        catch (IOException ex) {
+            //
+            // The bulk file has been removed...
+            //
+            return "";
+        }
+
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        Source source = sources.get(bulkFile.getBaseName());
+
+        if (source != null && source.matches(size, modified))
+            return source.checksum;
+
+        //
+        // The bulk file is new or has been touched since its checksum
+        // was recorded...
+        //
+        String checksum = computeChecksum(file);
+
+        append(List.of(SOURCE_TYPE, bulkFile.getBaseName(), Long.toString(size), Long.toString(modified), checksum));
+        return checksum;
+    }
+
+    private static String computeChecksum(File file) {
+        try (InputStream stream = new DigestInputStream(Files.newInputStream(file.toPath()), MessageDigest.getInstance("MD5"))) {
+            byte[] buffer = new byte[65536];
+
+            while (stream.read(buffer) >= 0)
+                ;
+
+            StringBuilder builder = new StringBuilder();
+
+            for (byte b : ((DigestInputStream) stream).getMessageDigest().digest())
+                builder.append(String.format("%02x", b & 0xFF));
+
+            return builder.toString();
+        }
+        catch (IOException | NoSuchAlgorithmException ex) {
+            throw JamException.runtime("Could not compute checksum for [%s]: %s", file, ex.getMessage());
+        }
+    }
+
+    private static String outputKey(PubmedFlatFile<?> flatFile) {
+        return outputKey(flatFile.getBulkFile().getBaseName(), flatFile.getSuffix());
+    }
+
+    private static String outputKey(String bulkName, String suffix) {
+        return bulkName + "|" + suffix;
+    }
+
+    private FileChannel openLock() throws IOException {
+        return FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void append(List<String> fields) {
+        String line = FlatRecord.DELIMITER.join(fields);
+
+        try (FileChannel lock = openLock()) {
+            //
+            // Each change is appended with a single write, so that
+            // lines from concurrent processes are never interleaved;
+            // the shared lock (released when the channel is closed)
+            // excludes compaction...
+            //
+            lock.lock(0L, Long.MAX_VALUE, true);
+            Files.write(manifestFile.toPath(), (line + "\n").getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not update manifest [%s]: %s", manifestFile, ex.getMessage());
+        }
+
+        //
+        // The new line is applied when it is read back (along with
+        // any lines appended by other processes)...
+        //
+        refresh();
+    }
+
+    private BasicFileAttributes readAttributes() {
+        try {
+            return Files.readAttributes(manifestFile.toPath(), BasicFileAttributes.class);
+        }
+        catch (IOException ex) {
+            //
+            // The manifest has not been created yet...
+            //
+            return null;
+        }
+    }
+
+    private boolean isLoaded(BasicFileAttributes attributes) {
+        return attributes.size() == loadedLength && Objects.equals(attributes.fileKey(), loadedKey);
+    }
+
+    private void refresh() {
+        //
+        // An unchanged manifest is detected with a single query of its
+        // attributes...
+        //
+        BasicFileAttributes attributes = readAttributes();
+
+        if (attributes == null || isLoaded(attributes))
+            return;
+
+        boolean initial = (loadedLength == 0L);
+
+        try (FileChannel lock = openLock()) {
+            lock.lock(0L, Long.MAX_VALUE, true);
+            load();
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not lock manifest [%s]: %s", manifestFile, ex.getMessage());
+        }
+
+        if (initial && lineCount > 2 * (sources.size() + outputs.size()) + COMPACTION_SLACK)
+            compact();
+    }
+
+    private void load() {
+        //
+        // The attributes are read again while the manifest is locked...
+        //
+        BasicFileAttributes attributes = readAttributes();
+
+        if (attributes == null || isLoaded(attributes))
+            return;
+
+        long length = attributes.size();
+        Object key = attributes.fileKey();
+
+        if (length < loadedLength || !Objects.equals(key, loadedKey)) {
+            //
+            // The manifest was replaced (compacted) by another process...
+            //
+            sources.clear();
+            outputs.clear();
+            loadedLength = 0L;
+            lineCount = 0;
+        }
+
+        loadedKey = key;
+        readTail(length);
+    }
+
+    private void readTail(long length) {
+        byte[] bytes = new byte[(int) (length - loadedLength)];
+
+        try (RandomAccessFile file = new RandomAccessFile(manifestFile, "r")) {
+            file.seek(loadedLength);
+            file.readFully(bytes);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not read manifest [%s]: %s", manifestFile, ex.getMessage());
+        }
+
+        //
+        // Only complete lines are applied; a line that is still being
+        // written by another process is read next time...
+        //
+        int start = 0;
+
+        for (int index = 0; index < bytes.length; ++index) {
+            if (bytes[index] == '\n') {
+                apply(new String(bytes, start, index - start, StandardCharsets.UTF_8));
+                start = index + 1;
+            }
+        }
+
+        loadedLength += start;
+    }
+
+    private void apply(String line) {
+        ++lineCount;
+        String[] fields = line.split("\\|", -1);
+
+        try {
+            switch (fields[0]) {
+            case SOURCE_TYPE:
+                sources.put(fields[1], new Source(Long.parseLong(fields[2]), Long.parseLong(fields[3]), fields[4]));
+                break;
+
+            case OUTPUT_TYPE:
+                outputs.put(outputKey(fields[1], fields[2]),
+                            new Output(Long.parseLong(fields[3]), Long.parseLong(fields[4]), fields[5], parseSubjects(fields[6])));
+                break;
+
+            case DELETE_TYPE:
+                outputs.remove(outputKey(fields[1], fields[2]));
+                break;
+
+            default:
+                JamLogger.info("Ignoring invalid manifest line [%s].", line);
+            }
+        }
+        catch (RuntimeException ex) {
+            JamLogger.info("Ignoring invalid manifest line [%s].", line);
+        }
+    }
+
+    private static Set<String> parseSubjects(String field) {
+        if (field.isEmpty())
+            return Set.of();
+        else
+            return new LinkedHashSet<String>(List.of(field.split(SUBJECT_DELIMITER)));
+    }
+
+    private void compact() {
+        File tempFile = null;
+
+        try (FileChannel lock = openLock()) {
+            //
+            // Another process that is reading or appending to the
+            // journal holds a shared lock, and the journal is left as
+            // it is...
+            //
+            if (!tryExclusive(lock))
+                return;
+
+            // Apply any lines appended before the lock was acquired...
+            load();
+
+            tempFile = File.createTempFile(FILE_NAME + ".", PubmedFlatFile.TEMP_SUFFIX, manifestFile.getParentFile());
+            Files.write(tempFile.toPath(), formatJournal().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile.toPath(), manifestFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            sources.clear();
+            outputs.clear();
+
+            loadedKey = null;
+            loadedLength = 0L;
+            lineCount = 0;
+
+            load();
+        }
+        catch (IOException ex) {
+            //
+            // The journal remains valid without compaction...
+            //
+            JamLogger.info("Could not compact manifest [%s]: %s", manifestFile, ex.getMessage());
+
+            if (tempFile != null)
+                tempFile.delete();
+        }
+    }
+
+    private static boolean tryExclusive(FileChannel lock) throws IOException {
+        try {
+            return lock.tryLock(0L, Long.MAX_VALUE, false) != null;
+        }
+        catch (OverlappingFileLockException ex) {
+            //
+            // Another thread in this process holds the lock...
+            //
+            return false;
+        }
+    }
+
+    private String formatJournal() {
+        StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<String, Source> entry : sources.entrySet()) {
+            Source source = entry.getValue();
+            builder.append(FlatRecord.DELIMITER.join(List.of(SOURCE_TYPE,
+                                                             entry.getKey(),
+                                                             Long.toString(source.size),
+                                                             Long.toString(source.modified),
+                                                             source.checksum)));
+            builder.append('\n');
+        }
+
+        for (Map.Entry<String, Output> entry : outputs.entrySet()) {
+            Output output = entry.getValue();
+            builder.append(FlatRecord.DELIMITER.join(List.of(OUTPUT_TYPE,
+                                                             entry.getKey(),
+                                                             Long.toString(output.size),
+                                                             Long.toString(output.recordCount),
+                                                             output.checksum,
+                                                             String.join(SUBJECT_DELIMITER, output.subjects))));
+            builder.append('\n');
+        }
+
+        return builder.toString();
+    }
+}
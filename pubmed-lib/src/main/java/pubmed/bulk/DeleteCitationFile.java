@@ -2,11 +2,13 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import jam.util.ListUtil;
 
 import pubmed.flat.PMIDRecord;
 import pubmed.flat.PMIDTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedXmlDocument;
 
 /**
@@ -15,7 +17,7 @@ import pubmed.xml.PubmedXmlDocument;
  */
 public final class DeleteCitationFile extends DocumentContentFile<PMIDRecord> {
     private DeleteCitationFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, PMIDRecord::parse);
     }
 
     /**
@@ -38,6 +40,10 @@ public final class DeleteCitationFile extends DocumentContentFile<PMIDRecord> {
         return ListUtil.apply(document.getDeletedCitations(), pmid -> PMIDRecord.create(pmid));
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of();
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -1,12 +1,21 @@
 
 package pubmed.bulk;
 
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
 
 import jam.app.JamLogger;
 import jam.flat.RecordStore;
 
 import pubmed.flat.PubmedFlatRecord;
+import pubmed.io.FieldReader;
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.xml.ArticleField;
+import pubmed.xml.ArticleProjection;
 import pubmed.xml.PubmedXmlDocument;
 
 /**
@@ -25,6 +34,62 @@ public abstract class DocumentContentFile<V extends PubmedFlatRecord> extends Pu
         super(bulkFile);
     }
 
+    /**
+     * Creates a new content file for records derived from a given
+     * bulk XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader.
+     */
+    protected DocumentContentFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        super(bulkFile, parser);
+    }
+
+    /**
+     * Returns the projection that retains every article field
+     * required by a collection of content files.
+     *
+     * @param contentFiles the content files to be generated.
+     *
+     * @return the projection that retains every article field
+     * required by the specified content files.
+     */
+    public static ArticleProjection projection(Collection<? extends DocumentContentFile<?>> contentFiles) {
+        Set<ArticleField> fields = EnumSet.noneOf(ArticleField.class);
+
+        for (DocumentContentFile<?> contentFile : contentFiles)
+            fields.addAll(contentFile.getRequiredFields());
+
+        return ArticleProjection.of(fields);
+    }
+
+    /**
+     * Returns the article fields that must be parsed to extract the
+     * records in this file.  Subclasses should override this method
+     * to specify the smallest set of fields that they use, so that
+     * the bulk XML file may be parsed with a narrow projection.
+     *
+     * @return the article fields required by this file (every field,
+     * by default).
+     */
+    public Set<ArticleField> getRequiredFields() {
+        return ArticleField.ALL;
+    }
+
+    /**
+     * Returns the pipeline stage that is charged with the time spent
+     * extracting the records in this file.
+     *
+     * @return the pipeline stage for record extraction ({@link
+     * Stage#EXTRACT}, unless the records are lemmatized).
+     */
+    public Stage getExtractStage() {
+        return Stage.EXTRACT;
+    }
+
     /**
      * Extracts the data records from a parsed XML document.
      *
@@ -47,29 +112,47 @@ public abstract class DocumentContentFile<V extends PubmedFlatRecord> extends Pu
      */
     public void processDocument(PubmedXmlDocument document, boolean overwrite) {
         if (mustProcess(overwrite))
-            processDocument(document);
+            generate(document);
     }
 
-    private void processDocument(PubmedXmlDocument document) {
+    /**
+     * Extracts the records from a parsed XML document and writes them
+     * to the physical flat file.  {@link ArticleContentFile Article
+     * content files} override this method to stream their records.
+     *
+     * @param document the document derived from the bulk XML file.
+     */
+    void generate(PubmedXmlDocument document) {
         JamLogger.info("Generating file content: [%s]...", flatFile);
-        writeRecords(extractRecords(document), false);
+
+        long start = System.nanoTime();
+        List<V> records = extractRecords(document);
+        long extracted = System.nanoTime();
+
+        writeRecords(records, false);
+        long written = System.nanoTime();
+
+        PipelineMetrics.recorder().record(getExtractStage(), extracted - start, records.size(), 0L);
+        PipelineMetrics.recorder().record(Stage.WRITE, written - extracted, records.size(), physicalLength());
     }
 
     /**
      * Parses the bulk XML file, processes all article elements in the
-     * document, and writes them to the physical flat file.
+     * document, and writes them to the physical flat file.  Only the
+     * {@link #getRequiredFields() required fields} are parsed, unless
+     * the complete document has already been parsed and cached.
      *
      * @param overwrite whether to overwrite an existing flat file (or
      * skip processing if the flat file already exists).
      */
     public void processFile(boolean overwrite) {
         if (mustProcess(overwrite))
-            processDocument(bulkFile.getDocument());
+            generate(bulkFile.getDocument(ArticleProjection.of(getRequiredFields())));
     }
 
     /**
      * Loads the records in this flat file and generates the file on
-     * demand if necessary.
+     * demand if it is missing or stale.
      *
      * @return the records in this flat file.
      *
@@ -77,7 +160,7 @@ public abstract class DocumentContentFile<V extends PubmedFlatRecord> extends Pu
      * (or can be generated on demand) and can be parsed sucessfully.
      */
     @Override public RecordStore<V> load() {
-        if (!exists())
+        if (!isCurrent())
             processFile(true);
 
         return super.load();
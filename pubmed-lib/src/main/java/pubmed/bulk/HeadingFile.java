@@ -2,9 +2,11 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import pubmed.flat.HeadingRecord;
 import pubmed.flat.HeadingTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -13,7 +15,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class HeadingFile extends MultiContentFile<HeadingRecord> {
     private HeadingFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, HeadingRecord::parse);
     }
 
     /**
@@ -36,6 +38,10 @@ public final class HeadingFile extends MultiContentFile<HeadingRecord> {
         return HeadingRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.MESH_HEADING_LIST);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -1,8 +1,11 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.JournalRecord;
 import pubmed.flat.JournalTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -10,7 +13,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class JournalFile extends UniqueContentFile<JournalRecord> {
     private JournalFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, JournalRecord::parse);
     }
 
     /**
@@ -33,6 +36,10 @@ public final class JournalFile extends UniqueContentFile<JournalRecord> {
         return JournalRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.JOURNAL);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -2,11 +2,14 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import jam.util.ListUtil;
 
 import pubmed.flat.KeywordRecord;
 import pubmed.flat.KeywordTable;
+import pubmed.metrics.Stage;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -15,7 +18,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class KeywordFile extends MultiContentFile<KeywordRecord> {
     private KeywordFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, KeywordRecord::parse);
     }
 
     /**
@@ -38,6 +41,14 @@ public final class KeywordFile extends MultiContentFile<KeywordRecord> {
         return ListUtil.filter(KeywordRecord.from(element), record -> !record.getKeyword().isEmpty());
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.KEYWORD_LIST);
+    }
+
+    @Override public Stage getExtractStage() {
+        return Stage.LEMMATIZE;
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
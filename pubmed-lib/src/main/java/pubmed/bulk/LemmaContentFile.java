@@ -0,0 +1,69 @@
+
+package pubmed.bulk;
+
+import java.util.function.Function;
+
+import pubmed.flat.ArticleLemmaRecord;
+import pubmed.io.FieldReader;
+import pubmed.metrics.Stage;
+
+/**
+ * Provides a base class for flat files containing lemmatized article
+ * text (one row per article), which may also be read through a
+ * memory-mapped {@link LemmaStore}.
+ */
+public abstract class LemmaContentFile<V extends ArticleLemmaRecord> extends UniqueContentFile<V> {
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     */
+    protected LemmaContentFile(BulkFile bulkFile) {
+        super(bulkFile);
+    }
+
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader.
+     */
+    protected LemmaContentFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        super(bulkFile, parser);
+    }
+
+    /**
+     * Opens the memory-mapped lemma store for this flat file and
+     * generates the file (and the store) on demand if necessary.
+     *
+     * @return the lemma store for this flat file.
+     *
+     * @throws RuntimeException unless the physical flat file exists
+     * (or can be generated on demand) and the store can be opened.
+     */
+    public LemmaStore openStore() {
+        if (!exists())
+            processFile(true);
+
+        return LemmaStore.open(this);
+    }
+
+    @Override public boolean delete() {
+        LemmaStore.delete(this);
+        return super.delete();
+    }
+
+    @Override public boolean isCheckpointed() {
+        return true;
+    }
+
+    @Override public Stage getExtractStage() {
+        return Stage.LEMMATIZE;
+    }
+}
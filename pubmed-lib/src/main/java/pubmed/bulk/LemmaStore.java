@@ -0,0 +1,401 @@
+
+package pubmed.bulk;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.flat.FlatRecord;
+import jam.io.LineReader;
+import jam.lang.JamException;
+
+import pubmed.article.PMID;
+import pubmed.flat.ArticleLemmaRecord;
+import pubmed.nlp.LemmaDictionary;
+import pubmed.nlp.LemmaList;
+
+/**
+ * Provides read-only, random access to the lemmas in a lemma flat
+ * file through a memory-mapped binary store written next to it.
+ *
+ * <p>The store holds a header, the article identifiers in ascending
+ * order, the offsets of the lemma fields, and the lemma fields
+ * themselves, copied verbatim from the flat file: a field stored as
+ * text remains text and a field encoded with the global {@link
+ * LemmaDictionary} remains encoded, so a store may be read wherever
+ * its flat file may be read, and building a store never adds lemmas
+ * to the dictionary.  Opening a store maps the file and validates its
+ * header, so it takes constant time; an article is located by a
+ * binary search of the mapped identifiers, and its lemmas are decoded
+ * only when it is selected.  Because the store is mapped read-only,
+ * processes reading the same store share its pages in the operating
+ * system cache.
+ *
+ * <p>The store records the size and modification time of the flat
+ * file it was built from; it is rebuilt (from a single pass over the
+ * flat file) whenever it is missing or no longer matches.  The store
+ * is written to a temporary file and then renamed, so a partial store
+ * is never visible and a store that is replaced while mapped remains
+ * valid for its readers.
+ */
+public final class LemmaStore {
+    private final File storeFile;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int pmidBase;
+    private final int offsetBase;
+    private final int dataBase;
+
+    private LemmaStore(File storeFile, ByteBuffer buffer) {
+        this.storeFile = storeFile;
+        this.buffer = buffer;
+        this.count = buffer.getInt(COUNT_POSITION);
+        this.pmidBase = HEADER_SIZE;
+        this.offsetBase = pmidBase + 4 * count;
+        this.dataBase = offsetBase + 4 * (count + 1);
+    }
+
+    /**
+     * Name of the system property that enables the lemma stores for
+     * relevance scoring ({@code true} by default).
+     */
+    public static final String ENABLED_PROPERTY = "pubmed.bulk.lemmaStore";
+
+    /**
+     * The extension of lemma store files.
+     */
+    public static final String EXTENSION = ".lms";
+
+    private static final int MAGIC = 0x504d4c53; // "PMLS"
+    private static final int FORMAT_VERSION = 2;
+
+    // Header: magic, version, source length, source modification
+    // time, record count, and padding...
+    private static final int SOURCE_LENGTH_POSITION = 8;
+    private static final int SOURCE_MODIFIED_POSITION = 16;
+    private static final int COUNT_POSITION = 24;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Determines whether the lemma stores are enabled.
+     *
+     * @return {@code true} unless the system property has been set to
+     * {@code false}.
+     */
+    public static boolean isEnabled() {
+        return !JamProperties.isSet(ENABLED_PROPERTY)
+            || Boolean.parseBoolean(JamProperties.getRequired(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Returns the store file for a lemma flat file.
+     *
+     * @param flatFile the lemma flat file.
+     *
+     * @return the store file for the specified flat file (which may
+     * or may not exist).
+     */
+    public static File resolve(PubmedFlatFile<?> flatFile) {
+        String path = flatFile.getFlatFile().getPath();
+        return new File(path.substring(0, path.length() - PubmedFlatFile.EXTENSION.length()) + EXTENSION);
+    }
+
+    /**
+     * Opens the store for a lemma flat file, building the store first
+     * if it is missing or out of date.
+     *
+     * @param flatFile an existing lemma flat file.
+     *
+     * @return the store for the specified flat file.
+     *
+     * @throws RuntimeException unless the flat file exists and the
+     * store can be built and mapped.
+     */
+    public static LemmaStore open(PubmedFlatFile<? extends ArticleLemmaRecord> flatFile) {
+        File storeFile = resolve(flatFile);
+        File sourceFile = resolveSource(flatFile);
+
+        LemmaStore store = map(storeFile);
+
+        if (store == null || !store.matches(sourceFile)) {
+            build(flatFile, sourceFile, storeFile);
+            store = map(storeFile);
+        }
+
+        if (store == null)
+            throw JamException.runtime("Invalid lemma store: [%s].", storeFile);
+
+        return store;
+    }
+
+    private static File resolveSource(PubmedFlatFile<?> flatFile) {
+        if (flatFile.getColumnarFile().canRead())
+            return flatFile.getColumnarFile();
+
+        if (flatFile.getFlatFile().canRead())
+            return flatFile.getFlatFile();
+
+        if (flatFile.getGZipFile().canRead())
+            return flatFile.getGZipFile();
+
+        throw JamException.runtime("Missing file: [%s].", flatFile.getFlatFile());
+    }
+
+    private static LemmaStore map(File storeFile) {
+        if (!storeFile.canRead())
+            return null;
+
+        try (FileChannel channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ)) {
+            //
+            // The mapping remains valid after the channel is closed...
+            //
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.capacity() < HEADER_SIZE
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != FORMAT_VERSION)
+                return null;
+
+            LemmaStore store = new LemmaStore(storeFile, buffer);
+
+            if (store.dataBase > buffer.capacity() || store.getOffset(store.count) > buffer.capacity() - store.dataBase)
+                return null;
+
+            return store;
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not map lemma store [%s]: %s", storeFile, ex.getMessage());
+        }
+    }
+
+    private boolean matches(File sourceFile) {
+        return buffer.getLong(SOURCE_LENGTH_POSITION) == sourceFile.length()
+            && buffer.getLong(SOURCE_MODIFIED_POSITION) == sourceFile.lastModified();
+    }
+
+    private static void build(PubmedFlatFile<? extends ArticleLemmaRecord> flatFile, File sourceFile, File storeFile) {
+        JamLogger.info("Writing lemma store [%s]...", storeFile);
+
+        long sourceLength = sourceFile.length();
+        long sourceModified = sourceFile.lastModified();
+
+        int[] pmids = new int[1024];
+        byte[][] fields = new byte[1024][];
+        int recordCount = 0;
+
+        try (LineReader reader = flatFile.openReader()) {
+            for (String line : reader) {
+                String[] lineFields = FlatRecord.split(line, 2);
+
+                if (recordCount == pmids.length) {
+                    pmids = Arrays.copyOf(pmids, 2 * recordCount);
+                    fields = Arrays.copyOf(fields, 2 * recordCount);
+                }
+
+                pmids[recordCount] = PMID.instance(lineFields[0]).intValue();
+                fields[recordCount] = lineFields[1].getBytes(StandardCharsets.UTF_8);
+                ++recordCount;
+            }
+        }
+
+        //
+        // Sort by identifier; as in a flat table, the last record for
+        // an article replaces any earlier records...
+        //
+        long[] pairs = new long[recordCount];
+
+        for (int index = 0; index < recordCount; ++index)
+            pairs[index] = ((long) pmids[index] << 32) | index;
+
+        Arrays.sort(pairs);
+
+        int[] order = new int[recordCount];
+        int distinct = 0;
+
+        for (int index = 0; index < recordCount; ++index)
+            if (index + 1 == recordCount || (pairs[index + 1] >>> 32) != (pairs[index] >>> 32))
+                order[distinct++] = (int) pairs[index];
+
+        File tempFile = null;
+
+        try {
+            //
+            // A unique temporary file, so that concurrent builders in
+            // one or more processes never write to the same file...
+            //
+            tempFile = File.createTempFile(storeFile.getName() + ".", ".tmp", storeFile.getAbsoluteFile().getParentFile());
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeLong(sourceLength);
+                output.writeLong(sourceModified);
+                output.writeInt(distinct);
+                output.writeInt(0);
+
+                for (int k = 0; k < distinct; ++k)
+                    output.writeInt(pmids[order[k]]);
+
+                int offset = 0;
+                output.writeInt(offset);
+
+                for (int k = 0; k < distinct; ++k) {
+                    offset += fields[order[k]].length;
+                    output.writeInt(offset);
+                }
+
+                for (int k = 0; k < distinct; ++k)
+                    output.write(fields[order[k]]);
+            }
+
+            Files.move(tempFile.toPath(), storeFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            if (tempFile != null)
+                tempFile.delete();
+
+            throw JamException.runtime("Could not write lemma store [%s]: %s", storeFile, ex.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the store for a lemma flat file.
+     *
+     * @param flatFile the lemma flat file.
+     *
+     * @return {@code true} iff the store existed and was deleted.
+     */
+    public static boolean delete(PubmedFlatFile<?> flatFile) {
+        return resolve(flatFile).delete();
+    }
+
+    private int getPMID(int index) {
+        return buffer.getInt(pmidBase + 4 * index);
+    }
+
+    private int getOffset(int index) {
+        return buffer.getInt(offsetBase + 4 * index);
+    }
+
+    private int find(int pmid) {
+        int lo = 0;
+        int hi = count - 1;
+
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int key = getPMID(mid);
+
+            if (key < pmid)
+                lo = mid + 1;
+            else if (key > pmid)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines whether this store contains the lemmas for a given
+     * article.
+     *
+     * @param pmid the integer value of the article identifier.
+     *
+     * @return {@code true} iff this store contains the lemmas for the
+     * specified article.
+     */
+    public boolean contains(int pmid) {
+        return find(pmid) >= 0;
+    }
+
+    /**
+     * Determines whether this store contains the lemmas for a given
+     * article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return {@code true} iff this store contains the lemmas for the
+     * specified article.
+     */
+    public boolean contains(PMID pmid) {
+        return contains(pmid.intValue());
+    }
+
+    /**
+     * Returns the number of articles in this store.
+     *
+     * @return the number of articles in this store.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the store file.
+     *
+     * @return the store file.
+     */
+    public File getFile() {
+        return storeFile;
+    }
+
+    /**
+     * Decodes the lemmas for a given article.
+     *
+     * @param pmid the integer value of the article identifier.
+     *
+     * @return the lemmas for the specified article, or {@code null}
+     * if this store does not contain the article.
+     */
+    public LemmaList select(int pmid) {
+        int index = find(pmid);
+
+        if (index < 0)
+            return null;
+
+        int start = getOffset(index);
+        int end = getOffset(index + 1);
+
+        //
+        // The buffer is shared by all threads, so the field is read
+        // through a private duplicate...
+        //
+        byte[] bytes = new byte[end - start];
+        ByteBuffer view = buffer.duplicate();
+
+        view.position(dataBase + start);
+        view.get(bytes);
+
+        return ArticleLemmaRecord.parseLemmas(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the lemmas for a given article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return the lemmas for the specified article, or {@code null}
+     * if this store does not contain the article.
+     */
+    public LemmaList select(PMID pmid) {
+        return select(pmid.intValue());
+    }
+}
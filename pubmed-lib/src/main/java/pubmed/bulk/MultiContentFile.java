@@ -3,8 +3,10 @@ package pubmed.bulk;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import pubmed.flat.PubmedFlatRecord;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 import pubmed.xml.PubmedXmlDocument;
 
@@ -12,7 +14,7 @@ import pubmed.xml.PubmedXmlDocument;
  * Provides a base class to for flat files containing multiple joining
  * records (many-to-many mappings) for each article.
  */
-public abstract class MultiContentFile<V extends PubmedFlatRecord> extends DocumentContentFile<V> {
+public abstract class MultiContentFile<V extends PubmedFlatRecord> extends ArticleContentFile<V> {
     /**
      * Creates a new flat file for records derived from a given bulk
      * XML file.
@@ -24,6 +26,20 @@ public abstract class MultiContentFile<V extends PubmedFlatRecord> extends Docum
         super(bulkFile);
     }
 
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader.
+     */
+    protected MultiContentFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        super(bulkFile, parser);
+    }
+
     /**
      * Extracts the joining records from an XML article element.
      *
@@ -34,6 +50,10 @@ public abstract class MultiContentFile<V extends PubmedFlatRecord> extends Docum
      */
     public abstract List<V> extractRecords(PubmedArticleElement element);
 
+    @Override public List<V> extractArticle(PubmedArticleElement element) {
+        return extractRecords(element);
+    }
+
     @Override public List<V> extractRecords(PubmedXmlDocument document) {
         List<V> documentRecords = new ArrayList<V>();
 
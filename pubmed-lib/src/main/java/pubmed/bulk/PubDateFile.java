@@ -2,9 +2,11 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import pubmed.flat.PubDateRecord;
 import pubmed.flat.PubDateTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -12,7 +14,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class PubDateFile extends MultiContentFile<PubDateRecord> {
     private PubDateFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, PubDateRecord::parse);
     }
 
     /**
@@ -40,6 +42,10 @@ public final class PubDateFile extends MultiContentFile<PubDateRecord> {
             return List.of();
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return ArticleField.PUBLICATION_DATE;
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -2,9 +2,11 @@
 package pubmed.bulk;
 
 import java.util.List;
+import java.util.Set;
 
 import pubmed.flat.PubTypeRecord;
 import pubmed.flat.PubTypeTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -12,7 +14,7 @@ import pubmed.xml.PubmedArticleElement;
  */
 public final class PubTypeFile extends MultiContentFile<PubTypeRecord> {
     private PubTypeFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, PubTypeRecord::parse);
     }
 
     /**
@@ -35,6 +37,10 @@ public final class PubTypeFile extends MultiContentFile<PubTypeRecord> {
         return PubTypeRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.PUBLICATION_TYPE_LIST);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
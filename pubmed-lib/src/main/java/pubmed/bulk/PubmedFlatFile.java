@@ -1,11 +1,23 @@
 
 package pubmed.bulk;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Collection;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 import jam.app.JamLogger;
+import jam.app.JamProperties;
 import jam.io.IOUtil;
 import jam.io.FileUtil;
 import jam.io.LineReader;
@@ -13,11 +25,43 @@ import jam.io.ZipUtil;
 import jam.flat.RecordStore;
 import jam.lang.JamException;
 
+import pubmed.article.PMID;
 import pubmed.flat.PubmedFlatRecord;
+import pubmed.io.BlockGZipIndex;
+import pubmed.io.BlockGZipInputStream;
+import pubmed.io.BlockGZipOutputStream;
+import pubmed.io.ColumnarFile;
+import pubmed.io.FieldReader;
+import pubmed.io.PsvReader;
 
 /**
  * Provides a base class for flat files containing records derived
  * from bulk XML files.
+ *
+ * <p>When the {@link PubmedFlatFile#BLOCK_GZIP_PROPERTY} system
+ * property is {@code true}, flat files are written to their gzipped
+ * path in block-compressed form with a block index keyed by {@code
+ * PMID} (see {@link BlockGZipOutputStream}).  Indexed files are read
+ * with parallel decompression, and the records for a single article
+ * can be loaded without decompressing the entire file.
+ *
+ * <p>Existing flat files may be converted to the binary {@link
+ * ColumnarFile} format (see {@link PubmedFlatFile#convertColumnar()}),
+ * which {@link PubmedFlatFile#load()} and {@link
+ * PubmedFlatFile#openReader()} detect and decode automatically.  New
+ * records are always written as text: writing or appending to a
+ * converted file restores its text form first.
+ *
+ * <p>Records are loaded through a {@link FieldReader}: a byte-level
+ * {@link PsvReader} for text files, which tokenizes each line in
+ * place, or the typed columns of a columnar file.  Subclasses supply
+ * a parser for the reader (when they are constructed) to parse the
+ * fields without decoding the line as a string.
+ *
+ * <p>Generated files are recorded in the {@link ContentManifest} of
+ * the bulk directory, which identifies the files that are current
+ * without examining the file system and the files that are stale
+ * because their bulk file has changed.
  */
 public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
     /**
@@ -35,17 +79,43 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      */
     protected final File gzipFile;
 
+    /**
+     * The path to the columnar version of this flat file.
+     */
+    protected final File columnarFile;
+
+    // Parses the current line of a field reader, or null to
+    // parse decoded lines with the record store...
+    private final Function<FieldReader, V> parser;
+
     /**
      * Creates a new flat file for records derived from a given bulk
-     * XML file.
+     * XML file; the lines of the file are parsed by the record store.
      *
      * @param bulkFile the bulk XML file containing articles to be
      * processed.
      */
     protected PubmedFlatFile(BulkFile bulkFile) {
+        this(bulkFile, null);
+    }
+
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader (and returns {@code null} if
+     * the line does not encode a record).
+     */
+    protected PubmedFlatFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        this.parser = parser;
         this.bulkFile = bulkFile;
         this.flatFile = resolveFlatFile();
         this.gzipFile = resolveGZipFile();
+        this.columnarFile = resolveColumnarFile();
     }
 
     private File resolveFlatFile() {
@@ -71,11 +141,55 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
         return new File(flatFileName + ZipUtil.GZIP_SUFFIX);
     }
 
+    private File resolveColumnarFile() {
+        String flatFileName = flatFile.getPath();
+        return new File(flatFileName.substring(0, flatFileName.length() - EXTENSION.length()) + COLUMNAR_EXTENSION);
+    }
+
     /**
      * The file name extension for all flat files.
      */
     public static final String EXTENSION = ".psv";
 
+    /**
+     * The file name extension for columnar flat files.
+     */
+    public static final String COLUMNAR_EXTENSION = ".pcf";
+
+    /**
+     * Name of the system property that selects block-compressed
+     * output for all flat files.
+     */
+    public static final String BLOCK_GZIP_PROPERTY = "pubmed.bulk.blockGZip";
+
+    /**
+     * Suffix appended to the physical file name to form the name of
+     * the temporary file that holds new content until it is
+     * committed.
+     */
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Suffix appended to the temporary file name to form the name of
+     * the file that records its last checkpoint.
+     */
+    public static final String CHECKPOINT_SUFFIX = ".ckpt";
+
+    private static final String RESTORE_SUFFIX = ".restore";
+    private static final int GZIP_BUFFER_SIZE = 65536;
+
+    /**
+     * Determines whether block-compressed output has been selected by
+     * the system property.
+     *
+     * @return {@code true} iff flat files are written in block-gzip
+     * form.
+     */
+    public static boolean isBlockGZip() {
+        return JamProperties.isSet(BLOCK_GZIP_PROPERTY)
+            && Boolean.parseBoolean(JamProperties.getRequired(BLOCK_GZIP_PROPERTY));
+    }
+
     /**
      * Returns the suffix to append to the bulk XML file prefix when
      * composing the name of this flat file (excluding the trailing
@@ -88,11 +202,29 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
 
     /**
      * Creates a new empty store for the records in this flat file.
+     * Files with one or more records per article should return a
+     * {@link pubmed.flat.PmidFlatTable} or {@link pubmed.flat.PmidJoinTable},
+     * which index the records by the primitive article identifier.
      *
      * @return a new empty store for the records in this flat file.
      */
     public abstract RecordStore<V> newStore();
 
+    /**
+     * Determines whether the generation of this file records periodic
+     * checkpoints, so that an interrupted generation resumes after the
+     * last committed article rather than starting over.  Subclasses
+     * whose records are expensive to compute should override this
+     * method to return {@code true}.  (Checkpoints are not recorded
+     * for block-compressed output.)
+     *
+     * @return whether the generation of this file records periodic
+     * checkpoints ({@code false} by default).
+     */
+    public boolean isCheckpointed() {
+        return false;
+    }
+
     /**
      * Determines whether a flat file must be processed.
      *
@@ -100,10 +232,10 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      * skip processing if the flat file already exists).
      *
      * @return {@code true} if the physical flat file is missing or
-     * the {@code overwrite} flag is {@code true}.
+     * stale or the {@code overwrite} flag is {@code true}.
      */
     protected boolean mustProcess(boolean overwrite) {
-        if (overwrite || !exists()) {
+        if (overwrite || !isCurrent()) {
             return true;
         }
         else {
@@ -119,17 +251,101 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      * deleted.
      */
     public boolean delete() {
-        return flatFile.delete() || gzipFile.delete();
+        if (ContentManifest.isEnabled())
+            ContentManifest.instance(bulkFile).remove(this);
+
+        discardTempFile();
+        BlockGZipIndex.resolve(gzipFile).delete();
+        return flatFile.delete() | gzipFile.delete() | columnarFile.delete();
     }
 
     /**
-     * Identifies existing flat files.
+     * Identifies existing flat files.  New content is written to a
+     * temporary file and renamed only when it is complete, so an
+     * interrupted generation never leaves a file that appears to
+     * exist.
      *
      * @return {@code true} iff the physical flat file has already
      * been generated.
      */
     public boolean exists() {
-        return flatFile.canRead() || gzipFile.canRead();
+        return flatFile.canRead() || gzipFile.canRead() || columnarFile.canRead();
+    }
+
+    /**
+     * Identifies flat files that have been generated from the current
+     * version of their bulk file.  When the {@link ContentManifest} is
+     * enabled, it is consulted rather than the file system, and an
+     * existing file that is not yet recorded in the manifest is
+     * adopted; otherwise, any existing file is current.
+     *
+     * @return {@code true} iff the physical flat file has been
+     * generated and is not stale.
+     */
+    public boolean isCurrent() {
+        if (!ContentManifest.isEnabled())
+            return exists();
+
+        ContentManifest manifest = ContentManifest.instance(bulkFile);
+
+        switch (manifest.getStatus(this)) {
+        case CURRENT:
+            return true;
+
+        case STALE:
+            JamLogger.info("File [%s] is stale; its bulk file has changed.", flatFile);
+            return false;
+
+        default:
+            if (!exists())
+                return false;
+
+            manifest.adopt(this);
+            return true;
+        }
+    }
+
+    /**
+     * Identifies flat files that were generated from an earlier
+     * version of their bulk file.
+     *
+     * @return {@code true} iff the {@link ContentManifest} records
+     * this flat file as stale.
+     */
+    public boolean isStale() {
+        return ContentManifest.isEnabled()
+            && ContentManifest.instance(bulkFile).getStatus(this) == ContentManifest.Status.STALE;
+    }
+
+    /**
+     * Returns the size of the physical flat file (plain, gzipped, or
+     * columnar).
+     *
+     * @return the size of the physical flat file in bytes, or zero if
+     * the file does not exist.
+     */
+    long physicalLength() {
+        if (flatFile.exists())
+            return flatFile.length();
+        else if (gzipFile.exists())
+            return gzipFile.length();
+        else
+            return columnarFile.length();
+    }
+
+    /**
+     * Records this file in the {@link ContentManifest} after records
+     * have been written to it.
+     *
+     * @param recordCount the number of records written (or {@code -1}
+     * if unknown).
+     *
+     * @param append whether the records were appended ({@code true})
+     * or replaced the previous content ({@code false}).
+     */
+    void updateManifest(long recordCount, boolean append) {
+        if (ContentManifest.isEnabled())
+            ContentManifest.instance(bulkFile).recordOutput(this, recordCount, append);
     }
 
     /**
@@ -159,6 +375,22 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
         return gzipFile;
     }
 
+    /**
+     * Returns the path to the columnar version of this flat file.
+     *
+     * @return the path to the columnar version of this flat file.
+     */
+    public File getColumnarFile() {
+        return columnarFile;
+    }
+
+    private V parseRecord(FieldReader reader, RecordStore<V> store) {
+        if (parser != null)
+            return parser.apply(reader);
+        else
+            return store.parse(reader.getLine());
+    }
+
     /**
      * Loads the records in this flat file.
      *
@@ -170,13 +402,120 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
     public RecordStore<V> load() {
         RecordStore<V> records = newStore();
 
-        try (LineReader reader = openReader()) {
-            records.load(reader);
+        if (columnarFile.canRead()) {
+            loadColumnar(ColumnarFile.load(columnarFile), records);
+        }
+        else {
+            try (PsvReader reader = PsvReader.open(openStream())) {
+                while (reader.next())
+                    insert(records, parseRecord(reader, records));
+            }
         }
 
         return records;
     }
 
+    private void loadColumnar(ColumnarFile columnar, RecordStore<V> records) {
+        //
+        // The fields of uniform files are decoded directly from their
+        // typed columns; other files are parsed line by line...
+        //
+        FieldReader reader = columnar.openFieldReader();
+
+        while (reader.next()) {
+            if (columnar.isUniform())
+                insert(records, parseRecord(reader, records));
+            else
+                insert(records, records.parse(reader.getLine()));
+        }
+    }
+
+    private static <V extends PubmedFlatRecord> void insert(RecordStore<V> records, V record) {
+        if (record != null)
+            records.insert(record);
+    }
+
+    /**
+     * Loads the records for a single article from this flat file.
+     * Only the blocks that may contain the article are decompressed
+     * if the file has a block index; otherwise the entire file is
+     * scanned.
+     *
+     * @param pmid the identifier of the article to load.
+     *
+     * @return the records for the specified article.
+     *
+     * @throws RuntimeException unless the physical flat file exists
+     * and can be parsed sucessfully.
+     */
+    public RecordStore<V> load(PMID pmid) {
+        RecordStore<V> records = newStore();
+
+        if (columnarFile.canRead()) {
+            //
+            // Only the rows for the article are decoded...
+            //
+            loadColumnar(ColumnarFile.select(columnarFile, pmid.intValue()), records);
+        }
+        else {
+            //
+            // Lines for other articles are skipped without parsing...
+            //
+            try (PsvReader reader = PsvReader.open(openStream(pmid))) {
+                while (reader.next()) {
+                    if (!isCandidate(reader, pmid))
+                        continue;
+
+                    V record = parseRecord(reader, records);
+
+                    if (record != null && record.getPrimaryKey().equals(pmid))
+                        records.insert(record);
+                }
+            }
+        }
+
+        return records;
+    }
+
+    private static boolean isCandidate(FieldReader reader, PMID pmid) {
+        try {
+            return reader.getInt(0) == pmid.intValue();
+        }
+        catch (RuntimeException ex) {
+            //
+            // A malformed line is left to the record parser, which may
+            // reject it without failing...
+            //
+            return true;
+        }
+    }
+
+    private InputStream openStream() {
+        try {
+            if (flatFile.canRead())
+                return new FileInputStream(flatFile);
+
+            if (gzipFile.canRead() && BlockGZipIndex.exists(gzipFile))
+                return BlockGZipInputStream.open(gzipFile);
+
+            if (gzipFile.canRead())
+                return new GZIPInputStream(new FileInputStream(gzipFile), GZIP_BUFFER_SIZE);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+
+        throw JamException.runtime("Missing file: [%s].", flatFile);
+    }
+
+    private InputStream openStream(PMID pmid) {
+        if (flatFile.canRead() || !gzipFile.canRead() || !BlockGZipIndex.exists(gzipFile))
+            return openStream();
+
+        BlockGZipIndex index = BlockGZipIndex.load(gzipFile);
+        return BlockGZipInputStream.open(gzipFile, index.find(pmid.intValue()));
+    }
+
     /**
      * Opens a line reader for this file.
      *
@@ -186,9 +525,19 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      * and can be opened for reading.
      */
     public LineReader openReader() {
+        //
+        // Text is never written while a columnar file exists, so the
+        // columnar file is always current...
+        //
+        if (columnarFile.canRead())
+            return LineReader.open(ColumnarFile.load(columnarFile).openReader());
+
         if (flatFile.canRead())
             return LineReader.open(flatFile);
 
+        if (gzipFile.canRead() && BlockGZipIndex.exists(gzipFile))
+            return openBlockReader(BlockGZipInputStream.open(gzipFile));
+
         if (gzipFile.canRead())
             return LineReader.open(gzipFile);
 
@@ -196,7 +545,36 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
     }
 
     /**
-     * Opens a writer for this file.
+     * Opens a line reader positioned at the lines for a single
+     * article.  If this file has a block index, the reader covers
+     * only the blocks that may contain the article (which may also
+     * contain lines for other articles); otherwise the reader covers
+     * the entire file.
+     *
+     * @param pmid the identifier of the article to locate.
+     *
+     * @return an open line reader containing every line for the
+     * specified article.
+     *
+     * @throws RuntimeException unless the physical flat file exists
+     * and can be opened for reading.
+     */
+    public LineReader openReader(PMID pmid) {
+        if (flatFile.canRead() || !gzipFile.canRead() || !BlockGZipIndex.exists(gzipFile))
+            return openReader();
+
+        BlockGZipIndex index = BlockGZipIndex.load(gzipFile);
+        return openBlockReader(BlockGZipInputStream.open(gzipFile, index.find(pmid.intValue())));
+    }
+
+    private static LineReader openBlockReader(BlockGZipInputStream stream) {
+        return LineReader.open(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens a writer for this file.  The writer writes directly to
+     * the physical file; see {@link PubmedFlatFile#openSink} for
+     * atomic writes.
      *
      * @param append whether to append ({@code true}) or truncate
      * ({@code false}) an existing file.
@@ -207,10 +585,190 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      * opened for writing.
      */
     public PrintWriter openWriter(boolean append) {
+        if (append)
+            restoreText();
+        else
+            columnarFile.delete();
+
+        if (useBlockGZip(append)) {
+            JamLogger.info("Writing file [%s]...", gzipFile);
+            flatFile.delete();
+            return openBlockWriter(gzipFile, append);
+        }
+
         JamLogger.info("Writing file [%s]...", flatFile);
         return IOUtil.openWriter(flatFile, append);
     }
 
+    private boolean useBlockGZip(boolean append) {
+        //
+        // An existing plain file is always appended in place, so that
+        // the records are never split between two files...
+        //
+        return isBlockGZip() && !(append && flatFile.exists());
+    }
+
+    private File resolveTarget() {
+        return useBlockGZip(false) ? gzipFile : flatFile;
+    }
+
+    private static PrintWriter openBlockWriter(File file, boolean append) {
+        file.getParentFile().mkdirs();
+
+        BlockGZipOutputStream stream = BlockGZipOutputStream.open(file, append);
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns the temporary file that holds new content for this
+     * file until it is committed.
+     *
+     * @return the temporary file for this file.
+     */
+    File getTempFile() {
+        return new File(resolveTarget().getPath() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Returns the file that records the last checkpoint in the
+     * temporary file.
+     *
+     * @return the checkpoint file for this file.
+     */
+    File getCheckpointFile() {
+        return new File(getTempFile().getPath() + CHECKPOINT_SUFFIX);
+    }
+
+    /**
+     * Opens a writer for the temporary file that holds new content
+     * for this file until it is committed.
+     *
+     * @param resume whether to append to ({@code true}) or truncate
+     * ({@code false}) an existing temporary file.
+     *
+     * @return an open writer for the temporary file.
+     *
+     * @throws RuntimeException unless the temporary file can be
+     * opened for writing.
+     */
+    PrintWriter openTempWriter(boolean resume) {
+        File tempFile = getTempFile();
+        JamLogger.info("Writing file [%s]...", resolveTarget());
+
+        if (useBlockGZip(false))
+            return openBlockWriter(tempFile, resume);
+
+        tempFile.getParentFile().mkdirs();
+        return IOUtil.openWriter(tempFile, resume);
+    }
+
+    /**
+     * Replaces the physical file with the completed temporary file.
+     * Each rename is atomic, so the physical file is always either
+     * absent, complete with its previous content, or complete with
+     * its new content.
+     *
+     * @throws RuntimeException unless the temporary file can be
+     * renamed, or if the bulk file was leased and its lease has been
+     * lost.
+     */
+    void commitTempFile() {
+        File target = resolveTarget();
+        File tempFile = getTempFile();
+
+        bulkFile.requireLease();
+
+        if (target == gzipFile) {
+            //
+            // Without its index, the new data file is still read
+            // correctly (serially)...
+            //
+            BlockGZipIndex.resolve(gzipFile).delete();
+            moveAtomic(tempFile, gzipFile);
+            moveAtomic(BlockGZipIndex.resolve(tempFile), BlockGZipIndex.resolve(gzipFile));
+            flatFile.delete();
+        }
+        else {
+            moveAtomic(tempFile, flatFile);
+        }
+
+        columnarFile.delete();
+    }
+
+    /**
+     * Deletes the temporary file and its checkpoint (if they exist).
+     */
+    void discardTempFile() {
+        File tempFile = getTempFile();
+
+        getCheckpointFile().delete();
+        BlockGZipIndex.resolve(tempFile).delete();
+        tempFile.delete();
+    }
+
+    private static void moveAtomic(File source, File target) {
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not rename [%s] to [%s]: %s", source, target, ex.getMessage());
+        }
+    }
+
+    /**
+     * Converts this flat file to the binary {@link ColumnarFile}
+     * format and deletes its text form (plain or gzipped).  The
+     * columnar file is renamed into place before the text is deleted,
+     * so an interrupted conversion never loses records.
+     *
+     * @return {@code true} iff the file was converted ({@code false}
+     * if it does not exist or has already been converted).
+     *
+     * @throws RuntimeException unless the file can be read and the
+     * columnar file can be written.
+     */
+    public boolean convertColumnar() {
+        if (columnarFile.canRead()) {
+            deleteText();
+            return false;
+        }
+
+        if (!exists())
+            return false;
+
+        JamLogger.info("Converting file [%s]...", flatFile);
+
+        try (LineReader reader = openReader()) {
+            ColumnarFile.write(columnarFile, reader);
+        }
+
+        deleteText();
+        return true;
+    }
+
+    private void deleteText() {
+        BlockGZipIndex.resolve(gzipFile).delete();
+        flatFile.delete();
+        gzipFile.delete();
+    }
+
+    private void restoreText() {
+        if (!columnarFile.canRead())
+            return;
+
+        JamLogger.info("Restoring text file [%s]...", flatFile);
+        File tempFile = new File(flatFile.getPath() + RESTORE_SUFFIX + TEMP_SUFFIX);
+
+        try (LineReader reader = openReader(); PrintWriter writer = IOUtil.openWriter(tempFile, false)) {
+            for (String line : reader)
+                writer.println(line);
+        }
+
+        moveAtomic(tempFile, flatFile);
+        columnarFile.delete();
+    }
+
     /**
      * Writes records to the physical flat file.
      *
@@ -223,10 +781,34 @@ public abstract class PubmedFlatFile<V extends PubmedFlatRecord> {
      * opened for writing.
      */
     public void writeRecords(Collection<V> records, boolean append) {
-        try (PrintWriter writer = openWriter(append)) {
-            for (V record : records)
-                if (record != null)
-                    writer.println(record.format());
+        RecordSink<V> sink = openSink(append);
+
+        try {
+            sink.write(records);
         }
+        catch (RuntimeException ex) {
+            sink.abort();
+            throw ex;
+        }
+
+        sink.close();
+    }
+
+    /**
+     * Opens a sink that writes records to the physical flat file as
+     * they are produced.  Unless appending, the records are written
+     * to a temporary file that replaces the physical file when the
+     * sink is closed.
+     *
+     * @param append whether to append ({@code true}) or truncate
+     * ({@code false}) an existing file.
+     *
+     * @return an open sink for this file.
+     *
+     * @throws RuntimeException unless the physical flat file can be
+     * opened for writing.
+     */
+    public RecordSink<V> openSink(boolean append) {
+        return RecordSink.open(this, append);
     }
 }
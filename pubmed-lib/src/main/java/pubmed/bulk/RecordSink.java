@@ -0,0 +1,387 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.List;
+
+import jam.app.JamLogger;
+import jam.flat.FlatRecord;
+import jam.lang.JamException;
+
+import pubmed.article.PMID;
+import pubmed.flat.PubmedFlatRecord;
+
+/**
+ * Writes records to a flat file as they are produced, so that the
+ * records never need to be collected in memory.
+ *
+ * <p>Records may be written one at a time ({@link RecordSink#write})
+ * or formatted in advance into blocks of lines by any thread ({@link
+ * RecordSink#format(StringBuilder, PubmedFlatRecord)}) and appended in
+ * order by the thread that owns the sink ({@link RecordSink#append}).
+ * A sink is not thread-safe.
+ *
+ * <p>Unless the sink appends to an existing file, the records are
+ * written to a temporary file that atomically replaces the physical
+ * file when the sink is closed; an abandoned or interrupted sink
+ * leaves the physical file untouched.  For {@link
+ * PubmedFlatFile#isCheckpointed() checkpointed} files, the sink also
+ * records the last article whose records were flushed to the
+ * temporary file (see {@link RecordSink#checkpoint}); a new sink for
+ * the same file then resumes after that article.
+ *
+ * @param <V> the runtime record type.
+ */
+public final class RecordSink<V extends PubmedFlatRecord> implements AutoCloseable {
+    private final PubmedFlatFile<V> flatFile;
+    private final PrintWriter writer;
+    private final boolean atomic;
+    private final boolean appended;
+    private final boolean checkpointed;
+    private final PMID resumePMID;
+
+    private long recordCount;
+    private boolean closed = false;
+
+    // Records are formatted into a reusable line buffer and copied to
+    // the writer without creating a string for each line...
+    private final StringBuilder line = new StringBuilder();
+    private char[] chars = new char[256];
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private RecordSink(PubmedFlatFile<V> flatFile,
+                       PrintWriter writer,
+                       boolean atomic,
+                       boolean appended,
+                       boolean checkpointed,
+                       PMID resumePMID,
+                       long recordCount) {
+        this.flatFile = flatFile;
+        this.writer = writer;
+        this.atomic = atomic;
+        this.appended = appended;
+        this.checkpointed = checkpointed;
+        this.resumePMID = resumePMID;
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Opens a sink for a flat file.
+     *
+     * @param <V> the runtime record type.
+     *
+     * @param flatFile the flat file to write.
+     *
+     * @param append whether to append ({@code true}) or truncate
+     * ({@code false}) an existing file.
+     *
+     * @return an open sink for the flat file.
+     *
+     * @throws RuntimeException unless the physical flat file can be
+     * opened for writing.
+     */
+    public static <V extends PubmedFlatRecord> RecordSink<V> open(PubmedFlatFile<V> flatFile, boolean append) {
+        if (append) {
+            boolean appended = flatFile.exists();
+            return new RecordSink<V>(flatFile, flatFile.openWriter(true), false, appended, false, null, 0L);
+        }
+
+        boolean checkpointed = flatFile.isCheckpointed() && !PubmedFlatFile.isBlockGZip();
+
+        if (checkpointed) {
+            Checkpoint checkpoint = resume(flatFile);
+
+            if (checkpoint != null)
+                return new RecordSink<V>(flatFile, flatFile.openTempWriter(true), true, false, true,
+                                         checkpoint.pmid, checkpoint.recordCount);
+        }
+
+        flatFile.getCheckpointFile().delete();
+        return new RecordSink<V>(flatFile, flatFile.openTempWriter(false), true, false, checkpointed, null, 0L);
+    }
+
+    private static final class Checkpoint {
+        private final PMID pmid;
+        private final long recordCount;
+
+        private Checkpoint(PMID pmid, long recordCount) {
+            this.pmid = pmid;
+            this.recordCount = recordCount;
+        }
+    }
+
+    private static Checkpoint resume(PubmedFlatFile<?> flatFile) {
+        File tempFile = flatFile.getTempFile();
+        File checkpointFile = flatFile.getCheckpointFile();
+
+        if (!tempFile.canRead() || !checkpointFile.canRead())
+            return null;
+
+        try {
+            List<String> lines = Files.readAllLines(checkpointFile.toPath(), StandardCharsets.UTF_8);
+
+            if (lines.size() != 1)
+                return null;
+
+            //
+            // The record count (the third field) is absent from older
+            // checkpoints...
+            //
+            String[] fields = lines.get(0).split("\\|");
+
+            if (fields.length < 2 || fields.length > 3)
+                return null;
+
+            PMID pmid = PMID.instance(fields[0]);
+            long length = Long.parseLong(fields[1]);
+            long recordCount = (fields.length > 2) ? Long.parseLong(fields[2]) : -1L;
+
+            if (tempFile.length() < length)
+                return null;
+
+            //
+            // Discard anything written after the checkpoint...
+            //
+            try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw")) {
+                file.setLength(length);
+            }
+
+            JamLogger.info("Resuming file [%s] after article [%s]...", flatFile.getFlatFile(), pmid);
+            return new Checkpoint(pmid, recordCount);
+        }
+        catch (IOException | RuntimeException ex) {
+            JamLogger.info("Ignoring invalid checkpoint [%s]: %s", checkpointFile, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Formats a record as a line of text in the flat file format.
+     *
+     * @param builder the builder for the formatted lines.
+     *
+     * @param record the record to format ({@code null} records are
+     * skipped).
+     */
+    public static void format(StringBuilder builder, PubmedFlatRecord record) {
+        if (record != null) {
+            record.formatTo(builder);
+            builder.append(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Formats records as lines of text in the flat file format.
+     *
+     * @param builder the builder for the formatted lines.
+     *
+     * @param records the records to format ({@code null} records are
+     * skipped).
+     */
+    public static void format(StringBuilder builder, Collection<? extends PubmedFlatRecord> records) {
+        for (PubmedFlatRecord record : records)
+            format(builder, record);
+    }
+
+    /**
+     * Appends lines that were formatted by {@link
+     * RecordSink#format(StringBuilder, PubmedFlatRecord)}.
+     *
+     * @param lines the formatted lines.
+     *
+     * @param count the number of records in the formatted lines.
+     */
+    public void append(CharSequence lines, int count) {
+        if (lines instanceof StringBuilder)
+            writeChars((StringBuilder) lines);
+        else
+            writer.append(lines);
+
+        if (recordCount >= 0)
+            recordCount += count;
+    }
+
+    /**
+     * Writes a record.
+     *
+     * @param record the record to write ({@code null} records are
+     * skipped).
+     */
+    public void write(V record) {
+        if (record != null) {
+            line.setLength(0);
+            record.formatTo(line);
+            line.append(LINE_SEPARATOR);
+            writeChars(line);
+
+            if (recordCount >= 0)
+                ++recordCount;
+        }
+    }
+
+    private void writeChars(StringBuilder builder) {
+        int length = builder.length();
+
+        if (chars.length < length)
+            chars = new char[Math.max(length, 2 * chars.length)];
+
+        builder.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    /**
+     * Writes records.
+     *
+     * @param records the records to write ({@code null} records are
+     * skipped).
+     */
+    public void write(Collection<? extends V> records) {
+        for (V record : records)
+            write(record);
+    }
+
+    /**
+     * Records a checkpoint: flushes the records written so far and
+     * notes the last article whose records are complete.  This method
+     * does nothing unless the sink is {@link RecordSink#isCheckpointed
+     * checkpointed}.
+     *
+     * @param pmid the last article whose records have been written.
+     *
+     * @throws RuntimeException unless the records and the checkpoint
+     * can be written.
+     */
+    public void checkpoint(PMID pmid) {
+        if (!checkpointed)
+            return;
+
+        writer.flush();
+
+        if (writer.checkError())
+            throw JamException.runtime("Could not write [%s].", flatFile.getTempFile());
+
+        File checkpointFile = flatFile.getCheckpointFile();
+        File tempFile = new File(checkpointFile.getPath() + PubmedFlatFile.TEMP_SUFFIX);
+
+        String line = FlatRecord.DELIMITER.join(List.of(pmid.formatBulk(),
+                                                        Long.toString(flatFile.getTempFile().length()),
+                                                        Long.toString(recordCount)));
+
+        try {
+            Files.write(tempFile.toPath(), List.of(line), StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), checkpointFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not write checkpoint [%s]: %s", checkpointFile, ex.getMessage());
+        }
+    }
+
+    /**
+     * Identifies sinks that record checkpoints.
+     *
+     * @return {@code true} iff this sink records checkpoints.
+     */
+    public boolean isCheckpointed() {
+        return checkpointed;
+    }
+
+    /**
+     * Returns the last article whose records were written before an
+     * interrupted generation of the flat file.  The producer must
+     * skip that article and every article before it.
+     *
+     * @return the article after which this sink resumes, or {@code
+     * null} if the sink starts from the beginning.
+     */
+    public PMID getResumePMID() {
+        return resumePMID;
+    }
+
+    /**
+     * Returns the number of records written to this sink (including
+     * the records written before a resumed checkpoint).
+     *
+     * @return the number of records written to this sink, or {@code
+     * -1} if the sink resumed a checkpoint that did not record the
+     * count.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Closes this sink and abandons the records written to it.  The
+     * physical flat file is left untouched.  The temporary file is
+     * deleted, unless it holds a checkpoint, in which case it is kept
+     * so that a later sink resumes after the checkpoint.
+     */
+    public void abort() {
+        if (closed)
+            return;
+
+        closed = true;
+        writer.close();
+
+        if (atomic && !(checkpointed && flatFile.getCheckpointFile().exists()))
+            flatFile.discardTempFile();
+    }
+
+    /**
+     * Closes this sink and deletes its temporary file and checkpoint,
+     * so that a later sink starts from the beginning.
+     */
+    void discard() {
+        abort();
+
+        if (atomic)
+            flatFile.discardTempFile();
+    }
+
+    /**
+     * Returns the flat file written by this sink.
+     *
+     * @return the flat file written by this sink.
+     */
+    public PubmedFlatFile<V> getFlatFile() {
+        return flatFile;
+    }
+
+    /**
+     * Closes this sink and commits the records written to it: the
+     * temporary file replaces the physical flat file, which is then
+     * recorded in the {@link ContentManifest}.
+     *
+     * @throws RuntimeException unless all records were written and
+     * committed successfully.
+     */
+    @Override public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        writer.close();
+
+        if (writer.checkError()) {
+            if (atomic && !checkpointed)
+                flatFile.discardTempFile();
+
+            throw JamException.runtime("Could not write [%s].", flatFile.getFlatFile());
+        }
+
+        if (atomic) {
+            flatFile.commitTempFile();
+            flatFile.getCheckpointFile().delete();
+        }
+
+        flatFile.updateManifest(recordCount, appended);
+    }
+}
@@ -8,7 +8,6 @@ import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
 
 import jam.app.JamLogger;
 import jam.io.FileUtil;
@@ -17,10 +16,13 @@ import jam.util.ListUtil;
 import jam.util.StreamUtil;
 
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.flat.ArticleAbstractRecord;
 import pubmed.flat.ArticleAbstractTable;
 import pubmed.flat.RelevanceScoreRecord;
 import pubmed.flat.RelevanceScoreTable;
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
 import pubmed.relev.AbstractRelevanceScorer;
 import pubmed.relev.ChemicalRelevanceScorer;
 import pubmed.relev.HeadingRelevanceScorer;
@@ -40,7 +42,7 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
     //
     private final File tocFile;
 
-    private final Set<PMID> pmidSet = new TreeSet<PMID>();
+    private PmidSet pmidSet = PmidSet.empty();
 
     private TitleRelevanceScorer    titleScorer;
     private AbstractRelevanceScorer abstractScorer;
@@ -50,7 +52,7 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
     private ChemicalRelevanceScorer chemicalListScorer;
     
     private RelevanceScoreFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, RelevanceScoreRecord::parse);
         this.tocFile = resolveTOCFile();
     }
 
@@ -101,11 +103,24 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
 
     /**
      * Loads the table of contents: A set containing the keys of all
-     * previously subjects.
+     * previously subjects.  The keys are read from the {@link
+     * ContentManifest} when it records this file, and from the table
+     * of contents file otherwise.
      *
      * @return a set containing the keys of all previously subjects.
      */
     public Set<String> loadTOC() {
+        if (ContentManifest.isEnabled()) {
+            Set<String> subjectKeys = ContentManifest.instance(bulkFile).getSubjects(this);
+
+            if (subjectKeys != null && !subjectKeys.isEmpty())
+                return subjectKeys;
+        }
+
+        return readTOCFile();
+    }
+
+    private Set<String> readTOCFile() {
         if (tocFile.exists())
             return new LinkedHashSet<String>(IOUtil.readLines(tocFile));
         else
@@ -121,6 +136,16 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
      */
     public synchronized void process(Collection<Subject> subjects) {
         JamLogger.info("Processing [%s]...", flatFile);
+
+        if (isStale()) {
+            //
+            // The bulk file has changed since the scores were computed,
+            // so every subject must be scored again...
+            //
+            JamLogger.info("Bulk file has changed; discarding [%s]...", flatFile);
+            delete();
+        }
+
         List<Subject> unprocessed = findUnprocessed(subjects);
 
         if (unprocessed.isEmpty()) {
@@ -136,11 +161,23 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
         List<RelevanceScoreRecord> fileRecords =
             new ArrayList<RelevanceScoreRecord>();
 
+        long start = System.nanoTime();
+
         for (Subject subject : unprocessed)
             fileRecords.addAll(process(subject));
 
+        long scored = System.nanoTime();
+        long length = physicalLength();
+
         writeRecords(fileRecords, true);
         updateTOC(unprocessed);
+
+        //
+        // Every article is scored against every subject, but each
+        // article is counted once...
+        //
+        PipelineMetrics.recorder().record(Stage.SCORE, scored - start, pmidSet.size(), 0L);
+        PipelineMetrics.recorder().record(Stage.WRITE, System.nanoTime() - scored, fileRecords.size(), physicalLength() - length);
     }
 
     private void loadPMIDs() {
@@ -150,8 +187,12 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
         ArticleAbstractTable abstractTable =
             bulkFile.getArticleAbstractFile().load();
 
+        PmidSet.Builder builder = PmidSet.builder();
+
         for (ArticleAbstractRecord abstractRecord : abstractTable)
-            pmidSet.add(abstractRecord.getPMID());
+            builder.add(abstractRecord.getPMID());
+
+        pmidSet = builder.build();
     }
 
     private void createScorers() {
@@ -206,6 +247,9 @@ public final class RelevanceScoreFile extends PubmedFlatFile<RelevanceScoreRecor
     private void updateTOC(Collection<Subject> subjects) {
         JamLogger.info("Updating table of contents [%s]...", tocFile);
         IOUtil.writeObjects(tocFile, true, subjects, subject -> subject.getKey());
+
+        if (ContentManifest.isEnabled())
+            ContentManifest.instance(bulkFile).recordSubjects(this, readTOCFile());
     }
 
     @Override public boolean delete() {
@@ -1,16 +1,19 @@
 
 package pubmed.bulk;
 
+import java.util.Set;
+
 import pubmed.flat.TitleLemmaRecord;
 import pubmed.flat.TitleLemmaTable;
+import pubmed.xml.ArticleField;
 import pubmed.xml.PubmedArticleElement;
 
 /**
  * Reads and writes flat files containing lemmatized article titles.
  */
-public final class TitleLemmaFile extends UniqueContentFile<TitleLemmaRecord> {
+public final class TitleLemmaFile extends LemmaContentFile<TitleLemmaRecord> {
     private TitleLemmaFile(BulkFile bulkFile) {
-        super(bulkFile);
+        super(bulkFile, TitleLemmaRecord::parse);
     }
 
     /**
@@ -33,6 +36,10 @@ public final class TitleLemmaFile extends UniqueContentFile<TitleLemmaRecord> {
         return TitleLemmaRecord.from(element);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.TITLE);
+    }
+
     @Override public String getSuffix() {
         return SUFFIX;
     }
@@ -1,11 +1,15 @@
 
 package pubmed.bulk;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 
 import jam.util.StreamUtil;
 
 import pubmed.flat.PubmedFlatRecord;
+import pubmed.intern.InternScope;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 import pubmed.xml.PubmedXmlDocument;
 
@@ -13,7 +17,7 @@ import pubmed.xml.PubmedXmlDocument;
  * Provides a base class to for flat files containing unique article
  * attribute data (one row per article).
  */
-public abstract class UniqueContentFile<V extends PubmedFlatRecord> extends DocumentContentFile<V> {
+public abstract class UniqueContentFile<V extends PubmedFlatRecord> extends ArticleContentFile<V> {
     /**
      * Creates a new flat file for records derived from a given bulk
      * XML file.
@@ -25,6 +29,20 @@ public abstract class UniqueContentFile<V extends PubmedFlatRecord> extends Docu
         super(bulkFile);
     }
 
+    /**
+     * Creates a new flat file for records derived from a given bulk
+     * XML file.
+     *
+     * @param bulkFile the bulk XML file containing articles to be
+     * processed.
+     *
+     * @param parser a function that parses the record encoded in the
+     * current line of a field reader.
+     */
+    protected UniqueContentFile(BulkFile bulkFile, Function<FieldReader, V> parser) {
+        super(bulkFile, parser);
+    }
+
     /**
      * Extracts the single, unique data record from an XML article
      * element.
@@ -37,7 +55,11 @@ public abstract class UniqueContentFile<V extends PubmedFlatRecord> extends Docu
      */
     public abstract V extractRecord(PubmedArticleElement element);
 
+    @Override public List<V> extractArticle(PubmedArticleElement element) {
+        return Collections.singletonList(extractRecord(element));
+    }
+
     @Override public List<V> extractRecords(PubmedXmlDocument document) {
-        return StreamUtil.applyParallel(document.getPubmedArticleElements(), element -> extractRecord(element));
+        return StreamUtil.applyParallel(document.getPubmedArticleElements(), InternScope.propagate(element -> extractRecord(element)));
     }
 }
@@ -1,16 +1,17 @@
 
 package pubmed.delcit;
 
-import java.util.Set;
+import java.util.Collection;
 
 import jam.app.JamEnv;
 import jam.app.JamProperties;
 import jam.io.FileUtil;
 import jam.io.TOCFile;
-import jam.util.StreamUtil;
 
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.bulk.BulkFile;
+import pubmed.xml.ArticleProjection;
 import pubmed.xml.PubmedXmlDocument;
 
 /**
@@ -61,7 +62,7 @@ public final class DeleteCitationFile {
      *
      * @param pmid the identifier of the deleted article.
      */
-    public void add(PMID pmid) {
+    public synchronized void add(PMID pmid) {
         tocFile.add(format(pmid));
     }
 
@@ -74,7 +75,7 @@ public final class DeleteCitationFile {
      *
      * @param document the XML document to process.
      */
-    public void add(PubmedXmlDocument document) {
+    public synchronized void add(PubmedXmlDocument document) {
         for (PMID pmid : document.getDeletedCitations())
             add(pmid);
     }
@@ -85,7 +86,7 @@ public final class DeleteCitationFile {
      * @param bulkFile the bulk XML file to process.
      */
     public void add(BulkFile bulkFile) {
-        add(bulkFile.getDocument());
+        add(bulkFile.getDocument(ArticleProjection.of()));
     }
 
     /**
@@ -96,7 +97,7 @@ public final class DeleteCitationFile {
      * @return {@code true} iff the article with the specified
      * identifer has been deleted from the corpus.
      */
-    public boolean contains(PMID pmid) {
+    public synchronized boolean contains(PMID pmid) {
         return tocFile.contains(format(pmid));
     }
 
@@ -105,7 +106,7 @@ public final class DeleteCitationFile {
      *
      * @return {@code true} iff the file was deleted successfully.
      */
-    public boolean delete() {
+    public synchronized boolean delete() {
         return tocFile.delete();
     }
 
@@ -114,7 +115,13 @@ public final class DeleteCitationFile {
      *
      * @return a read-only view of the deleted citations.
      */
-    public Set<PMID> viewDeleted() {
-        return StreamUtil.toHashSet(tocFile.viewItems().parallelStream().map(item -> PMID.instance(item)));
+    public PmidSet viewDeleted() {
+        Collection<String> items = tocFile.viewItems();
+        PmidSet.Builder builder = PmidSet.builder(items.size());
+
+        for (String item : items)
+            builder.add(Integer.parseInt(item));
+
+        return builder.build();
     }
 }
@@ -4,6 +4,7 @@ package pubmed.flat;
 import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.nlp.LemmaAnnotator;
 import pubmed.nlp.LemmaList;
 import pubmed.xml.PubmedArticleElement;
@@ -57,7 +58,20 @@ public final class AbstractLemmaRecord extends ArticleLemmaRecord {
      */
     public static AbstractLemmaRecord parse(String line) {
         String[] fields = FlatRecord.split(line, 2);
-        return create(parsePMID(fields[0]), LemmaList.parse(fields[1]));
+        return create(parsePMID(fields[0]), parseLemmas(fields[1]));
+    }
+
+    /**
+     * Parses the current line of a field reader that encodes an
+     * abstract lemma record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static AbstractLemmaRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), parseLemmas(reader.getString(1)));
     }
 
     /**
@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of article abstract lemma records.
  */
-public final class AbstractLemmaTable extends FlatTable<PMID, AbstractLemmaRecord> {
+public final class AbstractLemmaTable extends PmidFlatTable<AbstractLemmaRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -4,6 +4,7 @@ package pubmed.flat;
 import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -62,6 +63,24 @@ public final class ArticleAbstractRecord extends ArticleTextAttrRecord {
         }
     }
 
+    /**
+     * Parses the current line of a field reader that encodes an
+     * abstract record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static ArticleAbstractRecord parse(FieldReader reader) {
+        try {
+            reader.requireFields(2);
+            return create(parsePMID(reader, 0), reader.getString(1));
+        }
+        catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
     private static ArticleAbstractRecord parseEmpty(String line) {
         return null;
     }
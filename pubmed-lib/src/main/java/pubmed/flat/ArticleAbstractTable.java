@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of article abstract records.
  */
-public final class ArticleAbstractTable extends FlatTable<PMID, ArticleAbstractRecord> {
+public final class ArticleAbstractTable extends PmidFlatTable<ArticleAbstractRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
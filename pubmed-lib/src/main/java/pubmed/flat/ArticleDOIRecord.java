@@ -2,11 +2,13 @@
 package pubmed.flat;
 
 import java.util.List;
+import java.util.Objects;
 
 import jam.flat.FlatRecord;
 
 import pubmed.article.DOI;
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -63,6 +65,19 @@ public final class ArticleDOIRecord extends PubmedFlatRecord {
         return create(parsePMID(fields[0]), parseDOI(fields[1]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a DOI
+     * record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static ArticleDOIRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), parseDOI(reader, 1));
+    }
+
     /**
      * Returns the Digital Object Identifier for the article.
      *
@@ -74,10 +89,14 @@ public final class ArticleDOIRecord extends PubmedFlatRecord {
 
     @Override public boolean equalsData(Object record) {
         ArticleDOIRecord that = (ArticleDOIRecord) record;
-        return this.doi.equals(that.doi);
+        return Objects.equals(this.doi, that.doi);
     }
 
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(doi));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER).append(format(doi));
+    }
 }
@@ -3,15 +3,13 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
 import pubmed.article.DOI;
 import pubmed.article.PMID;
 
 /**
  * Maintains a flat table of article DOI records.
  */
-public final class ArticleDOITable extends FlatTable<PMID, ArticleDOIRecord> {
+public final class ArticleDOITable extends PmidFlatTable<ArticleDOIRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -34,4 +34,9 @@ public abstract class ArticleDateRecord extends PubmedJoinRecord<LocalDate> {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(getDate()));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER);
+        appendDate(builder, getDate());
+    }
 }
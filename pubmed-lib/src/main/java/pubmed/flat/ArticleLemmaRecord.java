@@ -4,6 +4,7 @@ package pubmed.flat;
 import java.util.List;
 
 import pubmed.article.PMID;
+import pubmed.nlp.LemmaDictionary;
 import pubmed.nlp.LemmaList;
 
 /**
@@ -28,6 +29,21 @@ public abstract class ArticleLemmaRecord extends PubmedFlatRecord {
         this.lemmas = lemmas;
     }
 
+    /**
+     * Parses a lemma field written as text or in the encoded format
+     * of the global {@link LemmaDictionary}.
+     *
+     * @param field the lemma field from a flat file.
+     *
+     * @return the lemma list stored in the field.
+     */
+    public static LemmaList parseLemmas(String field) {
+        if (LemmaDictionary.isEncoded(field))
+            return LemmaDictionary.global().parse(field);
+        else
+            return LemmaList.parse(field);
+    }
+
     /**
      * Returns the lemmas in the article.
      *
@@ -43,6 +59,13 @@ public abstract class ArticleLemmaRecord extends PubmedFlatRecord {
     }
 
     @Override public List<String> formatFields() {
-        return List.of(format(pmid), format(lemmas));
+        //
+        // Lemmas are encoded as identifiers whenever the global
+        // dictionary is configured...
+        //
+        if (LemmaDictionary.isEnabled())
+            return List.of(format(pmid), LemmaDictionary.global().format(lemmas));
+        else
+            return List.of(format(pmid), format(lemmas));
     }
 }
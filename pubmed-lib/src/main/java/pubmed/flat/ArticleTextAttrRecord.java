@@ -41,4 +41,8 @@ public abstract class ArticleTextAttrRecord extends PubmedFlatRecord {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(text));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER).append(format(text));
+    }
 }
@@ -4,6 +4,7 @@ package pubmed.flat;
 import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -52,6 +53,19 @@ public final class ArticleTitleRecord extends ArticleTextAttrRecord {
         return create(parsePMID(fields[0]), fields[1]);
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * title record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static ArticleTitleRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), reader.getString(1));
+    }
+
     /**
      * Returns the title of the article.
      *
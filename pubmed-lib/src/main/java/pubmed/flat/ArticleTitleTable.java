@@ -3,14 +3,12 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
 import pubmed.article.PMID;
 
 /**
  * Maintains a flat table of article title records.
  */
-public final class ArticleTitleTable extends FlatTable<PMID, ArticleTitleRecord> {
+public final class ArticleTitleTable extends PmidFlatTable<ArticleTitleRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
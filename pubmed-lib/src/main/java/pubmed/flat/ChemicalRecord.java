@@ -7,6 +7,7 @@ import jam.flat.FlatRecord;
 import jam.util.ListUtil;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.mesh.MeshRecordKey;
 import pubmed.xml.PubmedArticleElement;
 
@@ -60,6 +61,19 @@ public final class ChemicalRecord extends PubmedJoinRecord<MeshRecordKey> {
         return create(parsePMID(fields[0]), parseRecordKey(fields[1]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * chemical record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static ChemicalRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), parseRecordKey(reader, 1));
+    }
+
     /**
      * Returns the {@code MeSH} record key of the substance.
      *
@@ -72,4 +86,8 @@ public final class ChemicalRecord extends PubmedJoinRecord<MeshRecordKey> {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(getMeshKey()));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER).append(format(getMeshKey()));
+    }
 }
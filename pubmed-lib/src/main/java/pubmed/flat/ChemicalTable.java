@@ -3,15 +3,12 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.JoinTable;
-
-import pubmed.article.PMID;
 import pubmed.mesh.MeshRecordKey;
 
 /**
  * Maintains a flat table of chemical substance records.
  */
-public final class ChemicalTable extends JoinTable<PMID, MeshRecordKey, ChemicalRecord> {
+public final class ChemicalTable extends PmidJoinTable<MeshRecordKey, ChemicalRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
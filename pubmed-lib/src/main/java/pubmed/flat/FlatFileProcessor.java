@@ -100,15 +100,27 @@ public final class FlatFileProcessor {
         PubmedXmlDocument document =
             PubmedXmlDocument.parse(bulkFile);
 
-        ArticleTitleFile.from(bulkFile).processDocument(document, false);
-        ArticleAbstractFile.from(bulkFile).processDocument(document, false);
-        ChemicalFile.from(bulkFile).processDocument(document, false);
-        HeadingFile.from(bulkFile).processDocument(document, false);
-        JournalFile.from(bulkFile).processDocument(document, false);
-        KeywordFile.from(bulkFile).processDocument(document, false);
-
-        TitleLemmaFile.from(bulkFile).processDocument(document, false);
-        AbstractLemmaFile.from(bulkFile).processDocument(document, false);
+        for (FlatFileBase flatFile : flatFiles(bulkFile))
+            flatFile.processDocument(document, false);
+    }
+
+    /**
+     * Returns the flat files generated from a bulk XML file, in the
+     * order that they are generated.
+     *
+     * @param bulkFile the bulk XML file to process.
+     *
+     * @return the flat files generated from the specified bulk file.
+     */
+    public static List<FlatFileBase> flatFiles(File bulkFile) {
+        return List.of(ArticleTitleFile.from(bulkFile),
+                       ArticleAbstractFile.from(bulkFile),
+                       ChemicalFile.from(bulkFile),
+                       HeadingFile.from(bulkFile),
+                       JournalFile.from(bulkFile),
+                       KeywordFile.from(bulkFile),
+                       TitleLemmaFile.from(bulkFile),
+                       AbstractLemmaFile.from(bulkFile));
     }
 
     public static void main(String[] args) {
@@ -8,6 +8,7 @@ import jam.flat.FlatRecord;
 import jam.lang.ObjectUtil;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.mesh.MeshDescriptor;
 import pubmed.mesh.MeshDescriptorKey;
 import pubmed.mesh.MeshHeading;
@@ -88,6 +89,19 @@ public final class HeadingRecord extends PubmedJoinRecord<MeshDescriptorKey> {
         return create(parsePMID(fields[0]), parseDescriptorKey(fields[1]), parseQualifierKey(fields[2]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * heading record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static HeadingRecord parse(FieldReader reader) {
+        reader.requireFields(3);
+        return create(parsePMID(reader, 0), parseDescriptorKey(reader, 1), parseQualifierKey(reader, 2));
+    }
+
     /**
      * Returns the {@code MeSH} descriptor in the heading.
      *
@@ -137,4 +151,10 @@ public final class HeadingRecord extends PubmedJoinRecord<MeshDescriptorKey> {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(getDescriptorKey()), formatQualifierKey(qualKey));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER)
+               .append(format(getDescriptorKey())).append(FIELD_DELIMITER)
+               .append(formatQualifierKey(qualKey));
+    }
 }
@@ -2,30 +2,46 @@
 package pubmed.flat;
 
 import java.io.File;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.LinkedHashMultimap;
-import com.google.common.collect.SetMultimap;
-
 import jam.flat.RecordStore;
+import jam.lang.JamException;
 
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.mesh.MeshDescriptorKey;
 import pubmed.mesh.MeshQualifierKey;
 
+/**
+ * Maintains a flat table of MeSH heading records.
+ *
+ * <p>The records are held in compressed sparse row (CSR) form: one
+ * array of records sorted by article, descriptor, and qualifier, with
+ * the distinct article identifiers and the offsets of their rows in
+ * parallel primitive arrays.  The records for each descriptor and
+ * qualifier are located through offset arrays of record positions,
+ * and the records for an article and descriptor by a binary search
+ * of the article row.  The table therefore needs a few integers per
+ * record rather than the hash entries of several multimaps.
+ *
+ * <p>Inserted records are staged until the table is first queried;
+ * the index is then built (and rebuilt if more records are inserted).
+ * As with the multimaps it replaces, duplicate records are stored
+ * only once.
+ */
 public final class HeadingTable extends RecordStore<HeadingRecord> {
-    private final SetMultimap<PMID, HeadingRecord> pmidMap = LinkedHashMultimap.create();
-    private final SetMultimap<MeshQualifierKey, HeadingRecord> qualMap = HashMultimap.create();
-    private final SetMultimap<MeshDescriptorKey, HeadingRecord> descMap = HashMultimap.create();
+    private HeadingRecord[] staged = new HeadingRecord[64];
+    private int stagedCount = 0;
+
+    private volatile Index index = null;
 
-    private final Map<PMID, SetMultimap<MeshDescriptorKey, HeadingRecord>> pmidDescMap =
-        new HashMap<PMID, SetMultimap<MeshDescriptorKey, HeadingRecord>>();
-    
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -49,7 +65,7 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * records with the specfied article identifier.
      */
     public boolean contains(PMID pmid) {
-        return pmidMap.containsKey(pmid);
+        return index().findRow(pmid.intValue()) >= 0;
     }
 
     /**
@@ -61,7 +77,7 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * records with the specfied descriptor key.
      */
     public boolean contains(MeshDescriptorKey desc) {
-        return descMap.containsKey(desc);
+        return index().descIds.containsKey(desc);
     }
 
     /**
@@ -73,7 +89,7 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * records with the specfied qualifier key.
      */
     public boolean contains(MeshQualifierKey qual) {
-        return qualMap.containsKey(qual);
+        return index().qualIds.containsKey(qual);
     }
 
     /**
@@ -87,19 +103,23 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * records with the specfied article and descriptor.
      */
     public boolean contains(PMID pmid, MeshDescriptorKey desc) {
-        SetMultimap<MeshDescriptorKey, HeadingRecord> innerMap = pmidDescMap.get(pmid);
-        return innerMap != null && innerMap.containsKey(desc);
+        Index index = index();
+        int row = index.findRow(pmid.intValue());
+        Integer descId = index.descIds.get(desc);
+
+        if (row < 0 || descId == null)
+            return false;
+
+        return Arrays.binarySearch(index.recordDesc, index.pmidOffsets[row], index.pmidOffsets[row + 1], descId) >= 0;
     }
 
     /**
-     * Returns a read-only set view of the article identifiers in this
-     * table.
+     * Returns the article identifiers in this table.
      *
-     * @return a read-only set view of the article identifiers in this
-     * table.
+     * @return the set of article identifiers in this table.
      */
-    public Set<PMID> pmidSet() {
-        return Collections.unmodifiableSet(pmidMap.keySet());
+    public PmidSet pmidSet() {
+        return PmidSet.of(index().pmids);
     }
 
     /**
@@ -110,7 +130,7 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * table.
      */
     public Set<MeshDescriptorKey> descriptorKeySet() {
-        return Collections.unmodifiableSet(descMap.keySet());
+        return Collections.unmodifiableSet(index().descIds.keySet());
     }
 
     /**
@@ -121,7 +141,7 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * table.
      */
     public Set<MeshQualifierKey> qualifierKeySet() {
-        return Collections.unmodifiableSet(qualMap.keySet());
+        return Collections.unmodifiableSet(index().qualIds.keySet());
     }
 
     /**
@@ -134,7 +154,13 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * the specified article identifier (empty if there are none).
      */
     public Set<HeadingRecord> select(PMID pmid) {
-        return Collections.unmodifiableSet(pmidMap.get(pmid));
+        Index index = index();
+        int row = index.findRow(pmid.intValue());
+
+        if (row >= 0)
+            return new RecordView(index.records, null, index.pmidOffsets[row], index.pmidOffsets[row + 1]);
+        else
+            return Set.of();
     }
 
     /**
@@ -147,7 +173,13 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * the specified descriptor key (empty if there are none).
      */
     public Set<HeadingRecord> select(MeshDescriptorKey desc) {
-        return Collections.unmodifiableSet(descMap.get(desc));
+        Index index = index();
+        Integer descId = index.descIds.get(desc);
+
+        if (descId != null)
+            return new RecordView(index.records, index.descRecords, index.descOffsets[descId], index.descOffsets[descId + 1]);
+        else
+            return Set.of();
     }
 
     /**
@@ -160,7 +192,13 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * the specified qualifier key (empty if there are none).
      */
     public Set<HeadingRecord> select(MeshQualifierKey qual) {
-        return Collections.unmodifiableSet(qualMap.get(qual));
+        Index index = index();
+        Integer qualId = index.qualIds.get(qual);
+
+        if (qualId != null)
+            return new RecordView(index.records, index.qualRecords, index.qualOffsets[qualId], index.qualOffsets[qualId + 1]);
+        else
+            return Set.of();
     }
 
     /**
@@ -176,10 +214,30 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
      * there are none).
      */
     public Set<HeadingRecord> select(PMID pmid, MeshDescriptorKey desc) {
-        SetMultimap<MeshDescriptorKey, HeadingRecord> innerMap = pmidDescMap.get(pmid);
+        Index index = index();
+        int row = index.findRow(pmid.intValue());
+        Integer descId = index.descIds.get(desc);
+
+        if (row < 0 || descId == null)
+            return Set.of();
+
+        //
+        // The records in each row are sorted by descriptor, so the
+        // records for the descriptor are contiguous...
+        //
+        int from = index.pmidOffsets[row];
+        int to = index.pmidOffsets[row + 1];
+
+        while (from < to && index.recordDesc[from] < descId)
+            ++from;
+
+        int end = from;
 
-        if (innerMap != null)
-            return Collections.unmodifiableSet(innerMap.get(desc));
+        while (end < to && index.recordDesc[end] == descId)
+            ++end;
+
+        if (from < end)
+            return new RecordView(index.records, null, from, end);
         else
             return Set.of();
     }
@@ -189,31 +247,216 @@ public final class HeadingTable extends RecordStore<HeadingRecord> {
     }
 
     @Override public int count() {
-        return pmidMap.size();
+        return index().records.length;
     }
 
     @Override public void insert(HeadingRecord record) {
-        PMID pmid = record.getPMID();
-        MeshQualifierKey qual = record.getQualifierKey();
-        MeshDescriptorKey desc = record.getDescriptorKey();
+        if (stagedCount == staged.length)
+            staged = Arrays.copyOf(staged, Math.max(64, 2 * stagedCount));
+
+        staged[stagedCount++] = record;
+        index = null;
+    }
+
+    @Override public Iterator<HeadingRecord> iterator() {
+        Index index = index();
+        return new RecordView(index.records, null, 0, index.records.length).iterator();
+    }
+
+    private Index index() {
+        Index result = index;
 
-        pmidMap.put(pmid, record);
-        descMap.put(desc, record);
+        if (result == null)
+            result = buildIndex();
 
-        if (qual != null)
-            qualMap.put(qual, record);
+        return result;
+    }
 
-        SetMultimap<MeshDescriptorKey, HeadingRecord> innerMap = pmidDescMap.get(pmid);
+    private synchronized Index buildIndex() {
+        if (index == null) {
+            index = new Index(staged, stagedCount);
 
-        if (innerMap == null) {
-            innerMap = HashMultimap.create();
-            pmidDescMap.put(pmid, innerMap);
+            // The staged records are no longer needed; any further
+            // records will be staged after the distinct records...
+            staged = index.records;
+            stagedCount = staged.length;
         }
 
-        innerMap.put(desc, record);
+        return index;
     }
 
-    @Override public Iterator<HeadingRecord> iterator() {
-        return pmidMap.values().iterator();
+    private static final class Index {
+        // The distinct records sorted by article, descriptor, and
+        // qualifier, with the descriptor identifier of each record...
+        final HeadingRecord[] records;
+        final int[] recordDesc;
+
+        // The distinct article identifiers in ascending order and the
+        // offsets of their rows in the record array...
+        final int[] pmids;
+        final int[] pmidOffsets;
+
+        // The positions of the records for each descriptor (qualifier)
+        // in article order, with the offsets of each run...
+        final Map<MeshDescriptorKey, Integer> descIds = new HashMap<MeshDescriptorKey, Integer>();
+        final int[] descOffsets;
+        final int[] descRecords;
+
+        final Map<MeshQualifierKey, Integer> qualIds = new HashMap<MeshQualifierKey, Integer>();
+        final int[] qualOffsets;
+        final int[] qualRecords;
+
+        // A missing qualifier has identifier zero...
+        static final int NO_QUALIFIER = 0;
+
+        Index(HeadingRecord[] staged, int count) {
+            int[] desc = new int[count];
+            int[] qual = new int[count];
+
+            for (int index = 0; index < count; ++index) {
+                desc[index] = descIds.computeIfAbsent(staged[index].getDescriptorKey(), key -> descIds.size());
+
+                if (staged[index].getQualifierKey() != null)
+                    qual[index] = qualIds.computeIfAbsent(staged[index].getQualifierKey(), key -> qualIds.size() + 1);
+                else
+                    qual[index] = NO_QUALIFIER;
+            }
+
+            if (descIds.size() >= (1 << 23) || qualIds.size() >= (1 << 16))
+                throw JamException.runtime("Too many distinct MeSH keys for a heading table.");
+
+            //
+            // Group the records by article (in insertion order within
+            // each article), then sort each group by descriptor and
+            // qualifier and remove duplicates...
+            //
+            long[] pairs = new long[count];
+
+            for (int index = 0; index < count; ++index)
+                pairs[index] = ((long) staged[index].getPMID().intValue() << 32) | index;
+
+            Arrays.sort(pairs);
+
+            HeadingRecord[] sorted = new HeadingRecord[count];
+            int[] sortedDesc = new int[count];
+            int[] sortedQual = new int[count];
+            int[] rowPMIDs = new int[count];
+            int[] rowOffsets = new int[count + 1];
+
+            int recordCount = 0;
+            int rowCount = 0;
+            int groupStart = 0;
+
+            while (groupStart < count) {
+                int pmid = (int) (pairs[groupStart] >>> 32);
+                int groupEnd = groupStart + 1;
+
+                while (groupEnd < count && (int) (pairs[groupEnd] >>> 32) == pmid)
+                    ++groupEnd;
+
+                long[] group = new long[groupEnd - groupStart];
+
+                for (int k = 0; k < group.length; ++k) {
+                    int index = (int) pairs[groupStart + k];
+                    group[k] = ((long) desc[index] << 40) | ((long) qual[index] << 24) | k;
+                }
+
+                Arrays.sort(group);
+
+                rowPMIDs[rowCount] = pmid;
+                rowOffsets[rowCount] = recordCount;
+                ++rowCount;
+
+                for (int k = 0; k < group.length; ++k) {
+                    int index = (int) pairs[groupStart + (int) (group[k] & 0xFFFFFF)];
+
+                    if (k > 0 && (group[k] >>> 24) == (group[k - 1] >>> 24))
+                        continue;
+
+                    sorted[recordCount] = staged[index];
+                    sortedDesc[recordCount] = desc[index];
+                    sortedQual[recordCount] = qual[index];
+                    ++recordCount;
+                }
+
+                groupStart = groupEnd;
+            }
+
+            rowOffsets[rowCount] = recordCount;
+
+            this.records = Arrays.copyOf(sorted, recordCount);
+            this.recordDesc = Arrays.copyOf(sortedDesc, recordCount);
+            this.pmids = Arrays.copyOf(rowPMIDs, rowCount);
+            this.pmidOffsets = Arrays.copyOf(rowOffsets, rowCount + 1);
+
+            this.descOffsets = new int[descIds.size() + 1];
+            this.descRecords = invert(recordDesc, recordCount, descOffsets);
+
+            this.qualOffsets = new int[qualIds.size() + 2];
+            this.qualRecords = invert(sortedQual, recordCount, qualOffsets);
+        }
+
+        private static int[] invert(int[] keys, int count, int[] offsets) {
+            //
+            // A counting sort of the record positions by key, which
+            // keeps the positions for each key in article order...
+            //
+            for (int index = 0; index < count; ++index)
+                ++offsets[keys[index] + 1];
+
+            for (int key = 1; key < offsets.length; ++key)
+                offsets[key] += offsets[key - 1];
+
+            int[] next = Arrays.copyOf(offsets, offsets.length - 1);
+            int[] positions = new int[count];
+
+            for (int index = 0; index < count; ++index)
+                positions[next[keys[index]]++] = index;
+
+            return positions;
+        }
+
+        int findRow(int pmid) {
+            return Arrays.binarySearch(pmids, pmid);
+        }
+    }
+
+    private static final class RecordView extends AbstractSet<HeadingRecord> {
+        private final HeadingRecord[] records;
+        private final int[] positions;
+        private final int from;
+        private final int to;
+
+        RecordView(HeadingRecord[] records, int[] positions, int from, int to) {
+            this.records = records;
+            this.positions = positions;
+            this.from = from;
+            this.to = to;
+        }
+
+        private HeadingRecord get(int index) {
+            return (positions == null) ? records[index] : records[positions[index]];
+        }
+
+        @Override public Iterator<HeadingRecord> iterator() {
+            return new Iterator<HeadingRecord>() {
+                private int index = from;
+
+                @Override public boolean hasNext() {
+                    return index < to;
+                }
+
+                @Override public HeadingRecord next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+
+                    return get(index++);
+                }
+            };
+        }
+
+        @Override public int size() {
+            return to - from;
+        }
     }
 }
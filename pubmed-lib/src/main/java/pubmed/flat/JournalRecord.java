@@ -8,6 +8,7 @@ import jam.flat.FlatRecord;
 import pubmed.article.ISSN;
 import pubmed.article.PMID;
 import pubmed.article.PubmedJournal;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -70,6 +71,25 @@ public final class JournalRecord extends PubmedJoinRecord<ISSN> {
         return create(pmid, PubmedJournal.create(issn, title, abbrev));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * journal record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static JournalRecord parse(FieldReader reader) {
+        reader.requireFields(4);
+
+        PMID pmid = parsePMID(reader, 0);
+        ISSN issn = parseISSN(reader, 1);
+        String title = reader.isNull(2) ? null : reader.getToken(2);
+        String abbrev = reader.isNull(3) ? null : reader.getToken(3);
+
+        return create(pmid, PubmedJournal.create(issn, title, abbrev));
+    }
+
     /**
      * Returns the journal in which the article was published.
      *
@@ -90,4 +110,11 @@ public final class JournalRecord extends PubmedJoinRecord<ISSN> {
                        format(journal.getTitle()),
                        format(journal.getISOAbbreviation()));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER)
+               .append(format(journal.getISSN())).append(FIELD_DELIMITER)
+               .append(format(journal.getTitle())).append(FIELD_DELIMITER)
+               .append(format(journal.getISOAbbreviation()));
+    }
 }
@@ -4,7 +4,6 @@ package pubmed.flat;
 import java.io.File;
 import java.util.List;
 
-import jam.flat.JoinTable;
 import jam.lang.JamException;
 
 import pubmed.article.ISSN;
@@ -14,7 +13,7 @@ import pubmed.article.PubmedJournal;
 /**
  * Maintains a flat table of journal records.
  */
-public final class JournalTable extends JoinTable<PMID, ISSN, JournalRecord> {
+public final class JournalTable extends PmidJoinTable<ISSN, JournalRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -7,6 +7,8 @@ import jam.flat.FlatRecord;
 import jam.util.StreamUtil;
 
 import pubmed.article.PMID;
+import pubmed.intern.InternScope;
+import pubmed.io.FieldReader;
 import pubmed.nlp.LemmaAnnotator;
 import pubmed.xml.PubmedArticleElement;
 
@@ -46,7 +48,7 @@ public final class KeywordRecord extends PubmedJoinRecord<String> {
         if (keywordList.isEmpty())
             return List.of();
         else
-            return StreamUtil.applyParallel(keywordList, keyword -> create(element.getPMID(), lemmatize(keyword)));
+            return StreamUtil.applyParallel(keywordList, InternScope.propagate(keyword -> create(element.getPMID(), lemmatize(keyword))));
     }
 
     private static String lemmatize(String keyword) {
@@ -65,6 +67,19 @@ public final class KeywordRecord extends PubmedJoinRecord<String> {
         return create(parsePMID(fields[0]), FlatRecord.parseString(fields[1]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * keyword record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static KeywordRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), parseString(reader, 1));
+    }
+
     /**
      * Returns the article keyword.
      *
@@ -77,4 +92,8 @@ public final class KeywordRecord extends PubmedJoinRecord<String> {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(fkey));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER).append(format(fkey));
+    }
 }
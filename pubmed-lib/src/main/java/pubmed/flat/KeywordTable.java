@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.JoinTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of article keyword records.
  */
-public final class KeywordTable extends JoinTable<PMID, String, KeywordRecord> {
+public final class KeywordTable extends PmidJoinTable<String, KeywordRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
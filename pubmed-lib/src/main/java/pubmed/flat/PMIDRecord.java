@@ -6,6 +6,7 @@ import java.util.List;
 import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 
 /**
  * Represents a single unique article identifier as a standalone data
@@ -39,6 +40,19 @@ public final class PMIDRecord extends PubmedFlatRecord {
         return create(parsePMID(fields[0]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes an
+     * article identifier.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static PMIDRecord parse(FieldReader reader) {
+        reader.requireFields(1);
+        return create(parsePMID(reader, 0));
+    }
+
     @Override public boolean equalsData(Object record) {
         return true; // No non-key data...
     }
@@ -46,4 +60,8 @@ public final class PMIDRecord extends PubmedFlatRecord {
     @Override public List<String> formatFields() {
         return List.of(format(pmid));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue());
+    }
 }
@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of unique article identifiers.
  */
-public final class PMIDTable extends FlatTable<PMID, PMIDRecord> {
+public final class PMIDTable extends PmidFlatTable<PMIDRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
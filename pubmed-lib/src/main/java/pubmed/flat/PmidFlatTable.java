@@ -0,0 +1,139 @@
+
+package pubmed.flat;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import jam.flat.RecordStore;
+
+import pubmed.article.PMID;
+import pubmed.article.PmidSet;
+
+/**
+ * Maintains a table of flat records with unique article identifiers,
+ * indexed by the primitive identifier value.
+ *
+ * <p>The records are stored in a dense array (in insertion order) and
+ * located through an open-addressing index of the identifiers, so the
+ * table requires no hash map entries and no additional boxed keys.
+ * As with a {@code FlatTable}, inserting a record with an identifier
+ * already in the table replaces the existing record.
+ *
+ * @param <V> the runtime record type.
+ */
+public abstract class PmidFlatTable<V extends PubmedFlatRecord> extends RecordStore<V> {
+    private final PmidIndex index = new PmidIndex();
+    private Object[] records = new Object[16];
+
+    /**
+     * Creates a new empty table.
+     */
+    protected PmidFlatTable() {
+    }
+
+    /**
+     * Determines whether this table contains a record for a given
+     * article.
+     *
+     * @param pmid the integer value of the article identifier.
+     *
+     * @return {@code true} iff this table contains a record for the
+     * specified article.
+     */
+    public boolean contains(int pmid) {
+        return index.get(pmid) >= 0;
+    }
+
+    /**
+     * Determines whether this table contains a record for a given
+     * article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return {@code true} iff this table contains a record for the
+     * specified article.
+     */
+    public boolean contains(PMID pmid) {
+        return contains(pmid.intValue());
+    }
+
+    /**
+     * Returns the identifiers of the articles in this table.
+     *
+     * @return the identifiers of the articles in this table.
+     */
+    public PmidSet keySet() {
+        return index.keySet();
+    }
+
+    /**
+     * Returns the record for a given article.
+     *
+     * @param pmid the integer value of the article identifier.
+     *
+     * @return the record for the specified article, or {@code null}
+     * if there is no such record.
+     */
+    @SuppressWarnings("unchecked")
+    public V select(int pmid) {
+        int position = index.get(pmid);
+
+        if (position >= 0)
+            return (V) records[position];
+        else
+            return null;
+    }
+
+    /**
+     * Returns the record for a given article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return the record for the specified article, or {@code null}
+     * if there is no such record.
+     */
+    public V select(PMID pmid) {
+        return select(pmid.intValue());
+    }
+
+    @Override public int count() {
+        return index.size();
+    }
+
+    @Override public void insert(V record) {
+        int pmid = record.getPMID().intValue();
+        int position = index.get(pmid);
+
+        if (position >= 0) {
+            records[position] = record;
+            return;
+        }
+
+        position = index.size();
+
+        if (position == records.length)
+            records = Arrays.copyOf(records, 2 * position);
+
+        records[position] = record;
+        index.put(pmid, position);
+    }
+
+    @Override public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int position = 0;
+
+            @Override public boolean hasNext() {
+                return position < count();
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override public V next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return (V) records[position++];
+            }
+        };
+    }
+}
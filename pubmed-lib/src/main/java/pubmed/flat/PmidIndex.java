@@ -0,0 +1,148 @@
+
+package pubmed.flat;
+
+import pubmed.article.PmidSet;
+
+/**
+ * Maps article identifiers to non-negative integers (record indexes)
+ * in an open-addressing hash table with linear probing.
+ *
+ * <p>The identifiers and values are stored in two parallel primitive
+ * arrays, so the index carries no per-entry objects and never boxes
+ * its keys.  Instances are not synchronized; they must be populated
+ * by a single thread, but may then be read concurrently.
+ */
+final class PmidIndex {
+    private int[] keys;
+    private int[] values;
+    private int shift;
+    private int size = 0;
+
+    // Identifiers are positive, so zero marks an empty slot...
+    private static final int EMPTY_KEY = 0;
+
+    // Sixteen slots initially; the table doubles whenever it becomes
+    // more than half full...
+    private static final int INITIAL_BITS = 4;
+
+    PmidIndex() {
+        allocate(INITIAL_BITS);
+    }
+
+    private void allocate(int bits) {
+        this.keys = new int[1 << bits];
+        this.values = new int[1 << bits];
+        this.shift = 32 - bits;
+    }
+
+    private int slot(int key) {
+        //
+        // Fibonacci hashing spreads runs of consecutive identifiers
+        // across the table, and the mask wraps the linear probe...
+        //
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B9) >>> shift;
+
+        while (keys[slot] != EMPTY_KEY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+
+        return slot;
+    }
+
+    /**
+     * Returns the value associated with an identifier.
+     *
+     * @param key the integer value of the identifier.
+     *
+     * @return the value associated with the identifier, or {@code -1}
+     * if there is none.
+     */
+    int get(int key) {
+        //
+        // A non-positive key would match an empty slot...
+        //
+        if (key < 1)
+            return -1;
+
+        int slot = slot(key);
+
+        if (keys[slot] == key)
+            return values[slot];
+        else
+            return -1;
+    }
+
+    /**
+     * Associates a value with an identifier.
+     *
+     * @param key the integer value of the identifier.
+     *
+     * @param value the (non-negative) value to associate with the
+     * identifier.
+     *
+     * @return the value previously associated with the identifier, or
+     * {@code -1} if there was none.
+     *
+     * @throws IllegalArgumentException unless the identifier is
+     * positive.
+     */
+    int put(int key, int value) {
+        if (key < 1)
+            throw new IllegalArgumentException("PMIDs must be positive.");
+
+        int slot = slot(key);
+
+        if (keys[slot] == key) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (2 * (++size) > keys.length)
+            rehash();
+
+        return -1;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(33 - shift);
+
+        for (int index = 0; index < oldKeys.length; ++index) {
+            if (oldKeys[index] != EMPTY_KEY) {
+                int slot = slot(oldKeys[index]);
+                keys[slot] = oldKeys[index];
+                values[slot] = oldValues[index];
+            }
+        }
+    }
+
+    /**
+     * Returns the identifiers in this index.
+     *
+     * @return the set of identifiers in this index.
+     */
+    PmidSet keySet() {
+        PmidSet.Builder builder = PmidSet.builder(size);
+
+        for (int key : keys)
+            if (key != EMPTY_KEY)
+                builder.add(key);
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the number of identifiers in this index.
+     *
+     * @return the number of identifiers in this index.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,280 @@
+
+package pubmed.flat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import jam.flat.RecordStore;
+
+import pubmed.article.PMID;
+import pubmed.article.PmidSet;
+
+/**
+ * Maintains a table of join records whose primary keys are article
+ * identifiers, indexed by the primitive identifier value.
+ *
+ * <p>The records are stored in a dense array (in insertion order).
+ * The records for each article are chained through a parallel array
+ * of record indexes, and the head of each chain is located through an
+ * open-addressing index of the identifiers, so the primary index
+ * requires no hash map entries, no per-article lists, and no
+ * additional boxed keys.
+ *
+ * <p>Most callers select records only by article, so the index of
+ * foreign keys is built when it is first required (and discarded when
+ * another record is inserted).
+ *
+ * @param <K2> the type of the foreign key.
+ *
+ * @param <V> the runtime record type.
+ */
+public abstract class PmidJoinTable<K2, V extends PubmedJoinRecord<K2>> extends RecordStore<V> {
+    private final PmidIndex index = new PmidIndex();
+
+    private Object[] records = new Object[16];
+    private int[] previous = new int[16];
+    private int count = 0;
+
+    private volatile Map<K2, List<V>> foreignMap = null;
+
+    /**
+     * Creates a new empty table.
+     */
+    protected PmidJoinTable() {
+    }
+
+    /**
+     * Determines whether this table contains a record for a given
+     * article and foreign key.
+     *
+     * @param pmid the article identifier.
+     *
+     * @param fkey the foreign key.
+     *
+     * @return {@code true} iff this table contains a record with the
+     * specified primary and foreign keys.
+     */
+    public boolean contains(PMID pmid, K2 fkey) {
+        return select(pmid, fkey) != null;
+    }
+
+    /**
+     * Determines whether this table contains any records for a given
+     * foreign key.
+     *
+     * @param fkey the foreign key.
+     *
+     * @return {@code true} iff this table contains a record with the
+     * specified foreign key.
+     */
+    public boolean containsForeign(K2 fkey) {
+        return foreignMap().containsKey(fkey);
+    }
+
+    /**
+     * Determines whether this table contains any records for a given
+     * article.
+     *
+     * @param pmid the integer value of the article identifier.
+     *
+     * @return {@code true} iff this table contains a record for the
+     * specified article.
+     */
+    public boolean containsPrimary(int pmid) {
+        return index.get(pmid) >= 0;
+    }
+
+    /**
+     * Determines whether this table contains any records for a given
+     * article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return {@code true} iff this table contains a record for the
+     * specified article.
+     */
+    public boolean containsPrimary(PMID pmid) {
+        return containsPrimary(pmid.intValue());
+    }
+
+    /**
+     * Counts the records for a given foreign key.
+     *
+     * @param fkey the foreign key.
+     *
+     * @return the number of records with the specified foreign key.
+     */
+    public int countForeign(K2 fkey) {
+        return selectForeign(fkey).size();
+    }
+
+    /**
+     * Counts the records for a given article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return the number of records for the specified article.
+     */
+    public int countPrimary(PMID pmid) {
+        int result = 0;
+
+        for (int position = index.get(pmid.intValue()); position >= 0; position = previous[position])
+            ++result;
+
+        return result;
+    }
+
+    /**
+     * Returns the foreign keys in this table.
+     *
+     * @return a read-only view of the foreign keys in this table.
+     */
+    public Set<K2> foreignKeySet() {
+        return Collections.unmodifiableSet(foreignMap().keySet());
+    }
+
+    /**
+     * Returns the identifiers of the articles in this table.
+     *
+     * @return the identifiers of the articles in this table.
+     */
+    public PmidSet primaryKeySet() {
+        return index.keySet();
+    }
+
+    /**
+     * Returns the record for a given article and foreign key.
+     *
+     * @param pmid the article identifier.
+     *
+     * @param fkey the foreign key.
+     *
+     * @return the record with the specified primary and foreign keys,
+     * or {@code null} if there is no such record.
+     */
+    @SuppressWarnings("unchecked")
+    public V select(PMID pmid, K2 fkey) {
+        for (int position = index.get(pmid.intValue()); position >= 0; position = previous[position]) {
+            V record = (V) records[position];
+
+            if (Objects.equals(record.getForeignKey(), fkey))
+                return record;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the records for a given foreign key.
+     *
+     * @param fkey the foreign key.
+     *
+     * @return a read-only list of the records with the specified
+     * foreign key (in insertion order).
+     */
+    public List<V> selectForeign(K2 fkey) {
+        return foreignMap().getOrDefault(fkey, List.of());
+    }
+
+    /**
+     * Returns the records for a given article.
+     *
+     * @param pmid the article identifier.
+     *
+     * @return a read-only list of the records for the specified
+     * article (in insertion order).
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> selectPrimary(PMID pmid) {
+        int length = countPrimary(pmid);
+
+        if (length == 0)
+            return List.of();
+
+        //
+        // The chain runs from the most recent record to the first, so
+        // the list is filled from the end...
+        //
+        Object[] selected = new Object[length];
+        int position = index.get(pmid.intValue());
+
+        while (length > 0) {
+            selected[--length] = records[position];
+            position = previous[position];
+        }
+
+        List<?> list = Arrays.asList(selected);
+        return (List<V>) Collections.unmodifiableList(list);
+    }
+
+    private Map<K2, List<V>> foreignMap() {
+        Map<K2, List<V>> map = foreignMap;
+
+        if (map == null)
+            map = buildForeignMap();
+
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Map<K2, List<V>> buildForeignMap() {
+        if (foreignMap != null)
+            return foreignMap;
+
+        Map<K2, List<V>> map = new HashMap<K2, List<V>>();
+
+        for (int position = 0; position < count; ++position) {
+            V record = (V) records[position];
+            map.computeIfAbsent(record.getForeignKey(), fkey -> new ArrayList<V>()).add(record);
+        }
+
+        for (Map.Entry<K2, List<V>> entry : map.entrySet())
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+
+        foreignMap = map;
+        return map;
+    }
+
+    @Override public int count() {
+        return count;
+    }
+
+    @Override public void insert(V record) {
+        if (count == records.length) {
+            records = Arrays.copyOf(records, 2 * count);
+            previous = Arrays.copyOf(previous, 2 * count);
+        }
+
+        records[count] = record;
+        previous[count] = index.put(record.getPMID().intValue(), count);
+
+        ++count;
+        foreignMap = null;
+    }
+
+    @Override public Iterator<V> iterator() {
+        return new Iterator<V>() {
+            private int position = 0;
+
+            @Override public boolean hasNext() {
+                return position < count;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override public V next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                return (V) records[position++];
+            }
+        };
+    }
+}
@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -59,4 +60,17 @@ public final class PubDateRecord extends ArticleDateRecord {
         String[] fields = FlatRecord.split(line, 2);
         return create(parsePMID(fields[0]), FlatRecord.parseDate(fields[1]));
     }
+
+    /**
+     * Parses the current line of a field reader that encodes a
+     * publication date record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static PubDateRecord parse(FieldReader reader) {
+        reader.requireFields(2);
+        return create(parsePMID(reader, 0), reader.getDate(1));
+    }
 }
@@ -5,7 +5,6 @@ import java.io.File;
 import java.time.LocalDate;
 import java.util.List;
 
-import jam.flat.JoinTable;
 import jam.lang.JamException;
 
 import pubmed.article.PMID;
@@ -13,7 +12,7 @@ import pubmed.article.PMID;
 /**
  * Maintains a flat table of article date records.
  */
-public final class PubDateTable extends JoinTable<PMID, LocalDate, PubDateRecord> {
+public final class PubDateTable extends PmidJoinTable<LocalDate, PubDateRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
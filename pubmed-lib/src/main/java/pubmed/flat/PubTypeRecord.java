@@ -8,6 +8,7 @@ import jam.util.ListUtil;
 
 import pubmed.article.PMID;
 import pubmed.article.PublicationType;
+import pubmed.io.FieldReader;
 import pubmed.xml.PubmedArticleElement;
 
 /**
@@ -60,6 +61,19 @@ public final class PubTypeRecord extends PubmedJoinRecord<PublicationType> {
         return create(parsePMID(fields[0]), PublicationType.create(fields[1]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * publication type record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static PubTypeRecord parse(FieldReader reader) {
+        reader.requireFields(3);
+        return create(parsePMID(reader, 0), PublicationType.create(reader.getToken(1)));
+    }
+
     /**
      * Returns the publication type in this record.
      *
@@ -72,4 +86,10 @@ public final class PubTypeRecord extends PubmedJoinRecord<PublicationType> {
     @Override public List<String> formatFields() {
         return List.of(format(pmid), format(fkey.getDescriptorKey()), format(fkey.getTypeName()));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER)
+               .append(format(fkey.getDescriptorKey())).append(FIELD_DELIMITER)
+               .append(format(fkey.getTypeName()));
+    }
 }
@@ -3,15 +3,12 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.JoinTable;
-
-import pubmed.article.PMID;
 import pubmed.article.PublicationType;
 
 /**
  * Maintains a flat table of publication type records.
  */
-public final class PubTypeTable extends JoinTable<PMID, PublicationType, PubTypeRecord> {
+public final class PubTypeTable extends PmidJoinTable<PublicationType, PubTypeRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -7,6 +7,7 @@ import java.util.List;
 import jam.flat.FlatRecord;
 import jam.util.StreamUtil;
 
+import pubmed.intern.InternScope;
 import pubmed.xml.PubmedArticleElement;
 import pubmed.xml.PubmedXmlDocument;
 
@@ -39,6 +40,6 @@ public abstract class PubmedFlatFile<V extends FlatRecord> extends FlatFileBase
     public abstract V extractRecord(PubmedArticleElement element);
 
     @Override public List<V> extractRecords(PubmedXmlDocument document) {
-        return StreamUtil.applyParallel(document.getPubmedArticleElements(), element -> extractRecord(element));
+        return StreamUtil.applyParallel(document.getPubmedArticleElements(), InternScope.propagate(element -> extractRecord(element)));
     }
 }
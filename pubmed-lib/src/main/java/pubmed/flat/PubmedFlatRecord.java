@@ -1,12 +1,15 @@
 
 package pubmed.flat;
 
+import java.time.LocalDate;
+
 import jam.flat.FlatRecord;
 import jam.lang.ObjectUtil;
 
 import pubmed.article.DOI;
 import pubmed.article.ISSN;
 import pubmed.article.PMID;
+import pubmed.io.FieldReader;
 import pubmed.mesh.MeshDescriptorKey;
 import pubmed.mesh.MeshQualifierKey;
 import pubmed.mesh.MeshRecordKey;
@@ -14,6 +17,15 @@ import pubmed.mesh.MeshRecordKey;
 /**
  * Provides a base class for data rows containing article attributes
  * keyed by {@code PMID}.
+ *
+ * <p>Subclasses parse delimited lines with a static {@code
+ * parse(String)} method.  Records that are loaded in bulk also provide
+ * a static {@code parse(FieldReader)} method, which decodes only the
+ * fields of the current line (using the {@code parse} methods of this
+ * class that take a {@link FieldReader}), and override {@link
+ * PubmedFlatRecord#formatTo(StringBuilder)} to format their fields
+ * without an intermediate list or line.  Both forms are identical to
+ * those of the string methods.
  */
 public abstract class PubmedFlatRecord implements FlatRecord<PMID>, FlatRecordBase {
     /**
@@ -41,6 +53,11 @@ public abstract class PubmedFlatRecord implements FlatRecord<PMID>, FlatRecordBa
      */
     public static final String MISSING_QUALIFIER = "-";
 
+    /**
+     * The character that separates fields in delimited lines.
+     */
+    protected static final char FIELD_DELIMITER = '|';
+
     /**
      * Determines whether the data (non-key) fields in another record
      * are identical to those in this record.
@@ -153,6 +170,167 @@ public abstract class PubmedFlatRecord implements FlatRecord<PMID>, FlatRecordBa
             return MeshRecordKey.instance(field);
     }
 
+    /**
+     * Parses the Digital Object Identifier in a field of the current
+     * line of a reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the Digital Object Identifier encoded in the field.
+     */
+    public static DOI parseDOI(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return DOI.instance(reader.getString(field));
+    }
+
+    /**
+     * Parses the descriptor key in a field of the current line of a
+     * reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the descriptor key encoded in the field.
+     */
+    public static MeshDescriptorKey parseDescriptorKey(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return MeshDescriptorKey.instance(reader.getToken(field));
+    }
+
+    /**
+     * Parses the journal identifier in a field of the current line of
+     * a reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the journal identifier encoded in the field.
+     */
+    public static ISSN parseISSN(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return ISSN.instance(reader.getToken(field));
+    }
+
+    /**
+     * Parses the article identifier in a field of the current line of
+     * a reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the article identifier encoded in the field.
+     */
+    public static PMID parsePMID(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return PMID.instance(reader.getInt(field));
+    }
+
+    /**
+     * Parses the qualifier key in a field of the current line of a
+     * reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the qualifier key encoded in the field.
+     */
+    public static MeshQualifierKey parseQualifierKey(FieldReader reader, int field) {
+        if (reader.isNull(field) || reader.equalsString(field, MISSING_QUALIFIER))
+            return null;
+        else
+            return MeshQualifierKey.instance(reader.getToken(field));
+    }
+
+    /**
+     * Parses the record key in a field of the current line of a
+     * reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the record key encoded in the field.
+     */
+    public static MeshRecordKey parseRecordKey(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return MeshRecordKey.instance(reader.getToken(field));
+    }
+
+    /**
+     * Parses a string field of the current line of a reader.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @param field the index of the field to parse.
+     *
+     * @return the contents of the field, or {@code null} if the field
+     * contains the {@code NULL} marker.
+     */
+    public static String parseString(FieldReader reader, int field) {
+        if (reader.isNull(field))
+            return null;
+        else
+            return reader.getString(field);
+    }
+
+    /**
+     * Appends this record to a line of text in the flat file format
+     * (without a line terminator).  The appended text is identical to
+     * {@code format()}; this base implementation simply appends it.
+     *
+     * @param builder the builder for the formatted line.
+     */
+    public void formatTo(StringBuilder builder) {
+        builder.append(format());
+    }
+
+    /**
+     * Appends a (possibly {@code null}) date in the flat file format,
+     * without formatting the date as a string first.
+     *
+     * @param builder the builder for the formatted line.
+     *
+     * @param date the date to append.
+     */
+    protected static void appendDate(StringBuilder builder, LocalDate date) {
+        if (date == null) {
+            builder.append(FlatRecord.NULL_STRING);
+            return;
+        }
+
+        int year = date.getYear();
+
+        if (year < 1000 || year > 9999) {
+            builder.append(date.toString());
+            return;
+        }
+
+        builder.append(year).append('-');
+        appendTwoDigits(builder, date.getMonthValue());
+        builder.append('-');
+        appendTwoDigits(builder, date.getDayOfMonth());
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
     /**
      * Returns the {@code PubMed} identifier for the article.
      *
@@ -7,6 +7,7 @@ import jam.flat.FlatRecord;
 
 import pubmed.article.PMID;
 import pubmed.flat.PubmedJoinRecord;
+import pubmed.io.FieldReader;
 import pubmed.relev.AbstractRelevanceScorer;
 import pubmed.relev.ChemicalRelevanceScorer;
 import pubmed.relev.HeadingRelevanceScorer;
@@ -195,6 +196,27 @@ public final class RelevanceScoreRecord extends PubmedJoinRecord<String> {
                       FlatRecord.parseInt(fields[7]));
     }
 
+    /**
+     * Parses the current line of a field reader that encodes a
+     * relevance score record.
+     *
+     * @param reader a reader positioned on a delimited line.
+     *
+     * @return a new record with the data encoded in the line.
+     */
+    public static RelevanceScoreRecord parse(FieldReader reader) {
+        reader.requireFields(8);
+
+        return create(parsePMID(reader, 0),
+                      reader.getToken(1),
+                      reader.getInt(2),
+                      reader.getInt(3),
+                      reader.getInt(4),
+                      reader.getInt(5),
+                      reader.getInt(6),
+                      reader.getInt(7));
+    }
+
     /**
      * Creates a new record with all zero scores.
      *
@@ -308,4 +330,15 @@ public final class RelevanceScoreRecord extends PubmedJoinRecord<String> {
                        format(keywordListScore),
                        format(chemicalListScore));
     }
+
+    @Override public void formatTo(StringBuilder builder) {
+        builder.append(pmid.intValue()).append(FIELD_DELIMITER)
+               .append(format(getSubjectKey())).append(FIELD_DELIMITER)
+               .append(titleScore).append(FIELD_DELIMITER)
+               .append(abstractScore).append(FIELD_DELIMITER)
+               .append(meshTreeScore).append(FIELD_DELIMITER)
+               .append(headingListScore).append(FIELD_DELIMITER)
+               .append(keywordListScore).append(FIELD_DELIMITER)
+               .append(chemicalListScore);
+    }
 }
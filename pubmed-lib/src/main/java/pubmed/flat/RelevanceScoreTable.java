@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.JoinTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of relevance score records.
  */
-public final class RelevanceScoreTable extends JoinTable<PMID, String, RelevanceScoreRecord> {
+public final class RelevanceScoreTable extends PmidJoinTable<String, RelevanceScoreRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
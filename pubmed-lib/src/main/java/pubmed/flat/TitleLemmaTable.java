@@ -3,14 +3,10 @@ package pubmed.flat;
 
 import java.io.File;
 
-import jam.flat.FlatTable;
-
-import pubmed.article.PMID;
-
 /**
  * Maintains a flat table of article title lemma records.
  */
-public final class TitleLemmaTable extends FlatTable<PMID, TitleLemmaRecord> {
+public final class TitleLemmaTable extends PmidFlatTable<TitleLemmaRecord> {
     /**
      * Creates a new table by parsing a flat file.
      *
@@ -0,0 +1,154 @@
+
+package pubmed.ingest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import jam.app.JamLogger;
+import jam.util.ListUtil;
+
+import pubmed.bulk.BulkFile;
+import pubmed.bulk.BulkFileProcessor;
+import pubmed.xml.ArticleField;
+import pubmed.xml.ArticleProjection;
+
+/**
+ * Parses each bulk XML file in a directory exactly once and feeds the
+ * parsed content to every registered consumer that still has work to
+ * do for that file.
+ *
+ * <p>The parser retains the union of the article fields required by
+ * the pending consumers, and files for which no consumer is pending
+ * are not parsed at all.
+ */
+public final class BulkIngestor extends BulkFileProcessor {
+    private final List<IngestConsumer> consumers;
+
+    private BulkIngestor(List<IngestConsumer> consumers) {
+        super();
+        this.consumers = List.copyOf(consumers);
+    }
+
+    /**
+     * Creates a new ingestor for a list of consumers.
+     *
+     * @param consumers the consumers of the parsed bulk files, in the
+     * order that they should consume each file.
+     *
+     * @return a new ingestor for the specified consumers.
+     */
+    public static BulkIngestor create(List<IngestConsumer> consumers) {
+        return new BulkIngestor(consumers);
+    }
+
+    /**
+     * Creates a new ingestor for a list of consumers.
+     *
+     * @param consumers the consumers of the parsed bulk files, in the
+     * order that they should consume each file.
+     *
+     * @return a new ingestor for the specified consumers.
+     */
+    public static BulkIngestor create(IngestConsumer... consumers) {
+        return create(List.of(consumers));
+    }
+
+    /**
+     * Returns the consumers of the parsed bulk files.
+     *
+     * @return the consumers of the parsed bulk files.
+     */
+    public List<IngestConsumer> getConsumers() {
+        return consumers;
+    }
+
+    /**
+     * Parses a bulk file once (if any consumer has work to do) and
+     * passes the parsed content to every pending consumer.
+     *
+     * @param bulkFile the bulk XML file to process.
+     */
+    @Override public void processFile(BulkFile bulkFile) {
+        List<IngestConsumer> pending =
+            ListUtil.filter(consumers, consumer -> consumer.isPending(bulkFile));
+
+        if (pending.isEmpty()) {
+            JamLogger.info("Already processed all outputs for [%s]...", bulkFile);
+            return;
+        }
+
+        Set<ArticleField> fields = EnumSet.noneOf(ArticleField.class);
+
+        for (IngestConsumer consumer : pending)
+            fields.addAll(consumer.getRequiredFields(bulkFile));
+
+        IngestDocument document = IngestDocument.parse(bulkFile, ArticleProjection.of(fields));
+
+        for (IngestConsumer consumer : pending)
+            consumer.consume(document);
+    }
+
+    @Override protected boolean supportsConcurrency() {
+        for (IngestConsumer consumer : consumers)
+            if (!consumer.isThreadSafe())
+                return false;
+
+        return true;
+    }
+
+    @Override protected void postProcess(File directory) {
+        for (IngestConsumer consumer : consumers)
+            consumer.close();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: pubmed.ingest.BulkIngestor [--content] [--flat] DIR1 [DIR2 ...]");
+        System.exit(1);
+    }
+
+    /**
+     * Generates the content files and/or legacy flat files for all
+     * {@code PubMed} bulk XML files in one or more directories, with
+     * a single parse of each bulk file.  With no options, both types
+     * of files are generated.
+     *
+     * <p>Database tables are populated by creating an ingestor with a
+     * {@link SqlTargetConsumer} for the tables of interest.
+     */
+    public static void main(String[] args) {
+        List<IngestConsumer> consumers = new ArrayList<IngestConsumer>();
+        List<String> directories = new ArrayList<String>();
+
+        for (String arg : args) {
+            switch (arg) {
+            case "--content":
+                consumers.add(ContentFileConsumer.INSTANCE);
+                break;
+
+            case "--flat":
+                consumers.add(FlatFileConsumer.INSTANCE);
+                break;
+
+            default:
+                if (arg.startsWith("--"))
+                    usage();
+
+                directories.add(arg);
+            }
+        }
+
+        if (directories.isEmpty())
+            usage();
+
+        if (consumers.isEmpty())
+            consumers = List.of(ContentFileConsumer.INSTANCE, FlatFileConsumer.INSTANCE);
+
+        BulkIngestor ingestor = create(consumers);
+
+        for (String directory : directories)
+            ingestor.processDirectory(directory);
+    }
+}
@@ -0,0 +1,43 @@
+
+package pubmed.ingest;
+
+import java.util.List;
+import java.util.Set;
+
+import pubmed.bulk.BulkFile;
+import pubmed.bulk.ContentExtractor;
+import pubmed.bulk.DocumentContentFile;
+import pubmed.delcit.DeleteCitationFile;
+import pubmed.xml.ArticleField;
+import pubmed.xml.PubmedXmlDocument;
+
+/**
+ * Generates the document content files that are missing for each
+ * bulk file and records the deleted citations.
+ */
+public final class ContentFileConsumer implements IngestConsumer {
+    private ContentFileConsumer() {
+    }
+
+    /**
+     * The single content file consumer.
+     */
+    public static final ContentFileConsumer INSTANCE = new ContentFileConsumer();
+
+    @Override public boolean isPending(BulkFile bulkFile) {
+        return !bulkFile.getUnprocessedContentFiles().isEmpty();
+    }
+
+    @Override public Set<ArticleField> getRequiredFields(BulkFile bulkFile) {
+        return DocumentContentFile.projection(bulkFile.getUnprocessedContentFiles()).getFields();
+    }
+
+    @Override public void consume(IngestDocument document) {
+        PubmedXmlDocument xmlDocument = document.getXmlDocument();
+        List<DocumentContentFile<?>> unprocessed = document.getBulkFile().getUnprocessedContentFiles();
+
+        ContentExtractor.process(xmlDocument, unprocessed, false);
+
+        DeleteCitationFile.instance().add(xmlDocument);
+    }
+}
@@ -0,0 +1,49 @@
+
+package pubmed.ingest;
+
+import java.util.List;
+import java.util.Set;
+
+import jam.util.ListUtil;
+
+import pubmed.bulk.BulkFile;
+import pubmed.flat.FlatFileBase;
+import pubmed.flat.FlatFileProcessor;
+import pubmed.xml.ArticleField;
+import pubmed.xml.PubmedXmlDocument;
+
+/**
+ * Generates the legacy flat files (see {@link FlatFileProcessor})
+ * that are missing for each bulk file.
+ */
+public final class FlatFileConsumer implements IngestConsumer {
+    private FlatFileConsumer() {
+    }
+
+    /**
+     * The single flat file consumer.
+     */
+    public static final FlatFileConsumer INSTANCE = new FlatFileConsumer();
+
+    private static List<FlatFileBase> unprocessed(BulkFile bulkFile) {
+        return ListUtil.filter(FlatFileProcessor.flatFiles(bulkFile.getFile()), file -> !file.exists());
+    }
+
+    @Override public boolean isPending(BulkFile bulkFile) {
+        return !unprocessed(bulkFile).isEmpty();
+    }
+
+    @Override public Set<ArticleField> getRequiredFields(BulkFile bulkFile) {
+        //
+        // The legacy flat files do not declare their fields...
+        //
+        return ArticleField.ALL;
+    }
+
+    @Override public void consume(IngestDocument document) {
+        PubmedXmlDocument xmlDocument = document.getXmlDocument();
+
+        for (FlatFileBase flatFile : unprocessed(document.getBulkFile()))
+            flatFile.processDocument(xmlDocument, false);
+    }
+}
@@ -0,0 +1,60 @@
+
+package pubmed.ingest;
+
+import java.util.Set;
+
+import pubmed.bulk.BulkFile;
+import pubmed.xml.ArticleField;
+
+/**
+ * Consumes the parsed content of bulk XML files on behalf of one
+ * output pipeline (content files, flat files, or database tables).
+ */
+public interface IngestConsumer {
+    /**
+     * Determines whether this consumer has any work to do for a bulk
+     * file.
+     *
+     * @param bulkFile a bulk XML file.
+     *
+     * @return {@code true} iff this consumer must consume the parsed
+     * content of the specified bulk file.
+     */
+    public abstract boolean isPending(BulkFile bulkFile);
+
+    /**
+     * Returns the article fields that this consumer requires from a
+     * bulk file.
+     *
+     * @param bulkFile a bulk XML file.
+     *
+     * @return the article fields that this consumer requires from the
+     * specified bulk file.
+     */
+    public abstract Set<ArticleField> getRequiredFields(BulkFile bulkFile);
+
+    /**
+     * Consumes the parsed content of a bulk file.
+     *
+     * @param document the parsed bulk file, which contains (at least)
+     * the fields required by this consumer.
+     */
+    public abstract void consume(IngestDocument document);
+
+    /**
+     * Identifies consumers that may consume several bulk files at once
+     * from different threads.
+     *
+     * @return {@code true} iff this consumer may consume several bulk
+     * files concurrently.
+     */
+    public default boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * Releases any resources held by this consumer after all bulk
+     * files have been processed.
+     */
+    public default void close() {}
+}
@@ -0,0 +1,91 @@
+
+package pubmed.ingest;
+
+import org.jdom2.Document;
+
+import pubmed.bulk.BulkFile;
+import pubmed.xml.ArticleProjection;
+import pubmed.xml.PubmedXmlBuilder;
+
+/**
+ * Holds the single parsed document tree for a bulk XML file and
+ * provides the views required by each type of consumer.
+ *
+ * <p>The element view ({@link pubmed.xml.PubmedXmlDocument}) and the
+ * article view ({@link pubmed.article.PubmedXmlDocument}) share the
+ * same document tree; each is created only when first requested.
+ */
+public final class IngestDocument {
+    private final BulkFile bulkFile;
+    private final Document document;
+    private final ArticleProjection projection;
+
+    private pubmed.xml.PubmedXmlDocument xmlDocument = null;
+    private pubmed.article.PubmedXmlDocument articleDocument = null;
+
+    private IngestDocument(BulkFile bulkFile, Document document, ArticleProjection projection) {
+        this.bulkFile = bulkFile;
+        this.document = document;
+        this.projection = projection;
+    }
+
+    /**
+     * Parses a bulk XML file.
+     *
+     * @param bulkFile the bulk XML file to parse.
+     *
+     * @param projection the article elements to parse.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static IngestDocument parse(BulkFile bulkFile, ArticleProjection projection) {
+        return new IngestDocument(bulkFile, PubmedXmlBuilder.build(bulkFile.getFile(), projection), projection);
+    }
+
+    /**
+     * Returns the bulk XML file that was parsed.
+     *
+     * @return the bulk XML file that was parsed.
+     */
+    public BulkFile getBulkFile() {
+        return bulkFile;
+    }
+
+    /**
+     * Returns the projection that was applied by the parser.
+     *
+     * @return the projection that was applied by the parser.
+     */
+    public ArticleProjection getProjection() {
+        return projection;
+    }
+
+    /**
+     * Returns the article element view of the parsed document.
+     *
+     * @return the article element view of the parsed document.
+     */
+    public synchronized pubmed.xml.PubmedXmlDocument getXmlDocument() {
+        if (xmlDocument == null)
+            xmlDocument = pubmed.xml.PubmedXmlDocument.wrap(bulkFile.getFile(), document);
+
+        return xmlDocument;
+    }
+
+    /**
+     * Returns the parsed article view of the parsed document.  The
+     * articles can only be parsed if the projection retained the
+     * fields required by the article parser ({@link
+     * pubmed.article.PubmedArticleXmlParser#REQUIRED_FIELDS}).
+     *
+     * @return the parsed article view of the parsed document.
+     */
+    public synchronized pubmed.article.PubmedXmlDocument getArticleDocument() {
+        if (articleDocument == null)
+            articleDocument = pubmed.article.PubmedXmlDocument.wrap(bulkFile.getFile(), document, projection);
+
+        return articleDocument;
+    }
+}
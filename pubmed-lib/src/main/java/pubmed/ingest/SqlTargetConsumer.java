@@ -0,0 +1,80 @@
+
+package pubmed.ingest;
+
+import java.util.List;
+import java.util.Set;
+
+import pubmed.bulk.BulkFile;
+import pubmed.sql.BulkFileProcessor;
+import pubmed.sql.BulkFileTarget;
+import pubmed.xml.ArticleField;
+
+/**
+ * Populates the database tables that have not yet been processed for
+ * each bulk file and marks them as processed.
+ */
+public final class SqlTargetConsumer implements IngestConsumer {
+    private final List<BulkFileTarget> targets;
+
+    private SqlTargetConsumer(List<BulkFileTarget> targets) {
+        this.targets = List.copyOf(targets);
+    }
+
+    /**
+     * Creates a consumer that populates a list of tables.
+     *
+     * @param targets the tables to populate, in the order that they
+     * should be populated.
+     *
+     * @return a consumer that populates the specified tables.
+     */
+    public static SqlTargetConsumer create(List<BulkFileTarget> targets) {
+        return new SqlTargetConsumer(targets);
+    }
+
+    /**
+     * Creates a consumer that populates the tables of an existing SQL
+     * bulk file processor.
+     *
+     * @param processor the SQL bulk file processor.
+     *
+     * @return a consumer that populates the target tables of the
+     * specified processor.
+     */
+    public static SqlTargetConsumer create(BulkFileProcessor processor) {
+        return create(processor.getTargetTables());
+    }
+
+    private List<BulkFileTarget> activeTargets(BulkFile bulkFile) {
+        return BulkFileProcessor.findActiveTargets(bulkFile.getFile(), targets);
+    }
+
+    @Override public boolean isPending(BulkFile bulkFile) {
+        return !activeTargets(bulkFile).isEmpty();
+    }
+
+    @Override public Set<ArticleField> getRequiredFields(BulkFile bulkFile) {
+        return BulkFileProcessor.resolveProjection(activeTargets(bulkFile)).getFields();
+    }
+
+    @Override public void consume(IngestDocument document) {
+        BulkFile bulkFile = document.getBulkFile();
+
+        BulkFileProcessor.processTargets(bulkFile.getFile(),
+                                         document.getArticleDocument(),
+                                         activeTargets(bulkFile));
+    }
+
+    @Override public boolean isThreadSafe() {
+        //
+        // The targets share database connections and the process
+        // history table...
+        //
+        return false;
+    }
+
+    @Override public void close() {
+        for (BulkFileTarget target : targets)
+            target.close();
+    }
+}
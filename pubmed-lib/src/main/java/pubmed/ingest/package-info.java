@@ -0,0 +1,5 @@
+/**
+ * Feeds the content files, flat files, and database tables derived
+ * from a bulk XML file from a single parse of that file.
+ */
+package pubmed.ingest;
@@ -0,0 +1,173 @@
+
+package pubmed.intern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import jam.app.JamLogger;
+
+/**
+ * Maintains the canonical instance for each distinct key in a
+ * thread-safe pool, so that equal values created by different parsers
+ * (or by the same parser on different threads) share one object.
+ *
+ * <p>Pools created by {@link InternPool#create(String, Function)} and
+ * {@link InternPool#strings(String)} live for the life of the process
+ * and are registered for reporting by {@link InternPool#statistics()};
+ * pools created by {@link InternPool#local(String, Function)} are not
+ * registered and are discarded with their owner.
+ *
+ * @param <K> the type of the lookup key.
+ *
+ * @param <V> the type of the canonical instances.
+ */
+public final class InternPool<K, V> {
+    private final String name;
+    private final Function<K, V> factory;
+    private final ConcurrentMap<K, V> instances = new ConcurrentHashMap<K, V>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static final List<InternPool<?, ?>> registry = new CopyOnWriteArrayList<InternPool<?, ?>>();
+
+    private InternPool(String name, Function<K, V> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    /**
+     * Creates a new process-wide pool.
+     *
+     * @param <K> the type of the lookup key.
+     *
+     * @param <V> the type of the canonical instances.
+     *
+     * @param name the name of the pool (for reporting).
+     *
+     * @param factory the function that creates the canonical instance
+     * for a new key.
+     *
+     * @return the new (registered) pool.
+     */
+    public static <K, V> InternPool<K, V> create(String name, Function<K, V> factory) {
+        InternPool<K, V> pool = local(name, factory);
+        registry.add(pool);
+        return pool;
+    }
+
+    /**
+     * Creates a new pool that is not registered for process-wide
+     * reporting.
+     *
+     * @param <K> the type of the lookup key.
+     *
+     * @param <V> the type of the canonical instances.
+     *
+     * @param name the name of the pool (for reporting).
+     *
+     * @param factory the function that creates the canonical instance
+     * for a new key.
+     *
+     * @return the new (unregistered) pool.
+     */
+    public static <K, V> InternPool<K, V> local(String name, Function<K, V> factory) {
+        return new InternPool<K, V>(name, factory);
+    }
+
+    /**
+     * Creates a new process-wide string pool.
+     *
+     * @param name the name of the pool (for reporting).
+     *
+     * @return the new (registered) string pool.
+     */
+    public static InternPool<String, String> strings(String name) {
+        return create(name, Function.identity());
+    }
+
+    /**
+     * Returns the statistics for all process-wide pools.
+     *
+     * @return the statistics for all process-wide pools, in the order
+     * that the pools were created.
+     */
+    public static List<InternStatistics> statistics() {
+        List<InternStatistics> statistics = new ArrayList<InternStatistics>(registry.size());
+
+        for (InternPool<?, ?> pool : registry)
+            statistics.add(pool.getStatistics());
+
+        return statistics;
+    }
+
+    /**
+     * Logs the statistics for all process-wide pools that have been
+     * used.
+     */
+    public static void logStatistics() {
+        for (InternStatistics statistics : statistics())
+            if (statistics.getSize() > 0)
+                JamLogger.info("Interned %s", statistics);
+    }
+
+    /**
+     * Returns the canonical instance for a key, creating it on the
+     * first lookup.
+     *
+     * @param key the lookup key.
+     *
+     * @return the canonical instance for the specified key ({@code
+     * null} for a {@code null} key).
+     */
+    public V intern(K key) {
+        if (key == null)
+            return null;
+
+        V instance = instances.get(key);
+
+        if (instance != null) {
+            hits.increment();
+            return instance;
+        }
+
+        //
+        // Threads racing to add the same key each count a miss, but
+        // all of them receive the same instance...
+        //
+        misses.increment();
+        return instances.computeIfAbsent(key, factory);
+    }
+
+    /**
+     * Returns the name of this pool.
+     *
+     * @return the name of this pool.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of distinct instances in this pool.
+     *
+     * @return the number of distinct instances in this pool.
+     */
+    public int size() {
+        return instances.size();
+    }
+
+    /**
+     * Returns the current lookup statistics for this pool.
+     *
+     * @return the current lookup statistics for this pool.
+     */
+    public InternStatistics getStatistics() {
+        return InternStatistics.create(name, size(), hits.sum(), misses.sum());
+    }
+}
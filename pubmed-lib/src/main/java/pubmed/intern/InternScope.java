@@ -0,0 +1,192 @@
+
+package pubmed.intern;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jam.app.JamLogger;
+
+/**
+ * Interns strings with a long-tailed vocabulary (such as keywords)
+ * while a single bulk file is processed.
+ *
+ * <p>Strings like keywords repeat heavily within the articles of one
+ * file, but the full vocabulary is too large to retain for the life
+ * of the process.  A scope is opened on the thread that processes a
+ * file and is closed (releasing its pool) when the file is finished:
+ *
+ * <pre>
+ *     try (InternScope scope = InternScope.open(fileName)) {
+ *         ...
+ *     }
+ * </pre>
+ *
+ * <p>Outside of an open scope, {@link InternScope#intern(String)}
+ * returns its argument unchanged.  Work that is handed to other
+ * threads (parallel streams, fork-join tasks) must therefore carry
+ * the scope with it; the {@code propagate} methods wrap a task so
+ * that it runs in the scope of the thread that created it:
+ *
+ * <pre>
+ *     StreamUtil.applyParallel(elements, InternScope.propagate(element -> extractRecord(element)));
+ * </pre>
+ */
+public final class InternScope implements AutoCloseable {
+    private final String name;
+    private final InternScope previous;
+    private final InternPool<String, String> pool;
+
+    private static final ThreadLocal<InternScope> current = new ThreadLocal<InternScope>();
+
+    private InternScope(String name, InternScope previous) {
+        this.name = name;
+        this.previous = previous;
+        this.pool = InternPool.local(name, Function.identity());
+    }
+
+    /**
+     * Opens a new scope on the calling thread.
+     *
+     * @param name the name of the scope (typically the name of the
+     * file being processed).
+     *
+     * @return the new scope, which must be closed on the same thread.
+     */
+    public static InternScope open(String name) {
+        InternScope scope = new InternScope(name, current.get());
+        current.set(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the scope that is open on the calling thread.
+     *
+     * @return the scope that is open on the calling thread ({@code
+     * null} if there is none).
+     */
+    public static InternScope current() {
+        return current.get();
+    }
+
+    /**
+     * Wraps a function so that it is applied in the scope that is
+     * open on the calling thread, whichever thread eventually applies
+     * it.
+     *
+     * @param <T> the type of the function argument.
+     *
+     * @param <R> the type of the function result.
+     *
+     * @param function the function to wrap.
+     *
+     * @return a function that applies the original function in the
+     * current scope (or the original function if no scope is open).
+     */
+    public static <T, R> Function<T, R> propagate(Function<T, R> function) {
+        InternScope scope = current.get();
+
+        if (scope == null)
+            return function;
+
+        return arg -> {
+            InternScope saved = enter(scope);
+
+            try {
+                return function.apply(arg);
+            }
+            finally {
+                restore(saved);
+            }
+        };
+    }
+
+    /**
+     * Wraps a supplier so that it is invoked in the scope that is
+     * open on the calling thread, whichever thread eventually invokes
+     * it.
+     *
+     * @param <T> the type of the supplied value.
+     *
+     * @param supplier the supplier to wrap.
+     *
+     * @return a supplier that invokes the original supplier in the
+     * current scope (or the original supplier if no scope is open).
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> supplier) {
+        InternScope scope = current.get();
+
+        if (scope == null)
+            return supplier;
+
+        return () -> {
+            InternScope saved = enter(scope);
+
+            try {
+                return supplier.get();
+            }
+            finally {
+                restore(saved);
+            }
+        };
+    }
+
+    private static InternScope enter(InternScope scope) {
+        InternScope saved = current.get();
+        current.set(scope);
+        return saved;
+    }
+
+    private static void restore(InternScope saved) {
+        if (saved != null)
+            current.set(saved);
+        else
+            current.remove();
+    }
+
+    /**
+     * Interns a string in the scope that is open on the calling
+     * thread.
+     *
+     * @param s the string to intern.
+     *
+     * @return the canonical instance of the string in the current
+     * scope, or the argument itself if no scope is open.
+     */
+    public static String intern(String s) {
+        InternScope scope = current.get();
+
+        if (scope != null)
+            return scope.pool.intern(s);
+        else
+            return s;
+    }
+
+    /**
+     * Returns the name of this scope.
+     *
+     * @return the name of this scope.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current lookup statistics for this scope.
+     *
+     * @return the current lookup statistics for this scope.
+     */
+    public InternStatistics getStatistics() {
+        return pool.getStatistics();
+    }
+
+    /**
+     * Closes this scope, logs its statistics, and restores the scope
+     * (if any) that was open when this scope was opened.
+     */
+    @Override public void close() {
+        if (pool.size() > 0)
+            JamLogger.info("Interned %s", getStatistics());
+
+        restore(previous);
+    }
+}
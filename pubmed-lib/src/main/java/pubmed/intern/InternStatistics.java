@@ -0,0 +1,92 @@
+
+package pubmed.intern;
+
+/**
+ * Records the number of lookups served by an interning pool.
+ */
+public final class InternStatistics {
+    private final String name;
+    private final int size;
+    private final long hits;
+    private final long misses;
+
+    private InternStatistics(String name, int size, long hits, long misses) {
+        this.name = name;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * Creates a new statistics record.
+     *
+     * @param name the name of the interning pool.
+     *
+     * @param size the number of distinct instances in the pool.
+     *
+     * @param hits the number of lookups that returned an existing
+     * instance.
+     *
+     * @param misses the number of lookups that added a new instance.
+     *
+     * @return the new statistics record.
+     */
+    public static InternStatistics create(String name, int size, long hits, long misses) {
+        return new InternStatistics(name, size, hits, misses);
+    }
+
+    /**
+     * Returns the name of the interning pool.
+     *
+     * @return the name of the interning pool.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of distinct instances in the pool.
+     *
+     * @return the number of distinct instances in the pool.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of lookups that returned an existing
+     * instance.
+     *
+     * @return the number of lookups that returned an existing
+     * instance.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that added a new instance.
+     *
+     * @return the number of lookups that added a new instance.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups that returned an existing
+     * instance (zero if there have been no lookups).
+     *
+     * @return the fraction of lookups that returned an existing
+     * instance.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups > 0 ? ((double) hits) / lookups : 0.0;
+    }
+
+    @Override public String toString() {
+        return String.format("%s: size = %d, hits = %d, misses = %d, hit rate = %.3f",
+                             name, size, hits, misses, getHitRate());
+    }
+}
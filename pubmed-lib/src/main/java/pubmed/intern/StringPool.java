@@ -0,0 +1,31 @@
+
+package pubmed.intern;
+
+/**
+ * Provides the process-wide pools for strings drawn from small
+ * vocabularies that are repeated across the bulk files.
+ */
+public final class StringPool {
+    private StringPool() {
+    }
+
+    /**
+     * Countries of publication.
+     */
+    public static final InternPool<String, String> COUNTRY = InternPool.strings("Country");
+
+    /**
+     * Full journal titles.
+     */
+    public static final InternPool<String, String> JOURNAL_TITLE = InternPool.strings("JournalTitle");
+
+    /**
+     * ISO journal title abbreviations.
+     */
+    public static final InternPool<String, String> ISO_ABBREVIATION = InternPool.strings("ISOAbbreviation");
+
+    /**
+     * Names of {@code MeSH} descriptors and qualifiers.
+     */
+    public static final InternPool<String, String> MESH_NAME = InternPool.strings("MeshName");
+}
@@ -0,0 +1,5 @@
+/**
+ * Interns the keys and strings that repeat across millions of
+ * articles, so that each distinct value is retained only once.
+ */
+package pubmed.intern;
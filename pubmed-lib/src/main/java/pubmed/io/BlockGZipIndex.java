@@ -0,0 +1,266 @@
+
+package pubmed.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jam.lang.JamException;
+
+/**
+ * Locates the independently compressed blocks of a block-gzip file
+ * (written by {@link BlockGZipOutputStream}) and records the range of
+ * {@code PMID}s contained in each block.
+ *
+ * <p>The index is stored in a small binary file next to the data
+ * file; see {@link BlockGZipIndex#resolve(File)}.
+ */
+public final class BlockGZipIndex {
+    private final List<Block> blocks;
+
+    private BlockGZipIndex(List<Block> blocks) {
+        this.blocks = blocks;
+    }
+
+    /**
+     * Suffix appended to the data file name to form the index file
+     * name.
+     */
+    public static final String SUFFIX = ".idx";
+
+    private static final int MAGIC = 0x50424758; // "PBGX"
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Describes one compressed block.
+     */
+    public static final class Block {
+        private final long offset;
+        private final int compressedLength;
+        private final int length;
+        private final int minPMID;
+        private final int maxPMID;
+
+        private Block(long offset, int compressedLength, int length, int minPMID, int maxPMID) {
+            this.offset = offset;
+            this.compressedLength = compressedLength;
+            this.length = length;
+            this.minPMID = minPMID;
+            this.maxPMID = maxPMID;
+        }
+
+        /**
+         * Returns the position of the first byte of the compressed
+         * block in the data file.
+         *
+         * @return the position of the first byte of the compressed
+         * block in the data file.
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        /**
+         * Returns the number of bytes in the compressed block.
+         *
+         * @return the number of bytes in the compressed block.
+         */
+        public int getCompressedLength() {
+            return compressedLength;
+        }
+
+        /**
+         * Returns the number of bytes in the decompressed block.
+         *
+         * @return the number of bytes in the decompressed block.
+         */
+        public int getLength() {
+            return length;
+        }
+
+        /**
+         * Determines whether a line keyed by a given {@code PMID} may
+         * occur in this block.
+         *
+         * @param pmid the integer value of the {@code PMID}.
+         *
+         * @return {@code true} iff the {@code PMID} lies within the
+         * range of keys found in this block.
+         */
+        public boolean mayContain(int pmid) {
+            return minPMID <= pmid && pmid <= maxPMID;
+        }
+    }
+
+    /**
+     * Creates an empty index.
+     *
+     * @return an empty index.
+     */
+    public static BlockGZipIndex empty() {
+        return new BlockGZipIndex(new ArrayList<Block>());
+    }
+
+    /**
+     * Returns the index file for a data file.
+     *
+     * @param dataFile the block-gzip data file.
+     *
+     * @return the index file for the specified data file (which may
+     * or may not exist).
+     */
+    public static File resolve(File dataFile) {
+        return new File(dataFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Determines whether a data file has an index.
+     *
+     * @param dataFile the data file.
+     *
+     * @return {@code true} iff the index file for the data file
+     * exists and is readable.
+     */
+    public static boolean exists(File dataFile) {
+        return resolve(dataFile).canRead();
+    }
+
+    /**
+     * Reads the index for a data file.
+     *
+     * @param dataFile the block-gzip data file.
+     *
+     * @return the index for the specified data file.
+     *
+     * @throws RuntimeException unless the index file exists and is
+     * valid.
+     */
+    public static BlockGZipIndex load(File dataFile) {
+        File indexFile = resolve(dataFile);
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+                throw JamException.runtime("Invalid block index [%s].", indexFile);
+
+            int count = input.readInt();
+            List<Block> blocks = new ArrayList<Block>(count);
+
+            for (int index = 0; index < count; ++index)
+                blocks.add(new Block(input.readLong(),
+                                     input.readInt(),
+                                     input.readInt(),
+                                     input.readInt(),
+                                     input.readInt()));
+
+            return new BlockGZipIndex(blocks);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not read block index [%s]: %s", indexFile, ex.getMessage());
+        }
+    }
+
+    /**
+     * Appends a block to this index.
+     *
+     * @param compressedLength the number of bytes in the compressed
+     * block.
+     *
+     * @param length the number of bytes in the decompressed block.
+     *
+     * @param minPMID the smallest {@code PMID} key in the block.
+     *
+     * @param maxPMID the largest {@code PMID} key in the block.
+     */
+    void add(int compressedLength, int length, int minPMID, int maxPMID) {
+        blocks.add(new Block(getDataLength(), compressedLength, length, minPMID, maxPMID));
+    }
+
+    /**
+     * Writes this index for a data file.  The index is written to a
+     * temporary file and then renamed, so a partial index is never
+     * visible.
+     *
+     * @param dataFile the block-gzip data file.
+     *
+     * @throws RuntimeException unless the index can be written.
+     */
+    public void store(File dataFile) {
+        File indexFile = resolve(dataFile);
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(blocks.size());
+
+                for (Block block : blocks) {
+                    output.writeLong(block.offset);
+                    output.writeInt(block.compressedLength);
+                    output.writeInt(block.length);
+                    output.writeInt(block.minPMID);
+                    output.writeInt(block.maxPMID);
+                }
+            }
+
+            Files.move(tempFile.toPath(), indexFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            tempFile.delete();
+            throw JamException.runtime("Could not write block index [%s]: %s", indexFile, ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the blocks that may contain lines keyed by a given
+     * {@code PMID}.
+     *
+     * @param pmid the integer value of the {@code PMID}.
+     *
+     * @return the blocks that may contain lines keyed by the {@code
+     * PMID}, in file order.
+     */
+    public List<Block> find(int pmid) {
+        List<Block> found = new ArrayList<Block>();
+
+        for (Block block : blocks)
+            if (block.mayContain(pmid))
+                found.add(block);
+
+        return found;
+    }
+
+    /**
+     * Returns every block in file order.
+     *
+     * @return every block in file order (in an unmodifiable list).
+     */
+    public List<Block> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * Returns the total length of the compressed blocks, which is
+     * the length of the data file described by this index.
+     *
+     * @return the total length of the compressed blocks.
+     */
+    public long getDataLength() {
+        if (blocks.isEmpty())
+            return 0L;
+
+        Block last = blocks.get(blocks.size() - 1);
+        return last.offset + last.compressedLength;
+    }
+}
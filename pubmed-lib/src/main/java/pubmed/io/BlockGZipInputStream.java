@@ -0,0 +1,193 @@
+
+package pubmed.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+
+import jam.lang.JamException;
+
+/**
+ * Reads the decompressed content of a block-gzip data file (written
+ * by {@link BlockGZipOutputStream}), decompressing the blocks in
+ * parallel on the common fork-join pool.
+ *
+ * <p>The stream may cover every block in the data file or only a
+ * subset of them (the blocks that may contain a given {@code PMID},
+ * for example); the blocks are always delivered in file order.  At
+ * most a fixed number of decompressed blocks are held ahead of the
+ * consumer.  Instances are not thread-safe.
+ */
+public final class BlockGZipInputStream extends InputStream {
+    private final File dataFile;
+    private final FileChannel channel;
+    private final Iterator<BlockGZipIndex.Block> blocks;
+    private final int window;
+    private final Deque<CompletableFuture<byte[]>> pending;
+
+    private byte[] block = null;
+    private int position = 0;
+    private boolean closed = false;
+
+    private BlockGZipInputStream(File dataFile, FileChannel channel, List<BlockGZipIndex.Block> blocks) {
+        this.dataFile = dataFile;
+        this.channel = channel;
+        this.blocks = blocks.iterator();
+        this.window = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        this.pending = new ArrayDeque<CompletableFuture<byte[]>>(window);
+
+        fillWindow();
+    }
+
+    /**
+     * Opens every block in a data file for reading.
+     *
+     * @param dataFile the block-gzip data file.
+     *
+     * @return an input stream for the entire decompressed content.
+     *
+     * @throws RuntimeException unless the data file and its index
+     * exist and can be opened for reading.
+     */
+    public static BlockGZipInputStream open(File dataFile) {
+        return open(dataFile, BlockGZipIndex.load(dataFile).getBlocks());
+    }
+
+    /**
+     * Opens selected blocks in a data file for reading.
+     *
+     * @param dataFile the block-gzip data file.
+     *
+     * @param blocks the blocks to read (from the index of the data
+     * file), in the order they will be delivered.
+     *
+     * @return an input stream for the decompressed content of the
+     * selected blocks.
+     *
+     * @throws RuntimeException unless the data file can be opened for
+     * reading.
+     */
+    public static BlockGZipInputStream open(File dataFile, List<BlockGZipIndex.Block> blocks) {
+        try {
+            return new BlockGZipInputStream(dataFile, FileChannel.open(dataFile.toPath(), StandardOpenOption.READ), blocks);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not open [%s]: %s", dataFile, ex.getMessage());
+        }
+    }
+
+    @Override public int read() throws IOException {
+        if (!nextBlock())
+            return -1;
+
+        return block[position++] & 0xFF;
+    }
+
+    @Override public int read(byte[] bytes, int offset, int count) throws IOException {
+        if (count == 0)
+            return 0;
+
+        if (!nextBlock())
+            return -1;
+
+        int length = Math.min(count, block.length - position);
+        System.arraycopy(block, position, bytes, offset, length);
+        position += length;
+
+        return length;
+    }
+
+    @Override public int available() throws IOException {
+        return (block != null) ? block.length - position : 0;
+    }
+
+    @Override public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+
+        for (CompletableFuture<byte[]> future : pending)
+            future.cancel(false);
+
+        pending.clear();
+        channel.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed.");
+
+        while (block == null || position >= block.length) {
+            if (pending.isEmpty())
+                return false;
+
+            block = takeBlock(pending.removeFirst());
+            position = 0;
+
+            fillWindow();
+        }
+
+        return true;
+    }
+
+    private void fillWindow() {
+        while (pending.size() < window && blocks.hasNext()) {
+            BlockGZipIndex.Block next = blocks.next();
+            pending.addLast(CompletableFuture.supplyAsync(() -> inflate(next)));
+        }
+    }
+
+    private byte[] takeBlock(CompletableFuture<byte[]> future) throws IOException {
+        try {
+            return future.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            else
+                throw ex;
+        }
+    }
+
+    private byte[] inflate(BlockGZipIndex.Block indexBlock) {
+        try {
+            ByteBuffer compressed = ByteBuffer.allocate(indexBlock.getCompressedLength());
+            long offset = indexBlock.getOffset();
+
+            while (compressed.hasRemaining()) {
+                int count = channel.read(compressed, offset + compressed.position());
+
+                if (count < 0)
+                    throw new EOFException("Truncated block-gzip file: " + dataFile);
+            }
+
+            byte[] bytes = new byte[indexBlock.getLength()];
+
+            try (DataInputStream gzip =
+                 new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(compressed.array())))) {
+                gzip.readFully(bytes);
+            }
+
+            return bytes;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,352 @@
+
+package pubmed.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
+
+import jam.app.JamLogger;
+import jam.lang.JamException;
+
+/**
+ * Writes lines of text as a sequence of independently compressed
+ * {@code gzip} blocks, in the style of the {@code BGZF} format, and
+ * records the location and {@code PMID} range of each block in an
+ * index file.
+ *
+ * <p>Each block is a complete {@code gzip} member that ends on a line
+ * boundary, so the data file is a valid (multi-member) {@code gzip}
+ * file that any {@code gzip} reader can decompress serially, while
+ * {@link BlockGZipInputStream} can decompress the blocks in parallel
+ * or read only the blocks that may contain a given {@code PMID}.
+ * Lines are keyed by the integer in their first field (the {@code
+ * PMID} in every {@code PubMed} flat file).
+ *
+ * <p>Blocks are compressed in parallel on the common fork-join pool
+ * and written in order by the thread that owns the stream.  The index
+ * is written when the stream is closed.  Instances are not
+ * thread-safe.
+ *
+ * <p>Blocks appended to an existing data file without a matching index
+ * (a plain {@code gzip} file, or one whose index was lost) are written
+ * without an index: the file remains a valid {@code gzip} file that is
+ * read serially.
+ */
+public final class BlockGZipOutputStream extends OutputStream {
+    private final File dataFile;
+    private final OutputStream output;
+    private final BlockGZipIndex index;
+    private final int blockSize;
+    private final int window;
+    private final Deque<CompletableFuture<CompressedBlock>> pending;
+
+    private byte[] buffer;
+    private int length = 0;
+
+    // The bytes before the scan offset have been searched for line
+    // breaks; the break offset follows the last break found within
+    // the first block (or zero if none was found)...
+    private int scanned = 0;
+    private int lineBreak = 0;
+
+    private boolean closed = false;
+
+    private BlockGZipOutputStream(File dataFile, OutputStream output, BlockGZipIndex index, int blockSize) {
+        this.dataFile = dataFile;
+        this.output = output;
+        this.index = index;
+        this.blockSize = blockSize;
+        this.buffer = new byte[2 * blockSize];
+        this.window = 2 * Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        this.pending = new ArrayDeque<CompletableFuture<CompressedBlock>>(window);
+    }
+
+    /**
+     * The default number of uncompressed bytes in each block (a block
+     * may be longer if it contains a longer line).
+     */
+    public static final int BLOCK_SIZE = 65536;
+
+    // Key range for blocks containing lines without a PMID key...
+    private static final int UNKEYED_MIN = 0;
+    private static final int UNKEYED_MAX = Integer.MAX_VALUE;
+
+    private static final class CompressedBlock {
+        private final byte[] data;
+        private final int length;
+        private final int minPMID;
+        private final int maxPMID;
+
+        private CompressedBlock(byte[] data, int length, int minPMID, int maxPMID) {
+            this.data = data;
+            this.length = length;
+            this.minPMID = minPMID;
+            this.maxPMID = maxPMID;
+        }
+    }
+
+    /**
+     * Opens a block-gzip data file for writing with the default block
+     * size.
+     *
+     * @param dataFile the data file to write.
+     *
+     * @param append whether to append blocks to ({@code true}) or
+     * truncate ({@code false}) an existing data file.
+     *
+     * @return an open output stream for the data file.
+     *
+     * @throws RuntimeException unless the data file can be opened for
+     * writing.
+     */
+    public static BlockGZipOutputStream open(File dataFile, boolean append) {
+        return open(dataFile, append, BLOCK_SIZE);
+    }
+
+    /**
+     * Opens a block-gzip data file for writing.
+     *
+     * @param dataFile the data file to write.
+     *
+     * @param append whether to append blocks to ({@code true}) or
+     * truncate ({@code false}) an existing data file.
+     *
+     * @param blockSize the number of uncompressed bytes in each block.
+     *
+     * @return an open output stream for the data file.
+     *
+     * @throws RuntimeException unless the data file can be opened for
+     * writing.
+     */
+    public static BlockGZipOutputStream open(File dataFile, boolean append, int blockSize) {
+        if (blockSize < 1)
+            throw JamException.runtime("Block size must be positive.");
+
+        BlockGZipIndex index = openIndex(dataFile, append);
+
+        try {
+            OutputStream output = new BufferedOutputStream(new FileOutputStream(dataFile, append), BLOCK_SIZE);
+            return new BlockGZipOutputStream(dataFile, output, index, blockSize);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not open [%s]: %s", dataFile, ex.getMessage());
+        }
+    }
+
+    private static BlockGZipIndex openIndex(File dataFile, boolean append) {
+        if (!append || !dataFile.exists()) {
+            //
+            // Never leave a stale index next to a new data file...
+            //
+            BlockGZipIndex.resolve(dataFile).delete();
+            return BlockGZipIndex.empty();
+        }
+
+        if (BlockGZipIndex.exists(dataFile)) {
+            BlockGZipIndex index = BlockGZipIndex.load(dataFile);
+
+            if (index.getDataLength() == dataFile.length())
+                return index;
+        }
+
+        //
+        // The existing blocks cannot be located, so the appended blocks
+        // are not indexed either: the whole file is read serially...
+        //
+        JamLogger.info("Appending to [%s] without a block index.", dataFile);
+        BlockGZipIndex.resolve(dataFile).delete();
+
+        return null;
+    }
+
+    @Override public void write(int b) throws IOException {
+        ensureOpen();
+        ensureCapacity(1);
+
+        buffer[length++] = (byte) b;
+
+        if (length >= blockSize)
+            cutBlocks();
+    }
+
+    @Override public void write(byte[] bytes, int offset, int count) throws IOException {
+        ensureOpen();
+        ensureCapacity(count);
+
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+
+        if (length >= blockSize)
+            cutBlocks();
+    }
+
+    @Override public void flush() throws IOException {
+        //
+        // Blocks always end on line boundaries, so a partial block is
+        // held until it is full or the stream is closed...
+        //
+        ensureOpen();
+        output.flush();
+    }
+
+    @Override public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+
+        try {
+            if (length > 0)
+                submitBlock(length);
+
+            while (!pending.isEmpty())
+                writeBlock(pending.removeFirst());
+        }
+        finally {
+            output.close();
+        }
+
+        if (index != null)
+            index.store(dataFile);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed.");
+    }
+
+    private void ensureCapacity(int count) {
+        if (length + count > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(length + count, 2 * buffer.length));
+    }
+
+    private void cutBlocks() throws IOException {
+        //
+        // Cut each block after the last complete line that fits; a
+        // line longer than the block size is kept whole in a longer
+        // block.  The scan resumes where the previous write left off,
+        // so each byte is examined once even while a long line is
+        // buffered across many writes...
+        //
+        while (length >= blockSize) {
+            while (scanned < length && (scanned < blockSize || lineBreak == 0))
+                if (buffer[scanned++] == '\n')
+                    lineBreak = scanned;
+
+            if (lineBreak == 0)
+                return;
+
+            submitBlock(lineBreak);
+        }
+    }
+
+    private void submitBlock(int cut) throws IOException {
+        if (pending.size() >= window)
+            writeBlock(pending.removeFirst());
+
+        byte[] bytes = Arrays.copyOf(buffer, cut);
+
+        System.arraycopy(buffer, cut, buffer, 0, length - cut);
+        length -= cut;
+
+        //
+        // No line break follows the cut within the scanned bytes...
+        //
+        scanned = Math.max(0, scanned - cut);
+        lineBreak = 0;
+
+        pending.addLast(CompletableFuture.supplyAsync(() -> compress(bytes)));
+    }
+
+    private void writeBlock(CompletableFuture<CompressedBlock> future) throws IOException {
+        CompressedBlock block;
+
+        try {
+            block = future.join();
+        }
+        catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException)
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            else
+                throw ex;
+        }
+
+        output.write(block.data);
+
+        if (index != null)
+            index.add(block.data.length, block.length, block.minPMID, block.maxPMID);
+    }
+
+    private static CompressedBlock compress(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        int minPMID = Integer.MAX_VALUE;
+        int maxPMID = Integer.MIN_VALUE;
+        int lineStart = 0;
+
+        while (lineStart < bytes.length) {
+            int pmid = parseKey(bytes, lineStart);
+
+            if (pmid < 0) {
+                minPMID = UNKEYED_MIN;
+                maxPMID = UNKEYED_MAX;
+                break;
+            }
+
+            minPMID = Math.min(minPMID, pmid);
+            maxPMID = Math.max(maxPMID, pmid);
+
+            while (lineStart < bytes.length && bytes[lineStart] != '\n')
+                ++lineStart;
+
+            ++lineStart;
+        }
+
+        return new CompressedBlock(compressed.toByteArray(), bytes.length, minPMID, maxPMID);
+    }
+
+    private static int parseKey(byte[] bytes, int start) {
+        //
+        // The key is the non-negative integer that makes up the entire
+        // first field of the line; -1 marks an unkeyed line...
+        //
+        long key = 0;
+        int index = start;
+
+        while (index < bytes.length && bytes[index] >= '0' && bytes[index] <= '9' && key <= Integer.MAX_VALUE) {
+            key = 10 * key + (bytes[index] - '0');
+            ++index;
+        }
+
+        if (index == start || key > Integer.MAX_VALUE)
+            return -1;
+
+        if (index == bytes.length)
+            return (int) key;
+
+        byte next = bytes[index];
+
+        if (next == '|' || next == '\n' || next == '\r')
+            return (int) key;
+        else
+            return -1;
+    }
+}
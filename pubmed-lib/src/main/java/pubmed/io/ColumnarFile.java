@@ -0,0 +1,937 @@
+
+package pubmed.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jam.lang.JamException;
+
+/**
+ * Stores the lines of a pipe-delimited flat file in a compact binary
+ * form with the fields of each column stored together.
+ *
+ * <p>Each column is encoded according to its content: canonical
+ * integers (the {@code PMID} keys) as zig-zag variable-length deltas
+ * from the previous row, ISO dates as delta-encoded epoch days,
+ * columns with many repeated values (descriptor keys, journal
+ * identifiers, publication types, {@code NULL} markers) as a
+ * dictionary of distinct values followed by variable-length
+ * dictionary indexes, and all other columns as length-prefixed UTF-8
+ * text.  Lines are split on the first {@code n - 1} unescaped
+ * delimiters, where {@code n} is the smallest number of fields in any
+ * line, so the original lines are always reproduced exactly.
+ *
+ * <p>The columns are decoded into typed form, and the rows are read
+ * through a {@link FieldReader} (see {@link
+ * ColumnarFile#openFieldReader()}) that returns integers and dates
+ * without formatting or parsing text, returns each dictionary value
+ * as a single shared string, and decodes text fields only when they
+ * are requested.  The rows for a single key in the first column may
+ * be read without decoding the other rows (see {@link
+ * ColumnarFile#select(File, int)}).
+ */
+public final class ColumnarFile {
+    private final int rowCount;
+    private final boolean uniform;
+    private final Column[] columns;
+
+    private ColumnarFile(int rowCount, boolean uniform, Column[] columns) {
+        this.rowCount = rowCount;
+        this.uniform = uniform;
+        this.columns = columns;
+    }
+
+    private static final int MAGIC = 0x50434f4c; // "PCOL"
+    private static final int FORMAT_VERSION = 2;
+
+    // Version 1 files were split on every delimiter (escaped or not)
+    // and carry no flags; their lines are still reproduced exactly...
+    private static final int SPLIT_ALL_VERSION = 1;
+
+    // Every line has exactly as many fields as there are columns...
+    private static final int UNIFORM_FLAG = 1;
+
+    private static final byte INT_DELTA  = 1;
+    private static final byte EPOCH_DAY  = 2;
+    private static final byte DICTIONARY = 3;
+    private static final byte TEXT       = 4;
+
+    private static final char DELIMITER = '|';
+    private static final char ESCAPE = '\\';
+    private static final String NULL_STRING = "NULL";
+
+    private static final int BUFFER_SIZE = 65536;
+
+    /**
+     * Determines whether a file is a columnar file.
+     *
+     * @param file the file to examine.
+     *
+     * @return {@code true} iff the file exists and begins with the
+     * columnar file signature.
+     */
+    public static boolean isColumnar(File file) {
+        if (!file.canRead() || file.length() < 8)
+            return false;
+
+        try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            return input.readInt() == MAGIC;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a columnar file.
+     *
+     * @param file the columnar file to read.
+     *
+     * @return the decoded columnar file.
+     *
+     * @throws RuntimeException unless the file exists and is a valid
+     * columnar file.
+     */
+    public static ColumnarFile load(File file) {
+        return read(file, null);
+    }
+
+    /**
+     * Reads the rows of a columnar file whose first column contains a
+     * given integer key (the {@code PMID} of a content file).  The key
+     * column is decoded in full; when its keys are in ascending order,
+     * the matching rows are located by binary search.  Only the
+     * matching rows of the other columns are decoded.
+     *
+     * @param file the columnar file to read.
+     *
+     * @param key the key of the rows to read.
+     *
+     * @return a columnar file containing the matching rows (in their
+     * original order).
+     *
+     * @throws RuntimeException unless the file exists and is a valid
+     * columnar file.
+     */
+    public static ColumnarFile select(File file, int key) {
+        return read(file, key);
+    }
+
+    private static ColumnarFile read(File file, Integer key) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC)
+                throw JamException.runtime("Invalid columnar file [%s].", file);
+
+            int version = input.readInt();
+
+            if (version != FORMAT_VERSION && version != SPLIT_ALL_VERSION)
+                throw JamException.runtime("Unsupported columnar file version [%d]: [%s].", version, file);
+
+            int rowCount = input.readInt();
+            int columnCount = input.readInt();
+            int flags = (version == FORMAT_VERSION) ? input.readInt() : 0;
+
+            Column[] columns = new Column[columnCount];
+            int[] selected = null;
+
+            for (int index = 0; index < columnCount; ++index) {
+                byte encoding = input.readByte();
+                byte[] block = new byte[input.readInt()];
+
+                input.readFully(block);
+
+                if (index == 0 && key != null) {
+                    //
+                    // The key column determines the selected rows...
+                    //
+                    Column keys = decodeColumn(encoding, new Cursor(block), rowCount, null);
+                    selected = keys.find(key, rowCount);
+                    columns[index] = keys.select(selected);
+                }
+                else {
+                    columns[index] = decodeColumn(encoding, new Cursor(block), rowCount, selected);
+                }
+            }
+
+            int resultCount = (selected != null) ? selected.length : ((key != null) ? 0 : rowCount);
+            return new ColumnarFile(resultCount, (flags & UNIFORM_FLAG) != 0, columns);
+        }
+        catch (IOException | IndexOutOfBoundsException ex) {
+            throw JamException.runtime("Could not read columnar file [%s]: %s", file, ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes lines to a columnar file.  The file is written to a
+     * unique temporary file in the same directory and then renamed,
+     * so a partial file is never visible and concurrent writers never
+     * share a temporary file.
+     *
+     * @param file the columnar file to write.
+     *
+     * @param lines the lines to write (without line terminators).
+     *
+     * @throws RuntimeException unless the file can be written.
+     */
+    public static void write(File file, Iterable<String> lines) {
+        List<String> lineList = new ArrayList<String>();
+
+        for (String line : lines)
+            lineList.add(line);
+
+        int columnCount = Integer.MAX_VALUE;
+        boolean uniform = true;
+
+        for (String line : lineList) {
+            int fieldCount = countFields(line);
+
+            if (columnCount != Integer.MAX_VALUE && fieldCount != columnCount)
+                uniform = false;
+
+            columnCount = Math.min(columnCount, fieldCount);
+        }
+
+        if (lineList.isEmpty())
+            columnCount = 0;
+
+        List<String[]> rows = new ArrayList<String[]>(lineList.size());
+
+        for (String line : lineList)
+            rows.add(split(line, columnCount));
+
+        File tempFile = null;
+
+        try {
+            tempFile = File.createTempFile(file.getName() + ".", ".tmp", file.getAbsoluteFile().getParentFile());
+
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(rows.size());
+                output.writeInt(columnCount);
+                output.writeInt(uniform ? UNIFORM_FLAG : 0);
+
+                for (int column = 0; column < columnCount; ++column)
+                    writeColumn(output, rows, column);
+            }
+
+            Files.move(tempFile.toPath(), file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            if (tempFile != null)
+                tempFile.delete();
+
+            throw JamException.runtime("Could not write columnar file [%s]: %s", file, ex.getMessage());
+        }
+    }
+
+    private static boolean isDelimiter(String line, int index) {
+        return line.charAt(index) == DELIMITER && (index == 0 || line.charAt(index - 1) != ESCAPE);
+    }
+
+    private static int countFields(String line) {
+        int fieldCount = 1;
+
+        for (int index = 0; index < line.length(); ++index)
+            if (isDelimiter(line, index))
+                ++fieldCount;
+
+        return fieldCount;
+    }
+
+    private static String[] split(String line, int columnCount) {
+        String[] fields = new String[columnCount];
+        int column = 0;
+        int start = 0;
+
+        for (int index = 0; index < line.length() && column < columnCount - 1; ++index) {
+            if (isDelimiter(line, index)) {
+                fields[column++] = line.substring(start, index);
+                start = index + 1;
+            }
+        }
+
+        fields[columnCount - 1] = line.substring(start);
+        return fields;
+    }
+
+    private static void writeColumn(DataOutputStream output, List<String[]> rows, int column) throws IOException {
+        byte encoding = selectEncoding(rows, column);
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+
+        switch (encoding) {
+        case INT_DELTA:
+            encodeInts(block, rows, column);
+            break;
+
+        case EPOCH_DAY:
+            encodeDates(block, rows, column);
+            break;
+
+        case DICTIONARY:
+            encodeDictionary(block, rows, column);
+            break;
+
+        default:
+            encodeText(block, rows, column);
+        }
+
+        output.writeByte(encoding);
+        output.writeInt(block.size());
+        block.writeTo(output);
+    }
+
+    private static byte selectEncoding(List<String[]> rows, int column) {
+        if (isIntColumn(rows, column))
+            return INT_DELTA;
+
+        if (isDateColumn(rows, column))
+            return EPOCH_DAY;
+
+        if (isDictionaryColumn(rows, column))
+            return DICTIONARY;
+
+        return TEXT;
+    }
+
+    private static boolean isIntColumn(List<String[]> rows, int column) {
+        for (String[] row : rows)
+            if (parseCanonicalInt(row[column]) == null)
+                return false;
+
+        return true;
+    }
+
+    private static Integer parseCanonicalInt(String field) {
+        //
+        // Only canonical forms are encoded numerically, so that the
+        // original text is reproduced exactly...
+        //
+        if (field.isEmpty() || field.length() > 11)
+            return null;
+
+        try {
+            int value = Integer.parseInt(field);
+            return Integer.toString(value).equals(field) ? value : null;
+        }
+        catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isDateColumn(List<String[]> rows, int column) {
+        for (String[] row : rows)
+            if (parseCanonicalDate(row[column]) == null)
+                return false;
+
+        return true;
+    }
+
+    private static LocalDate parseCanonicalDate(String field) {
+        if (field.length() != 10)
+            return null;
+
+        try {
+            LocalDate date = LocalDate.parse(field);
+            return date.toString().equals(field) ? date : null;
+        }
+        catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isDictionaryColumn(List<String[]> rows, int column) {
+        Map<String, Boolean> distinct = new HashMap<String, Boolean>();
+
+        for (String[] row : rows) {
+            distinct.put(row[column], Boolean.TRUE);
+
+            if (2 * distinct.size() > rows.size())
+                return false;
+        }
+
+        return true;
+    }
+
+    private static void encodeInts(ByteArrayOutputStream block, List<String[]> rows, int column) {
+        int previous = 0;
+
+        for (String[] row : rows) {
+            int value = parseCanonicalInt(row[column]);
+            writeSigned(block, (long) value - previous);
+            previous = value;
+        }
+    }
+
+    private static void encodeDates(ByteArrayOutputStream block, List<String[]> rows, int column) {
+        long previous = 0;
+
+        for (String[] row : rows) {
+            long value = parseCanonicalDate(row[column]).toEpochDay();
+            writeSigned(block, value - previous);
+            previous = value;
+        }
+    }
+
+    private static void encodeDictionary(ByteArrayOutputStream block, List<String[]> rows, int column) {
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        List<String> values = new ArrayList<String>();
+        int[] rowIds = new int[rows.size()];
+
+        for (int index = 0; index < rowIds.length; ++index) {
+            String value = rows.get(index)[column];
+            Integer id = ids.get(value);
+
+            if (id == null) {
+                id = values.size();
+                ids.put(value, id);
+                values.add(value);
+            }
+
+            rowIds[index] = id;
+        }
+
+        writeUnsigned(block, values.size());
+
+        for (String value : values)
+            writeText(block, value);
+
+        for (int id : rowIds)
+            writeUnsigned(block, id);
+    }
+
+    private static void encodeText(ByteArrayOutputStream block, List<String[]> rows, int column) {
+        for (String[] row : rows)
+            writeText(block, row[column]);
+    }
+
+    private static void writeText(ByteArrayOutputStream block, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeUnsigned(block, bytes.length);
+        block.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeSigned(ByteArrayOutputStream block, long value) {
+        writeUnsigned(block, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeUnsigned(ByteArrayOutputStream block, long value) {
+        while ((value & ~0x7FL) != 0) {
+            block.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        block.write((int) value);
+    }
+
+    //
+    // Each decoder reads every row of its column but keeps only the
+    // selected rows (all rows if the selection is null)...
+    //
+    private static Column decodeColumn(byte encoding, Cursor cursor, int rowCount, int[] selected) {
+        switch (encoding) {
+        case INT_DELTA:
+            return decodeInts(cursor, rowCount, selected);
+
+        case EPOCH_DAY:
+            return decodeDates(cursor, rowCount, selected);
+
+        case DICTIONARY:
+            return decodeDictionary(cursor, rowCount, selected);
+
+        case TEXT:
+            return decodeText(cursor, rowCount, selected);
+
+        default:
+            throw JamException.runtime("Unknown column encoding: [%d].", encoding);
+        }
+    }
+
+    private static int countSelected(int rowCount, int[] selected) {
+        return (selected != null) ? selected.length : rowCount;
+    }
+
+    private static boolean isSelected(int[] selected, int next, int row) {
+        return selected == null || selected[next] == row;
+    }
+
+    private static Column decodeInts(Cursor cursor, int rowCount, int[] selected) {
+        int[] values = new int[countSelected(rowCount, selected)];
+        int next = 0;
+        long previous = 0;
+
+        for (int row = 0; row < rowCount && next < values.length; ++row) {
+            previous += cursor.readSigned();
+
+            if (isSelected(selected, next, row))
+                values[next++] = (int) previous;
+        }
+
+        return new IntColumn(values);
+    }
+
+    private static Column decodeDates(Cursor cursor, int rowCount, int[] selected) {
+        //
+        // Publication dates repeat heavily, so the rows for each
+        // distinct day share one date object...
+        //
+        Map<Long, LocalDate> dates = new HashMap<Long, LocalDate>();
+        LocalDate[] values = new LocalDate[countSelected(rowCount, selected)];
+        int next = 0;
+        long previous = 0;
+
+        for (int row = 0; row < rowCount && next < values.length; ++row) {
+            previous += cursor.readSigned();
+
+            if (isSelected(selected, next, row))
+                values[next++] = dates.computeIfAbsent(previous, LocalDate::ofEpochDay);
+        }
+
+        return new DateColumn(values);
+    }
+
+    private static Column decodeDictionary(Cursor cursor, int rowCount, int[] selected) {
+        //
+        // Dictionary values are decoded on first use...
+        //
+        int size = (int) cursor.readUnsigned();
+        int[] starts = new int[size];
+        int[] lengths = new int[size];
+
+        for (int id = 0; id < size; ++id) {
+            lengths[id] = (int) cursor.readUnsigned();
+            starts[id] = cursor.position;
+            cursor.position += lengths[id];
+        }
+
+        int[] ids = new int[countSelected(rowCount, selected)];
+        int next = 0;
+
+        for (int row = 0; row < rowCount && next < ids.length; ++row) {
+            int id = (int) cursor.readUnsigned();
+
+            if (isSelected(selected, next, row))
+                ids[next++] = id;
+        }
+
+        return new DictionaryColumn(cursor.bytes, starts, lengths, ids);
+    }
+
+    private static Column decodeText(Cursor cursor, int rowCount, int[] selected) {
+        //
+        // Text fields are decoded from the block only when they are
+        // requested...
+        //
+        int[] starts = new int[countSelected(rowCount, selected)];
+        int[] lengths = new int[starts.length];
+        int next = 0;
+
+        for (int row = 0; row < rowCount && next < starts.length; ++row) {
+            int length = (int) cursor.readUnsigned();
+
+            if (isSelected(selected, next, row)) {
+                starts[next] = cursor.position;
+                lengths[next] = length;
+                ++next;
+            }
+
+            cursor.position += length;
+        }
+
+        return new TextColumn(cursor.bytes, starts, lengths);
+    }
+
+    /**
+     * Returns the number of lines in this file.
+     *
+     * @return the number of lines in this file.
+     */
+    public int countLines() {
+        return rowCount;
+    }
+
+    /**
+     * Identifies files whose lines all have the same number of fields,
+     * which are read through {@link ColumnarFile#openFieldReader()}
+     * with one field per column.  In other files the final column holds
+     * the remaining fields of the longer lines (and files written in
+     * the first version of the format are never uniform), so their
+     * lines should be parsed from {@link FieldReader#getLine()}.
+     *
+     * @return {@code true} iff every line in this file has exactly one
+     * field for each column.
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    /**
+     * Returns a line from this file.
+     *
+     * @param row the index of the line.
+     *
+     * @return the line at the specified index (without a line
+     * terminator).
+     */
+    public String getLine(int row) {
+        StringBuilder builder = new StringBuilder();
+        appendLine(builder, row);
+        return builder.toString();
+    }
+
+    private void appendLine(StringBuilder builder, int row) {
+        for (int column = 0; column < columns.length; ++column) {
+            if (column > 0)
+                builder.append(DELIMITER);
+
+            columns[column].append(builder, row);
+        }
+    }
+
+    /**
+     * Opens a reader that produces the lines of this file in order,
+     * each followed by a line terminator.
+     *
+     * @return an open reader for the lines of this file.
+     */
+    public Reader openReader() {
+        return new LineSource();
+    }
+
+    /**
+     * Opens a reader for the fields of the lines in this file, which
+     * decodes each field directly from its column.  Each column is one
+     * field; see {@link ColumnarFile#isUniform()}.
+     *
+     * @return a reader positioned before the first line of this file.
+     */
+    public FieldReader openFieldReader() {
+        return new RowReader();
+    }
+
+    private abstract static class Column {
+        abstract String getString(int row);
+
+        void append(StringBuilder builder, int row) {
+            builder.append(getString(row));
+        }
+
+        boolean isNull(int row) {
+            return getString(row).equals(NULL_STRING);
+        }
+
+        int getInt(int row) {
+            return Integer.parseInt(getString(row));
+        }
+
+        LocalDate getDate(int row) {
+            return isNull(row) ? null : LocalDate.parse(getString(row));
+        }
+
+        String getToken(int row) {
+            return getString(row);
+        }
+
+        int[] find(int key, int rowCount) {
+            int[] rows = new int[rowCount];
+            int count = 0;
+
+            for (int row = 0; row < rowCount; ++row)
+                if (getString(row).equals(Integer.toString(key)))
+                    rows[count++] = row;
+
+            return Arrays.copyOf(rows, count);
+        }
+
+        Column select(int[] rows) {
+            String[] values = new String[rows.length];
+
+            for (int index = 0; index < rows.length; ++index)
+                values[index] = getString(rows[index]);
+
+            return new Column() {
+                @Override String getString(int row) {
+                    return values[row];
+                }
+            };
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private final int[] values;
+
+        private IntColumn(int[] values) {
+            this.values = values;
+        }
+
+        @Override String getString(int row) {
+            return Integer.toString(values[row]);
+        }
+
+        @Override void append(StringBuilder builder, int row) {
+            builder.append(values[row]);
+        }
+
+        @Override boolean isNull(int row) {
+            return false;
+        }
+
+        @Override int getInt(int row) {
+            return values[row];
+        }
+
+        @Override int[] find(int key, int rowCount) {
+            int lo = 0;
+            int hi = values.length;
+
+            for (int row = 1; row < values.length; ++row)
+                if (values[row] < values[row - 1])
+                    return scan(key);
+
+            //
+            // The keys are sorted, so the matching rows are contiguous...
+            //
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (values[mid] < key)
+                    lo = mid + 1;
+                else
+                    hi = mid;
+            }
+
+            int end = lo;
+
+            while (end < values.length && values[end] == key)
+                ++end;
+
+            int[] rows = new int[end - lo];
+
+            for (int index = 0; index < rows.length; ++index)
+                rows[index] = lo + index;
+
+            return rows;
+        }
+
+        private int[] scan(int key) {
+            int[] rows = new int[values.length];
+            int count = 0;
+
+            for (int row = 0; row < values.length; ++row)
+                if (values[row] == key)
+                    rows[count++] = row;
+
+            return Arrays.copyOf(rows, count);
+        }
+
+        @Override Column select(int[] rows) {
+            int[] selected = new int[rows.length];
+
+            for (int index = 0; index < rows.length; ++index)
+                selected[index] = values[rows[index]];
+
+            return new IntColumn(selected);
+        }
+    }
+
+    private static final class DateColumn extends Column {
+        private final LocalDate[] values;
+
+        private DateColumn(LocalDate[] values) {
+            this.values = values;
+        }
+
+        @Override String getString(int row) {
+            return values[row].toString();
+        }
+
+        @Override boolean isNull(int row) {
+            return false;
+        }
+
+        @Override LocalDate getDate(int row) {
+            return values[row];
+        }
+    }
+
+    private static final class DictionaryColumn extends Column {
+        private final byte[] bytes;
+        private final int[] starts;
+        private final int[] lengths;
+        private final int[] ids;
+        private final String[] values;
+
+        private DictionaryColumn(byte[] bytes, int[] starts, int[] lengths, int[] ids) {
+            this.bytes = bytes;
+            this.starts = starts;
+            this.lengths = lengths;
+            this.ids = ids;
+            this.values = new String[starts.length];
+        }
+
+        private String getValue(int id) {
+            String value = values[id];
+
+            if (value == null) {
+                value = new String(bytes, starts[id], lengths[id], StandardCharsets.UTF_8);
+                values[id] = value;
+            }
+
+            return value;
+        }
+
+        @Override String getString(int row) {
+            return getValue(ids[row]);
+        }
+    }
+
+    private static final class TextColumn extends Column {
+        private final byte[] bytes;
+        private final int[] starts;
+        private final int[] lengths;
+
+        private TextColumn(byte[] bytes, int[] starts, int[] lengths) {
+            this.bytes = bytes;
+            this.starts = starts;
+            this.lengths = lengths;
+        }
+
+        @Override String getString(int row) {
+            return new String(bytes, starts[row], lengths[row], StandardCharsets.UTF_8);
+        }
+
+        @Override boolean isNull(int row) {
+            return lengths[row] == NULL_STRING.length()
+                && Arrays.equals(bytes, starts[row], starts[row] + lengths[row],
+                                 NULL_STRING.getBytes(StandardCharsets.US_ASCII), 0, NULL_STRING.length());
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] bytes;
+        private int position;
+
+        private Cursor(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private long readUnsigned() {
+            long value = 0;
+            int shift = 0;
+
+            while (true) {
+                byte next = bytes[position++];
+                value |= (long) (next & 0x7F) << shift;
+
+                if ((next & 0x80) == 0)
+                    return value;
+
+                shift += 7;
+            }
+        }
+
+        private long readSigned() {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private final class RowReader implements FieldReader {
+        private int row = -1;
+
+        @Override public boolean next() {
+            if (row + 1 < rowCount) {
+                ++row;
+                return true;
+            }
+
+            row = rowCount;
+            return false;
+        }
+
+        @Override public int countFields() {
+            return columns.length;
+        }
+
+        @Override public String getLine() {
+            return ColumnarFile.this.getLine(row);
+        }
+
+        @Override public boolean isNull(int field) {
+            return columns[field].isNull(row);
+        }
+
+        @Override public boolean equalsString(int field, String ascii) {
+            return columns[field].getString(row).equals(ascii);
+        }
+
+        @Override public int getInt(int field) {
+            return columns[field].getInt(row);
+        }
+
+        @Override public LocalDate getDate(int field) {
+            return columns[field].getDate(row);
+        }
+
+        @Override public String getString(int field) {
+            return columns[field].getString(row);
+        }
+
+        @Override public String getToken(int field) {
+            return columns[field].getToken(row);
+        }
+    }
+
+    private final class LineSource extends Reader {
+        private final StringBuilder line = new StringBuilder();
+        private int row = 0;
+        private int position = 0;
+
+        @Override public int read(char[] buffer, int offset, int length) {
+            int copied = 0;
+
+            while (copied < length) {
+                if (position == line.length()) {
+                    if (row == rowCount)
+                        break;
+
+                    line.setLength(0);
+                    appendLine(line, row++);
+                    line.append('\n');
+                    position = 0;
+                }
+
+                int count = Math.min(length - copied, line.length() - position);
+                line.getChars(position, position + count, buffer, offset + copied);
+
+                position += count;
+                copied += count;
+            }
+
+            return (copied == 0 && length > 0) ? -1 : copied;
+        }
+
+        @Override public void close() {
+        }
+    }
+}
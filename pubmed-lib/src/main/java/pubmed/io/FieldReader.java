@@ -0,0 +1,121 @@
+
+package pubmed.io;
+
+import java.time.LocalDate;
+
+import jam.lang.JamException;
+
+/**
+ * Reads the lines of a pipe-delimited flat file one at a time and
+ * decodes the fields of the current line only when they are
+ * requested.
+ *
+ * <p>The fields are exactly those produced by splitting the line with
+ * {@code FlatRecord.split}: a delimiter preceded by the escape
+ * character does not separate fields, and escape characters are not
+ * removed.
+ */
+public interface FieldReader {
+    /**
+     * Advances to the next line.
+     *
+     * @return {@code true} if the reader is positioned on a new line,
+     * {@code false} at the end of the file.
+     *
+     * @throws RuntimeException if the file cannot be read.
+     */
+    public abstract boolean next();
+
+    /**
+     * Returns the number of fields in the current line.
+     *
+     * @return the number of fields in the current line.
+     */
+    public abstract int countFields();
+
+    /**
+     * Ensures that the current line has an exact number of fields.
+     *
+     * @param expected the expected number of fields.
+     *
+     * @throws RuntimeException unless the current line has the
+     * expected number of fields.
+     */
+    public default void requireFields(int expected) {
+        if (countFields() != expected)
+            throw JamException.runtime("Expected [%d] fields: [%s].", expected, getLine());
+    }
+
+    /**
+     * Returns the current line.
+     *
+     * @return the current line (without its line terminator).
+     */
+    public abstract String getLine();
+
+    /**
+     * Determines whether a field contains the {@code NULL} marker.
+     *
+     * @param field the index of the field.
+     *
+     * @return {@code true} iff the field contains the {@code NULL}
+     * marker.
+     */
+    public abstract boolean isNull(int field);
+
+    /**
+     * Determines whether a field contains a given ASCII string.
+     *
+     * @param field the index of the field.
+     *
+     * @param ascii a string of ASCII characters.
+     *
+     * @return {@code true} iff the field contains the string.
+     */
+    public abstract boolean equalsString(int field, String ascii);
+
+    /**
+     * Parses a decimal integer field.
+     *
+     * @param field the index of the field.
+     *
+     * @return the integer value of the field.
+     *
+     * @throws RuntimeException unless the field contains a decimal
+     * integer.
+     */
+    public abstract int getInt(int field);
+
+    /**
+     * Parses an ISO date field ({@code yyyy-mm-dd}).
+     *
+     * @param field the index of the field.
+     *
+     * @return the date in the field, or {@code null} if the field
+     * contains the {@code NULL} marker.
+     *
+     * @throws RuntimeException unless the field contains a valid date
+     * or the {@code NULL} marker.
+     */
+    public abstract LocalDate getDate(int field);
+
+    /**
+     * Decodes a field as a string.
+     *
+     * @param field the index of the field.
+     *
+     * @return the contents of the field.
+     */
+    public abstract String getString(int field);
+
+    /**
+     * Decodes a field drawn from a small vocabulary (descriptor keys,
+     * journal identifiers, publication types), which the reader may
+     * return as a shared string instance.
+     *
+     * @param field the index of the field.
+     *
+     * @return the contents of the field.
+     */
+    public abstract String getToken(int field);
+}
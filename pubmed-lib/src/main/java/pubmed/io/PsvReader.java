@@ -0,0 +1,364 @@
+
+package pubmed.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import jam.lang.JamException;
+
+/**
+ * Reads pipe-delimited flat files one line at a time, tokenizing each
+ * line in place in the byte buffer filled from the underlying stream.
+ *
+ * <p>Fields are located by their byte offsets and decoded only when
+ * requested: integers and dates are parsed directly from the bytes,
+ * and {@link PsvReader#getToken(int)} returns a canonical string for
+ * fields drawn from small vocabularies (descriptor keys, journal
+ * identifiers, publication types) without allocating a new string
+ * once the token has been seen.  Advancing to the next line allocates
+ * nothing, so a reader may skip the lines for unwanted articles at no
+ * cost.
+ *
+ * <p>Line terminators ({@code \n} or {@code \r\n}) are removed, and
+ * blank lines are skipped.
+ */
+public final class PsvReader implements Closeable, FieldReader {
+    private final InputStream stream;
+
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferEnd = 0;
+    private int position = 0;
+    private boolean endOfStream = false;
+
+    private int lineStart = 0;
+    private int lineEnd = 0;
+
+    private int fieldCount = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+
+    private Token[] tokens = new Token[TOKEN_TABLE_SIZE];
+    private int tokenCount = 0;
+
+    private PsvReader(InputStream stream) {
+        this.stream = stream;
+    }
+
+    private static final int BUFFER_SIZE = 65536;
+    private static final int TOKEN_TABLE_SIZE = 1024;
+    private static final int TOKEN_LIMIT = 65536;
+    private static final int TOKEN_LENGTH_LIMIT = 64;
+
+    private static final byte DELIMITER = '|';
+    private static final byte ESCAPE = '\\';
+
+    private static final byte[] NULL_BYTES = "NULL".getBytes(StandardCharsets.US_ASCII);
+
+    private static final class Token {
+        private final byte[] bytes;
+        private final int hash;
+        private final String string;
+
+        private Token(byte[] bytes, int hash) {
+            this.bytes = bytes;
+            this.hash = hash;
+            this.string = new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Opens a reader for a byte stream.  The reader takes ownership
+     * of the stream and closes it when the reader is closed.
+     *
+     * @param stream the stream to read (which need not be buffered).
+     *
+     * @return a new reader for the stream.
+     */
+    public static PsvReader open(InputStream stream) {
+        return new PsvReader(stream);
+    }
+
+    @Override public boolean next() {
+        while (findLine()) {
+            if (lineEnd > lineStart) {
+                tokenize();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean findLine() {
+        int scanned = position;
+
+        while (true) {
+            for (int index = scanned; index < bufferEnd; ++index) {
+                if (buffer[index] == '\n') {
+                    setLine(position, index);
+                    position = index + 1;
+                    return true;
+                }
+            }
+
+            if (endOfStream) {
+                if (position == bufferEnd)
+                    return false;
+
+                //
+                // The final line has no terminator...
+                //
+                setLine(position, bufferEnd);
+                position = bufferEnd;
+                return true;
+            }
+
+            scanned = bufferEnd - position;
+            compact();
+            fill();
+        }
+    }
+
+    private void setLine(int start, int terminator) {
+        lineStart = start;
+        lineEnd = (terminator > start && buffer[terminator - 1] == '\r') ? terminator - 1 : terminator;
+    }
+
+    private void compact() {
+        //
+        // Move the partial line to the front of the buffer, growing
+        // the buffer if the line fills it...
+        //
+        int length = bufferEnd - position;
+
+        if (position > 0)
+            System.arraycopy(buffer, position, buffer, 0, length);
+        else if (length == buffer.length)
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+
+        position = 0;
+        bufferEnd = length;
+    }
+
+    private void fill() {
+        try {
+            int count = stream.read(buffer, bufferEnd, buffer.length - bufferEnd);
+
+            if (count < 0)
+                endOfStream = true;
+            else
+                bufferEnd += count;
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+    }
+
+    private void tokenize() {
+        fieldCount = 0;
+        int start = lineStart;
+
+        for (int index = lineStart; index < lineEnd; ++index) {
+            if (buffer[index] == DELIMITER && (index == lineStart || buffer[index - 1] != ESCAPE)) {
+                addField(start, index);
+                start = index + 1;
+            }
+        }
+
+        addField(start, lineEnd);
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, 2 * fieldCount);
+            fieldEnds = Arrays.copyOf(fieldEnds, 2 * fieldCount);
+        }
+
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        ++fieldCount;
+    }
+
+    @Override public int countFields() {
+        return fieldCount;
+    }
+
+    @Override public String getLine() {
+        return new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+    }
+
+    @Override public boolean isNull(int field) {
+        return equalsBytes(field, NULL_BYTES);
+    }
+
+    @Override public boolean equalsString(int field, String ascii) {
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+
+        if (length != ascii.length())
+            return false;
+
+        for (int index = 0; index < length; ++index)
+            if (buffer[start + index] != ascii.charAt(index))
+                return false;
+
+        return true;
+    }
+
+    private boolean equalsBytes(int field, byte[] bytes) {
+        int start = fieldStarts[field];
+        return Arrays.equals(buffer, start, fieldEnds[field], bytes, 0, bytes.length);
+    }
+
+    @Override public int getInt(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+
+        boolean negative = start < end && buffer[start] == '-';
+        int index = (negative || (start < end && buffer[start] == '+')) ? start + 1 : start;
+
+        if (index == end || end - index > 10)
+            return Integer.parseInt(getString(field));
+
+        long value = 0;
+
+        for (; index < end; ++index) {
+            int digit = buffer[index] - '0';
+
+            if (digit < 0 || digit > 9)
+                return Integer.parseInt(getString(field));
+
+            value = 10 * value + digit;
+        }
+
+        value = negative ? -value : value;
+
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+            return Integer.parseInt(getString(field));
+
+        return (int) value;
+    }
+
+    @Override public LocalDate getDate(int field) {
+        if (isNull(field))
+            return null;
+
+        int start = fieldStarts[field];
+
+        if (fieldEnds[field] - start != 10 || buffer[start + 4] != '-' || buffer[start + 7] != '-')
+            return LocalDate.parse(getString(field));
+
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+
+        if (year < 0 || month < 0 || day < 0)
+            return LocalDate.parse(getString(field));
+
+        return LocalDate.of(year, month, day);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+
+        for (int index = start; index < start + count; ++index) {
+            int digit = buffer[index] - '0';
+
+            if (digit < 0 || digit > 9)
+                return -1;
+
+            value = 10 * value + digit;
+        }
+
+        return value;
+    }
+
+    @Override public String getString(int field) {
+        int start = fieldStarts[field];
+        return new String(buffer, start, fieldEnds[field] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a field drawn from a small vocabulary.  The reader
+     * keeps one string for each distinct short token that it has
+     * decoded, so repeated tokens are returned without decoding or
+     * allocation.
+     *
+     * @param field the index of the field.
+     *
+     * @return the contents of the field (the same string instance for
+     * every occurrence of a token).
+     */
+    @Override public String getToken(int field) {
+        int start = fieldStarts[field];
+        int end = fieldEnds[field];
+
+        if (end - start > TOKEN_LENGTH_LIMIT)
+            return getString(field);
+
+        int hash = 1;
+
+        for (int index = start; index < end; ++index)
+            hash = 31 * hash + buffer[index];
+
+        int mask = tokens.length - 1;
+        int slot = mix(hash) & mask;
+
+        while (tokens[slot] != null) {
+            Token token = tokens[slot];
+
+            if (token.hash == hash && Arrays.equals(buffer, start, end, token.bytes, 0, token.bytes.length))
+                return token.string;
+
+            slot = (slot + 1) & mask;
+        }
+
+        if (tokenCount == TOKEN_LIMIT)
+            return getString(field);
+
+        Token token = new Token(Arrays.copyOfRange(buffer, start, end), hash);
+
+        tokens[slot] = token;
+        ++tokenCount;
+
+        if (2 * tokenCount > tokens.length)
+            rehashTokens();
+
+        return token.string;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehashTokens() {
+        Token[] previous = tokens;
+        tokens = new Token[2 * previous.length];
+
+        int mask = tokens.length - 1;
+
+        for (Token token : previous) {
+            if (token != null) {
+                int slot = mix(token.hash) & mask;
+
+                while (tokens[slot] != null)
+                    slot = (slot + 1) & mask;
+
+                tokens[slot] = token;
+            }
+        }
+    }
+
+    @Override public void close() {
+        try {
+            stream.close();
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+
+package pubmed.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import jam.app.JamProperties;
+import jam.lang.JamException;
+
+/**
+ * Reads an underlying input stream on a dedicated background thread
+ * into a bounded queue of byte blocks, so that the work required to
+ * produce the bytes (inflating a {@code gzip} file, for example)
+ * overlaps with the work of consuming them (parsing the XML).
+ *
+ * <p>The queue holds at most a fixed number of blocks, so the reader
+ * thread never runs more than that many blocks ahead of the consumer.
+ * Any exception (checked or unchecked) or error thrown by the
+ * underlying stream is rethrown to the consumer after all blocks read
+ * before the failure are consumed, so a failure is never mistaken for
+ * the end of the stream.
+ *
+ * <p>Instances are not thread-safe: a single consumer thread should
+ * read from the stream.
+ */
+public final class ReadAheadInputStream extends InputStream {
+    private final InputStream source;
+    private final BlockingQueue<byte[]> fullBlocks;
+    private final BlockingQueue<byte[]> freeBlocks;
+    private final Thread readerThread;
+
+    private byte[] block = null;
+    private int position = 0;
+    private boolean finished = false;
+
+    private volatile boolean closed = false;
+    private volatile Throwable failure = null;
+
+    // Sentinel block marking the end of the underlying stream...
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private ReadAheadInputStream(InputStream source, String name, int blockCount) {
+        this.source = source;
+        this.fullBlocks = new ArrayBlockingQueue<byte[]>(blockCount);
+        this.freeBlocks = new ArrayBlockingQueue<byte[]>(blockCount + 2);
+
+        this.readerThread = new Thread(this::fillBlocks, "read-ahead-" + name);
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    /**
+     * The number of bytes in each block passed from the reader thread
+     * to the consumer.
+     */
+    public static final int BLOCK_SIZE = 65536;
+
+    /**
+     * Name of the system property that specifies the maximum number
+     * of blocks that the reader thread may read ahead.
+     */
+    public static final String BLOCK_COUNT_PROPERTY = "pubmed.io.readAheadBlocks";
+
+    /**
+     * Default maximum number of blocks that the reader thread may
+     * read ahead.
+     */
+    public static final int BLOCK_COUNT_DEFAULT = 32;
+
+    /**
+     * Starts reading an input stream on a new background thread,
+     * using the block count specified by the system property (or
+     * the default).
+     *
+     * @param source the input stream to read ahead.
+     *
+     * @param name a name to identify the reader thread.
+     *
+     * @return a read-ahead stream for the specified source.
+     */
+    public static ReadAheadInputStream create(InputStream source, String name) {
+        return create(source, name, resolveBlockCount());
+    }
+
+    /**
+     * Starts reading an input stream on a new background thread.
+     *
+     * @param source the input stream to read ahead.
+     *
+     * @param name a name to identify the reader thread.
+     *
+     * @param blockCount the maximum number of blocks to read ahead.
+     *
+     * @return a read-ahead stream for the specified source.
+     *
+     * @throws RuntimeException unless the block count is positive.
+     */
+    public static ReadAheadInputStream create(InputStream source, String name, int blockCount) {
+        if (blockCount < 1)
+            throw JamException.runtime("Block count must be positive.");
+
+        return new ReadAheadInputStream(source, name, blockCount);
+    }
+
+    private static int resolveBlockCount() {
+        if (JamProperties.isSet(BLOCK_COUNT_PROPERTY))
+            return Integer.parseInt(JamProperties.getRequired(BLOCK_COUNT_PROPERTY));
+        else
+            return BLOCK_COUNT_DEFAULT;
+    }
+
+    private void fillBlocks() {
+        try {
+            while (!closed) {
+                byte[] buffer = nextFreeBlock();
+                int length = readBlock(buffer);
+
+                if (length == BLOCK_SIZE)
+                    fullBlocks.put(buffer);
+                else if (length > 0)
+                    fullBlocks.put(Arrays.copyOf(buffer, length));
+
+                if (length < BLOCK_SIZE)
+                    break;
+            }
+        }
+        catch (InterruptedException ex) {
+            // The stream was closed by the consumer...
+        }
+        catch (IOException | RuntimeException | Error ex) {
+            failure = ex;
+        }
+        finally {
+            closeSource();
+            putEndOfStream();
+        }
+    }
+
+    private byte[] nextFreeBlock() {
+        byte[] buffer = freeBlocks.poll();
+
+        if (buffer != null)
+            return buffer;
+        else
+            return new byte[BLOCK_SIZE];
+    }
+
+    private int readBlock(byte[] buffer) throws IOException {
+        int length = 0;
+
+        while (length < buffer.length) {
+            int count = source.read(buffer, length, buffer.length - length);
+
+            if (count < 0)
+                break;
+
+            length += count;
+        }
+
+        return length;
+    }
+
+    private void closeSource() {
+        try {
+            source.close();
+        }
+        catch (IOException ex) {
+            if (failure == null)
+                failure = ex;
+        }
+    }
+
+    private void putEndOfStream() {
+        if (closed)
+            return;
+
+        try {
+            fullBlocks.put(END_OF_STREAM);
+        }
+        catch (InterruptedException ex) {
+            // The stream was closed by the consumer...
+        }
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (closed)
+            throw new IOException("Stream closed.");
+
+        if (block != null && position < block.length)
+            return true;
+
+        if (finished)
+            return false;
+
+        if (block != null && block.length == BLOCK_SIZE)
+            freeBlocks.offer(block);
+
+        block = takeBlock();
+        position = 0;
+
+        if (block == END_OF_STREAM) {
+            block = null;
+            finished = true;
+
+            if (failure != null)
+                rethrowFailure();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private void rethrowFailure() throws IOException {
+        if (failure instanceof IOException)
+            throw (IOException) failure;
+        else if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        else
+            throw (Error) failure;
+    }
+
+    private byte[] takeBlock() throws IOException {
+        try {
+            return fullBlocks.take();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for input.");
+        }
+    }
+
+    @Override public int available() throws IOException {
+        if (block != null)
+            return block.length - position;
+        else
+            return 0;
+    }
+
+    @Override public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        readerThread.interrupt();
+
+        block = null;
+        fullBlocks.clear();
+        freeBlocks.clear();
+    }
+
+    @Override public int read() throws IOException {
+        if (nextBlock())
+            return block[position++] & 0xFF;
+        else
+            return -1;
+    }
+
+    @Override public int read(byte[] buffer, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+
+        if (length == 0)
+            return 0;
+
+        if (!nextBlock())
+            return -1;
+
+        int count = Math.min(length, block.length - position);
+        System.arraycopy(block, position, buffer, offset, count);
+
+        position += count;
+        return count;
+    }
+}
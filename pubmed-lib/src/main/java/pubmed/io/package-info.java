@@ -0,0 +1,4 @@
+/**
+ * Provides low-level input and output streams for bulk data files.
+ */
+package pubmed.io;
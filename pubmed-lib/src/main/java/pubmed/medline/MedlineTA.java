@@ -1,17 +1,16 @@
 
 package pubmed.medline;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import jam.lang.KeyedObject;
 
+import pubmed.intern.InternPool;
+
 /**
  * Represents a {@code MEDLINE} title abbrevation.
  */
 public final class MedlineTA extends KeyedObject<String> {
-    private static final Map<String, MedlineTA> instances =
-        new HashMap<String, MedlineTA>();
+    private static final InternPool<String, MedlineTA> instances =
+        InternPool.create("MedlineTA", MedlineTA::new);
 
     private MedlineTA(String abbr) {
         super(abbr);
@@ -25,13 +24,6 @@ public final class MedlineTA extends KeyedObject<String> {
      * @return the {@code MedlineTA} for the given string value.
      */
     public static MedlineTA instance(String abbr) {
-        MedlineTA instance = instances.get(abbr);
-
-        if (instance == null) {
-            instance = new MedlineTA(abbr);
-            instances.put(abbr, instance);
-        }
-
-        return instance;
+        return instances.intern(abbr);
     }
 }
@@ -1,20 +1,20 @@
 
 package pubmed.medline;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import jam.lang.JamException;
 import jam.lang.KeyedObject;
 
+import pubmed.intern.InternPool;
+
 /**
  * Represents a National Library of Medicine (NLM) unique identifier.
  */
 public final class NlmUniqueID extends KeyedObject<String> {
-    private static final Map<String, NlmUniqueID> instances =
-        new HashMap<String, NlmUniqueID>();
+    private static final InternPool<String, NlmUniqueID> instances =
+        InternPool.create("NlmUniqueID", NlmUniqueID::new);
 
     private static final Predicate<String> VALIDATOR =
         Pattern.compile("^[0-9]+[0-9a-zA-Z]$").asMatchPredicate();
@@ -40,14 +40,7 @@ public final class NlmUniqueID extends KeyedObject<String> {
      * identifier.
      */
     public static NlmUniqueID instance(String id) {
-        NlmUniqueID instance = instances.get(id);
-
-        if (instance == null) {
-            instance = new NlmUniqueID(id);
-            instances.put(id, instance);
-        }
-
-        return instance;
+        return instances.intern(id);
     }
 
     /**
@@ -1,17 +1,16 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import jam.lang.JamException;
 
+import pubmed.intern.InternPool;
+
 /**
  * The unique identifier for {@code MeSH Descriptor} records.
  */
 public final class MeshDescriptorKey extends MeshRecordKey {
-    private static final Map<String, MeshDescriptorKey> instances =
-        new HashMap<String, MeshDescriptorKey>();
+    private static final InternPool<String, MeshDescriptorKey> instances =
+        InternPool.create("MeshDescriptorKey", MeshDescriptorKey::new);
 
     private MeshDescriptorKey(String key) {
         super(key);
@@ -79,14 +78,7 @@ public final class MeshDescriptorKey extends MeshRecordKey {
      * @return the unique identifier for the given key string.
      */
     public static MeshDescriptorKey instance(String key) {
-        MeshDescriptorKey instance = instances.get(key);
-
-        if (instance == null) {
-            instance = new MeshDescriptorKey(key);
-            instances.put(key, instance);
-        }
-
-        return instance;
+        return instances.intern(key);
     }
 
     @Override public MeshRecordType getType() {
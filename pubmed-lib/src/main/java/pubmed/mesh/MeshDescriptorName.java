@@ -1,15 +1,14 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
+import pubmed.intern.InternPool;
 
 /**
  * The common name for {@code MeSH Descriptor} records.
  */
 public final class MeshDescriptorName extends MeshRecordName {
-    private static final Map<String, MeshDescriptorName> instances =
-        new HashMap<String, MeshDescriptorName>();
+    private static final InternPool<String, MeshDescriptorName> instances =
+        InternPool.create("MeshDescriptorName", MeshDescriptorName::new);
 
     private MeshDescriptorName(String name) {
         super(name);
@@ -23,13 +22,6 @@ public final class MeshDescriptorName extends MeshRecordName {
      * @return the name object for the given name string.
      */
     public static MeshDescriptorName instance(String name) {
-        MeshDescriptorName instance = instances.get(name);
-
-        if (instance == null) {
-            instance = new MeshDescriptorName(name);
-            instances.put(name, instance);
-        }
-
-        return instance;
+        return instances.intern(name);
     }
 }
@@ -4,12 +4,15 @@ package pubmed.mesh;
 import java.io.File;
 import java.util.List;
 
+import org.jdom2.Document;
 import org.jdom2.Element;
 
 import jam.app.JamEnv;
 import jam.app.JamLogger;
 import jam.util.StreamUtil;
-import jam.xml.JDOMDocument;
+
+import pubmed.xml.PubmedXmlBuilder;
+import pubmed.xml.XmlParseMode;
 
 /**
  * Parses {@code MeSH Descriptor} XML files.
@@ -59,10 +62,26 @@ public final class MeshDescriptorXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static List<MeshDescriptor> parse(File xmlFile) {
-        JDOMDocument document = JDOMDocument.parse(xmlFile);
+        return parse(xmlFile, XmlParseMode.resolve());
+    }
+
+    /**
+     * Extracts the descriptors from an XML file with a given parser
+     * configuration.
+     *
+     * @param xmlFile a descriptor set XML file.
+     *
+     * @param mode the parser configuration to use.
+     *
+     * @return a list containing all descriptors in the XML file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static List<MeshDescriptor> parse(File xmlFile, XmlParseMode mode) {
+        Document document = PubmedXmlBuilder.build(xmlFile, mode);
 
         JamLogger.info("Processing descriptor elements...");
-        List<Element> descriptorElements = document.getRootElementChildren();
+        List<Element> descriptorElements = document.getRootElement().getChildren();
 
         return StreamUtil.apply(descriptorElements.stream(),
                                 x -> MeshDescriptorXmlParser.parse(x));
@@ -4,12 +4,14 @@ package pubmed.mesh;
 import java.io.File;
 import java.util.List;
 
+import org.jdom2.Document;
 import org.jdom2.Element;
 
 import jam.app.JamEnv;
 import jam.app.JamLogger;
 import jam.util.StreamUtil;
-import jam.xml.JDOMDocument;
+
+import pubmed.xml.PubmedXmlBuilder;
 
 /**
  * Parses {@code MeSH PharmacologicalAction} XML files.
@@ -62,10 +64,10 @@ public final class MeshPharmActionXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static List<MeshPharmAction> parse(File xmlFile) {
-        JDOMDocument document = JDOMDocument.parse(xmlFile);
+        Document document = PubmedXmlBuilder.build(xmlFile);
 
         JamLogger.info("Processing pharmacological action elements...");
-        List<Element> pharmActionElements = document.getRootElementChildren();
+        List<Element> pharmActionElements = document.getRootElement().getChildren();
 
         return StreamUtil.apply(pharmActionElements.stream(),
                                 x -> MeshPharmActionXmlParser.parse(x));
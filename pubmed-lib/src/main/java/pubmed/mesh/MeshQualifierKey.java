@@ -1,17 +1,16 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import jam.lang.JamException;
 
+import pubmed.intern.InternPool;
+
 /**
  * The unique identifier for {@code MeSH Qualifier} records.
  */
 public final class MeshQualifierKey extends MeshRecordKey {
-    private static final Map<String, MeshQualifierKey> instances =
-        new HashMap<String, MeshQualifierKey>();
+    private static final InternPool<String, MeshQualifierKey> instances =
+        InternPool.create("MeshQualifierKey", MeshQualifierKey::new);
 
     private MeshQualifierKey(String key) {
         super(key);
@@ -115,14 +114,7 @@ public final class MeshQualifierKey extends MeshRecordKey {
      * @return the unique identifier for the given key string.
      */
     public static MeshQualifierKey instance(String key) {
-        MeshQualifierKey instance = instances.get(key);
-
-        if (instance == null) {
-            instance = new MeshQualifierKey(key);
-            instances.put(key, instance);
-        }
-
-        return instance;
+        return instances.intern(key);
     }
 
     @Override public MeshRecordType getType() {
@@ -1,15 +1,14 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
+import pubmed.intern.InternPool;
 
 /**
  * The common name for {@code MeSH Qualifier} records.
  */
 public final class MeshQualifierName extends MeshRecordName {
-    private static final Map<String, MeshQualifierName> instances =
-        new HashMap<String, MeshQualifierName>();
+    private static final InternPool<String, MeshQualifierName> instances =
+        InternPool.create("MeshQualifierName", MeshQualifierName::new);
 
     private MeshQualifierName(String name) {
         super(name);
@@ -23,13 +22,6 @@ public final class MeshQualifierName extends MeshRecordName {
      * @return the name object for the given name string.
      */
     public static MeshQualifierName instance(String name) {
-        MeshQualifierName instance = instances.get(name);
-
-        if (instance == null) {
-            instance = new MeshQualifierName(name);
-            instances.put(name, instance);
-        }
-
-        return instance;
+        return instances.intern(name);
     }
 }
@@ -4,12 +4,14 @@ package pubmed.mesh;
 import java.io.File;
 import java.util.List;
 
+import org.jdom2.Document;
 import org.jdom2.Element;
 
 import jam.app.JamEnv;
 import jam.app.JamLogger;
 import jam.util.StreamUtil;
-import jam.xml.JDOMDocument;
+
+import pubmed.xml.PubmedXmlBuilder;
 
 /**
  * Parses {@code MeSH Qualifier} XML files.
@@ -59,10 +61,10 @@ public final class MeshQualifierXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static List<MeshQualifier> parse(File xmlFile) {
-        JDOMDocument document = JDOMDocument.parse(xmlFile);
+        Document document = PubmedXmlBuilder.build(xmlFile);
 
         JamLogger.info("Processing qualifier elements...");
-        List<Element> qualifierElements = document.getRootElementChildren();
+        List<Element> qualifierElements = document.getRootElement().getChildren();
 
         return StreamUtil.apply(qualifierElements.stream(),
                                 x -> MeshQualifierXmlParser.parse(x));
@@ -1,17 +1,16 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import jam.lang.JamException;
 
+import pubmed.intern.InternPool;
+
 /**
  * The unique identifier for {@code MeSH SupplementalRecord}s.
  */
 public final class MeshSupplementalKey extends MeshRecordKey {
-    private static final Map<String, MeshSupplementalKey> instances =
-        new HashMap<String, MeshSupplementalKey>();
+    private static final InternPool<String, MeshSupplementalKey> instances =
+        InternPool.create("MeshSupplementalKey", MeshSupplementalKey::new);
 
     private MeshSupplementalKey(String key) {
         super(key);
@@ -25,14 +24,7 @@ public final class MeshSupplementalKey extends MeshRecordKey {
      * @return the unique identifier for the given key string.
      */
     public static MeshSupplementalKey instance(String key) {
-        MeshSupplementalKey instance = instances.get(key);
-
-        if (instance == null) {
-            instance = new MeshSupplementalKey(key);
-            instances.put(key, instance);
-        }
-
-        return instance;
+        return instances.intern(key);
     }
 
     @Override public MeshRecordType getType() {
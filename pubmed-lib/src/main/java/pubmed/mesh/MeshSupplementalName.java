@@ -1,15 +1,14 @@
 
 package pubmed.mesh;
 
-import java.util.HashMap;
-import java.util.Map;
+import pubmed.intern.InternPool;
 
 /**
  * The common name for {@code MeSH SupplementalRecord}s.
  */
 public final class MeshSupplementalName extends MeshRecordName {
-    private static final Map<String, MeshSupplementalName> instances =
-        new HashMap<String, MeshSupplementalName>();
+    private static final InternPool<String, MeshSupplementalName> instances =
+        InternPool.create("MeshSupplementalName", MeshSupplementalName::new);
 
     private MeshSupplementalName(String name) {
         super(name);
@@ -23,13 +22,6 @@ public final class MeshSupplementalName extends MeshRecordName {
      * @return the name object for the given name string.
      */
     public static MeshSupplementalName instance(String name) {
-        MeshSupplementalName instance = instances.get(name);
-
-        if (instance == null) {
-            instance = new MeshSupplementalName(name);
-            instances.put(name, instance);
-        }
-
-        return instance;
+        return instances.intern(name);
     }
 }
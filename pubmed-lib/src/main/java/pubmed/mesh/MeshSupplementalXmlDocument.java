@@ -4,12 +4,14 @@ package pubmed.mesh;
 import java.io.File;
 import java.util.List;
 
+import org.jdom2.Document;
 import org.jdom2.Element;
 
 import jam.app.JamEnv;
 import jam.app.JamLogger;
 import jam.util.StreamUtil;
-import jam.xml.JDOMDocument;
+
+import pubmed.xml.PubmedXmlBuilder;
 
 /**
  * Parses {@code MeSH SupplementalRecord} XML files.
@@ -61,10 +63,10 @@ public final class MeshSupplementalXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static List<MeshSupplemental> parse(File xmlFile) {
-        JDOMDocument document = JDOMDocument.parse(xmlFile);
+        Document document = PubmedXmlBuilder.build(xmlFile);
 
         JamLogger.info("Processing supplemental record elements...");
-        List<Element> supplementalElements = document.getRootElementChildren();
+        List<Element> supplementalElements = document.getRootElement().getChildren();
 
         return StreamUtil.apply(supplementalElements.stream(),
                                 x -> MeshSupplementalXmlParser.parse(x));
@@ -0,0 +1,117 @@
+
+package pubmed.metrics;
+
+/**
+ * Records the work performed in each pipeline stage while one file is
+ * processed.  The work is also added to the totals for the run.
+ *
+ * <p>While a file is open, it is the {@link PipelineMetrics#recorder()
+ * recorder} for the thread that opened it; work performed on other
+ * threads on behalf of the file should be recorded on a reference
+ * captured by the opening thread.  Instances are thread-safe.
+ */
+public final class FileMetrics implements StageRecorder, AutoCloseable {
+    private final String name;
+    private final long bytes;
+    private final PipelineMetrics run;
+    private final StageCounters counters = new StageCounters();
+    private final long startNanos = System.nanoTime();
+
+    private volatile long endNanos = 0L;
+
+    FileMetrics(String name, long bytes, PipelineMetrics run) {
+        this.name = name;
+        this.bytes = bytes;
+        this.run = run;
+    }
+
+    @Override public void record(Stage stage, long nanos, long items, long bytes) {
+        counters.record(stage, nanos, items, bytes);
+        run.record(stage, nanos, items, bytes);
+    }
+
+    /**
+     * Returns the name of the file.
+     *
+     * @return the name of the file.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the size of the file in bytes.
+     *
+     * @return the size of the file in bytes.
+     */
+    public long getByteCount() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of articles processed from the file: the
+     * largest number of items recorded by any stage.
+     *
+     * @return the number of articles processed from the file.
+     */
+    public long getArticleCount() {
+        return counters.getMaxItems();
+    }
+
+    /**
+     * Returns the elapsed (wall clock) time since the file was opened
+     * or until it was closed.
+     *
+     * @return the elapsed time in seconds.
+     */
+    public double getElapsedSeconds() {
+        long end = isClosed() ? endNanos : System.nanoTime();
+        return 1.0E-9 * (end - startNanos);
+    }
+
+    /**
+     * Returns the total time recorded by a pipeline stage.
+     *
+     * @param stage the pipeline stage.
+     *
+     * @return the total time recorded by the stage in seconds (summed
+     * over all threads).
+     */
+    public double getStageSeconds(Stage stage) {
+        return 1.0E-9 * counters.getNanos(stage);
+    }
+
+    /**
+     * Identifies files whose processing has finished.
+     *
+     * @return {@code true} iff this file has been closed.
+     */
+    public boolean isClosed() {
+        return endNanos != 0L;
+    }
+
+    void appendJSON(StringBuilder builder) {
+        double seconds = getElapsedSeconds();
+
+        builder.append("{\"file\": ").append(PipelineMetrics.quote(name));
+        builder.append(", \"elapsedSeconds\": ").append(seconds);
+        builder.append(", \"articles\": ").append(getArticleCount());
+        builder.append(", \"bytes\": ").append(bytes);
+        builder.append(", \"articlesPerSecond\": ").append(PipelineMetrics.rate(getArticleCount(), seconds));
+        builder.append(", \"bytesPerSecond\": ").append(PipelineMetrics.rate(bytes, seconds));
+        builder.append(", \"stages\": ");
+        counters.appendJSON(builder);
+        builder.append('}');
+    }
+
+    /**
+     * Marks the end of the processing of this file and detaches it
+     * from the current thread.
+     */
+    @Override public void close() {
+        if (!isClosed()) {
+            endNanos = System.nanoTime();
+            run.closeFile(this);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+
+package pubmed.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+
+/**
+ * Records the work performed in each pipeline stage during one run
+ * (the processing of one bulk file directory), with a breakdown for
+ * each file.
+ *
+ * <p>The current run is registered with the platform MBean server
+ * under the name {@link PipelineMetrics#OBJECT_NAME}, so its progress
+ * may be monitored with any JMX client while the job runs.  At the end
+ * of the run, the report is written as a JSON file to the directory
+ * named by the system property {@link
+ * PipelineMetrics#REPORT_DIR_PROPERTY} (if it is set).
+ *
+ * <p>Stage times are summed over all threads, so on a multi-core host
+ * they may exceed the elapsed time of the run; their proportions show
+ * where the processing time goes.  Instances are thread-safe.
+ */
+public final class PipelineMetrics implements StageRecorder, PipelineMetricsMXBean {
+    private final String runName;
+    private final LocalDateTime startTime = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final StageCounters totals = new StageCounters();
+    private final List<FileMetrics> files = new ArrayList<FileMetrics>();
+    private final AtomicInteger filesCompleted = new AtomicInteger();
+
+    private static volatile PipelineMetrics current = new PipelineMetrics("default");
+
+    private static final ThreadLocal<FileMetrics> openFiles = new ThreadLocal<FileMetrics>();
+
+    private PipelineMetrics(String runName) {
+        this.runName = runName;
+    }
+
+    /**
+     * Name of the system property that specifies the directory where
+     * run reports are written.
+     */
+    public static final String REPORT_DIR_PROPERTY = "pubmed.metrics.reportDir";
+
+    /**
+     * The JMX object name of the current run.
+     */
+    public static final String OBJECT_NAME = "pubmed:type=PipelineMetrics";
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * Begins a new run, which becomes the current run.
+     *
+     * @param runName a name to identify the run.
+     *
+     * @return the new run.
+     */
+    public static PipelineMetrics begin(String runName) {
+        PipelineMetrics run = new PipelineMetrics(runName);
+
+        current = run;
+        register(run);
+
+        return run;
+    }
+
+    private static void register(PipelineMetrics run) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+
+            synchronized (PipelineMetrics.class) {
+                if (server.isRegistered(objectName))
+                    server.unregisterMBean(objectName);
+
+                server.registerMBean(run, objectName);
+            }
+        }
+        catch (JMException ex) {
+            JamLogger.info("Could not register pipeline metrics: %s", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the current run.
+     *
+     * @return the current run.
+     */
+    public static PipelineMetrics current() {
+        return current;
+    }
+
+    /**
+     * Returns the recorder for the calling thread: the file opened by
+     * the thread, if any, or else the current run.
+     *
+     * @return the recorder for the calling thread.
+     */
+    public static StageRecorder recorder() {
+        FileMetrics file = openFiles.get();
+
+        if (file != null)
+            return file;
+        else
+            return current;
+    }
+
+    /**
+     * Opens a file within this run; the file becomes the recorder for
+     * the calling thread until it is closed.
+     *
+     * @param name the name of the file.
+     *
+     * @param bytes the size of the file in bytes.
+     *
+     * @return the metrics for the file.
+     */
+    public FileMetrics openFile(String name, long bytes) {
+        FileMetrics file = new FileMetrics(name, bytes, this);
+
+        synchronized (files) {
+            files.add(file);
+        }
+
+        openFiles.set(file);
+        return file;
+    }
+
+    void closeFile(FileMetrics file) {
+        filesCompleted.incrementAndGet();
+
+        if (openFiles.get() == file)
+            openFiles.remove();
+    }
+
+    @Override public void record(Stage stage, long nanos, long items, long bytes) {
+        totals.record(stage, nanos, items, bytes);
+    }
+
+    private List<FileMetrics> listFiles() {
+        synchronized (files) {
+            return new ArrayList<FileMetrics>(files);
+        }
+    }
+
+    @Override public String getRunName() {
+        return runName;
+    }
+
+    @Override public double getElapsedSeconds() {
+        return 1.0E-9 * (System.nanoTime() - startNanos);
+    }
+
+    @Override public int getFilesStarted() {
+        synchronized (files) {
+            return files.size();
+        }
+    }
+
+    @Override public int getFilesCompleted() {
+        return filesCompleted.get();
+    }
+
+    @Override public long getArticleCount() {
+        List<FileMetrics> fileList = listFiles();
+
+        if (fileList.isEmpty())
+            return totals.getMaxItems();
+
+        long articles = 0L;
+
+        for (FileMetrics file : fileList)
+            articles += file.getArticleCount();
+
+        return articles;
+    }
+
+    @Override public long getByteCount() {
+        long bytes = 0L;
+
+        for (FileMetrics file : listFiles())
+            bytes += file.getByteCount();
+
+        return bytes;
+    }
+
+    @Override public double getArticlesPerSecond() {
+        return rate(getArticleCount(), getElapsedSeconds());
+    }
+
+    @Override public double getBytesPerSecond() {
+        return rate(getByteCount(), getElapsedSeconds());
+    }
+
+    @Override public Map<String, Double> getStageSeconds() {
+        Map<String, Double> seconds = new LinkedHashMap<String, Double>();
+
+        for (Stage stage : Stage.values())
+            seconds.put(stage.name(), getStageSeconds(stage));
+
+        return seconds;
+    }
+
+    /**
+     * Returns the total time recorded by a pipeline stage.
+     *
+     * @param stage the pipeline stage.
+     *
+     * @return the total time recorded by the stage in seconds (summed
+     * over all threads).
+     */
+    public double getStageSeconds(Stage stage) {
+        return 1.0E-9 * totals.getNanos(stage);
+    }
+
+    /**
+     * Returns the number of items recorded by a pipeline stage.
+     *
+     * @param stage the pipeline stage.
+     *
+     * @return the number of items recorded by the stage.
+     */
+    public long getStageItems(Stage stage) {
+        return totals.getItems(stage);
+    }
+
+    /**
+     * Returns the number of bytes recorded by a pipeline stage.
+     *
+     * @param stage the pipeline stage.
+     *
+     * @return the number of bytes recorded by the stage.
+     */
+    public long getStageBytes(Stage stage) {
+        return totals.getBytes(stage);
+    }
+
+    /**
+     * Returns the metrics for each file opened in this run.
+     *
+     * @return the metrics for each file opened in this run, in the
+     * order they were opened.
+     */
+    public List<FileMetrics> getFiles() {
+        return listFiles();
+    }
+
+    @Override public String getReport() {
+        double seconds = getElapsedSeconds();
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("{\n");
+        builder.append("  \"run\": ").append(quote(runName)).append(",\n");
+        builder.append("  \"start\": ").append(quote(startTime.toString())).append(",\n");
+        builder.append("  \"elapsedSeconds\": ").append(seconds).append(",\n");
+        builder.append("  \"filesStarted\": ").append(getFilesStarted()).append(",\n");
+        builder.append("  \"filesCompleted\": ").append(getFilesCompleted()).append(",\n");
+        builder.append("  \"articles\": ").append(getArticleCount()).append(",\n");
+        builder.append("  \"bytes\": ").append(getByteCount()).append(",\n");
+        builder.append("  \"articlesPerSecond\": ").append(rate(getArticleCount(), seconds)).append(",\n");
+        builder.append("  \"bytesPerSecond\": ").append(rate(getByteCount(), seconds)).append(",\n");
+        builder.append("  \"stages\": ");
+        totals.appendJSON(builder);
+        builder.append(",\n");
+        builder.append("  \"files\": [");
+
+        List<FileMetrics> fileList = listFiles();
+
+        for (int index = 0; index < fileList.size(); ++index) {
+            builder.append(index == 0 ? "\n    " : ",\n    ");
+            fileList.get(index).appendJSON(builder);
+        }
+
+        builder.append(fileList.isEmpty() ? "]\n" : "\n  ]\n");
+        builder.append("}\n");
+
+        return builder.toString();
+    }
+
+    /**
+     * Logs the total time recorded by each pipeline stage.
+     */
+    public void logStatistics() {
+        JamLogger.info("Run [%s]: [%d] articles in [%.1f] seconds...", runName, getArticleCount(), getElapsedSeconds());
+
+        for (Stage stage : Stage.values())
+            if (totals.getCalls(stage) > 0)
+                JamLogger.info("  %-10s %10.1f sec %12d items", stage, getStageSeconds(stage), totals.getItems(stage));
+    }
+
+    /**
+     * Writes the report for this run to the directory named by the
+     * system property {@link PipelineMetrics#REPORT_DIR_PROPERTY}.
+     *
+     * @return the report file, or {@code null} if the property is not
+     * set or the report could not be written (a failure is logged but
+     * does not interrupt the job).
+     */
+    public File writeReport() {
+        if (!JamProperties.isSet(REPORT_DIR_PROPERTY))
+            return null;
+
+        File reportDir = new File(JamProperties.getRequired(REPORT_DIR_PROPERTY));
+        String baseName = String.format("pubmed-metrics-%s-%s-%d.json",
+                                        runName.replaceAll("[^A-Za-z0-9_.-]", "_"),
+                                        startTime.format(FILE_TIME_FORMAT),
+                                        ProcessHandle.current().pid());
+
+        File reportFile = new File(reportDir, baseName);
+
+        try {
+            reportDir.mkdirs();
+            Files.write(reportFile.toPath(), getReport().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException ex) {
+            JamLogger.info("Could not write metrics report [%s]: %s", reportFile, ex.getMessage());
+            return null;
+        }
+
+        JamLogger.info("Wrote metrics report [%s].", reportFile);
+        return reportFile;
+    }
+
+    static double rate(long count, double seconds) {
+        return (seconds > 0.0) ? count / seconds : 0.0;
+    }
+
+    static String quote(String s) {
+        StringBuilder builder = new StringBuilder(s.length() + 2);
+        builder.append('"');
+
+        for (int index = 0; index < s.length(); ++index) {
+            char c = s.charAt(index);
+
+            if (c == '"' || c == '\\')
+                builder.append('\\').append(c);
+            else if (c < ' ')
+                builder.append(String.format("\\u%04x", (int) c));
+            else
+                builder.append(c);
+        }
+
+        builder.append('"');
+        return builder.toString();
+    }
+}
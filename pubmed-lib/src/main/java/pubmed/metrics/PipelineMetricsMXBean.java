@@ -0,0 +1,82 @@
+
+package pubmed.metrics;
+
+import java.util.Map;
+
+/**
+ * Exposes the metrics of the current pipeline run through JMX.
+ */
+public interface PipelineMetricsMXBean {
+    /**
+     * Returns the name of the current run.
+     *
+     * @return the name of the current run.
+     */
+    public abstract String getRunName();
+
+    /**
+     * Returns the elapsed time since the run began.
+     *
+     * @return the elapsed time in seconds.
+     */
+    public abstract double getElapsedSeconds();
+
+    /**
+     * Returns the number of files opened in the run.
+     *
+     * @return the number of files opened in the run.
+     */
+    public abstract int getFilesStarted();
+
+    /**
+     * Returns the number of files completed in the run.
+     *
+     * @return the number of files completed in the run.
+     */
+    public abstract int getFilesCompleted();
+
+    /**
+     * Returns the number of articles processed in the run.
+     *
+     * @return the number of articles processed in the run.
+     */
+    public abstract long getArticleCount();
+
+    /**
+     * Returns the number of file bytes processed in the run.
+     *
+     * @return the number of file bytes processed in the run.
+     */
+    public abstract long getByteCount();
+
+    /**
+     * Returns the number of articles processed per second of elapsed
+     * time.
+     *
+     * @return the number of articles processed per second.
+     */
+    public abstract double getArticlesPerSecond();
+
+    /**
+     * Returns the number of file bytes processed per second of elapsed
+     * time.
+     *
+     * @return the number of file bytes processed per second.
+     */
+    public abstract double getBytesPerSecond();
+
+    /**
+     * Returns the total time recorded by each pipeline stage (summed
+     * over all threads).
+     *
+     * @return a map from stage name to seconds.
+     */
+    public abstract Map<String, Double> getStageSeconds();
+
+    /**
+     * Returns the complete run report.
+     *
+     * @return the run report in JSON format.
+     */
+    public abstract String getReport();
+}
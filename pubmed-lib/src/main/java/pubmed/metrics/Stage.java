@@ -0,0 +1,49 @@
+
+package pubmed.metrics;
+
+/**
+ * Enumerates the instrumented stages of the bulk file pipelines.
+ */
+public enum Stage {
+    /**
+     * Reading raw bytes from a file.
+     */
+    READ,
+
+    /**
+     * Inflating compressed bytes (excluding the time spent reading
+     * them).
+     */
+    INFLATE,
+
+    /**
+     * Parsing XML into a document tree (excluding the time spent
+     * waiting for input).
+     */
+    PARSE,
+
+    /**
+     * Extracting flat-file records from article elements.
+     */
+    EXTRACT,
+
+    /**
+     * Extracting lemmatized records from article elements.
+     */
+    LEMMATIZE,
+
+    /**
+     * Formatting records as lines of flat-file text.
+     */
+    FORMAT,
+
+    /**
+     * Writing formatted lines to flat files.
+     */
+    WRITE,
+
+    /**
+     * Computing relevance scores.
+     */
+    SCORE;
+}
@@ -0,0 +1,87 @@
+
+package pubmed.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the elapsed time, invocations, items, and bytes for
+ * every pipeline stage.  Instances are thread-safe.
+ */
+final class StageCounters implements StageRecorder {
+    private final Map<Stage, LongAdder[]> counters = new EnumMap<Stage, LongAdder[]>(Stage.class);
+
+    private static final int NANOS = 0;
+    private static final int CALLS = 1;
+    private static final int ITEMS = 2;
+    private static final int BYTES = 3;
+
+    StageCounters() {
+        for (Stage stage : Stage.values())
+            counters.put(stage, new LongAdder[] { new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder() });
+    }
+
+    @Override public void record(Stage stage, long nanos, long items, long bytes) {
+        LongAdder[] adders = counters.get(stage);
+
+        adders[NANOS].add(nanos);
+        adders[CALLS].increment();
+        adders[ITEMS].add(items);
+        adders[BYTES].add(bytes);
+    }
+
+    long getNanos(Stage stage) {
+        return counters.get(stage)[NANOS].sum();
+    }
+
+    long getCalls(Stage stage) {
+        return counters.get(stage)[CALLS].sum();
+    }
+
+    long getItems(Stage stage) {
+        return counters.get(stage)[ITEMS].sum();
+    }
+
+    long getBytes(Stage stage) {
+        return counters.get(stage)[BYTES].sum();
+    }
+
+    long getMaxItems() {
+        long maxItems = 0L;
+
+        for (Stage stage : Stage.values())
+            maxItems = Math.max(maxItems, getItems(stage));
+
+        return maxItems;
+    }
+
+    void appendJSON(StringBuilder builder) {
+        builder.append('{');
+
+        boolean first = true;
+
+        for (Stage stage : Stage.values()) {
+            if (getCalls(stage) == 0)
+                continue;
+
+            if (!first)
+                builder.append(", ");
+
+            double seconds = 1.0E-9 * getNanos(stage);
+
+            builder.append('"').append(stage.name()).append("\": {");
+            builder.append("\"seconds\": ").append(seconds);
+            builder.append(", \"calls\": ").append(getCalls(stage));
+            builder.append(", \"items\": ").append(getItems(stage));
+            builder.append(", \"bytes\": ").append(getBytes(stage));
+            builder.append(", \"itemsPerSecond\": ").append(PipelineMetrics.rate(getItems(stage), seconds));
+            builder.append(", \"bytesPerSecond\": ").append(PipelineMetrics.rate(getBytes(stage), seconds));
+            builder.append('}');
+
+            first = false;
+        }
+
+        builder.append('}');
+    }
+}
@@ -0,0 +1,21 @@
+
+package pubmed.metrics;
+
+/**
+ * Accumulates the work performed in pipeline stages.
+ */
+public interface StageRecorder {
+    /**
+     * Records work performed in a pipeline stage.
+     *
+     * @param stage the stage that performed the work.
+     *
+     * @param nanos the elapsed time in nanoseconds.
+     *
+     * @param items the number of items (articles or records)
+     * processed.
+     *
+     * @param bytes the number of bytes processed.
+     */
+    public abstract void record(Stage stage, long nanos, long items, long bytes);
+}
@@ -0,0 +1,132 @@
+
+package pubmed.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the time spent in (and the bytes returned by) the read
+ * methods of an underlying input stream, and records them for a
+ * pipeline stage when the stream is closed.
+ *
+ * <p>When one timed stream reads from another (an inflater reading
+ * from a timed file stream, for example), the time recorded by the
+ * outer stream excludes the time recorded by the inner stream.  The
+ * recorder is captured when the stream is created, so the stream may
+ * be read on any thread.  Instances are not thread-safe.
+ */
+public final class TimedInputStream extends FilterInputStream {
+    private final Stage stage;
+    private final StageRecorder recorder;
+    private final TimedInputStream inner;
+
+    private volatile long nanos = 0L;
+    private volatile long bytes = 0L;
+    private boolean closed = false;
+
+    private TimedInputStream(InputStream source, Stage stage, StageRecorder recorder, TimedInputStream inner) {
+        super(source);
+
+        this.stage = stage;
+        this.recorder = recorder;
+        this.inner = inner;
+    }
+
+    /**
+     * Wraps an input stream to record its reads for a pipeline stage
+     * with the {@link PipelineMetrics#recorder() recorder} of the
+     * calling thread.
+     *
+     * @param source the input stream to measure.
+     *
+     * @param stage the stage to record (or {@code null} to measure
+     * without recording).
+     *
+     * @return the timed input stream.
+     */
+    public static TimedInputStream wrap(InputStream source, Stage stage) {
+        return new TimedInputStream(source, stage, PipelineMetrics.recorder(), null);
+    }
+
+    /**
+     * Wraps an input stream that reads from another timed stream, so
+     * that the time recorded for this stream excludes the time
+     * recorded for the inner stream.
+     *
+     * @param source the input stream to measure.
+     *
+     * @param stage the stage to record.
+     *
+     * @param inner the timed stream that the source reads from.
+     *
+     * @return the timed input stream.
+     */
+    public static TimedInputStream wrap(InputStream source, Stage stage, TimedInputStream inner) {
+        return new TimedInputStream(source, stage, PipelineMetrics.recorder(), inner);
+    }
+
+    @Override public int read() throws IOException {
+        long start = System.nanoTime();
+        int result = super.read();
+        nanos += System.nanoTime() - start;
+
+        if (result >= 0)
+            ++bytes;
+
+        return result;
+    }
+
+    @Override public int read(byte[] buffer, int offset, int length) throws IOException {
+        long start = System.nanoTime();
+        int count = super.read(buffer, offset, length);
+        nanos += System.nanoTime() - start;
+
+        if (count > 0)
+            bytes += count;
+
+        return count;
+    }
+
+    @Override public long skip(long count) throws IOException {
+        long start = System.nanoTime();
+        long skipped = super.skip(count);
+        nanos += System.nanoTime() - start;
+
+        return skipped;
+    }
+
+    /**
+     * Returns the time spent in the read methods of this stream,
+     * excluding the time spent in the inner stream.
+     *
+     * @return the time spent reading in nanoseconds.
+     */
+    public long getNanos() {
+        return (inner != null) ? Math.max(0L, nanos - inner.nanos) : nanos;
+    }
+
+    /**
+     * Returns the number of bytes returned by this stream.
+     *
+     * @return the number of bytes returned by this stream.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override public void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+
+        try {
+            super.close();
+        }
+        finally {
+            if (stage != null)
+                recorder.record(stage, getNanos(), 0L, bytes);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Records the time spent in each stage of the bulk file pipelines and
+ * reports it through JMX and per-run JSON reports.
+ */
+package pubmed.metrics;
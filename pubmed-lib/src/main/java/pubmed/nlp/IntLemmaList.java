@@ -0,0 +1,210 @@
+
+package pubmed.nlp;
+
+import java.util.List;
+
+/**
+ * Represents a lemma list by the integer identifiers assigned to the
+ * lemmas in a {@link LemmaDictionary}.
+ *
+ * <p>The list holds four bytes per lemma; the strings returned by
+ * {@link IntLemmaList#get(int)} are the single copies held by the
+ * dictionary.  Membership and sequence queries translate the query
+ * lemmas to identifiers once, so a query containing a lemma that is
+ * absent from the dictionary is answered without further work.  The
+ * first query builds an index from each identifier to its positions
+ * in the list; thereafter a lemma is counted in constant time, and a
+ * sequence is matched only at the positions of its first lemma.
+ */
+public final class IntLemmaList extends LemmaList {
+    private final int[] ids;
+    private final LemmaDictionary dictionary;
+
+    // Built on the first query; the index is immutable (with final
+    // fields), so a thread that races to build its own copy is
+    // harmless...
+    private Index index = null;
+
+    IntLemmaList(LemmaDictionary dictionary, int[] ids) {
+        this.ids = ids;
+        this.dictionary = dictionary;
+    }
+
+    private static final class Index {
+        // Open-addressed table of (identifier + 1), with zero marking
+        // an empty slot, and the range of each identifier within the
+        // grouped positions...
+        private final int[] keys;
+        private final int[] starts;
+        private final int[] counts;
+        private final int[] positions;
+
+        private Index(int[] ids) {
+            int capacity = 2;
+
+            while (capacity < 2 * ids.length)
+                capacity <<= 1;
+
+            this.keys = new int[capacity];
+            this.starts = new int[capacity];
+            this.counts = new int[capacity];
+            this.positions = new int[ids.length];
+
+            for (int id : ids)
+                ++counts[insert(id)];
+
+            int start = 0;
+
+            for (int slot = 0; slot < capacity; ++slot) {
+                starts[slot] = start;
+                start += counts[slot];
+            }
+
+            int[] cursors = starts.clone();
+
+            for (int position = 0; position < ids.length; ++position)
+                positions[cursors[find(ids[position])]++] = position;
+        }
+
+        private int insert(int id) {
+            int slot = find(id);
+            keys[slot] = id + 1;
+            return slot;
+        }
+
+        private int find(int id) {
+            int mask = keys.length - 1;
+            int hash = id * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+
+            while (keys[slot] != 0 && keys[slot] != id + 1)
+                slot = (slot + 1) & mask;
+
+            return slot;
+        }
+
+        private int count(int id) {
+            return counts[find(id)];
+        }
+    }
+
+    private Index index() {
+        Index result = index;
+
+        if (result == null) {
+            result = new Index(ids);
+            index = result;
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the dictionary that defines the lemma identifiers.
+     *
+     * @return the dictionary that defines the lemma identifiers.
+     */
+    public LemmaDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the identifier of the lemma at a given position.
+     *
+     * @param index the position of the lemma.
+     *
+     * @return the identifier of the lemma at the specified position.
+     */
+    public int getID(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Returns the lemma identifiers in this list.
+     *
+     * @return a new array containing the lemma identifiers in order.
+     */
+    public int[] toIntArray() {
+        return ids.clone();
+    }
+
+    private int[] translate(List<String> sequence) {
+        if (sequence instanceof IntLemmaList && ((IntLemmaList) sequence).dictionary == dictionary)
+            return ((IntLemmaList) sequence).ids;
+
+        int[] result = new int[sequence.size()];
+
+        for (int index = 0; index < result.length; ++index) {
+            result[index] = dictionary.idOf(sequence.get(index));
+
+            if (result[index] < 0)
+                return null;
+        }
+
+        return result;
+    }
+
+    private boolean matches(int[] target, int start) {
+        for (int index = 0; index < target.length; ++index)
+            if (ids[start + index] != target[index])
+                return false;
+
+        return true;
+    }
+
+    private int matchSequence(List<String> sequence, boolean countAll) {
+        int[] target = translate(sequence);
+
+        if (target == null)
+            return 0;
+
+        if (target.length == 0)
+            return ids.length + 1;
+
+        Index index = index();
+        int slot = index.find(target[0]);
+        int result = 0;
+
+        for (int k = 0; k < index.counts[slot]; ++k) {
+            int start = index.positions[index.starts[slot] + k];
+
+            if (start + target.length <= ids.length && matches(target, start)) {
+                ++result;
+
+                if (!countAll)
+                    break;
+            }
+        }
+
+        return result;
+    }
+
+    @Override public boolean containsSequence(List<String> sequence) {
+        return matchSequence(sequence, false) > 0;
+    }
+
+    @Override public int count(String lemma) {
+        int id = dictionary.idOf(lemma);
+
+        if (id < 0)
+            return 0;
+
+        return index().count(id);
+    }
+
+    @Override public int countSequence(List<String> sequence) {
+        return matchSequence(sequence, true);
+    }
+
+    @Override public boolean contains(Object lemma) {
+        return (lemma instanceof String) && count((String) lemma) > 0;
+    }
+
+    @Override public String get(int index) {
+        return dictionary.getLemma(ids[index]);
+    }
+
+    @Override public int size() {
+        return ids.length;
+    }
+}
@@ -0,0 +1,466 @@
+
+package pubmed.nlp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.flat.FlatRecord;
+import jam.io.FileUtil;
+import jam.lang.JamException;
+
+/**
+ * Assigns corpus-wide integer identifiers to lemmas, so that lemma
+ * lists may be stored and compared as integers.
+ *
+ * <p>The dictionary is an append-only text file with one lemma per
+ * line; the identifier of a lemma is the (zero-based) number of the
+ * line where it first appears.  New lemmas are appended with a single
+ * write, so several processes may extend the same dictionary; each
+ * process re-reads only the lines appended since its last read.  If
+ * two processes append the same lemma, the second line is an alias
+ * that decodes to the identifier of the first.
+ *
+ * <p>Lemma fields in flat files are encoded as a marker character
+ * followed by one variable-length integer per lemma.  Each character
+ * of a variable-length integer carries five bits (least significant
+ * first) and is drawn from one of two 32-character alphabets: the
+ * last character of each integer comes from the alphabet of final
+ * digits, the others from the alphabet of continuation digits.
+ * Identifiers below 32 therefore take one character and those below
+ * 1024 two characters; the most frequent lemmas are seen first and
+ * receive the smallest identifiers.  The encoded text contains no
+ * delimiter or white space characters, and because lemmas are always
+ * lower case, the upper-case marker distinguishes encoded fields from
+ * lemmas stored as text.
+ */
+public final class LemmaDictionary {
+    private final File file;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+    // The lemma on each line and the identifier of its first line;
+    // these arrays are replaced (never modified below the current
+    // size) before the volatile size is updated...
+    private String[] lemmas = new String[1024];
+    private int[] canonical = new int[1024];
+    private volatile int size = 0;
+
+    private long loadedLength = 0L;
+
+    private static LemmaDictionary global = null;
+
+    private static final Map<File, LemmaDictionary> instances = new ConcurrentHashMap<File, LemmaDictionary>();
+
+    private LemmaDictionary(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Name of the system property that specifies the path of the
+     * global dictionary file.  Lemma files are written in the encoded
+     * format only when this property is set; it is required to read
+     * files written in the encoded format.
+     */
+    public static final String FILE_PROPERTY = "pubmed.nlp.lemmaDictionary";
+
+    /**
+     * The first character of every encoded lemma field.
+     */
+    public static final char ENCODED_MARKER = 'V';
+
+    private static final String FINAL_DIGITS = "0123456789abcdefghijklmnopqrstuv";
+    private static final String CONTINUATION_DIGITS = "wxyzABCDEFGHIJKLMNOPQRSTUVWXYZ-_";
+
+    private static final int DIGIT_BITS = 5;
+    private static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+
+    // Digit values by character: final digits map to their value,
+    // continuation digits to their value plus 32, others to -1...
+    private static final byte[] DIGIT_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+
+        for (int value = 0; value <= DIGIT_MASK; ++value) {
+            DIGIT_VALUES[FINAL_DIGITS.charAt(value)] = (byte) value;
+            DIGIT_VALUES[CONTINUATION_DIGITS.charAt(value)] = (byte) (value + DIGIT_MASK + 1);
+        }
+    }
+
+    /**
+     * Determines whether lemma files should be written in the encoded
+     * format.
+     *
+     * @return {@code true} iff the global dictionary is configured.
+     */
+    public static boolean isEnabled() {
+        return JamProperties.isSet(FILE_PROPERTY);
+    }
+
+    /**
+     * Returns the global dictionary, specified by the system property
+     * {@link LemmaDictionary#FILE_PROPERTY}.
+     *
+     * @return the global dictionary.
+     *
+     * @throws RuntimeException unless the system property is set.
+     */
+    public static synchronized LemmaDictionary global() {
+        if (global == null) {
+            if (!isEnabled())
+                throw JamException.runtime("The lemma dictionary is not configured; set [%s].", FILE_PROPERTY);
+
+            global = open(new File(JamProperties.getRequired(FILE_PROPERTY)));
+        }
+
+        return global;
+    }
+
+    /**
+     * Returns the dictionary stored in a given file (which need not
+     * exist yet); there is one instance per file in each process.
+     *
+     * @param file the dictionary file.
+     *
+     * @return the dictionary stored in the specified file.
+     */
+    public static LemmaDictionary open(File file) {
+        return instances.computeIfAbsent(FileUtil.getCanonicalFile(file), LemmaDictionary::load);
+    }
+
+    private static LemmaDictionary load(File file) {
+        LemmaDictionary dictionary = new LemmaDictionary(file);
+        dictionary.refresh();
+
+        JamLogger.info("Loaded [%d] lemmas from [%s].", dictionary.size(), file);
+        return dictionary;
+    }
+
+    /**
+     * Identifies encoded lemma fields.
+     *
+     * @param field a lemma field from a flat file.
+     *
+     * @return {@code true} iff the field is in the encoded format.
+     */
+    public static boolean isEncoded(String field) {
+        return !field.isEmpty() && field.charAt(0) == ENCODED_MARKER;
+    }
+
+    /**
+     * Returns the identifier of a lemma.
+     *
+     * @param lemma the lemma of interest.
+     *
+     * @return the identifier of the specified lemma, or {@code -1} if
+     * the lemma is not in this dictionary.
+     */
+    public int idOf(String lemma) {
+        Integer id = ids.get(lemma);
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * Returns the lemma with a given identifier.
+     *
+     * @param id the identifier of the lemma.
+     *
+     * @return the lemma with the specified identifier.
+     *
+     * @throws IndexOutOfBoundsException unless the identifier is
+     * valid.
+     */
+    public String getLemma(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException(String.format("Invalid lemma identifier: [%d].", id));
+
+        return lemmas[id];
+    }
+
+    /**
+     * Returns the number of lines in this dictionary (including any
+     * aliases).
+     *
+     * @return the number of lines in this dictionary.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the identifiers of a sequence of lemmas, adding any new
+     * lemmas to this dictionary.
+     *
+     * @param lemmas the lemmas to encode.
+     *
+     * @return the identifiers of the lemmas (in order).
+     */
+    public int[] encode(List<String> lemmas) {
+        if (lemmas instanceof IntLemmaList && ((IntLemmaList) lemmas).getDictionary() == this)
+            return ((IntLemmaList) lemmas).toIntArray();
+
+        int[] result = new int[lemmas.size()];
+        Set<String> missing = null;
+
+        for (int index = 0; index < result.length; ++index) {
+            result[index] = idOf(lemmas.get(index));
+
+            if (result[index] < 0) {
+                if (missing == null)
+                    missing = new LinkedHashSet<String>();
+
+                missing.add(lemmas.get(index));
+            }
+        }
+
+        if (missing == null)
+            return result;
+
+        add(missing);
+
+        for (int index = 0; index < result.length; ++index)
+            if (result[index] < 0)
+                result[index] = idOf(lemmas.get(index));
+
+        return result;
+    }
+
+    /**
+     * Creates the integer representation of a lemma list, adding any
+     * new lemmas to this dictionary.
+     *
+     * @param lemmas the lemmas to encode.
+     *
+     * @return a lemma list holding the identifiers of the lemmas.
+     */
+    public IntLemmaList intern(List<String> lemmas) {
+        return new IntLemmaList(this, encode(lemmas));
+    }
+
+    /**
+     * Formats a lemma list as an encoded flat file field, adding any
+     * new lemmas to this dictionary.
+     *
+     * @param lemmas the (possibly {@code null} or empty) lemmas.
+     *
+     * @return the encoded field, if the list is not {@code null} or
+     * empty, otherwise the {@code NULL_STRING}.
+     */
+    public String format(LemmaList lemmas) {
+        if (lemmas == null || lemmas.isEmpty())
+            return FlatRecord.NULL_STRING;
+
+        int[] encoded = encode(lemmas);
+        StringBuilder builder = new StringBuilder(1 + 2 * encoded.length);
+
+        builder.append(ENCODED_MARKER);
+
+        for (int id : encoded)
+            appendVarint(builder, id);
+
+        return builder.toString();
+    }
+
+    private static void appendVarint(StringBuilder builder, int value) {
+        while (value > DIGIT_MASK) {
+            builder.append(CONTINUATION_DIGITS.charAt(value & DIGIT_MASK));
+            value >>>= DIGIT_BITS;
+        }
+
+        builder.append(FINAL_DIGITS.charAt(value));
+    }
+
+    /**
+     * Parses an encoded flat file field.
+     *
+     * @param field the encoded field.
+     *
+     * @return the lemma list encoded in the field.
+     *
+     * @throws RuntimeException unless the field is properly encoded
+     * and every identifier is in this dictionary.
+     */
+    public IntLemmaList parse(String field) {
+        if (!isEncoded(field))
+            throw JamException.runtime("Invalid encoded lemma field: [%s].", field);
+
+        int[] decoded = new int[field.length() - 1];
+        int count = 0;
+        int value = 0;
+        int shift = 0;
+        int maxID = -1;
+
+        for (int index = 1; index < field.length(); ++index) {
+            char c = field.charAt(index);
+            int digit = (c < DIGIT_VALUES.length) ? DIGIT_VALUES[c] : -1;
+
+            if (digit < 0 || shift > 30)
+                throw JamException.runtime("Invalid encoded lemma field: [%s].", field);
+
+            value |= (digit & DIGIT_MASK) << shift;
+
+            if (digit > DIGIT_MASK) {
+                shift += DIGIT_BITS;
+                continue;
+            }
+
+            decoded[count++] = value;
+            maxID = Math.max(maxID, value);
+
+            value = 0;
+            shift = 0;
+        }
+
+        if (shift > 0)
+            throw JamException.runtime("Invalid encoded lemma field: [%s].", field);
+
+        if (maxID >= size) {
+            //
+            // The field was written by another process after this
+            // dictionary was last read...
+            //
+            synchronized (this) {
+                refresh();
+            }
+
+            if (maxID >= size)
+                throw JamException.runtime("Unknown lemma identifier [%d] in dictionary [%s].", maxID, file);
+        }
+
+        int[] ids = Arrays.copyOf(decoded, count);
+        int[] aliases = canonical;
+
+        for (int index = 0; index < count; ++index)
+            ids[index] = aliases[ids[index]];
+
+        return new IntLemmaList(this, ids);
+    }
+
+    private synchronized void add(Set<String> missing) {
+        //
+        // Another thread or process may have added some of the
+        // lemmas since they were found to be missing...
+        //
+        refresh();
+
+        StringBuilder builder = new StringBuilder();
+
+        for (String lemma : missing) {
+            if (idOf(lemma) >= 0)
+                continue;
+
+            if (lemma.indexOf('\n') >= 0 || lemma.indexOf('\r') >= 0)
+                throw JamException.runtime("Invalid lemma: [%s].", lemma);
+
+            builder.append(lemma);
+            builder.append('\n');
+        }
+
+        if (builder.length() == 0)
+            return;
+
+        try {
+            //
+            // The new lines are appended with a single write, so that
+            // lines from concurrent processes are never interleaved...
+            //
+            File parent = file.getAbsoluteFile().getParentFile();
+
+            if (parent != null)
+                parent.mkdirs();
+
+            Files.write(file.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8),
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not update lemma dictionary [%s]: %s", file, ex.getMessage());
+        }
+
+        //
+        // The identifiers are assigned when the new lines are read
+        // back (along with any lines appended by other processes)...
+        //
+        refresh();
+    }
+
+    private synchronized void refresh() {
+        long length = file.length();
+
+        if (length <= loadedLength)
+            return;
+
+        byte[] bytes = new byte[(int) (length - loadedLength)];
+
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.seek(loadedLength);
+            input.readFully(bytes);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not read lemma dictionary [%s]: %s", file, ex.getMessage());
+        }
+
+        //
+        // Only complete lines are applied; a line that is still being
+        // written by another process is read next time...
+        //
+        String[] newLemmas = lemmas;
+        int[] newCanonical = canonical;
+        int newSize = size;
+        int start = 0;
+
+        Map<String, Integer> newIDs = new HashMap<String, Integer>();
+
+        for (int index = 0; index < bytes.length; ++index) {
+            if (bytes[index] != '\n')
+                continue;
+
+            if (newSize == newLemmas.length) {
+                newLemmas = Arrays.copyOf(newLemmas, 2 * newSize);
+                newCanonical = Arrays.copyOf(newCanonical, 2 * newSize);
+            }
+
+            String lemma = new String(bytes, start, index - start, StandardCharsets.UTF_8);
+            Integer first = ids.get(lemma);
+
+            if (first == null)
+                first = newIDs.putIfAbsent(lemma, newSize);
+
+            if (first != null) {
+                newLemmas[newSize] = newLemmas[first];
+                newCanonical[newSize] = first;
+            }
+            else {
+                newLemmas[newSize] = lemma;
+                newCanonical[newSize] = newSize;
+            }
+
+            ++newSize;
+            start = index + 1;
+        }
+
+        lemmas = newLemmas;
+        canonical = newCanonical;
+        size = newSize;
+
+        //
+        // The new identifiers are visible only after the volatile size
+        // that covers them has been written, so that any identifier
+        // returned by idOf is valid for getLemma in every thread...
+        //
+        ids.putAll(newIDs);
+        loadedLength += start;
+    }
+}
@@ -2,26 +2,23 @@
 package pubmed.nlp;
 
 import java.util.AbstractList;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 
-import edu.stanford.nlp.ling.CoreLabel;
-import edu.stanford.nlp.pipeline.CoreDocument;
-
 import jam.io.Delimiter;
-import jam.util.ListUtil;
-import jam.util.TargetList;
 
 /**
  * Represents an immutable sequence of lemmas extracted from text.
+ *
+ * <p>Lists created from strings hold the lemmas themselves; lists
+ * decoded from a {@link LemmaDictionary} ({@link IntLemmaList}) hold
+ * only the integer identifiers of the lemmas and match sequences by
+ * comparing identifiers.  Lists with the same lemmas are equal (and
+ * have the same hash code) regardless of their representation.
  */
-public final class LemmaList extends AbstractList<String> {
+public abstract class LemmaList extends AbstractList<String> {
     private int hashCode = 0;
-    private final TargetList<String> lemmas;
 
-    private LemmaList(List<String> lemmas) {
-        this.lemmas = TargetList.create(lemmas);
+    LemmaList() {
     }
 
     /**
@@ -54,7 +51,7 @@ public final class LemmaList extends AbstractList<String> {
      * @return the new lemma list.
      */
     public static LemmaList create(List<String> lemmas) {
-        return new LemmaList(lemmas);
+        return new TextLemmaList(lemmas);
     }
 
     /**
@@ -73,17 +70,16 @@ public final class LemmaList extends AbstractList<String> {
      * Determines whether this list contains a sequence of lemmas (as
      * a sublist of this list).
      *
-     * <p>This method executes in <em>amortized</em> {@code O(n)} time,
-     * where {@code n} is the length of the input list.
+     * <p>This method executes in <em>amortized</em> {@code O(k n)}
+     * time, where {@code n} is the length of the input list and {@code
+     * k} is the number of times its first lemma occurs in this list.
      *
      * @param sequence the lemma sequence to search for.
      *
      * @return {@code true} iff the specified list is a sublist within
      * this list.
      */
-    public boolean containsSequence(List<String> sequence) {
-        return lemmas.containsSequence(sequence);
-    }
+    public abstract boolean containsSequence(List<String> sequence);
 
     /**
      * Counts the number of times a lemma occurs in this list.
@@ -95,24 +91,22 @@ public final class LemmaList extends AbstractList<String> {
      * @return the number of times the specified lemma occurs in this
      * list.
      */
-    public int count(String lemma) {
-        return lemmas.count(lemma);
-    }
+    public abstract int count(String lemma);
 
     /**
      * Counts the number of times a sequence of lemmas occurs in this
      * list.
      *
-     * <p>This method executes in <em>amortized constant time</em>.
+     * <p>This method executes in <em>amortized</em> {@code O(k n)}
+     * time, where {@code n} is the length of the input list and {@code
+     * k} is the number of times its first lemma occurs in this list.
      *
      * @param sequence the lemma sequence to count.
      *
      * @return the number of times the specified lemma sequence occurs
      * in this list.
      */
-    public int countSequence(List<String> sequence) {
-        return lemmas.countSequence(sequence);
-    }
+    public abstract int countSequence(List<String> sequence);
 
     /**
      * Constructs a single string composed of the lemmas in this list.
@@ -120,35 +114,13 @@ public final class LemmaList extends AbstractList<String> {
      * @return a single string composed of the lemmas in this list.
      */
     public String join() {
-        return DELIM.join(lemmas);
-    }
-
-    /**
-     * Determines whether this list contains a specific lemma.
-     *
-     * <p>This method executes in <em>amortized constant time</em>.
-     *
-     * @param lemma the lemma to search for.
-     *
-     * @return {@code true} iff this list contains the specified
-     * lemma.
-     */
-    @Override public boolean contains(Object lemma) {
-        return lemmas.contains(lemma);
-    }
-
-    @Override public String get(int index) {
-        return lemmas.get(index);
+        return DELIM.join(this);
     }
 
     @Override public int hashCode() {
         if (hashCode == 0)
-            hashCode = lemmas.hashCode();
+            hashCode = super.hashCode();
 
         return hashCode;
     }
-
-    @Override public int size() {
-        return lemmas.size();
-    }
 }
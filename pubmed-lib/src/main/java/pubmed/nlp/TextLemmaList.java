@@ -0,0 +1,46 @@
+
+package pubmed.nlp;
+
+import java.util.List;
+
+import jam.util.TargetList;
+
+/**
+ * Holds the lemmas themselves in a target list, which answers
+ * membership and sequence queries in amortized constant time.
+ */
+final class TextLemmaList extends LemmaList {
+    private final TargetList<String> lemmas;
+
+    TextLemmaList(List<String> lemmas) {
+        this.lemmas = TargetList.create(lemmas);
+    }
+
+    @Override public boolean containsSequence(List<String> sequence) {
+        return lemmas.containsSequence(sequence);
+    }
+
+    @Override public int count(String lemma) {
+        return lemmas.count(lemma);
+    }
+
+    @Override public int countSequence(List<String> sequence) {
+        return lemmas.countSequence(sequence);
+    }
+
+    @Override public String join() {
+        return DELIM.join(lemmas);
+    }
+
+    @Override public boolean contains(Object lemma) {
+        return lemmas.contains(lemma);
+    }
+
+    @Override public String get(int index) {
+        return lemmas.get(index);
+    }
+
+    @Override public int size() {
+        return lemmas.size();
+    }
+}
@@ -2,6 +2,7 @@
 package pubmed.relev;
 
 import pubmed.bulk.BulkFile;
+import pubmed.bulk.LemmaStore;
 import pubmed.flat.AbstractLemmaRecord;
 import pubmed.flat.AbstractLemmaTable;
 
@@ -13,15 +14,24 @@ public final class AbstractRelevanceScorer extends LemmaRelevanceScorer<Abstract
         super(lemmaTable);
     }
 
+    private AbstractRelevanceScorer(LemmaStore lemmaStore) {
+        super(lemmaStore);
+    }
+
     /**
-     * Returns the relevance scorer for a given bulk XML file.
+     * Returns the relevance scorer for a given bulk XML file.  The
+     * lemmas are read from the memory-mapped lemma store for the bulk
+     * file unless the stores have been disabled.
      *
      * @param bulkFile the bulk XML file to process.
      *
      * @return the relevance scorer for the given bulk XML file.
      */
     public static AbstractRelevanceScorer instance(BulkFile bulkFile) {
-        return instance(bulkFile.getAbstractLemmaFile().load());
+        if (LemmaStore.isEnabled())
+            return instance(bulkFile.getAbstractLemmaFile().openStore());
+        else
+            return instance(bulkFile.getAbstractLemmaFile().load());
     }
 
     /**
@@ -34,4 +44,15 @@ public final class AbstractRelevanceScorer extends LemmaRelevanceScorer<Abstract
     public static AbstractRelevanceScorer instance(AbstractLemmaTable lemmaTable) {
         return new AbstractRelevanceScorer(lemmaTable);
     }
+
+    /**
+     * Returns the relevance scorer for a memory-mapped lemma store.
+     *
+     * @param lemmaStore lemmas derived from a bulk XML file.
+     *
+     * @return the relevance scorer for the given lemma store.
+     */
+    public static AbstractRelevanceScorer instance(LemmaStore lemmaStore) {
+        return new AbstractRelevanceScorer(lemmaStore);
+    }
 }
@@ -1,10 +1,12 @@
 
 package pubmed.relev;
 
-import jam.flat.FlatTable;
+import java.util.function.Function;
 
 import pubmed.article.PMID;
+import pubmed.bulk.LemmaStore;
 import pubmed.flat.ArticleLemmaRecord;
+import pubmed.flat.PmidFlatTable;
 import pubmed.nlp.LemmaList;
 import pubmed.subject.Subject;
 
@@ -15,17 +17,33 @@ import pubmed.subject.Subject;
  * <p>The relevance score is the number of times a (lemmatized)
  * subject keyword or phrase occurs in the (lemmatized) article
  * component (title or abstract).
+ *
+ * <p>The article lemmas are read either from a table of lemma records
+ * loaded into memory or from a memory-mapped {@link LemmaStore}, which
+ * decodes the lemmas for an article only when it is scored.
  */
 public abstract class LemmaRelevanceScorer<V extends ArticleLemmaRecord> implements RelevanceScorer {
-    private final FlatTable<PMID, V> lemmaTable;
+    private final Function<PMID, LemmaList> lemmaLookup;
 
     /**
      * Creates a new relevance scorer for table of lemma records.
      *
      * @param lemmaTable lemma records derived from a bulk XML file.
      */
-    protected LemmaRelevanceScorer(FlatTable<PMID, V> lemmaTable) {
-        this.lemmaTable = lemmaTable;
+    protected LemmaRelevanceScorer(PmidFlatTable<V> lemmaTable) {
+        this.lemmaLookup = pmid -> {
+            V lemmaRecord = lemmaTable.select(pmid);
+            return lemmaRecord != null ? lemmaRecord.getLemmaList() : null;
+        };
+    }
+
+    /**
+     * Creates a new relevance scorer for a memory-mapped lemma store.
+     *
+     * @param lemmaStore lemmas derived from a bulk XML file.
+     */
+    protected LemmaRelevanceScorer(LemmaStore lemmaStore) {
+        this.lemmaLookup = lemmaStore::select;
     }
 
     /**
@@ -47,10 +65,10 @@ public abstract class LemmaRelevanceScorer<V extends ArticleLemmaRecord> impleme
     }
 
     @Override public int computeScore(PMID pmid, Subject subject) {
-        ArticleLemmaRecord lemmaRecord = lemmaTable.select(pmid);
+        LemmaList articleLemmas = lemmaLookup.apply(pmid);
 
-        if (lemmaRecord != null)
-            return computeScore(subject, lemmaRecord.getLemmaList());
+        if (articleLemmas != null)
+            return computeScore(subject, articleLemmas);
         else
             return 0;
     }
@@ -4,7 +4,6 @@ package pubmed.relev;
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.Collection;
-import java.util.Set;
 
 import jam.app.JamEnv;
 import jam.app.JamLogger;
@@ -13,7 +12,7 @@ import jam.io.FileUtil;
 import jam.io.IOUtil;
 import jam.io.UniqueFile;
 
-import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.bulk.BulkFile;
 import pubmed.delcit.DeleteCitationFile;
 
@@ -90,7 +89,7 @@ public abstract class RelevanceSummaryFileBase extends UniqueFile {
         if (!file.exists())
             return;
 
-        Set<PMID> deletedPMID = DeleteCitationFile.instance().viewDeleted();
+        PmidSet deletedPMID = DeleteCitationFile.instance().viewDeleted();
 
         if (deletedPMID.isEmpty())
             return;
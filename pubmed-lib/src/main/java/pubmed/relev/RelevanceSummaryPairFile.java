@@ -5,12 +5,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 import jam.app.JamLogger;
 import jam.util.PairKeyTable;
 
-import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.bulk.BulkFile;
 import pubmed.subject.Subject;
 
@@ -76,13 +75,13 @@ public final class RelevanceSummaryPairFile extends RelevanceSummaryFileBase {
      * files exist.
      */
     public static synchronized void process(Subject subject1, Collection<? extends Subject> subjects2) {
-        Set<PMID> subject1PMID =
+        PmidSet subject1PMID =
             RelevanceSummarySubjectFile.loadRelevantPMID(subject1);
 
         subjects2.parallelStream().forEach(subject2 -> process(subject1, subject2, subject1PMID));
     }
 
-    private static void process(Subject subject1, Subject subject2, Set<PMID> subject1PMID) {
+    private static void process(Subject subject1, Subject subject2, PmidSet subject1PMID) {
         List<RelevanceSummaryRecord> pairRecords
             = new ArrayList<RelevanceSummaryRecord>();
 
@@ -8,13 +8,13 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import jam.app.JamLogger;
 import jam.io.IOUtil;
 
 import pubmed.article.DOI;
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.article.PubmedJournal;
 import pubmed.bulk.BulkContributorFile;
 import pubmed.bulk.BulkFile;
@@ -107,7 +107,7 @@ public final class RelevanceSummarySubjectFile extends RelevanceSummaryFileBase
      * @return a set containing the identifiers for articles that are
      * deemed likely to be relevant to the specified subject.
      */
-    public static Set<PMID> loadRelevantPMID(Subject subject) {
+    public static PmidSet loadRelevantPMID(Subject subject) {
         return load(subject).getRelevantPMID();
     }
 
@@ -2,13 +2,12 @@
 package pubmed.relev;
 
 import java.io.File;
-import java.util.HashSet;
-import java.util.Set;
 
 import jam.io.LineReader;
 import jam.util.PairKeyTreeTable;
 
 import pubmed.article.PMID;
+import pubmed.article.PmidSet;
 import pubmed.subject.Subject;
 
 public final class RelevanceSummaryTable extends PairKeyTreeTable<PMID, String, RelevanceSummaryRecord> {
@@ -81,13 +80,13 @@ public final class RelevanceSummaryTable extends PairKeyTreeTable<PMID, String,
      * @return a new set containing the identifiers for all records
      * marked as <em>likely relevant</em>.
      */
-    public Set<PMID> getRelevantPMID() {
-        Set<PMID> pmids = new HashSet<PMID>();
+    public PmidSet getRelevantPMID() {
+        PmidSet.Builder pmids = PmidSet.builder();
 
         for (RelevanceSummaryRecord record : values())
             if (record.isLikelyMatch())
                 pmids.add(record.getPMID());
 
-        return pmids;
+        return pmids.build();
     }
 }
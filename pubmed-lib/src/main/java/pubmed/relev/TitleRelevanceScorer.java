@@ -2,6 +2,7 @@
 package pubmed.relev;
 
 import pubmed.bulk.BulkFile;
+import pubmed.bulk.LemmaStore;
 import pubmed.flat.TitleLemmaRecord;
 import pubmed.flat.TitleLemmaTable;
 
@@ -13,15 +14,24 @@ public final class TitleRelevanceScorer extends LemmaRelevanceScorer<TitleLemmaR
         super(lemmaTable);
     }
 
+    private TitleRelevanceScorer(LemmaStore lemmaStore) {
+        super(lemmaStore);
+    }
+
     /**
-     * Returns the relevance scorer for a given bulk XML file.
+     * Returns the relevance scorer for a given bulk XML file.  The
+     * lemmas are read from the memory-mapped lemma store for the bulk
+     * file unless the stores have been disabled.
      *
      * @param bulkFile the bulk XML file to process.
      *
      * @return the relevance scorer for the given bulk XML file.
      */
     public static TitleRelevanceScorer instance(BulkFile bulkFile) {
-        return instance(bulkFile.getTitleLemmaFile().load());
+        if (LemmaStore.isEnabled())
+            return instance(bulkFile.getTitleLemmaFile().openStore());
+        else
+            return instance(bulkFile.getTitleLemmaFile().load());
     }
 
     /**
@@ -34,4 +44,15 @@ public final class TitleRelevanceScorer extends LemmaRelevanceScorer<TitleLemmaR
     public static TitleRelevanceScorer instance(TitleLemmaTable lemmaTable) {
         return new TitleRelevanceScorer(lemmaTable);
     }
+
+    /**
+     * Returns the relevance scorer for a memory-mapped lemma store.
+     *
+     * @param lemmaStore lemmas derived from a bulk XML file.
+     *
+     * @return the relevance scorer for the given lemma store.
+     */
+    public static TitleRelevanceScorer instance(LemmaStore lemmaStore) {
+        return new TitleRelevanceScorer(lemmaStore);
+    }
 }
@@ -3,8 +3,10 @@ package pubmed.sql;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Maintains the {@code abstract_lemmas} table: a many-to-many mapping
@@ -49,6 +51,10 @@ public final class AbstractLemmaTable extends ArticleLemmaTable {
             return List.of();
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.ABSTRACT);
+    }
+
     @Override public String getTableName() {
         return TABLE_NAME;
     }
@@ -4,11 +4,13 @@ package pubmed.sql;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Set;
 
 import jam.sql.SQLColumn;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Maintains the {@code abstracts} table.
@@ -68,6 +70,10 @@ public final class AbstractTable extends ArticleTextAttrTable<AbstractRecord> {
         return ABSTRACT_NAME;
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.ABSTRACT);
+    }
+
     @Override public String getTableName() {
         return TABLE_NAME;
     }
@@ -4,9 +4,11 @@ package pubmed.sql;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Set;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Maintains the {@code article_tree_numbers} table: a many-to-many
@@ -65,6 +67,10 @@ public final class ArticleTreeNumberTable extends ArticleTextJoinTable<ArticleTr
         return ArticleTreeNumberRecord.create(pmid, mkey);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.MESH_HEADING_LIST);
+    }
+
     @Override public String getTableName() {
         return TABLE_NAME;
     }
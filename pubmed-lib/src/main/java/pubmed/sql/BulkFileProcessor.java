@@ -6,6 +6,7 @@ import java.io.FileFilter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -17,7 +18,12 @@ import jam.util.ListUtil;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.article.PubmedArticleXmlParser;
 import pubmed.article.PubmedXmlDocument;
+import pubmed.intern.InternPool;
+import pubmed.intern.InternScope;
+import pubmed.xml.ArticleField;
+import pubmed.xml.ArticleProjection;
 
 /**
  * Identifies all {@code PubMed} bulk data files in a given directory,
@@ -27,11 +33,6 @@ import pubmed.article.PubmedXmlDocument;
 public abstract class BulkFileProcessor {
     private List<File> bulkFileList;
 
-    private File bulkFile;
-    private List<BulkFileTarget> activeTargets;
-
-    private PubmedXmlDocument document;
-
     /**
      * Creates a new bulk processor.
      */
@@ -79,6 +80,7 @@ public abstract class BulkFileProcessor {
             processFile(fileIndex);
 
 	closeTargets();
+        InternPool.logStatistics();
         JamLogger.info("DONE!");
     }
 
@@ -94,51 +96,102 @@ public abstract class BulkFileProcessor {
     }
 
     private void processFile(int fileIndex) {
-        bulkFile = bulkFileList.get(fileIndex);
+        File bulkFile = bulkFileList.get(fileIndex);
 
 	JamLogger.info("************************************************************************");
         JamLogger.info("Processing file [%d] of [%d]...", fileIndex + 1, bulkFileList.size());
         JamLogger.info(bulkFile);
 	JamLogger.info("************************************************************************");
 
-        findActiveTargets();
+        List<BulkFileTarget> activeTargets = findActiveTargets(bulkFile, getTargetTables());
 
         if (activeTargets.isEmpty()) {
             JamLogger.info("Already processed all tables for [%s]...", bulkFile);
             return;
         }
         
-        document = PubmedXmlDocument.parse(bulkFile);
+        InternScope scope = InternScope.open(bulkFile.getName());
 
-        for (BulkFileTarget target : activeTargets)
-            processTable(target);
+        try (scope) {
+            PubmedXmlDocument document =
+                PubmedXmlDocument.parse(bulkFile, resolveProjection(activeTargets));
+
+            processTargets(bulkFile, document, activeTargets);
+        }
     }
 
-    private void findActiveTargets() {
+    /**
+     * Identifies the tables that have not yet been populated from a
+     * bulk file.
+     *
+     * @param bulkFile the bulk data file being processed.
+     *
+     * @param targets the tables that must be populated.
+     *
+     * @return the tables that have not yet been populated from the
+     * specified bulk file, in their original order.
+     */
+    public static List<BulkFileTarget> findActiveTargets(File bulkFile, List<BulkFileTarget> targets) {
         Set<String> processedTargets =
             ProcessHistoryTable.instance().fetchProcessedTables(bulkFile);
 
-        activeTargets =
-            ListUtil.filter(getTargetTables(), target -> !processedTargets.contains(target.getTableName()));
+        return ListUtil.filter(targets, target -> !processedTargets.contains(target.getTableName()));
+    }
+
+    /**
+     * Returns the projection that retains every article field
+     * required to populate a collection of tables.
+     *
+     * @param targets the tables to be populated.
+     *
+     * @return the projection that retains every article field
+     * required to populate the specified tables.
+     */
+    public static ArticleProjection resolveProjection(Collection<BulkFileTarget> targets) {
+        Set<ArticleField> fields = EnumSet.copyOf(PubmedArticleXmlParser.REQUIRED_FIELDS);
+
+        for (BulkFileTarget target : targets)
+            fields.addAll(target.getRequiredFields());
+
+        return ArticleProjection.of(fields);
+    }
+
+    /**
+     * Populates tables from a parsed bulk file and marks them as
+     * processed.
+     *
+     * @param bulkFile the bulk data file that was parsed.
+     *
+     * @param document the parsed bulk file (which must contain the
+     * fields required by every table).
+     *
+     * @param targets the tables to populate.
+     *
+     * @throws RuntimeException unless all tables are populated
+     * successfully.
+     */
+    public static void processTargets(File bulkFile, PubmedXmlDocument document, List<BulkFileTarget> targets) {
+        for (BulkFileTarget target : targets)
+            processTable(bulkFile, document, target);
     }
 
-    private void processTable(BulkFileTarget target) {
+    private static void processTable(File bulkFile, PubmedXmlDocument document, BulkFileTarget target) {
         JamLogger.info("Processing table [%s]...", target.getTableName());
 
-        processDeletions(target);
-        processLatest(target);
+        processDeletions(document, target);
+        processLatest(document, target);
 
         ProcessHistoryTable.instance().markAsProcessed(bulkFile, target.getTableName());
     }
 
-    private void processDeletions(BulkFileTarget<?> target) {
+    private static void processDeletions(PubmedXmlDocument document, BulkFileTarget<?> target) {
         List<PMID> deleted = document.viewDeleted();
 
         if (!target.deleteCitations(deleted))
             throw JamException.runtime("Failed to delete articles from [%s].", target.getTableName());
     }
 
-    private void processLatest(BulkFileTarget<?> target) {
+    private static void processLatest(PubmedXmlDocument document, BulkFileTarget<?> target) {
         List<PubmedArticle> latest = document.viewLatest();
 
         if (!target.processLatest(latest))
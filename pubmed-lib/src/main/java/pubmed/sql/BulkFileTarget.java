@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import jam.app.JamLogger;
 import jam.sql.BulkRecord;
@@ -15,6 +16,7 @@ import jam.util.ListUtil;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Identifies a {@code pubmed} database table as one that is populated
@@ -109,6 +111,19 @@ public interface BulkFileTarget<V extends BulkRecord> extends PubmedResource {
 	}
     }
 
+    /**
+     * Returns the article fields that must be parsed to generate the
+     * records in this table.  The fields required to parse any
+     * article ({@link pubmed.article.PubmedArticleXmlParser#REQUIRED_FIELDS})
+     * are always parsed and need not be included.
+     *
+     * @return the article fields required by this table (every field,
+     * by default).
+     */
+    public default Set<ArticleField> getRequiredFields() {
+        return ArticleField.ALL;
+    }
+
     /**
      * Returns the name of this table.
      *
@@ -4,9 +4,11 @@ package pubmed.sql;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Set;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Maintains the {@code chemicals} table: a many-to-many mapping
@@ -64,6 +66,10 @@ public final class ChemicalTable extends ArticleTextJoinTable<ChemicalRecord> {
         return ChemicalRecord.create(pmid, mkey);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.CHEMICAL_LIST);
+    }
+
     @Override public String getTableName() {
         return TABLE_NAME;
     }
@@ -4,12 +4,14 @@ package pubmed.sql;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import jam.sql.SQLColumn;
 import jam.sql.SQLTable;
 
 import pubmed.article.PMID;
 import pubmed.article.PubmedArticle;
+import pubmed.xml.ArticleField;
 
 /**
  * Maintains the {@code headings} table: a many-to-many mapping
@@ -92,6 +94,10 @@ public final class HeadingTable extends SQLTable implements BulkFileTarget<Headi
         return List.of(PMID_COLUMN, DESCRIPTOR_COLUMN, QUALIFIER_COLUMN);
     }
 
+    @Override public Set<ArticleField> getRequiredFields() {
+        return Set.of(ArticleField.MESH_HEADING_LIST);
+    }
+
     @Override public String getTableName() {
         return TABLE_NAME;
     }
@@ -1,11 +1,8 @@
 
 package pubmed.xml;
 
-import java.util.List;
-
 import org.jdom2.Element;
 
-import jam.report.LineBuilder;
 import jam.xml.JDOMElement;
 
 /**
@@ -17,17 +14,7 @@ public final class AbstractElement extends JDOMElement {
 
     private AbstractElement(Element element) {
         super(element, TAG_NAME);
-        this.text = parseText();
-    }
-
-    private String parseText() {
-        LineBuilder builder = new LineBuilder(" ");
-        List<Element> children = element.getChildren("AbstractText");
-
-        for (Element child : children)
-            builder.append(child.getTextNormalize());
-
-        return builder.toString();
+        this.text = XmlText.normalizeJoin(element.getChildren("AbstractText"));
     }
 
     /**
@@ -0,0 +1,65 @@
+
+package pubmed.xml;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Enumerates the optional subtrees of a {@code PubmedArticle} element
+ * that may be requested in a projected parse (see {@link
+ * ArticleProjection}).
+ *
+ * <p>The {@code PMID} element, which identifies every article, is
+ * always retained and is therefore not a field.
+ */
+public enum ArticleField {
+    ABSTRACT("MedlineCitation", "Article", "Abstract"),
+    ARTICLE_DATE("MedlineCitation", "Article", "ArticleDate"),
+    ARTICLE_ID_LIST("PubmedData", "ArticleIdList"),
+    AUTHOR_LIST("MedlineCitation", "Article", "AuthorList"),
+    CHEMICAL_LIST("MedlineCitation", "ChemicalList"),
+    COI_STATEMENT("MedlineCitation", "CoiStatement"),
+    COMMENTS_CORRECTIONS_LIST("MedlineCitation", "CommentsCorrectionsList"),
+    DATE_COMPLETED("MedlineCitation", "DateCompleted"),
+    DATE_REVISED("MedlineCitation", "DateRevised"),
+    HISTORY("PubmedData", "History"),
+    JOURNAL("MedlineCitation", "Article", "Journal"),
+    KEYWORD_LIST("MedlineCitation", "KeywordList"),
+    MEDLINE_JOURNAL_INFO("MedlineCitation", "MedlineJournalInfo"),
+    MESH_HEADING_LIST("MedlineCitation", "MeshHeadingList"),
+    PUBLICATION_TYPE_LIST("MedlineCitation", "Article", "PublicationTypeList"),
+    REFERENCE_LIST("PubmedData", "ReferenceList"),
+    TITLE("MedlineCitation", "Article", "ArticleTitle");
+
+    private final List<String> path;
+
+    private ArticleField(String... path) {
+        this.path = List.of(path);
+    }
+
+    /**
+     * An unmodifiable set containing every field.
+     */
+    public static final Set<ArticleField> ALL =
+        Collections.unmodifiableSet(EnumSet.allOf(ArticleField.class));
+
+    /**
+     * The fields required to resolve the publication date of an
+     * article.
+     */
+    public static final Set<ArticleField> PUBLICATION_DATE =
+        Collections.unmodifiableSet(EnumSet.of(ARTICLE_DATE, DATE_COMPLETED, DATE_REVISED, HISTORY));
+
+    /**
+     * Returns the tag names of the elements on the path from the
+     * {@code PubmedArticle} element (exclusive) to the root of the
+     * subtree containing this field (inclusive).
+     *
+     * @return the element path for this field.
+     */
+    public List<String> getPath() {
+        return path;
+    }
+}
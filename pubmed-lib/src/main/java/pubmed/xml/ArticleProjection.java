@@ -0,0 +1,383 @@
+
+package pubmed.xml;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom2.Attribute;
+import org.jdom2.CDATA;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLFilter;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Specifies the subset of each {@code PubmedArticle} element that
+ * must be retained when parsing a bulk file.
+ *
+ * <p>Element subtrees that are not required by any field are skipped
+ * by the parser, so their JDOM content is never built.  The {@code
+ * PMID} element and the structural {@code MedlineCitation}, {@code
+ * Article}, and {@code PubmedData} elements (but not their other
+ * children) are always retained, so that the element decorators in
+ * this package may navigate a projected article exactly as they
+ * would navigate a complete one.  Elements outside of articles, such
+ * as {@code DeleteCitation}, are never affected.
+ *
+ * <p>Accessing data that was not requested in the projection gives
+ * the same result as accessing data that is missing from the XML
+ * file (or raises the same exception, for required elements).
+ */
+public final class ArticleProjection {
+    private final Set<ArticleField> fields;
+
+    // Element trie for the document, or null for a complete
+    // projection...
+    private final Node documentNode;
+
+    private ArticleProjection(Set<ArticleField> fields) {
+        this.fields = Collections.unmodifiableSet(fields);
+
+        if (fields.containsAll(ArticleField.ALL))
+            this.documentNode = null;
+        else
+            this.documentNode = buildTrie(fields);
+    }
+
+    /**
+     * The complete projection, which retains every element.
+     */
+    public static final ArticleProjection ALL = new ArticleProjection(EnumSet.allOf(ArticleField.class));
+
+    /**
+     * Returns the projection that retains a given set of fields.
+     *
+     * @param fields the fields to retain.
+     *
+     * @return the projection that retains the specified fields.
+     */
+    public static ArticleProjection of(Collection<ArticleField> fields) {
+        if (fields.containsAll(ArticleField.ALL))
+            return ALL;
+
+        EnumSet<ArticleField> fieldSet = EnumSet.noneOf(ArticleField.class);
+        fieldSet.addAll(fields);
+
+        return new ArticleProjection(fieldSet);
+    }
+
+    /**
+     * Returns the projection that retains a given set of fields.
+     *
+     * @param fields the fields to retain.
+     *
+     * @return the projection that retains the specified fields.
+     */
+    public static ArticleProjection of(ArticleField... fields) {
+        EnumSet<ArticleField> fieldSet = EnumSet.noneOf(ArticleField.class);
+        Collections.addAll(fieldSet, fields);
+
+        return of(fieldSet);
+    }
+
+    /**
+     * Returns the fields retained by this projection.
+     *
+     * @return an unmodifiable set containing the fields retained by
+     * this projection.
+     */
+    public Set<ArticleField> getFields() {
+        return fields;
+    }
+
+    /**
+     * Identifies complete projections.
+     *
+     * @return {@code true} iff this projection retains every element.
+     */
+    public boolean isComplete() {
+        return documentNode == null;
+    }
+
+    /**
+     * Returns the projection that retains the fields of this
+     * projection and another.
+     *
+     * @param that the other projection.
+     *
+     * @return the union of this projection and the other.
+     */
+    public ArticleProjection union(ArticleProjection that) {
+        EnumSet<ArticleField> fieldSet = EnumSet.noneOf(ArticleField.class);
+
+        fieldSet.addAll(this.fields);
+        fieldSet.addAll(that.fields);
+
+        return of(fieldSet);
+    }
+
+    //
+    // Each node in the trie corresponds to an element and specifies
+    // which of its children are retained: the child nodes are the
+    // retained children, the default node is used for children that
+    // are not explicitly named, and a subtree node retains all of its
+    // descendants.
+    //
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<String, Node>();
+
+        private Node defaultChild = null;
+        private boolean subtree = false;
+
+        private Node child(String name) {
+            if (subtree)
+                return this;
+
+            Node child = children.get(name);
+
+            if (child != null)
+                return child;
+            else
+                return defaultChild;
+        }
+
+        private Node require(String name) {
+            return children.computeIfAbsent(name, key -> new Node());
+        }
+    }
+
+    private static Node buildTrie(Set<ArticleField> fields) {
+        Node subtreeNode = new Node();
+        subtreeNode.subtree = true;
+
+        Node articleNode = new Node();
+        articleNode.require(MedlineCitationElement.TAG_NAME).require(PMIDElement.TAG_NAME).subtree = true;
+        articleNode.require(MedlineCitationElement.TAG_NAME).require(ArticleElement.TAG_NAME);
+        articleNode.require(PubmedDataElement.TAG_NAME);
+
+        for (ArticleField field : fields) {
+            Node node = articleNode;
+
+            for (String name : field.getPath())
+                node = node.require(name);
+
+            node.subtree = true;
+        }
+
+        Node setNode = new Node();
+        setNode.children.put(PubmedArticleElement.TAG_NAME, articleNode);
+        setNode.defaultChild = subtreeNode;
+
+        Node documentNode = new Node();
+        documentNode.defaultChild = setNode;
+
+        return documentNode;
+    }
+
+    /**
+     * Creates a new SAX filter that removes the elements excluded by
+     * this projection from a complete bulk file.
+     *
+     * @return a new SAX filter, or {@code null} if this projection is
+     * complete.
+     */
+    XMLFilter newFilter() {
+        if (isComplete())
+            return null;
+        else
+            return new Filter(documentNode);
+    }
+
+    private static final class Filter extends XMLFilterImpl {
+        private final Node documentNode;
+        private final Deque<Node> nodes = new ArrayDeque<Node>();
+
+        // Nesting depth within an excluded subtree...
+        private int skipDepth = 0;
+
+        private Filter(Node documentNode) {
+            this.documentNode = documentNode;
+        }
+
+        @Override public void startDocument() throws SAXException {
+            nodes.clear();
+            nodes.push(documentNode);
+            skipDepth = 0;
+
+            super.startDocument();
+        }
+
+        @Override public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+            if (skipDepth > 0) {
+                ++skipDepth;
+                return;
+            }
+
+            Node node = nodes.peek().child(localName);
+
+            if (node == null) {
+                skipDepth = 1;
+                return;
+            }
+
+            nodes.push(node);
+            super.startElement(uri, localName, qName, attributes);
+        }
+
+        @Override public void endElement(String uri, String localName, String qName) throws SAXException {
+            if (skipDepth > 0) {
+                --skipDepth;
+                return;
+            }
+
+            nodes.pop();
+            super.endElement(uri, localName, qName);
+        }
+
+        @Override public void characters(char[] ch, int start, int length) throws SAXException {
+            if (skipDepth == 0)
+                super.characters(ch, start, length);
+        }
+
+        @Override public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (skipDepth == 0)
+                super.ignorableWhitespace(ch, start, length);
+        }
+
+        @Override public void processingInstruction(String target, String data) throws SAXException {
+            if (skipDepth == 0)
+                super.processingInstruction(target, data);
+        }
+    }
+
+    /**
+     * Builds the projection of a {@code PubmedArticle} element from a
+     * streaming reader positioned on its start tag.  On return, the
+     * reader is positioned on the matching end tag.
+     *
+     * @param reader a streaming reader positioned on the start tag of
+     * an article element.
+     *
+     * @return the projected article element.
+     *
+     * @throws XMLStreamException if a parsing error occurs.
+     */
+    Element fragment(XMLStreamReader reader) throws XMLStreamException {
+        Deque<Node> nodes = new ArrayDeque<Node>();
+        Deque<Element> elements = new ArrayDeque<Element>();
+
+        Element article = newElement(reader);
+
+        elements.push(article);
+        nodes.push(documentNode.child(PubmedArticleSetElement.TAG_NAME).child(article.getName()));
+
+        int skipDepth = 0;
+
+        while (true) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT:
+                if (skipDepth > 0) {
+                    ++skipDepth;
+                    break;
+                }
+
+                Node node = nodes.peek().child(reader.getLocalName());
+
+                if (node == null) {
+                    skipDepth = 1;
+                    break;
+                }
+
+                Element element = newElement(reader);
+                elements.peek().addContent(element);
+
+                elements.push(element);
+                nodes.push(node);
+                break;
+
+            case XMLStreamConstants.END_ELEMENT:
+                if (skipDepth > 0) {
+                    --skipDepth;
+                    break;
+                }
+
+                elements.pop();
+                nodes.pop();
+
+                if (elements.isEmpty())
+                    return article;
+                break;
+
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.SPACE:
+                if (skipDepth == 0)
+                    elements.peek().addContent(new Text(reader.getText()));
+                break;
+
+            case XMLStreamConstants.CDATA:
+                if (skipDepth == 0)
+                    elements.peek().addContent(new CDATA(reader.getText()));
+                break;
+
+            default:
+                // Comments and processing instructions are dropped...
+                break;
+            }
+        }
+    }
+
+    private static Element newElement(XMLStreamReader reader) {
+        Element element =
+            new Element(reader.getLocalName(), namespace(reader.getPrefix(), reader.getNamespaceURI()));
+
+        for (int index = 0; index < reader.getNamespaceCount(); ++index)
+            element.addNamespaceDeclaration(namespace(reader.getNamespacePrefix(index),
+                                                      reader.getNamespaceURI(index)));
+
+        for (int index = 0; index < reader.getAttributeCount(); ++index)
+            element.setAttribute(new Attribute(reader.getAttributeLocalName(index),
+                                               reader.getAttributeValue(index),
+                                               namespace(reader.getAttributePrefix(index),
+                                                         reader.getAttributeNamespace(index))));
+
+        return element;
+    }
+
+    private static Namespace namespace(String prefix, String uri) {
+        if (uri == null || uri.isEmpty())
+            return Namespace.NO_NAMESPACE;
+        else
+            return Namespace.getNamespace(prefix == null ? "" : prefix, uri);
+    }
+
+    @Override public boolean equals(Object obj) {
+        return (obj instanceof ArticleProjection) && equalsProjection((ArticleProjection) obj);
+    }
+
+    private boolean equalsProjection(ArticleProjection that) {
+        return this.fields.equals(that.fields);
+    }
+
+    @Override public int hashCode() {
+        return fields.hashCode();
+    }
+
+    @Override public String toString() {
+        return "ArticleProjection(" + fields + ")";
+    }
+}
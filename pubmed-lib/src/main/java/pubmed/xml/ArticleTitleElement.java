@@ -13,7 +13,7 @@ public final class ArticleTitleElement extends JDOMElement {
 
     private ArticleTitleElement(Element element) {
         super(element, TAG_NAME);
-        this.text = element.getTextNormalize();
+        this.text = XmlText.normalize(element);
     }
 
     /**
@@ -44,6 +44,18 @@ public final class DeleteCitationElement extends JDOMElement {
             return null;
     }
 
+    /**
+     * Decorates a stand-alone {@code DeleteCitation} element, such as
+     * one read from a {@link PubmedXmlStream}.
+     *
+     * @param element the {@code DeleteCitation} element.
+     *
+     * @return the decorated element.
+     */
+    public static DeleteCitationElement from(Element element) {
+        return new DeleteCitationElement(element);
+    }
+
     /**
      * Returns a read-only view of the identifiers for the deleted
      * articles.
@@ -5,6 +5,7 @@ import org.jdom2.Element;
 
 import jam.xml.JDOMElement;
 
+import pubmed.intern.StringPool;
 import pubmed.mesh.MeshDescriptorKey;
 
 /**
@@ -21,7 +22,7 @@ public final class DescriptorNameElement extends JDOMElement {
 
         this.isMajorTopic = getBooleanAttribute("MajorTopicYN", false);
         this.descriptorKey = MeshDescriptorKey.instance(getRequiredAttribute("UI"));
-        this.descriptorName = element.getTextNormalize();
+        this.descriptorName = StringPool.MESH_NAME.intern(element.getTextNormalize());
     }
 
     /**
@@ -7,6 +7,7 @@ import jam.xml.JDOMElement;
 
 import pubmed.article.ISSN;
 import pubmed.article.PubmedJournal;
+import pubmed.intern.StringPool;
 
 /**
  * Decorates the {@code Journal} element in a {@code PubMed} XML
@@ -21,8 +22,8 @@ public final class JournalElement extends JDOMElement {
         super(element, TAG_NAME);
 
         this.issn = parseISSN();
-        this.title = getChildText("Title");
-        this.abbrev = getChildText("ISOAbbreviation"); 
+        this.title = StringPool.JOURNAL_TITLE.intern(getChildText("Title"));
+        this.abbrev = StringPool.ISO_ABBREVIATION.intern(getChildText("ISOAbbreviation"));
     }
 
     private ISSN parseISSN() {
@@ -8,6 +8,8 @@ import org.jdom2.Element;
 import jam.util.ListUtil;
 import jam.xml.JDOMElement;
 
+import pubmed.intern.InternScope;
+
 /**
  * Decorates the {@code Keyword} element in a {@code PubMed} XML
  * document with additional parsing methods.
@@ -19,7 +21,7 @@ public final class KeywordElement extends JDOMElement {
     private KeywordElement(Element element) {
         super(element, TAG_NAME);
 
-        this.keyword = element.getTextNormalize();
+        this.keyword = InternScope.intern(element.getTextNormalize());
         this.isMajorTopic = getBooleanAttribute("MajorTopicYN", false);
     }
 
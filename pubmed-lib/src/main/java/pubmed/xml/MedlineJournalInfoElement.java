@@ -6,6 +6,7 @@ import org.jdom2.Element;
 import jam.xml.JDOMElement;
 
 import pubmed.article.ISSN;
+import pubmed.intern.StringPool;
 import pubmed.medline.MedlineTA;
 import pubmed.medline.NlmUniqueID;
 
@@ -23,7 +24,7 @@ public final class MedlineJournalInfoElement extends JDOMElement {
         super(element, TAG_NAME);
 
         this.issn = parseISSN();
-        this.country = getChildText("Country");
+        this.country = StringPool.COUNTRY.intern(getChildText("Country"));
         this.medlineTA = parseMedlineTA();
         this.nlmUniqueID = parseNlmUniqueId();
     }
@@ -3,9 +3,7 @@ package pubmed.xml;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.TreeSet;
 
 import org.jdom2.Element;
@@ -17,6 +15,7 @@ import pubmed.article.CommentCorrection;
 import pubmed.article.CommentCorrectionType;
 import pubmed.article.DOI;
 import pubmed.article.PMID;
+import pubmed.article.PmidIntMap;
 import pubmed.article.PublicationType;
 import pubmed.article.PubmedJournal;
 import pubmed.mesh.MeshHeading;
@@ -96,19 +95,48 @@ public final class PubmedArticleElement extends JDOMElement {
     public static List<PubmedArticleElement> from(PubmedArticleSetElement parent) {
         //
         // At least one bulk XML file contains duplicate PMIDs (with
-        // different version numbers).  We add article elements to a
-        // LinkedHashMap, which will eliminate the duplicate records
-        // while maintaining the order in the bulk file...
+        // different version numbers).  We map each PMID to the index
+        // of its last element and emit that element at the position
+        // of the first, which eliminates the duplicate records while
+        // maintaining the order in the bulk file...
         //
-        Map<PMID, PubmedArticleElement> articles =
-            new LinkedHashMap<PMID, PubmedArticleElement>();
+        List<PubmedArticleElement> elements = ListUtil.apply(parent.getChildren(TAG_NAME), child -> from(child));
+        PmidIntMap.Builder lastIndex = PmidIntMap.builder(elements.size());
+        int[] pmids = new int[elements.size()];
 
-        for (Element child : parent.getChildren(TAG_NAME)) {
-            PubmedArticleElement article = new PubmedArticleElement(child);
-            articles.put(article.getPMID(), article);
+        for (int index = 0; index < pmids.length; ++index) {
+            pmids[index] = elements.get(index).getPMID().intValue();
+            lastIndex.put(pmids[index], index);
         }
 
-        return new ArrayList<PubmedArticleElement>(articles.values());
+        PmidIntMap indexMap = lastIndex.build();
+        boolean[] emitted = new boolean[pmids.length];
+
+        List<PubmedArticleElement> articles =
+            new ArrayList<PubmedArticleElement>(indexMap.size());
+
+        for (int pmid : pmids) {
+            int index = indexMap.get(pmid, -1);
+
+            if (!emitted[index]) {
+                emitted[index] = true;
+                articles.add(elements.get(index));
+            }
+        }
+
+        return articles;
+    }
+
+    /**
+     * Decorates a stand-alone {@code PubmedArticle} element, such as
+     * one read from a {@link PubmedXmlStream}.
+     *
+     * @param element the {@code PubmedArticle} element.
+     *
+     * @return the decorated element.
+     */
+    public static PubmedArticleElement from(Element element) {
+        return new PubmedArticleElement(element);
     }
 
     /**
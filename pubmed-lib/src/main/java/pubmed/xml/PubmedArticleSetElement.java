@@ -41,7 +41,51 @@ public final class PubmedArticleSetElement extends JDOMElement {
      * the XML file).
      */
     public static PubmedArticleSetElement from(File xmlFile) {
-        return from(JDOMDocument.parse(xmlFile));
+        return from(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Creates a new element by parsing the elements of an XML file
+     * that are retained by an article projection.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return the decorated article set element (the root element in
+     * the XML file).
+     */
+    public static PubmedArticleSetElement from(File xmlFile, ArticleProjection projection) {
+        return from(xmlFile, projection, XmlParseMode.resolve());
+    }
+
+    /**
+     * Creates a new element by parsing the elements of an XML file
+     * that are retained by an article projection.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @param mode the parser configuration to use.
+     *
+     * @return the decorated article set element (the root element in
+     * the XML file).
+     */
+    public static PubmedArticleSetElement from(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
+        return new PubmedArticleSetElement(PubmedXmlBuilder.build(xmlFile, projection, mode).getRootElement());
+    }
+
+    /**
+     * Decorates the root element of a document that has already been
+     * parsed.
+     *
+     * @param element the root {@code PubmedArticleSet} element.
+     *
+     * @return the decorated article set element.
+     */
+    public static PubmedArticleSetElement from(Element element) {
+        return new PubmedArticleSetElement(element);
     }
 
     /**
@@ -0,0 +1,121 @@
+
+package pubmed.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import jam.app.JamLogger;
+import jam.lang.JamException;
+
+/**
+ * Resolves the external entities (DTDs) declared by {@code PubMed}
+ * and {@code MeSH} XML files from resources bundled with this library,
+ * so that parsing never requires network access.
+ *
+ * <p>The mapping from system identifiers to local resources is read
+ * from the catalog resource {@code pubmed/xml/catalog.properties}.
+ * Entities that are not listed in the catalog resolve to empty
+ * content (with a single warning per system identifier).
+ */
+public final class PubmedEntityResolver implements EntityResolver {
+    private final Map<String, String> exactMap = new HashMap<String, String>();
+    private final Map<String, String> prefixMap = new HashMap<String, String>();
+    private final Set<String> unresolved = ConcurrentHashMap.newKeySet();
+
+    private PubmedEntityResolver() {
+        loadCatalog();
+    }
+
+    /**
+     * Name of the catalog resource (relative to this class).
+     */
+    public static final String CATALOG_RESOURCE = "catalog.properties";
+
+    /**
+     * The single entity resolver.
+     */
+    public static final PubmedEntityResolver INSTANCE = new PubmedEntityResolver();
+
+    private void loadCatalog() {
+        Properties catalog = new Properties();
+
+        try (InputStream stream = PubmedEntityResolver.class.getResourceAsStream(CATALOG_RESOURCE)) {
+            if (stream == null)
+                throw JamException.runtime("Missing entity catalog [%s].", CATALOG_RESOURCE);
+
+            catalog.load(stream);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+
+        for (String key : catalog.stringPropertyNames()) {
+            String resource = catalog.getProperty(key).trim();
+
+            if (key.endsWith("*"))
+                prefixMap.put(key.substring(0, key.length() - 1), resource);
+            else
+                exactMap.put(key, resource);
+        }
+    }
+
+    /**
+     * Returns the name of the local resource that replaces an external
+     * entity.
+     *
+     * @param systemId the system identifier of the external entity.
+     *
+     * @return the name of the local resource (relative to this class)
+     * that replaces the specified entity, or {@code null} if the
+     * entity is not listed in the catalog.
+     */
+    public String resolveResource(String systemId) {
+        if (systemId == null)
+            return null;
+
+        String fileName = systemId.substring(systemId.lastIndexOf('/') + 1);
+        String resource = exactMap.get(fileName);
+
+        if (resource != null)
+            return resource;
+
+        for (Map.Entry<String, String> entry : prefixMap.entrySet())
+            if (fileName.startsWith(entry.getKey()))
+                return entry.getValue();
+
+        return null;
+    }
+
+    @Override public InputSource resolveEntity(String publicId, String systemId) {
+        InputSource source = null;
+        String resource = resolveResource(systemId);
+
+        if (resource != null) {
+            InputStream stream = PubmedEntityResolver.class.getResourceAsStream(resource);
+
+            if (stream != null)
+                source = new InputSource(stream);
+        }
+
+        if (source == null) {
+            if (unresolved.add(String.valueOf(systemId)))
+                JamLogger.warn("No local copy of external entity [%s]; using empty content.", systemId);
+
+            source = new InputSource(new StringReader(""));
+        }
+
+        source.setPublicId(publicId);
+        source.setSystemId(systemId);
+
+        return source;
+    }
+}
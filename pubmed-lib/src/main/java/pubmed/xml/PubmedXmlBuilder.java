@@ -0,0 +1,241 @@
+
+package pubmed.xml;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import org.jdom2.Document;
+import org.jdom2.input.SAXBuilder;
+
+import jam.io.FileUtil;
+import jam.io.ZipUtil;
+import jam.lang.JamException;
+
+import pubmed.io.ReadAheadInputStream;
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.metrics.TimedInputStream;
+
+/**
+ * Opens and parses {@code PubMed} XML bulk files (and other XML files
+ * from the NLM, such as the {@code MeSH} record sets).
+ *
+ * <p>Compressed files are inflated on a separate read-ahead thread
+ * (see {@link ReadAheadInputStream}), so that decompression overlaps
+ * with XML parsing rather than alternating with it.
+ *
+ * <p>The parsers never validate and never access the network: the
+ * DTDs declared by the files are resolved from a local catalog (see
+ * {@link PubmedEntityResolver}) or skipped entirely, depending on the
+ * {@link XmlParseMode}.
+ *
+ * <p>If the system property {@link PubmedXmlSidecar#ENABLED_PROPERTY}
+ * is set to {@code true}, the first parse of each file is complete
+ * (regardless of the projection) and is cached in a binary sidecar
+ * file; later parses read the sidecar (while it remains newer than
+ * the XML file) instead of the XML.
+ *
+ * <p>The time spent reading, inflating, and parsing each file is
+ * recorded with the {@link PipelineMetrics#recorder() pipeline
+ * metrics} of the calling thread.
+ */
+public final class PubmedXmlBuilder {
+    private PubmedXmlBuilder() {
+    }
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final String LOAD_EXTERNAL_DTD_FEATURE =
+        "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+
+    private static final String EXTERNAL_GENERAL_ENTITIES_FEATURE =
+        "http://xml.org/sax/features/external-general-entities";
+
+    private static final String EXTERNAL_PARAMETER_ENTITIES_FEATURE =
+        "http://xml.org/sax/features/external-parameter-entities";
+
+    // Reusable fast-mode builders, one per projection in each thread...
+    private static final ThreadLocal<Map<ArticleProjection, SAXBuilder>> fastBuilders =
+        ThreadLocal.withInitial(() -> new HashMap<ArticleProjection, SAXBuilder>());
+
+    /**
+     * Opens an input stream for the content of an XML file.  Files
+     * with the {@code gzip} suffix are inflated on a background
+     * read-ahead thread.
+     *
+     * @param xmlFile the XML file to open.
+     *
+     * @return an input stream for the uncompressed content.
+     *
+     * @throws RuntimeException unless the file can be opened.
+     */
+    public static InputStream openInputStream(File xmlFile) {
+        try {
+            TimedInputStream stream = TimedInputStream.wrap(new FileInputStream(xmlFile), Stage.READ);
+
+            if (xmlFile.getName().endsWith(ZipUtil.GZIP_SUFFIX)) {
+                InputStream inflater = TimedInputStream.wrap(new GZIPInputStream(stream, BUFFER_SIZE), Stage.INFLATE, stream);
+                return ReadAheadInputStream.create(inflater, xmlFile.getName());
+            }
+            else
+                return new BufferedInputStream(stream, BUFFER_SIZE);
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+    }
+
+    static SAXBuilder newBuilder() {
+        return newBuilder(ArticleProjection.ALL, XmlParseMode.resolve());
+    }
+
+    static SAXBuilder newBuilder(ArticleProjection projection, XmlParseMode mode) {
+        switch (mode) {
+        case STANDARD:
+            return newStandardBuilder(projection);
+
+        case FAST:
+            return fastBuilders.get().computeIfAbsent(projection, PubmedXmlBuilder::newFastBuilder);
+
+        default:
+            throw JamException.runtime("Unknown parse mode: [%s].", mode);
+        }
+    }
+
+    private static SAXBuilder newStandardBuilder(ArticleProjection projection) {
+        SAXBuilder builder = new SAXBuilder();
+
+        builder.setEntityResolver(PubmedEntityResolver.INSTANCE);
+        builder.setXMLFilter(projection.newFilter());
+
+        return builder;
+    }
+
+    private static SAXBuilder newFastBuilder(ArticleProjection projection) {
+        SAXBuilder builder = newStandardBuilder(projection);
+
+        builder.setFeature(LOAD_EXTERNAL_DTD_FEATURE, false);
+        builder.setFeature(EXTERNAL_GENERAL_ENTITIES_FEATURE, false);
+        builder.setFeature(EXTERNAL_PARAMETER_ENTITIES_FEATURE, false);
+        builder.setReuseParser(true);
+
+        return builder;
+    }
+
+    /**
+     * Parses an entire XML file into a document tree using the default
+     * parse mode.  If the system property {@link
+     * PubmedXmlChunkParser#ENABLED_PROPERTY} is set to {@code true},
+     * the file is parsed in parallel chunks.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @return the parsed document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document build(File xmlFile) {
+        return build(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Parses an entire XML file into a document tree.  If the system
+     * property {@link PubmedXmlChunkParser#ENABLED_PROPERTY} is set to
+     * {@code true}, the file is parsed in parallel chunks.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param mode the parser configuration to use.
+     *
+     * @return the parsed document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document build(File xmlFile, XmlParseMode mode) {
+        return build(xmlFile, ArticleProjection.ALL, mode);
+    }
+
+    /**
+     * Parses the elements of an XML file that are retained by an
+     * article projection into a document tree using the default parse
+     * mode.  If the system property {@link
+     * PubmedXmlChunkParser#ENABLED_PROPERTY} is set to {@code true},
+     * the file is parsed in parallel chunks.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document build(File xmlFile, ArticleProjection projection) {
+        return build(xmlFile, projection, XmlParseMode.resolve());
+    }
+
+    /**
+     * Parses the elements of an XML file that are retained by an
+     * article projection into a document tree.  If the system
+     * property {@link PubmedXmlChunkParser#ENABLED_PROPERTY} is set to
+     * {@code true}, the file is parsed in parallel chunks.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @param mode the parser configuration to use.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document build(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
+        if (!PubmedXmlSidecar.isEnabled())
+            return parse(xmlFile, projection, mode);
+
+        //
+        // The sidecar holds the complete document, which serves every
+        // projection, so the first parse ignores the projection...
+        //
+        if (PubmedXmlSidecar.isFresh(xmlFile))
+            return PubmedXmlSidecar.read(xmlFile);
+
+        Document document = parse(xmlFile, ArticleProjection.ALL, mode);
+        PubmedXmlSidecar.write(xmlFile, document);
+
+        return document;
+    }
+
+    private static Document parse(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
+        if (PubmedXmlChunkParser.isEnabled())
+            return PubmedXmlChunkParser.parse(xmlFile, projection, mode);
+
+        long start = System.nanoTime();
+
+        try (TimedInputStream stream = TimedInputStream.wrap(openInputStream(xmlFile), null)) {
+            Document document =
+                newBuilder(projection, mode).build(stream, FileUtil.getCanonicalFile(xmlFile).toURI().toString());
+
+            //
+            // The parse time excludes the time spent waiting for the
+            // (read-ahead) input stream...
+            //
+            long nanos = System.nanoTime() - start - stream.getNanos();
+            int articles = document.getRootElement().getChildren(PubmedArticleElement.TAG_NAME).size();
+
+            PipelineMetrics.recorder().record(Stage.PARSE, nanos, articles, stream.getBytes());
+
+            return document;
+        }
+        catch (Exception ex) {
+            throw JamException.runtime("Could not parse XML file [%s]: %s", xmlFile, ex.getMessage());
+        }
+    }
+}
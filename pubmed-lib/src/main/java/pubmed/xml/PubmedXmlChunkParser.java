@@ -0,0 +1,445 @@
+
+package pubmed.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+
+import org.jdom2.Content;
+import org.jdom2.Document;
+import org.jdom2.Element;
+
+import jam.app.JamProperties;
+import jam.lang.JamException;
+
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.metrics.TimedInputStream;
+
+/**
+ * Parses a single {@code PubMed} XML bulk file on multiple cores.
+ *
+ * <p>The uncompressed content is split immediately before top-level
+ * {@code <PubmedArticle>} and {@code <DeleteCitation>} start tags
+ * into chunks of roughly equal size.  Each chunk is wrapped in its
+ * own {@code PubmedArticleSet} root and parsed as an independent
+ * document on a fork-join pool.  The parsed elements are then moved,
+ * in file order, under a single root element that carries the
+ * original prolog ({@code DOCTYPE} and root attributes).
+ *
+ * <p>The resulting document is therefore equivalent to the one built
+ * by a serial parse: duplicate articles and {@code DeleteCitation}
+ * blocks are resolved later by the same code that handles a serially
+ * parsed document.
+ */
+public final class PubmedXmlChunkParser {
+    private final File xmlFile;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+    private final ArticleProjection projection;
+    private final XmlParseMode mode;
+    private final Semaphore chunkPermits;
+    private final List<ForkJoinTask<List<Element>>> chunkTasks = new ArrayList<ForkJoinTask<List<Element>>>();
+
+    private int joinIndex = 0;
+
+    private InputStream input;
+    private Document document;
+
+    // Raw bytes read from the input but not yet assigned to a chunk...
+    private byte[] buffer = new byte[READ_SIZE];
+    private int bufferLength = 0;
+    private int searchIndex = 0;
+    private boolean endOfInput = false;
+
+    private static final int READ_SIZE = 65536;
+
+    private static final byte[] ROOT_START = bytes("<" + PubmedArticleSetElement.TAG_NAME);
+    private static final byte[] ROOT_END = bytes("</" + PubmedArticleSetElement.TAG_NAME);
+    private static final byte[] ARTICLE_START = bytes("<" + PubmedArticleElement.TAG_NAME + ">");
+    private static final byte[] DELETE_START = bytes("<" + DeleteCitationElement.TAG_NAME + ">");
+
+    private static final byte[] CHUNK_PREFIX = bytes("<" + PubmedArticleSetElement.TAG_NAME + ">");
+    private static final byte[] CHUNK_SUFFIX = bytes("</" + PubmedArticleSetElement.TAG_NAME + ">");
+
+    private PubmedXmlChunkParser(File xmlFile,
+                                 int chunkSize,
+                                 ForkJoinPool pool,
+                                 ArticleProjection projection,
+                                 XmlParseMode mode) {
+        this.xmlFile = xmlFile;
+        this.chunkSize = chunkSize;
+        this.pool = pool;
+        this.projection = projection;
+        this.mode = mode;
+        this.chunkPermits = new Semaphore(2 * pool.getParallelism());
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Name of the system property that enables chunk-parallel parsing
+     * for all bulk files parsed by {@link PubmedXmlBuilder#build}.
+     */
+    public static final String ENABLED_PROPERTY = "pubmed.xml.chunkParallel";
+
+    /**
+     * Name of the system property that specifies the approximate
+     * number of uncompressed bytes in each chunk.
+     */
+    public static final String CHUNK_SIZE_PROPERTY = "pubmed.xml.chunkSize";
+
+    /**
+     * Default approximate number of uncompressed bytes in each chunk.
+     */
+    public static final int CHUNK_SIZE_DEFAULT = 4 * 1024 * 1024;
+
+    /**
+     * Determines whether chunk-parallel parsing has been enabled by
+     * the system property.
+     *
+     * @return {@code true} iff chunk-parallel parsing is enabled.
+     */
+    public static boolean isEnabled() {
+        return JamProperties.isSet(ENABLED_PROPERTY)
+            && Boolean.parseBoolean(JamProperties.getRequired(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Parses a bulk file in parallel on the common fork-join pool,
+     * using the chunk size specified by the system property (or the
+     * default).
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @return the parsed document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document parse(File xmlFile) {
+        return parse(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Parses the elements of a bulk file that are retained by an
+     * article projection in parallel on the common fork-join pool,
+     * using the chunk size specified by the system property (or the
+     * default).
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document parse(File xmlFile, ArticleProjection projection) {
+        return parse(xmlFile, projection, XmlParseMode.resolve());
+    }
+
+    /**
+     * Parses the elements of a bulk file that are retained by an
+     * article projection in parallel on the common fork-join pool,
+     * using the chunk size specified by the system property (or the
+     * default).
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @param mode the parser configuration for the chunks.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document parse(File xmlFile, ArticleProjection projection, XmlParseMode mode) {
+        PubmedXmlChunkParser parser =
+            new PubmedXmlChunkParser(xmlFile, resolveChunkSize(), ForkJoinPool.commonPool(), projection, mode);
+
+        return parser.parse();
+    }
+
+    /**
+     * Parses a bulk file in parallel.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param chunkSize the approximate number of uncompressed bytes
+     * in each chunk.
+     *
+     * @param pool the pool that will parse the chunks.
+     *
+     * @return the parsed document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document parse(File xmlFile, int chunkSize, ForkJoinPool pool) {
+        return parse(xmlFile, chunkSize, pool, ArticleProjection.ALL);
+    }
+
+    /**
+     * Parses the elements of a bulk file that are retained by an
+     * article projection in parallel.
+     *
+     * @param xmlFile the XML file to parse.
+     *
+     * @param chunkSize the approximate number of uncompressed bytes
+     * in each chunk.
+     *
+     * @param pool the pool that will parse the chunks.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return the parsed (projected) document.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static Document parse(File xmlFile, int chunkSize, ForkJoinPool pool, ArticleProjection projection) {
+        PubmedXmlChunkParser parser =
+            new PubmedXmlChunkParser(xmlFile, chunkSize, pool, projection, XmlParseMode.resolve());
+
+        return parser.parse();
+    }
+
+    private static int resolveChunkSize() {
+        if (JamProperties.isSet(CHUNK_SIZE_PROPERTY))
+            return Integer.parseInt(JamProperties.getRequired(CHUNK_SIZE_PROPERTY));
+        else
+            return CHUNK_SIZE_DEFAULT;
+    }
+
+    private Document parse() {
+        if (chunkSize < 1)
+            throw JamException.runtime("Chunk size must be positive.");
+
+        long start = System.nanoTime();
+        TimedInputStream timed = TimedInputStream.wrap(PubmedXmlBuilder.openInputStream(xmlFile), null);
+
+        try (InputStream stream = timed) {
+            input = stream;
+
+            if (parseProlog())
+                submitChunks();
+        }
+        catch (IOException ex) {
+            throw JamException.runtime(ex);
+        }
+        finally {
+            //
+            // Wait for every submitted chunk (even after a failure),
+            // so that no task outlives the parse...
+            //
+            for (ForkJoinTask<List<Element>> task : chunkTasks)
+                task.quietlyJoin();
+        }
+
+        Element root = document.getRootElement();
+
+        for (ForkJoinTask<List<Element>> task : chunkTasks)
+            root.addContent(task.join());
+
+        //
+        // The chunks are parsed in parallel, so the parse time is the
+        // elapsed time less the time spent waiting for input...
+        //
+        long nanos = System.nanoTime() - start - timed.getNanos();
+        int articles = root.getChildren(PubmedArticleElement.TAG_NAME).size();
+
+        PipelineMetrics.recorder().record(Stage.PARSE, nanos, articles, timed.getBytes());
+
+        return document;
+    }
+
+    //
+    // Parses the XML declaration, DOCTYPE, and root start tag into a
+    // document with an empty root element; returns false if the root
+    // element is empty.
+    //
+    private boolean parseProlog() throws IOException {
+        int rootIndex = find(ROOT_START, 0);
+
+        while (rootIndex < 0 && readInput())
+            rootIndex = find(ROOT_START, 0);
+
+        if (rootIndex < 0)
+            throw JamException.runtime("Missing root element in [%s].", xmlFile);
+
+        int closeIndex = find((byte) '>', rootIndex);
+
+        while (closeIndex < 0 && readInput())
+            closeIndex = find((byte) '>', rootIndex);
+
+        if (closeIndex < 0)
+            throw JamException.runtime("Unterminated root element in [%s].", xmlFile);
+
+        boolean emptyRoot = buffer[closeIndex - 1] == '/';
+        byte[] prolog = Arrays.copyOf(buffer, closeIndex + 1);
+
+        if (emptyRoot)
+            document = build(prolog);
+        else
+            document = build(prolog, CHUNK_SUFFIX);
+
+        consume(closeIndex + 1);
+        return !emptyRoot;
+    }
+
+    private void submitChunks() throws IOException {
+        while (true) {
+            int boundary = findBoundary();
+
+            if (boundary > 0) {
+                submitChunk(boundary);
+            }
+            else if (!readInput()) {
+                submitLastChunk();
+                return;
+            }
+        }
+    }
+
+    private int findBoundary() {
+        int articleIndex = find(ARTICLE_START, Math.max(searchIndex, chunkSize));
+        int deleteIndex = find(DELETE_START, Math.max(searchIndex, chunkSize));
+
+        searchIndex = Math.max(searchIndex, bufferLength - Math.max(ARTICLE_START.length, DELETE_START.length));
+
+        if (articleIndex < 0)
+            return deleteIndex;
+        else if (deleteIndex < 0)
+            return articleIndex;
+        else
+            return Math.min(articleIndex, deleteIndex);
+    }
+
+    private void submitLastChunk() {
+        int rootIndex = findLast(ROOT_END);
+
+        if (rootIndex < 0)
+            throw JamException.runtime("Missing root end tag in [%s].", xmlFile);
+
+        if (rootIndex > 0)
+            submitChunk(rootIndex);
+    }
+
+    private void submitChunk(int chunkLength) {
+        byte[] chunk = Arrays.copyOf(buffer, chunkLength);
+        consume(chunkLength);
+
+        acquirePermit();
+        chunkTasks.add(pool.submit(() -> parseChunk(chunk)));
+    }
+
+    private void acquirePermit() {
+        //
+        // Limit the number of raw chunks held in memory.  Rather than
+        // blocking (which could starve the pool if this thread is one
+        // of its workers), help to complete the oldest outstanding
+        // chunk until a permit becomes available...
+        //
+        while (!chunkPermits.tryAcquire())
+            chunkTasks.get(joinIndex++).quietlyJoin();
+    }
+
+    private List<Element> parseChunk(byte[] chunk) {
+        try {
+            Element root = build(CHUNK_PREFIX, chunk, CHUNK_SUFFIX).getRootElement();
+            List<Element> elements = new ArrayList<Element>();
+
+            for (Content content : root.removeContent())
+                if (content instanceof Element)
+                    elements.add((Element) content);
+
+            return elements;
+        }
+        finally {
+            chunkPermits.release();
+        }
+    }
+
+    private Document build(byte[]... parts) {
+        List<InputStream> streams = new ArrayList<InputStream>(parts.length);
+
+        for (byte[] part : parts)
+            streams.add(new ByteArrayInputStream(part));
+
+        try {
+            return PubmedXmlBuilder.newBuilder(projection, mode).build(new SequenceInputStream(Collections.enumeration(streams)));
+        }
+        catch (Exception ex) {
+            throw JamException.runtime("Could not parse XML chunk in [%s]: %s", xmlFile, ex.getMessage());
+        }
+    }
+
+    private boolean readInput() throws IOException {
+        if (endOfInput)
+            return false;
+
+        if (buffer.length - bufferLength < READ_SIZE)
+            buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, bufferLength + READ_SIZE));
+
+        int count = input.read(buffer, bufferLength, READ_SIZE);
+
+        if (count < 0)
+            endOfInput = true;
+        else
+            bufferLength += count;
+
+        return !endOfInput;
+    }
+
+    private void consume(int count) {
+        System.arraycopy(buffer, count, buffer, 0, bufferLength - count);
+
+        bufferLength -= count;
+        searchIndex = 0;
+    }
+
+    private int find(byte target, int fromIndex) {
+        for (int index = fromIndex; index < bufferLength; ++index)
+            if (buffer[index] == target)
+                return index;
+
+        return -1;
+    }
+
+    private int find(byte[] pattern, int fromIndex) {
+        int lastStart = bufferLength - pattern.length;
+
+        for (int index = fromIndex; index <= lastStart; ++index)
+            if (matches(pattern, index))
+                return index;
+
+        return -1;
+    }
+
+    private int findLast(byte[] pattern) {
+        for (int index = bufferLength - pattern.length; index >= 0; --index)
+            if (matches(pattern, index))
+                return index;
+
+        return -1;
+    }
+
+    private boolean matches(byte[] pattern, int index) {
+        for (int k = 0; k < pattern.length; ++k)
+            if (buffer[index + k] != pattern[k])
+                return false;
+
+        return true;
+    }
+}
@@ -2,7 +2,13 @@
 package pubmed.xml;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+
+import org.jdom2.Document;
+
+import jam.app.JamLogger;
 
 import pubmed.article.PMID;
 
@@ -13,9 +19,9 @@ public final class PubmedXmlDocument {
     private final File xmlFile;
     private final PubmedArticleSetElement pubmedArticleSetElement;
 
-    private PubmedXmlDocument(File xmlFile) {
+    private PubmedXmlDocument(File xmlFile, PubmedArticleSetElement pubmedArticleSetElement) {
         this.xmlFile = xmlFile;
-        this.pubmedArticleSetElement = PubmedArticleSetElement.from(xmlFile);
+        this.pubmedArticleSetElement = pubmedArticleSetElement;
     }
 
     /**
@@ -41,7 +47,96 @@ public final class PubmedXmlDocument {
      * @throws RuntimeException if any I/O or parsing errors occur.
      */
     public static PubmedXmlDocument parse(File xmlFile) {
-        return new PubmedXmlDocument(xmlFile);
+        return parse(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Parses the elements of a {@code PubMed} XML bulk data file that
+     * are retained by an article projection.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return a document object containing the projected content.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static PubmedXmlDocument parse(File xmlFile, ArticleProjection projection) {
+        return new PubmedXmlDocument(xmlFile, PubmedArticleSetElement.from(xmlFile, projection));
+    }
+
+    /**
+     * Wraps a {@code PubMed} XML bulk data file that has already been
+     * parsed (so that the same document tree may be shared by several
+     * consumers).
+     *
+     * @param xmlFile the article set XML file that was parsed.
+     *
+     * @param document the parsed document.
+     *
+     * @return a document object containing the parsed content.
+     */
+    public static PubmedXmlDocument wrap(File xmlFile, Document document) {
+        return new PubmedXmlDocument(xmlFile, PubmedArticleSetElement.from(document.getRootElement()));
+    }
+
+    /**
+     * Streams the {@code PubmedArticle} elements in a {@code PubMed}
+     * XML bulk data file to a consumer one at a time, without ever
+     * holding the entire document in memory.
+     *
+     * <p>Unlike the parsed document, the stream does not remove
+     * duplicate {@code PMIDs}: every article element is passed to
+     * the consumer in file order, so the last version of a duplicated
+     * article is the last one consumed.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param consumer the consumer of the article elements.
+     *
+     * @return the deleted citations encoded in the file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static List<PMID> stream(File xmlFile, Consumer<PubmedArticleElement> consumer) {
+        return stream(xmlFile, ArticleProjection.ALL, consumer);
+    }
+
+    /**
+     * Streams the projected {@code PubmedArticle} elements in a {@code
+     * PubMed} XML bulk data file to a consumer one at a time.
+     *
+     * @param xmlFile an article set XML file.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @param consumer the consumer of the article elements.
+     *
+     * @return the deleted citations encoded in the file.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static List<PMID> stream(File xmlFile, ArticleProjection projection, Consumer<PubmedArticleElement> consumer) {
+        List<PMID> deleted = new ArrayList<PMID>();
+
+        PubmedXmlStream.process(xmlFile, projection, element -> {
+                switch (element.getName()) {
+                case PubmedArticleElement.TAG_NAME:
+                    consumer.accept(PubmedArticleElement.from(element));
+                    break;
+
+                case DeleteCitationElement.TAG_NAME:
+                    deleted.addAll(DeleteCitationElement.from(element).getDeleted());
+                    break;
+
+                default:
+                    JamLogger.info("Skipping element [%s]...", element.getName());
+                    break;
+                }
+            });
+
+        return deleted;
     }
 
     /**
@@ -0,0 +1,487 @@
+
+package pubmed.xml;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jdom2.Attribute;
+import org.jdom2.CDATA;
+import org.jdom2.Content;
+import org.jdom2.DocType;
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.Text;
+
+import jam.app.JamLogger;
+import jam.app.JamProperties;
+import jam.lang.JamException;
+
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.metrics.TimedInputStream;
+
+/**
+ * Caches the parsed content of an XML file in a compact binary
+ * sidecar file written next to it, so that later parses of the same
+ * file skip XML tokenizing altogether.
+ *
+ * <p>The sidecar holds the decoded document tree: element and
+ * attribute names (each written once and then referenced by index),
+ * attribute values, and character data with entities and character
+ * references already resolved.  No text is dropped, so whitespace in
+ * mixed content (such as an abstract with italic or superscript
+ * markup) is preserved; indentation and other whitespace-only text is
+ * written once as a symbol and then referenced by index, so it costs
+ * almost nothing.  Both document views, the
+ * element decorators in this package and the parsed articles in
+ * {@code pubmed.article}, are built from the decoded tree exactly as
+ * they are built from a parsed XML file.
+ *
+ * <p>A sidecar is used only when it is newer than its XML file, and
+ * it always holds the complete (unprojected) document, so it serves
+ * every {@link ArticleProjection}.
+ *
+ * <p>Reading a sidecar is recorded with the {@link
+ * PipelineMetrics#recorder() pipeline metrics} of the calling thread:
+ * the file reads and inflation as for an XML file, and the decoding of
+ * the document tree as the parse stage.  Writing a sidecar (once per
+ * XML file) is not charged to any stage.
+ */
+public final class PubmedXmlSidecar {
+    private PubmedXmlSidecar() {
+    }
+
+    /**
+     * Name of the system property that enables the sidecar cache for
+     * all files parsed by {@link PubmedXmlBuilder#build}.
+     */
+    public static final String ENABLED_PROPERTY = "pubmed.xml.sidecar";
+
+    /**
+     * Suffix appended to the XML file name to form the sidecar file
+     * name.
+     */
+    public static final String SUFFIX = ".sidecar";
+
+    private static final int MAGIC = 0x50584d53; // "PXMS"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private static final byte END_TAG = 0;
+    private static final byte ELEMENT_TAG = 1;
+    private static final byte TEXT_TAG = 2;
+    private static final byte CDATA_TAG = 3;
+    private static final byte WHITESPACE_TAG = 4;
+
+    /**
+     * Determines whether the sidecar cache has been enabled by the
+     * system property.
+     *
+     * @return {@code true} iff the sidecar cache is enabled.
+     */
+    public static boolean isEnabled() {
+        return JamProperties.isSet(ENABLED_PROPERTY)
+            && Boolean.parseBoolean(JamProperties.getRequired(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Returns the sidecar file for an XML file.
+     *
+     * @param xmlFile the XML file.
+     *
+     * @return the sidecar file for the specified XML file (which may
+     * or may not exist).
+     */
+    public static File resolve(File xmlFile) {
+        return new File(xmlFile.getPath() + SUFFIX);
+    }
+
+    /**
+     * Determines whether an XML file has a sidecar file that is newer
+     * than the XML file itself and is written in the current format.
+     *
+     * @param xmlFile the XML file.
+     *
+     * @return {@code true} iff the sidecar exists, is newer than the
+     * XML file, and is written in the current format.
+     */
+    public static boolean isFresh(File xmlFile) {
+        File sidecarFile = resolve(xmlFile);
+
+        return sidecarFile.canRead()
+            && sidecarFile.lastModified() > xmlFile.lastModified()
+            && isCurrentFormat(sidecarFile);
+    }
+
+    private static boolean isCurrentFormat(File sidecarFile) {
+        //
+        // Sidecars written in an earlier format are replaced...
+        //
+        try (DataInputStream input = openInput(sidecarFile)) {
+            return input.readInt() == MAGIC && input.readInt() == FORMAT_VERSION;
+        }
+        catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the document cached in the sidecar for an XML file.
+     *
+     * @param xmlFile the XML file.
+     *
+     * @return the cached document.
+     *
+     * @throws RuntimeException unless the sidecar can be read.
+     */
+    public static Document read(File xmlFile) {
+        File sidecarFile = resolve(xmlFile);
+        long start = System.nanoTime();
+
+        try (TimedInputStream fileStream = TimedInputStream.wrap(new FileInputStream(sidecarFile), Stage.READ);
+             TimedInputStream inflater = TimedInputStream.wrap(new GZIPInputStream(fileStream, BUFFER_SIZE), Stage.INFLATE, fileStream);
+             DataInputStream input = new DataInputStream(new BufferedInputStream(inflater, BUFFER_SIZE))) {
+            Document document = new Decoder(input).decode();
+
+            //
+            // The decoding time excludes the time spent reading and
+            // inflating the sidecar...
+            //
+            long nanos = System.nanoTime() - start - fileStream.getNanos() - inflater.getNanos();
+            int articles = document.getRootElement().getChildren(PubmedArticleElement.TAG_NAME).size();
+
+            PipelineMetrics.recorder().record(Stage.PARSE, nanos, articles, inflater.getBytes());
+            return document;
+        }
+        catch (IOException ex) {
+            throw JamException.runtime("Could not read sidecar [%s]: %s", sidecarFile, ex.getMessage());
+        }
+    }
+
+    /**
+     * Writes a document to the sidecar for an XML file.  The sidecar
+     * is written to a temporary file and then renamed, so a partial
+     * sidecar is never visible.
+     *
+     * @param xmlFile the XML file that was parsed.
+     *
+     * @param document the complete document parsed from the XML file.
+     *
+     * @throws RuntimeException unless the sidecar can be written.
+     */
+    public static void write(File xmlFile, Document document) {
+        File sidecarFile = resolve(xmlFile);
+        File tempFile = null;
+
+        JamLogger.info("Writing sidecar [%s]...", sidecarFile);
+
+        try {
+            tempFile = File.createTempFile(sidecarFile.getName() + ".", ".tmp", sidecarFile.getAbsoluteFile().getParentFile());
+
+            try (DataOutputStream output = openOutput(tempFile)) {
+                new Encoder(output).encode(document);
+            }
+
+            Files.move(tempFile.toPath(), sidecarFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            if (tempFile != null)
+                tempFile.delete();
+
+            throw JamException.runtime("Could not write sidecar [%s]: %s", sidecarFile, ex.getMessage());
+        }
+    }
+
+    private static DataInputStream openInput(File file) throws IOException {
+        InputStream stream = new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE);
+        return new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+    }
+
+    private static DataOutputStream openOutput(File file) throws IOException {
+        //
+        // Favor speed over size: the sidecar is read far more often
+        // than it is written, and inflation speed does not depend on
+        // the compression level...
+        //
+        OutputStream stream = new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE) {
+                {
+                    def.setLevel(Deflater.BEST_SPEED);
+                }
+            };
+
+        return new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+    }
+
+    private static final class Encoder {
+        private final DataOutputStream output;
+        private final Map<String, Integer> symbols = new HashMap<String, Integer>();
+
+        private Encoder(DataOutputStream output) {
+            this.output = output;
+        }
+
+        private void encode(Document document) throws IOException {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+
+            DocType docType = document.getDocType();
+
+            if (docType != null) {
+                output.writeBoolean(true);
+                writeSymbol(docType.getElementName());
+                writeNullable(docType.getPublicID());
+                writeNullable(docType.getSystemID());
+            }
+            else {
+                output.writeBoolean(false);
+            }
+
+            writeElement(document.getRootElement());
+        }
+
+        private void writeElement(Element element) throws IOException {
+            writeSymbol(element.getName());
+            writeNamespace(element.getNamespace());
+
+            List<Attribute> attributes = element.getAttributes();
+            writeVarInt(attributes.size());
+
+            for (Attribute attribute : attributes) {
+                writeSymbol(attribute.getName());
+                writeNamespace(attribute.getNamespace());
+                writeString(attribute.getValue());
+            }
+
+            for (Content content : element.getContent()) {
+                switch (content.getCType()) {
+                case Element:
+                    output.writeByte(ELEMENT_TAG);
+                    writeElement((Element) content);
+                    break;
+
+                case CDATA:
+                    output.writeByte(CDATA_TAG);
+                    writeString(((CDATA) content).getText());
+                    break;
+
+                case Text:
+                    String text = ((Text) content).getText();
+
+                    if (isWhitespace(text)) {
+                        output.writeByte(WHITESPACE_TAG);
+                        writeSymbol(text);
+                    }
+                    else {
+                        output.writeByte(TEXT_TAG);
+                        writeString(text);
+                    }
+                    break;
+
+                default:
+                    // Comments and processing instructions are dropped...
+                    break;
+                }
+            }
+
+            output.writeByte(END_TAG);
+        }
+
+        private void writeNamespace(Namespace namespace) throws IOException {
+            writeSymbol(namespace.getPrefix());
+            writeSymbol(namespace.getURI());
+        }
+
+        private void writeSymbol(String symbol) throws IOException {
+            Integer index = symbols.get(symbol);
+
+            if (index != null) {
+                writeVarInt(index + 1);
+            }
+            else {
+                writeVarInt(0);
+                writeString(symbol);
+                symbols.put(symbol, symbols.size());
+            }
+        }
+
+        private void writeNullable(String s) throws IOException {
+            output.writeBoolean(s != null);
+
+            if (s != null)
+                writeString(s);
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+            writeVarInt(bytes.length);
+            output.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            output.writeByte(value);
+        }
+    }
+
+    private static boolean isWhitespace(String text) {
+        for (int index = 0; index < text.length(); ++index)
+            if (!Character.isWhitespace(text.charAt(index)))
+                return false;
+
+        return true;
+    }
+
+    private static final class Decoder {
+        private final DataInputStream input;
+        private final List<String> symbols = new ArrayList<String>();
+
+        private byte[] buffer = new byte[256];
+
+        private Decoder(DataInputStream input) {
+            this.input = input;
+        }
+
+        private Document decode() throws IOException {
+            if (input.readInt() != MAGIC)
+                throw new IOException("Invalid sidecar header.");
+
+            if (input.readInt() != FORMAT_VERSION)
+                throw new IOException("Unsupported sidecar version.");
+
+            DocType docType = null;
+
+            if (input.readBoolean()) {
+                String elementName = readSymbol();
+                String publicID = readNullable();
+                String systemID = readNullable();
+
+                docType = new DocType(elementName, publicID, systemID);
+            }
+
+            Document document = new Document(readElement(), docType);
+            return document;
+        }
+
+        private Element readElement() throws IOException {
+            Element element = new Element(readSymbol(), readNamespace());
+            int attributeCount = readVarInt();
+
+            for (int index = 0; index < attributeCount; ++index) {
+                String name = readSymbol();
+                Namespace namespace = readNamespace();
+
+                element.setAttribute(new Attribute(name, readString(), namespace));
+            }
+
+            while (true) {
+                byte tag = input.readByte();
+
+                switch (tag) {
+                case END_TAG:
+                    return element;
+
+                case ELEMENT_TAG:
+                    element.addContent(readElement());
+                    break;
+
+                case TEXT_TAG:
+                    element.addContent(new Text(readString()));
+                    break;
+
+                case CDATA_TAG:
+                    element.addContent(new CDATA(readString()));
+                    break;
+
+                case WHITESPACE_TAG:
+                    element.addContent(new Text(readSymbol()));
+                    break;
+
+                default:
+                    throw new IOException("Invalid sidecar content tag: " + tag);
+                }
+            }
+        }
+
+        private Namespace readNamespace() throws IOException {
+            String prefix = readSymbol();
+            String uri = readSymbol();
+
+            if (uri.isEmpty())
+                return Namespace.NO_NAMESPACE;
+            else
+                return Namespace.getNamespace(prefix, uri);
+        }
+
+        private String readSymbol() throws IOException {
+            int index = readVarInt();
+
+            if (index > 0)
+                return symbols.get(index - 1);
+
+            String symbol = readString();
+            symbols.add(symbol);
+
+            return symbol;
+        }
+
+        private String readNullable() throws IOException {
+            if (input.readBoolean())
+                return readString();
+            else
+                return null;
+        }
+
+        private String readString() throws IOException {
+            int length = readVarInt();
+
+            if (length > buffer.length)
+                buffer = new byte[Math.max(length, 2 * buffer.length)];
+
+            input.readFully(buffer, 0, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            int shift = 0;
+
+            while (shift < 35) {
+                int b = input.readByte();
+                value |= (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0)
+                    return value;
+
+                shift += 7;
+            }
+
+            throw new IOException("Malformed variable-length integer.");
+        }
+    }
+}
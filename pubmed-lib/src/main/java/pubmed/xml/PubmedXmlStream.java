@@ -0,0 +1,253 @@
+
+package pubmed.xml;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom2.Element;
+import org.jdom2.JDOMException;
+import org.jdom2.input.StAXStreamBuilder;
+
+import jam.lang.JamException;
+
+import pubmed.metrics.PipelineMetrics;
+import pubmed.metrics.Stage;
+import pubmed.metrics.StageRecorder;
+import pubmed.metrics.TimedInputStream;
+
+/**
+ * Reads the top-level elements of a {@code PubMed} XML bulk file one
+ * at a time, so that only a single {@code PubmedArticle} (or {@code
+ * DeleteCitation}) element is held in memory instead of the entire
+ * document tree.
+ *
+ * <p>The elements are detached JDOM elements, so they may be passed
+ * directly to the existing element decorators ({@link
+ * PubmedArticleElement#from(Element)}) or article parsers.
+ *
+ * <p>The time spent reading, inflating, and parsing the file is
+ * recorded with the {@link PipelineMetrics#recorder() pipeline
+ * metrics} of the thread that opened the stream when the stream is
+ * closed.  The parse time excludes the time spent waiting for input
+ * and the time spent by the caller between elements.
+ */
+public final class PubmedXmlStream implements Closeable {
+    private final File xmlFile;
+    private final TimedInputStream inputStream;
+    private final XMLStreamReader streamReader;
+    private final StAXStreamBuilder elementBuilder;
+    private final ArticleProjection projection;
+    private final StageRecorder recorder;
+
+    private long parseNanos = 0L;
+    private int articleCount = 0;
+    private boolean closed = false;
+
+    // Becomes true after the root PubmedArticleSet element has been
+    // consumed...
+    private boolean inRoot = false;
+
+    private PubmedXmlStream(File xmlFile, ArticleProjection projection) {
+        this.xmlFile = xmlFile;
+        this.projection = projection;
+        this.recorder = PipelineMetrics.recorder();
+        this.inputStream = TimedInputStream.wrap(PubmedXmlBuilder.openInputStream(xmlFile), null);
+        this.streamReader = createReader(xmlFile, inputStream);
+        this.elementBuilder = new StAXStreamBuilder();
+    }
+
+    private static XMLStreamReader createReader(File xmlFile, InputStream inputStream) {
+        //
+        // The bulk files declare the remote PubMed DTD, which is only
+        // needed for validation; the streaming reader never fetches
+        // it.  All entities used in the bulk files are predefined or
+        // character references...
+        //
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        try {
+            return factory.createXMLStreamReader(inputStream);
+        }
+        catch (Exception ex) {
+            closeQuietly(inputStream);
+            throw JamException.runtime("Could not open XML stream [%s]: %s", xmlFile, ex.getMessage());
+        }
+    }
+
+    private static void closeQuietly(InputStream stream) {
+        try {
+            stream.close();
+        }
+        catch (IOException ex) {
+            // Nothing more to do...
+        }
+    }
+
+    /**
+     * Opens a streaming reader for a {@code PubMed} XML bulk file.
+     *
+     * @param xmlFile the XML file to read (compressed with {@code
+     * gzip} if the name ends with {@code .gz}).
+     *
+     * @return a streaming reader positioned at the start of the file.
+     *
+     * @throws RuntimeException unless the file can be opened.
+     */
+    public static PubmedXmlStream open(String xmlFile) {
+        return open(new File(xmlFile));
+    }
+
+    /**
+     * Opens a streaming reader for a {@code PubMed} XML bulk file.
+     *
+     * @param xmlFile the XML file to read (compressed with {@code
+     * gzip} if the name ends with {@code .gz}).
+     *
+     * @return a streaming reader positioned at the start of the file.
+     *
+     * @throws RuntimeException unless the file can be opened.
+     */
+    public static PubmedXmlStream open(File xmlFile) {
+        return open(xmlFile, ArticleProjection.ALL);
+    }
+
+    /**
+     * Opens a streaming reader for a {@code PubMed} XML bulk file that
+     * returns projected {@code PubmedArticle} elements.
+     *
+     * @param xmlFile the XML file to read (compressed with {@code
+     * gzip} if the name ends with {@code .gz}).
+     *
+     * @param projection the article elements to retain.
+     *
+     * @return a streaming reader positioned at the start of the file.
+     *
+     * @throws RuntimeException unless the file can be opened.
+     */
+    public static PubmedXmlStream open(File xmlFile, ArticleProjection projection) {
+        return new PubmedXmlStream(xmlFile, projection);
+    }
+
+    /**
+     * Passes every top-level element in a {@code PubMed} XML bulk
+     * file to a consumer, in file order, and then closes the file.
+     *
+     * @param xmlFile the XML file to read.
+     *
+     * @param consumer the consumer of the top-level elements.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static void process(File xmlFile, Consumer<Element> consumer) {
+        process(xmlFile, ArticleProjection.ALL, consumer);
+    }
+
+    /**
+     * Passes every top-level element in a {@code PubMed} XML bulk
+     * file to a consumer, in file order, and then closes the file.
+     * The {@code PubmedArticle} elements are projected.
+     *
+     * @param xmlFile the XML file to read.
+     *
+     * @param projection the article elements to retain.
+     *
+     * @param consumer the consumer of the top-level elements.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public static void process(File xmlFile, ArticleProjection projection, Consumer<Element> consumer) {
+        try (PubmedXmlStream stream = open(xmlFile, projection)) {
+            Element element = stream.next();
+
+            while (element != null) {
+                consumer.accept(element);
+                element = stream.next();
+            }
+        }
+    }
+
+    /**
+     * Returns the XML file being read.
+     *
+     * @return the XML file being read.
+     */
+    public File getXMLFile() {
+        return xmlFile;
+    }
+
+    /**
+     * Reads the next child of the root {@code PubmedArticleSet}
+     * element.
+     *
+     * @return the next top-level element in the file, or {@code null}
+     * if the end of the file has been reached.
+     *
+     * @throws RuntimeException if any I/O or parsing errors occur.
+     */
+    public Element next() {
+        long start = System.nanoTime();
+        long waited = inputStream.getNanos();
+
+        try {
+            int eventType = streamReader.getEventType();
+
+            while (eventType != XMLStreamConstants.END_DOCUMENT) {
+                if (eventType == XMLStreamConstants.START_ELEMENT) {
+                    if (inRoot)
+                        return nextElement();
+                    else
+                        inRoot = true;
+                }
+
+                eventType = streamReader.next();
+            }
+
+            return null;
+        }
+        catch (Exception ex) {
+            throw JamException.runtime("Error reading XML stream [%s]: %s", xmlFile, ex.getMessage());
+        }
+        finally {
+            parseNanos += System.nanoTime() - start - (inputStream.getNanos() - waited);
+        }
+    }
+
+    private Element nextElement() throws JDOMException, XMLStreamException {
+        if (!streamReader.getLocalName().equals(PubmedArticleElement.TAG_NAME))
+            return (Element) elementBuilder.fragment(streamReader);
+
+        ++articleCount;
+
+        if (projection.isComplete())
+            return (Element) elementBuilder.fragment(streamReader);
+        else
+            return projection.fragment(streamReader);
+    }
+
+    @Override public void close() {
+        if (closed)
+            return;
+
+        closed = true;
+        recorder.record(Stage.PARSE, parseNanos, articleCount, inputStream.getBytes());
+
+        try {
+            streamReader.close();
+        }
+        catch (Exception ex) {
+            // Nothing more to do...
+        }
+
+        closeQuietly(inputStream);
+    }
+}
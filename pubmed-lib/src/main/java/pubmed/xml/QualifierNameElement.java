@@ -8,6 +8,7 @@ import org.jdom2.Element;
 import jam.util.ListUtil;
 import jam.xml.JDOMElement;
 
+import pubmed.intern.StringPool;
 import pubmed.mesh.MeshQualifierKey;
 
 /**
@@ -24,7 +25,7 @@ public final class QualifierNameElement extends JDOMElement {
 
         this.isMajorTopic = getBooleanAttribute("MajorTopicYN", false);
         this.qualifierKey = MeshQualifierKey.instance(getRequiredAttribute("UI"));
-        this.qualifierName = element.getTextNormalize();
+        this.qualifierName = StringPool.MESH_NAME.intern(element.getTextNormalize());
     }
 
     /**
@@ -0,0 +1,51 @@
+
+package pubmed.xml;
+
+import jam.app.JamProperties;
+
+/**
+ * Enumerates the parser configurations used by {@link PubmedXmlBuilder}.
+ *
+ * <p>Neither mode validates or accesses the network: in both modes,
+ * external entities are resolved by the {@link PubmedEntityResolver}.
+ */
+public enum XmlParseMode {
+    /**
+     * A new parser is configured for every file and the declared DTD
+     * is read (from the local catalog), so that any attribute defaults
+     * or entities that it declares are applied.
+     */
+    STANDARD,
+
+    /**
+     * The DTD and all external entities are skipped entirely, and each
+     * thread reuses a single configured parser for every file that it
+     * parses, so the parser setup cost is paid once per thread rather
+     * than once per file.
+     */
+    FAST;
+
+    /**
+     * Name of the system property that specifies the default parse
+     * mode.
+     */
+    public static final String MODE_PROPERTY = "pubmed.xml.parseMode";
+
+    /**
+     * Default parse mode.
+     */
+    public static final XmlParseMode MODE_DEFAULT = STANDARD;
+
+    /**
+     * Returns the default parse mode specified by the system property
+     * (or the built-in default).
+     *
+     * @return the default parse mode.
+     */
+    public static XmlParseMode resolve() {
+        if (JamProperties.isSet(MODE_PROPERTY))
+            return valueOf(JamProperties.getRequired(MODE_PROPERTY).toUpperCase());
+        else
+            return MODE_DEFAULT;
+    }
+}
@@ -0,0 +1,177 @@
+
+package pubmed.xml;
+
+import java.util.List;
+
+import org.jdom2.Content;
+import org.jdom2.Element;
+import org.jdom2.Text;
+
+/**
+ * Extracts the text content of XML elements in a single pass into a
+ * reusable per-thread buffer, so that each extraction allocates only
+ * the final string.
+ *
+ * <p>The results are identical to the corresponding {@code JDOM}
+ * methods: {@link XmlText#normalize(Element)} matches {@code
+ * Element.getTextNormalize()} and {@link XmlText#value(Element)}
+ * matches {@code Element.getValue().trim()}.
+ */
+public final class XmlText {
+    private XmlText() {
+    }
+
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int MAX_RETAINED_CAPACITY = 262144;
+
+    private static final ThreadLocal<StringBuilder> buffers =
+        ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    /**
+     * Returns the whitespace-normalized text contained directly in an
+     * element (the text of child elements is excluded).
+     *
+     * @param element the element to extract.
+     *
+     * @return the normalized text of the element.
+     */
+    public static String normalize(Element element) {
+        StringBuilder buffer = acquire();
+        appendNormalized(buffer, element);
+        return release(buffer);
+    }
+
+    /**
+     * Returns the whitespace-normalized text contained directly in
+     * each element of a list, joined by single spaces.  This is the
+     * representation of a structured abstract that consists of
+     * multiple {@code AbstractText} sections.
+     *
+     * @param elements the elements to extract.
+     *
+     * @return the normalized text of each element joined by single
+     * spaces.
+     */
+    public static String normalizeJoin(List<Element> elements) {
+        StringBuilder buffer = acquire();
+
+        boolean first = true;
+
+        for (Element element : elements) {
+            if (!first)
+                buffer.append(' ');
+
+            appendNormalized(buffer, element);
+            first = false;
+        }
+
+        return release(buffer);
+    }
+
+    /**
+     * Returns the text contained in an element and all of its
+     * descendants, with leading and trailing whitespace removed.
+     *
+     * @param element the element to extract.
+     *
+     * @return the trimmed text value of the element.
+     */
+    public static String value(Element element) {
+        StringBuilder buffer = acquire();
+        appendValue(buffer, element);
+
+        int start = 0;
+        int end = buffer.length();
+
+        while (start < end && buffer.charAt(start) <= ' ')
+            ++start;
+
+        while (end > start && buffer.charAt(end - 1) <= ' ')
+            --end;
+
+        String result = buffer.substring(start, end);
+        recycle(buffer);
+
+        return result;
+    }
+
+    private static StringBuilder acquire() {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static String release(StringBuilder buffer) {
+        String result = buffer.toString();
+        recycle(buffer);
+        return result;
+    }
+
+    private static void recycle(StringBuilder buffer) {
+        //
+        // Do not let one huge element pin a huge buffer to the thread...
+        //
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY)
+            buffers.set(new StringBuilder(INITIAL_CAPACITY));
+    }
+
+    private static void appendNormalized(StringBuilder buffer, Element element) {
+        //
+        // Collapse each run of whitespace (across adjacent text nodes)
+        // into a single space, and drop leading and trailing runs...
+        //
+        int sectionStart = buffer.length();
+        boolean pendingSpace = false;
+
+        List<Content> contents = element.getContent();
+
+        for (int k = 0; k < contents.size(); ++k) {
+            Content content = contents.get(k);
+
+            if (!(content instanceof Text))
+                continue;
+
+            String text = ((Text) content).getText();
+            int length = text.length();
+            int index = 0;
+
+            while (index < length) {
+                if (isWhitespace(text.charAt(index))) {
+                    pendingSpace = buffer.length() > sectionStart;
+                    ++index;
+                    continue;
+                }
+
+                int wordEnd = index + 1;
+
+                while (wordEnd < length && !isWhitespace(text.charAt(wordEnd)))
+                    ++wordEnd;
+
+                if (pendingSpace) {
+                    buffer.append(' ');
+                    pendingSpace = false;
+                }
+
+                buffer.append(text, index, wordEnd);
+                index = wordEnd;
+            }
+        }
+    }
+
+    private static void appendValue(StringBuilder buffer, Element element) {
+        List<Content> contents = element.getContent();
+
+        for (int index = 0; index < contents.size(); ++index) {
+            Content content = contents.get(index);
+
+            if (content instanceof Text)
+                buffer.append(((Text) content).getText());
+            else if (content instanceof Element)
+                appendValue(buffer, (Element) content);
+        }
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r';
+    }
+}
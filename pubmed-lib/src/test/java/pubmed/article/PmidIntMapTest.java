@@ -0,0 +1,53 @@
+
+package pubmed.article;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PmidIntMapTest {
+    @Test public void testMap() {
+        PmidIntMap map = PmidIntMap.builder().put(30, 3).put(10, 1).put(PMID.instance(20), 2).build();
+
+        assertEquals(3, map.size());
+        assertEquals(1, map.get(10, -1));
+        assertEquals(2, map.get(PMID.instance(20), -1));
+        assertTrue(map.containsKey(30));
+        assertEquals(PmidSet.of(10, 20, 30), map.keySet());
+        assertEquals(10, map.getKey(0));
+        assertEquals(3, map.getValue(2));
+    }
+
+    @Test public void testDuplicates() {
+        // The last value added for an identifier is retained...
+        PmidIntMap map = PmidIntMap.builder(2).put(10, 1).put(20, 2).put(10, 11).put(20, 22).put(10, 111).build();
+
+        assertEquals(2, map.size());
+        assertEquals(111, map.get(10, -1));
+        assertEquals(22, map.get(20, -1));
+        assertEquals(PmidSet.of(10, 20), map.keySet());
+    }
+
+    @Test public void testMissing() {
+        PmidIntMap map = PmidIntMap.builder().put(10, 1).put(30, 3).build();
+
+        assertEquals(-1, map.get(5, -1));
+        assertEquals(-1, map.get(20, -1));
+        assertEquals(-1, map.get(40, -1));
+        assertEquals(-1, map.get(0, -1));
+        assertFalse(map.containsKey(20));
+        assertFalse(map.containsKey(PMID.instance(40)));
+
+        assertTrue(PmidIntMap.empty().isEmpty());
+        assertEquals(0, PmidIntMap.empty().get(10, 0));
+        assertFalse(PmidIntMap.empty().containsKey(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        PmidIntMap.builder().put(0, 1);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.article.PmidIntMapTest");
+    }
+}
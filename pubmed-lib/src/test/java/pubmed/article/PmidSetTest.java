@@ -0,0 +1,86 @@
+
+package pubmed.article;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PmidSetTest {
+    private static PMID pmid(int id) {
+        return PMID.instance(id);
+    }
+
+    @Test public void testBuilder() {
+        PmidSet set = PmidSet.builder().add(30).add(10).add(pmid(20)).add(10).build();
+
+        assertEquals(3, set.size());
+        assertEquals(10, set.getID(0));
+        assertEquals(20, set.getID(1));
+        assertEquals(30, set.getID(2));
+        assertEquals(1, set.indexOf(20));
+        assertEquals(-1, set.indexOf(25));
+        assertArrayEquals(new int[] { 10, 20, 30 }, set.toIntArray());
+        assertEquals(List.of(pmid(10), pmid(20), pmid(30)), List.copyOf(set));
+    }
+
+    @Test public void testContains() {
+        PmidSet set = PmidSet.of(5, 3, 1);
+
+        assertTrue(set.contains(3));
+        assertTrue(set.contains(pmid(5)));
+        assertTrue(set.contains((Object) pmid(1)));
+        assertFalse(set.contains(2));
+        assertFalse(set.contains("1"));
+        assertTrue(PmidSet.empty().isEmpty());
+    }
+
+    @Test public void testEquals() {
+        Set<PMID> treeSet = new TreeSet<PMID>(List.of(pmid(1), pmid(2), pmid(3)));
+        PmidSet set = PmidSet.copyOf(treeSet);
+
+        assertEquals(treeSet, set);
+        assertEquals(set, treeSet);
+        assertEquals(treeSet.hashCode(), set.hashCode());
+        assertEquals(PmidSet.of(3, 2, 1), set);
+        assertSame(set, PmidSet.copyOf(set));
+    }
+
+    @Test public void testSetOperations() {
+        PmidSet set1 = PmidSet.of(1, 3, 5, 7, 9);
+        PmidSet set2 = PmidSet.of(3, 4, 5, 6);
+
+        assertEquals(PmidSet.of(1, 3, 4, 5, 6, 7, 9), set1.union(set2));
+        assertEquals(PmidSet.of(3, 5), set1.intersection(set2));
+        assertEquals(PmidSet.of(3, 5), set2.intersection(set1));
+        assertEquals(PmidSet.of(1, 7, 9), set1.difference(set2));
+        assertEquals(PmidSet.of(4, 6), set2.difference(set1));
+
+        assertSame(set1, set1.union(PmidSet.empty()));
+        assertTrue(set1.intersection(PmidSet.empty()).isEmpty());
+    }
+
+    @Test public void testSparseIntersection() {
+        PmidSet.Builder builder = PmidSet.builder();
+
+        for (int id = 1; id <= 10000; ++id)
+            builder.add(id);
+
+        PmidSet large = builder.build();
+        PmidSet small = PmidSet.of(2, 5000, 20000);
+
+        assertEquals(PmidSet.of(2, 5000), large.intersection(small));
+        assertEquals(PmidSet.of(2, 5000), small.intersection(large));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalid() {
+        PmidSet.of(1, 0);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.article.PmidSetTest");
+    }
+}
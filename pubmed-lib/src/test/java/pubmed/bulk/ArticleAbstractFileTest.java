@@ -2,6 +2,10 @@
 package pubmed.bulk;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
 import pubmed.article.PMID;
 import pubmed.flat.ArticleAbstractRecord;
@@ -31,6 +35,26 @@ public class ArticleAbstractFileTest {
         assertTrue(abstractFile.delete());
     }
 
+    @Test public void testMalformedLine() throws IOException {
+        abstractFile.processFile(true);
+
+        //
+        // Malformed lines are skipped, as they are by the line parser...
+        //
+        Files.write(abstractFile.getFlatFile().toPath(),
+                    "not-a-pmid\n31383387\n".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+
+        assertEquals(4, abstractFile.load().count());
+
+        ArticleAbstractTable table = (ArticleAbstractTable) abstractFile.load(PMID.instance(31383387));
+
+        assertEquals(1, table.count());
+        assertTrue(table.select(PMID.instance(31383387)).getAbstract().startsWith("Pain-related affective"));
+
+        assertTrue(abstractFile.delete());
+    }
+
     public static void main(String[] args) {
         org.junit.runner.JUnitCore.main("pubmed.bulk.ArticleAbstractFileTest");
     }
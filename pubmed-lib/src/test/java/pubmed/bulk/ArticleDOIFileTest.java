@@ -25,6 +25,30 @@ public class ArticleDOIFileTest {
         assertTrue(DOIFile.delete());
     }
 
+    @Test public void testBlockGZip() {
+        System.setProperty(PubmedFlatFile.BLOCK_GZIP_PROPERTY, "true");
+
+        try {
+            DOIFile.processFile(true);
+
+            assertFalse(DOIFile.getFlatFile().exists());
+            assertTrue(DOIFile.getGZipFile().exists());
+
+            assertEquals(6, DOIFile.load().count());
+
+            ArticleDOITable table = (ArticleDOITable) DOIFile.load(PMID.instance(31687927));
+
+            assertEquals(1, table.count());
+            assertEquals(DOI.instance("10.7554/eLife.47969"), table.select(PMID.instance(31687927)).getDOI());
+
+            assertTrue(DOIFile.delete());
+            assertFalse(DOIFile.exists());
+        }
+        finally {
+            System.clearProperty(PubmedFlatFile.BLOCK_GZIP_PROPERTY);
+        }
+    }
+
     public static void main(String[] args) {
         org.junit.runner.JUnitCore.main("pubmed.bulk.ArticleDOIFileTest");
     }
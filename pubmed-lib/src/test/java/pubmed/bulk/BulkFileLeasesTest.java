@@ -0,0 +1,174 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BulkFileLeasesTest {
+    private static final int FILE_COUNT = 12;
+    private static final int WORKER_COUNT = 3;
+
+    private File directory;
+
+    // Records the name of each processed file in a log file...
+    public static final class Worker extends BulkFileProcessor {
+        private final File logFile;
+
+        private Worker(File logFile) {
+            this.logFile = logFile;
+        }
+
+        @Override public void processFile(BulkFile bulkFile) {
+            try {
+                Thread.sleep(100);
+                Files.write(logFile.toPath(), List.of(bulkFile.getBaseName()),
+                            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            catch (IOException | InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        public static void main(String[] args) {
+            new Worker(new File(args[1])).processDirectory(args[0]);
+        }
+    }
+
+    @Before public void setUp() throws IOException {
+        directory = Files.createTempDirectory("lease").toFile();
+
+        for (int index = 1; index <= FILE_COUNT; ++index)
+            new File(directory, String.format("pubmed20n%04d.xml.gz", index)).createNewFile();
+
+        System.setProperty(BulkFileLeases.ENABLED_PROPERTY, "true");
+        System.setProperty(BulkFileLeases.TIMEOUT_PROPERTY, "2");
+    }
+
+    @After public void tearDown() throws IOException {
+        System.clearProperty(BulkFileLeases.ENABLED_PROPERTY);
+        System.clearProperty(BulkFileLeases.TIMEOUT_PROPERTY);
+
+        Files.walk(directory.toPath())
+            .sorted((p1, p2) -> p2.compareTo(p1))
+            .forEach(path -> path.toFile().delete());
+    }
+
+    private List<String> readLogs(List<File> logFiles) throws IOException {
+        List<String> processed = new ArrayList<String>();
+
+        for (File logFile : logFiles)
+            if (logFile.exists())
+                processed.addAll(Files.readAllLines(logFile.toPath()));
+
+        return processed;
+    }
+
+    private void assertProcessedOnce(List<String> processed) {
+        Set<String> unique = new HashSet<String>(processed);
+
+        assertEquals(FILE_COUNT, processed.size());
+        assertEquals(FILE_COUNT, unique.size());
+
+        for (BulkFile bulkFile : BulkFile.list(directory))
+            assertTrue(unique.contains(bulkFile.getBaseName()));
+    }
+
+    @Test public void testReclaim() throws IOException {
+        BulkFile[] bulkFiles = BulkFile.list(directory);
+
+        // A worker that died while holding a lease...
+        try (BulkFileLeases leases = BulkFileLeases.open(directory, Worker.class.getSimpleName())) {
+            assertTrue(leases.claim(bulkFiles[3]));
+            assertFalse(leases.claim(bulkFiles[3]));
+        }
+
+        File logFile = new File(directory, "worker.log");
+        new Worker(logFile).processDirectory(directory);
+
+        assertProcessedOnce(readLogs(List.of(logFile)));
+
+        try (BulkFileLeases leases = BulkFileLeases.open(directory, Worker.class.getSimpleName())) {
+            assertTrue(leases.isDone(bulkFiles));
+            assertFalse(leases.claim(bulkFiles[3]));
+        }
+    }
+
+    @Test public void testLostLease() throws IOException {
+        BulkFile bulkFile = BulkFile.list(directory)[0];
+        File leaseFile = new File(new File(new File(directory, BulkFileLeases.LEASE_DIR_NAME), Worker.class.getSimpleName()),
+                                  bulkFile.getBaseName() + BulkFileLeases.LEASE_SUFFIX);
+
+        try (BulkFileLeases leases = BulkFileLeases.open(directory, Worker.class.getSimpleName())) {
+            assertTrue(leases.claim(bulkFile));
+            assertTrue(leases.isHeld(bulkFile));
+            bulkFile.requireLease();
+
+            // Another worker reclaims the lease...
+            Files.write(leaseFile.toPath(), "other".getBytes());
+            assertFalse(leases.isHeld(bulkFile));
+
+            try {
+                bulkFile.requireLease();
+                fail("Expected a lost lease.");
+            }
+            catch (RuntimeException ex) {
+                // Expected...
+            }
+
+            try {
+                leases.complete(bulkFile);
+                fail("Expected a lost lease.");
+            }
+            catch (RuntimeException ex) {
+                // Expected...
+            }
+
+            assertFalse(leases.isDone(bulkFile));
+            assertTrue(leaseFile.exists());
+        }
+    }
+
+    @Test public void testProcesses() throws IOException, InterruptedException {
+        String javaBin = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+
+        List<File> logFiles = new ArrayList<File>();
+        List<Process> processes = new ArrayList<Process>();
+
+        for (int index = 0; index < WORKER_COUNT; ++index) {
+            File logFile = new File(directory, "worker" + index + ".log");
+            logFiles.add(logFile);
+
+            ProcessBuilder builder =
+                new ProcessBuilder(javaBin,
+                                   "-cp", System.getProperty("java.class.path"),
+                                   "-D" + BulkFileLeases.ENABLED_PROPERTY + "=true",
+                                   "-D" + BulkFileLeases.TIMEOUT_PROPERTY + "=2",
+                                   Worker.class.getName(),
+                                   directory.getPath(),
+                                   logFile.getPath());
+
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+
+            processes.add(builder.start());
+        }
+
+        for (Process process : processes)
+            assertEquals(0, process.waitFor());
+
+        assertProcessedOnce(readLogs(logFiles));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.BulkFileLeasesTest");
+    }
+}
@@ -0,0 +1,105 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BulkFileProcessorTest {
+    private static final File directory = new File("data/test");
+
+    // Generates one line of output from each file (its name and its
+    // number of articles) and assembles the output in directory order
+    // after every file has been processed...
+    private static final class RecordingProcessor extends BulkFileProcessor {
+        private final CountDownLatch overlap;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        private final List<String> processed = Collections.synchronizedList(new ArrayList<String>());
+        private final List<String> processedAtPost = new ArrayList<String>();
+
+        private final Map<String, String> outputs = new ConcurrentHashMap<String, String>();
+        private final List<String> output = new ArrayList<String>();
+
+        private RecordingProcessor(int overlapCount) {
+            this.overlap = new CountDownLatch(overlapCount);
+        }
+
+        @Override public void processFile(BulkFile bulkFile) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+            try {
+                //
+                // Hold each file until the expected number of files are
+                // in flight (or a generous timeout expires)...
+                //
+                overlap.countDown();
+                overlap.await(5, TimeUnit.SECONDS);
+                Thread.sleep(50);
+            }
+            catch (InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+
+            outputs.put(bulkFile.getBaseName(), bulkFile.getBaseName() + "|" + bulkFile.getPMIDSet().size());
+            processed.add(bulkFile.getFile().getName());
+            inFlight.decrementAndGet();
+        }
+
+        @Override protected void postProcess(File directory) {
+            processedAtPost.addAll(processed);
+
+            for (BulkFile bulkFile : BulkFile.list(directory))
+                output.add(outputs.get(bulkFile.getBaseName()));
+        }
+    }
+
+    @After public void tearDown() {
+        System.clearProperty(BulkFileProcessor.CONCURRENCY_PROPERTY);
+    }
+
+    @Test public void testSerial() {
+        RecordingProcessor processor = new RecordingProcessor(1);
+        processor.processDirectory(directory);
+
+        assertEquals(BulkFile.list(directory).length, processor.processedAtPost.size());
+        assertEquals(1, processor.maxInFlight.get());
+    }
+
+    @Test public void testConcurrent() {
+        RecordingProcessor serial = new RecordingProcessor(1);
+        serial.processDirectory(directory);
+
+        System.setProperty(BulkFileProcessor.CONCURRENCY_PROPERTY, "2");
+
+        RecordingProcessor processor = new RecordingProcessor(2);
+        processor.processDirectory(directory);
+
+        BulkFile[] bulkFiles = BulkFile.list(directory);
+
+        assertTrue(bulkFiles.length > 2);
+        assertEquals(bulkFiles.length, processor.processedAtPost.size());
+        assertEquals(2, processor.maxInFlight.get());
+
+        for (BulkFile bulkFile : bulkFiles)
+            assertTrue(processor.processedAtPost.contains(bulkFile.getFile().getName()));
+
+        // The output is identical to that of the serial run...
+        assertFalse(serial.output.contains(null));
+        assertEquals(serial.output, processor.output);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.BulkFileProcessorTest");
+    }
+}
@@ -0,0 +1,47 @@
+
+package pubmed.bulk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ContentExtractorTest {
+    private static final BulkFile bulkFile = BulkFile.create("data/test/pubmed_sample.xml");
+
+    @Test public void testFused() throws IOException {
+        List<DocumentContentFile<?>> contentFiles =
+            List.of(ArticleDOIFile.instance(bulkFile),
+                    ArticleTitleFile.instance(bulkFile),
+                    ChemicalFile.instance(bulkFile),
+                    DeleteCitationFile.instance(bulkFile),
+                    HeadingFile.instance(bulkFile),
+                    JournalFile.instance(bulkFile),
+                    PubDateFile.instance(bulkFile));
+
+        List<List<String>> separate = new ArrayList<List<String>>();
+
+        for (DocumentContentFile<?> contentFile : contentFiles) {
+            contentFile.processFile(true);
+            separate.add(Files.readAllLines(contentFile.getFlatFile().toPath()));
+            assertTrue(contentFile.delete());
+        }
+
+        ContentExtractor.process(bulkFile.getDocument(), contentFiles, false);
+
+        for (int index = 0; index < contentFiles.size(); ++index) {
+            DocumentContentFile<?> contentFile = contentFiles.get(index);
+
+            assertFalse(separate.get(index).isEmpty());
+            assertEquals(separate.get(index), Files.readAllLines(contentFile.getFlatFile().toPath()));
+            assertTrue(contentFile.delete());
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.ContentExtractorTest");
+    }
+}
@@ -0,0 +1,101 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ContentManifestTest {
+    private File directory;
+    private BulkFile bulkFile;
+
+    @Before public void setUp() throws IOException {
+        directory = Files.createTempDirectory("manifest").toFile();
+
+        File xmlFile = new File(directory, "pubmed_sample.xml");
+        Files.copy(new File("data/test/pubmed_sample.xml").toPath(), xmlFile.toPath());
+
+        bulkFile = BulkFile.create(xmlFile);
+        System.setProperty(ContentManifest.ENABLED_PROPERTY, "true");
+    }
+
+    @After public void tearDown() throws IOException {
+        System.clearProperty(ContentManifest.ENABLED_PROPERTY);
+
+        Files.walk(directory.toPath())
+            .sorted((p1, p2) -> p2.compareTo(p1))
+            .forEach(path -> path.toFile().delete());
+    }
+
+    @Test public void testStaleness() throws IOException {
+        ArticleTitleFile titleFile = bulkFile.getArticleTitleFile();
+        ContentManifest manifest = ContentManifest.instance(bulkFile);
+
+        assertEquals(ContentManifest.Status.MISSING, manifest.getStatus(titleFile));
+        assertFalse(titleFile.isCurrent());
+        assertTrue(bulkFile.getUnprocessedContentFiles().contains(titleFile));
+
+        titleFile.processFile(false);
+
+        assertEquals(ContentManifest.Status.CURRENT, manifest.getStatus(titleFile));
+        assertEquals(6L, manifest.getRecordCount(titleFile));
+        assertTrue(titleFile.isCurrent());
+        assertFalse(bulkFile.getUnprocessedContentFiles().contains(titleFile));
+
+        // Touching the bulk file (an identical download) is harmless...
+        File xmlFile = bulkFile.getFile();
+        assertTrue(xmlFile.setLastModified(xmlFile.lastModified() - 60000L));
+        manifest.invalidate(bulkFile);
+        assertEquals(ContentManifest.Status.CURRENT, manifest.getStatus(titleFile));
+
+        // Changing its content makes the outputs stale...
+        Files.write(xmlFile.toPath(), "\n".getBytes(), StandardOpenOption.APPEND);
+        manifest.invalidate(bulkFile);
+
+        assertEquals(ContentManifest.Status.STALE, manifest.getStatus(titleFile));
+        assertTrue(titleFile.isStale());
+        assertTrue(bulkFile.getUnprocessedContentFiles().contains(titleFile));
+
+        titleFile.processFile(false);
+        assertEquals(ContentManifest.Status.CURRENT, manifest.getStatus(titleFile));
+
+        titleFile.delete();
+        assertEquals(ContentManifest.Status.MISSING, manifest.getStatus(titleFile));
+    }
+
+    @Test public void testAdopt() {
+        ArticleTitleFile titleFile = bulkFile.getArticleTitleFile();
+        ContentManifest manifest = ContentManifest.instance(bulkFile);
+
+        System.setProperty(ContentManifest.ENABLED_PROPERTY, "false");
+        titleFile.processFile(false);
+        System.setProperty(ContentManifest.ENABLED_PROPERTY, "true");
+
+        assertEquals(ContentManifest.Status.MISSING, manifest.getStatus(titleFile));
+        assertTrue(titleFile.isCurrent());
+        assertEquals(ContentManifest.Status.CURRENT, manifest.getStatus(titleFile));
+        assertEquals(-1L, manifest.getRecordCount(titleFile));
+    }
+
+    @Test public void testJournal() throws IOException {
+        ArticleTitleFile titleFile = bulkFile.getArticleTitleFile();
+        ContentManifest manifest = ContentManifest.instance(bulkFile);
+
+        titleFile.processFile(false);
+
+        // Lines appended by another process are read on the next query...
+        Files.write(manifest.getManifestFile().toPath(),
+                    ("D|" + bulkFile.getBaseName() + "|" + titleFile.getSuffix() + "\n").getBytes(),
+                    StandardOpenOption.APPEND);
+
+        assertEquals(ContentManifest.Status.MISSING, manifest.getStatus(titleFile));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.ContentManifestTest");
+    }
+}
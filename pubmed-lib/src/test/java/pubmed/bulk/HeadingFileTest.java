@@ -2,6 +2,7 @@
 package pubmed.bulk;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.collect.Multimap;
@@ -83,6 +84,54 @@ public class HeadingFileTest {
         assertTrue(headingFile.delete());
     }
 
+    @Test public void testInsertAfterQuery() {
+        HeadingTable table = new HeadingTable();
+
+        table.insert(HeadingRecord.parse("2|D000818|-"));
+        table.insert(HeadingRecord.parse("1|D002352|Q000037"));
+        table.insert(HeadingRecord.parse("2|D000818|-"));
+
+        assertEquals(2, table.count());
+        assertTrue(table.contains(PMID.instance(1), MeshDescriptorKey.instance("D002352")));
+
+        table.insert(HeadingRecord.parse("1|D000818|-"));
+
+        assertEquals(3, table.count());
+        assertRecords(table.select(MeshDescriptorKey.instance("D000818")), "1|D000818|-", "2|D000818|-");
+        assertRecords(table.select(PMID.instance(1)), "1|D000818|-", "1|D002352|Q000037");
+    }
+
+    @Test public void testColumnar() {
+        HeadingFile headingFile = HeadingFile.instance(bulkFile);
+
+        headingFile.processFile(true);
+        HeadingTable expected = headingFile.load();
+
+        assertTrue(headingFile.convertColumnar());
+        assertFalse(headingFile.convertColumnar());
+        assertTrue(headingFile.getColumnarFile().exists());
+        assertFalse(headingFile.getFlatFile().exists());
+        assertTrue(headingFile.exists());
+
+        HeadingTable actual = headingFile.load();
+
+        assertEquals(expected.count(), actual.count());
+        assertEquals(expected.select(PMID.instance(24451147)), actual.select(PMID.instance(24451147)));
+
+        HeadingTable single = (HeadingTable) headingFile.load(PMID.instance(24451147));
+
+        assertEquals(expected.select(PMID.instance(24451147)).size(), single.count());
+        assertEquals(expected.select(PMID.instance(24451147)), single.select(PMID.instance(24451147)));
+
+        // Appending restores the text form...
+        headingFile.writeRecords(List.of(HeadingRecord.parse("2|D000818|-")), true);
+
+        assertFalse(headingFile.getColumnarFile().exists());
+        assertEquals(expected.count() + 1, headingFile.load().count());
+
+        assertTrue(headingFile.delete());
+    }
+
     private void assertRecords(Set<HeadingRecord> actualSet, String... expectedStrings) {
         Set<HeadingRecord> expectedSet = new HashSet<HeadingRecord>();
 
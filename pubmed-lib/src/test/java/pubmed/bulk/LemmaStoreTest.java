@@ -0,0 +1,81 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import pubmed.article.PMID;
+import pubmed.flat.TitleLemmaRecord;
+import pubmed.nlp.LemmaDictionary;
+import pubmed.nlp.LemmaList;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class LemmaStoreTest {
+    private static final BulkFile sampleXml = BulkFile.create("data/test/pubmed_sample.xml");
+    private static final TitleLemmaFile titleFile = TitleLemmaFile.instance(sampleXml);
+
+    private static final PMID pmid1 = PMID.instance(31687927);
+    private static final PMID pmid2 = PMID.instance(12345);
+    private static final PMID pmid3 = PMID.instance(777);
+
+    @Test public void testStore() {
+        titleFile.writeRecords(List.of(TitleLemmaRecord.create(pmid1, LemmaList.create("loss", "adaptive", "capacity")),
+                                       TitleLemmaRecord.create(pmid2, LemmaList.create("cell", "growth")),
+                                       TitleLemmaRecord.create(pmid3, LemmaList.EMPTY),
+                                       TitleLemmaRecord.create(pmid2, LemmaList.create("tumor", "cell", "tumor"))), false);
+
+        LemmaStore store = titleFile.openStore();
+
+        assertTrue(store.getFile().exists());
+        assertEquals(3, store.count());
+        assertTrue(store.contains(pmid1));
+        assertFalse(store.contains(999));
+
+        assertEquals(LemmaList.create("loss", "adaptive", "capacity"), store.select(pmid1));
+        assertEquals(LemmaList.create("tumor", "cell", "tumor"), store.select(pmid2));
+        assertEquals(titleFile.load().select(pmid3).getLemmaList(), store.select(pmid3));
+        assertNull(store.select(999));
+
+        // The store is rebuilt when the flat file changes...
+        titleFile.writeRecords(List.of(TitleLemmaRecord.create(pmid3, LemmaList.create("rhinovirus"))), true);
+
+        store = titleFile.openStore();
+        assertEquals(3, store.count());
+        assertEquals(LemmaList.create("rhinovirus"), store.select(pmid3));
+
+        assertTrue(titleFile.delete());
+        assertFalse(store.getFile().exists());
+    }
+
+    @Test public void testVerbatim() throws IOException {
+        titleFile.writeRecords(List.of(TitleLemmaRecord.create(pmid1, LemmaList.create("loss", "adaptive", "capacity"))), false);
+
+        File dictionaryFile = new File(Files.createTempDirectory("lemmas").toFile(), "dictionary.txt");
+        System.setProperty(LemmaDictionary.FILE_PROPERTY, dictionaryFile.getPath());
+
+        try {
+            //
+            // A store built while the dictionary is configured copies
+            // the text fields and leaves the dictionary untouched...
+            //
+            assertEquals(LemmaList.create("loss", "adaptive", "capacity"), titleFile.openStore().select(pmid1));
+            assertFalse(dictionaryFile.exists());
+        }
+        finally {
+            System.clearProperty(LemmaDictionary.FILE_PROPERTY);
+            dictionaryFile.getParentFile().delete();
+        }
+
+        // ...so it may be read by a process without the dictionary...
+        assertEquals(LemmaList.create("loss", "adaptive", "capacity"), titleFile.openStore().select(pmid1));
+        assertTrue(titleFile.delete());
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.LemmaStoreTest");
+    }
+}
@@ -0,0 +1,250 @@
+
+package pubmed.bulk;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jam.flat.RecordStore;
+
+import pubmed.article.PMID;
+import pubmed.flat.ArticleTitleRecord;
+import pubmed.flat.ArticleTitleTable;
+import pubmed.xml.ArticleField;
+import pubmed.xml.PubmedArticleElement;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class RecordSinkTest {
+    private static final BulkFile bulkFile = BulkFile.create("data/test/pubmed_sample.xml");
+
+    // A title file that records checkpoints, counts the extracted
+    // records, and may fail after a given number of records or at a
+    // given article...
+    private static class CheckpointedTitleFile extends UniqueContentFile<ArticleTitleRecord> {
+        private final AtomicInteger extracted = new AtomicInteger();
+        private volatile int failAfter = Integer.MAX_VALUE;
+        private volatile PMID failPMID = null;
+
+        private CheckpointedTitleFile() {
+            this(RecordSinkTest.bulkFile);
+        }
+
+        private CheckpointedTitleFile(BulkFile bulkFile) {
+            super(bulkFile);
+        }
+
+        @Override public ArticleTitleRecord extractRecord(PubmedArticleElement element) {
+            if (extracted.incrementAndGet() > failAfter || element.getPMID().equals(failPMID))
+                throw new IllegalStateException("Simulated failure.");
+
+            return ArticleTitleRecord.from(element);
+        }
+
+        @Override public Set<ArticleField> getRequiredFields() {
+            return Set.of(ArticleField.TITLE);
+        }
+
+        @Override public boolean isCheckpointed() {
+            return true;
+        }
+
+        @Override public String getSuffix() {
+            return "checkpointed_title";
+        }
+
+        @Override public RecordStore<ArticleTitleRecord> newStore() {
+            return new ArticleTitleTable();
+        }
+    }
+
+    @Test public void testAtomicCommit() throws IOException {
+        CheckpointedTitleFile titleFile = new CheckpointedTitleFile();
+
+        try {
+            titleFile.processFile(true);
+            List<String> expected = Files.readAllLines(titleFile.getFlatFile().toPath());
+
+            assertEquals(6, expected.size());
+            assertFalse(titleFile.getTempFile().exists());
+            assertFalse(titleFile.getCheckpointFile().exists());
+
+            // A failed regeneration leaves the committed file intact...
+            titleFile.failAfter = 3;
+
+            try {
+                titleFile.processFile(true);
+                fail("Simulated failure was not thrown.");
+            }
+            catch (IllegalStateException ex) {
+                // Expected...
+            }
+
+            assertEquals(expected, Files.readAllLines(titleFile.getFlatFile().toPath()));
+        }
+        finally {
+            titleFile.delete();
+        }
+    }
+
+    @Test public void testResume() throws IOException {
+        CheckpointedTitleFile titleFile = new CheckpointedTitleFile();
+
+        try {
+            titleFile.processFile(true);
+            List<String> expected = Files.readAllLines(titleFile.getFlatFile().toPath());
+
+            // Simulate an interrupted generation: two complete lines
+            // were checkpointed, then part of a third was written...
+            titleFile.delete();
+
+            String committed = expected.get(0) + System.lineSeparator() + expected.get(1) + System.lineSeparator();
+            String resumePMID = expected.get(1).substring(0, expected.get(1).indexOf('|'));
+
+            titleFile.getTempFile().getParentFile().mkdirs();
+            Files.write(titleFile.getTempFile().toPath(), (committed + "partial|line").getBytes(StandardCharsets.UTF_8));
+            Files.write(titleFile.getCheckpointFile().toPath(),
+                        List.of(resumePMID + "|" + committed.getBytes(StandardCharsets.UTF_8).length));
+
+            assertFalse(titleFile.exists());
+            titleFile.extracted.set(0);
+            titleFile.processFile(false);
+
+            assertEquals(4, titleFile.extracted.get());
+            assertEquals(expected, Files.readAllLines(titleFile.getFlatFile().toPath()));
+            assertFalse(titleFile.getTempFile().exists());
+            assertFalse(titleFile.getCheckpointFile().exists());
+
+            ArticleTitleTable table = (ArticleTitleTable) titleFile.load();
+            assertEquals(6, table.count());
+            assertNotNull(table.select(PMID.instance(resumePMID)));
+        }
+        finally {
+            titleFile.delete();
+        }
+    }
+
+    // The same title file without checkpoints...
+    private static final class AtomicTitleFile extends CheckpointedTitleFile {
+        private AtomicTitleFile(BulkFile bulkFile) {
+            super(bulkFile);
+        }
+
+        @Override public boolean isCheckpointed() {
+            return false;
+        }
+
+        @Override public String getSuffix() {
+            return "atomic_title";
+        }
+    }
+
+    // Writes a bulk file whose articles (with identifiers 1, 2, ...)
+    // contain only a title...
+    private static BulkFile writeBulkFile(File directory, int articleCount) throws IOException {
+        List<String> lines = new ArrayList<String>();
+
+        lines.add("<?xml version=\"1.0\" encoding=\"utf-8\"?>");
+        lines.add("<PubmedArticleSet>");
+
+        for (int pmid = 1; pmid <= articleCount; ++pmid)
+            lines.add(String.format("<PubmedArticle><MedlineCitation Status=\"MEDLINE\" Owner=\"NLM\">"
+                                    + "<PMID Version=\"1\">%d</PMID><Article PubModel=\"Print\">"
+                                    + "<ArticleTitle>Title of article %d.</ArticleTitle>"
+                                    + "</Article></MedlineCitation></PubmedArticle>", pmid, pmid));
+
+        lines.add("</PubmedArticleSet>");
+
+        File xmlFile = new File(directory, "pubmed_batches.xml");
+        Files.write(xmlFile.toPath(), lines, StandardCharsets.UTF_8);
+
+        return BulkFile.create(xmlFile);
+    }
+
+    @Test public void testBatches() throws IOException {
+        //
+        // Enough articles to fill several batches and the window of
+        // batches in flight; the failing article is in a later batch,
+        // so the earlier batches are written (and checkpointed) first...
+        //
+        int batchSize = ContentExtractor.BATCH_SIZE;
+        int articleCount = 5 * batchSize + 17;
+        PMID failPMID = PMID.instance(3 * batchSize + 10);
+
+        File directory = Files.createTempDirectory("sink").toFile();
+        BulkFile batchFile = writeBulkFile(directory, articleCount);
+
+        CheckpointedTitleFile atomicFile = new AtomicTitleFile(batchFile);
+        CheckpointedTitleFile checkpointedFile = new CheckpointedTitleFile(batchFile);
+
+        try {
+            atomicFile.processFile(true);
+            List<String> expected = Files.readAllLines(atomicFile.getFlatFile().toPath());
+
+            assertEquals(articleCount, expected.size());
+            assertTrue(expected.get(articleCount - 1).startsWith(articleCount + "|"));
+
+            // A failed regeneration leaves the committed file intact and
+            // removes the temporary file...
+            atomicFile.failPMID = failPMID;
+
+            try {
+                atomicFile.processFile(true);
+                fail("Simulated failure was not thrown.");
+            }
+            catch (IllegalStateException ex) {
+                // Expected...
+            }
+
+            assertEquals(expected, Files.readAllLines(atomicFile.getFlatFile().toPath()));
+            assertFalse(atomicFile.getTempFile().exists());
+            assertFalse(atomicFile.getCheckpointFile().exists());
+
+            // A failed checkpointed generation keeps the batches that
+            // precede the failure...
+            checkpointedFile.failPMID = failPMID;
+
+            try {
+                checkpointedFile.processFile(false);
+                fail("Simulated failure was not thrown.");
+            }
+            catch (IllegalStateException ex) {
+                // Expected...
+            }
+
+            assertFalse(checkpointedFile.exists());
+            assertTrue(checkpointedFile.getTempFile().exists());
+
+            String checkpoint = Files.readAllLines(checkpointedFile.getCheckpointFile().toPath()).get(0);
+            assertEquals(Integer.toString(3 * batchSize), checkpoint.substring(0, checkpoint.indexOf('|')));
+
+            // ...and the generation resumes after the last of them...
+            checkpointedFile.failPMID = null;
+            checkpointedFile.extracted.set(0);
+            checkpointedFile.processFile(false);
+
+            assertEquals(articleCount - 3 * batchSize, checkpointedFile.extracted.get());
+            assertEquals(expected, Files.readAllLines(checkpointedFile.getFlatFile().toPath()));
+            assertFalse(checkpointedFile.getTempFile().exists());
+            assertFalse(checkpointedFile.getCheckpointFile().exists());
+        }
+        finally {
+            atomicFile.delete();
+            checkpointedFile.delete();
+
+            Files.walk(directory.toPath())
+                .sorted((p1, p2) -> p2.compareTo(p1))
+                .forEach(path -> path.toFile().delete());
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.bulk.RecordSinkTest");
+    }
+}
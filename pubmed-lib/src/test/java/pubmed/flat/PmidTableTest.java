@@ -0,0 +1,86 @@
+
+package pubmed.flat;
+
+import java.util.List;
+
+import pubmed.article.PMID;
+import pubmed.article.PmidSet;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PmidTableTest {
+    private static final PMID P1 = PMID.instance(1);
+    private static final PMID P2 = PMID.instance(2);
+    private static final PMID P3 = PMID.instance(3);
+
+    @Test public void testFlatTable() {
+        ArticleTitleTable table = new ArticleTitleTable();
+
+        for (int id = 1000; id > 0; --id)
+            table.insert(ArticleTitleRecord.create(PMID.instance(id), "Title " + id));
+
+        assertEquals(1000, table.count());
+        assertEquals("Title 1", table.selectTitle(P1));
+        assertEquals("Title 777", table.select(777).getTitle());
+        assertNull(table.select(1001));
+        assertTrue(table.contains(P2));
+        assertFalse(table.contains(1001));
+
+        // Zero marks an empty slot in the index, never an article...
+        assertNull(table.select(0));
+        assertFalse(table.contains(0));
+        assertFalse(table.contains(-1));
+
+        // Replacement keeps the original position...
+        table.insert(ArticleTitleRecord.create(PMID.instance(1000), "Replaced"));
+
+        assertEquals(1000, table.count());
+        assertEquals("Replaced", table.selectTitle(PMID.instance(1000)));
+        assertEquals("Replaced", table.iterator().next().getTitle());
+
+        PmidSet keys = table.keySet();
+        assertEquals(1000, keys.size());
+        assertEquals(1, keys.getID(0));
+        assertEquals(1000, keys.getID(999));
+    }
+
+    @Test public void testJoinTable() {
+        KeywordTable table = new KeywordTable();
+
+        table.insert(KeywordRecord.create(P1, "a"));
+        table.insert(KeywordRecord.create(P2, "b"));
+        table.insert(KeywordRecord.create(P1, "b"));
+        table.insert(KeywordRecord.create(P1, "c"));
+
+        assertEquals(4, table.count());
+        assertEquals(3, table.countPrimary(P1));
+        assertEquals(1, table.countPrimary(P2));
+        assertEquals(0, table.countPrimary(P3));
+
+        List<KeywordRecord> records = table.selectPrimary(P1);
+
+        assertEquals(KeywordRecord.create(P1, "a"), records.get(0));
+        assertEquals(KeywordRecord.create(P1, "b"), records.get(1));
+        assertEquals(KeywordRecord.create(P1, "c"), records.get(2));
+        assertTrue(table.selectPrimary(P3).isEmpty());
+
+        assertTrue(table.containsPrimary(P1));
+        assertFalse(table.containsPrimary(P3));
+        assertTrue(table.contains(P2, "b"));
+        assertFalse(table.contains(P2, "a"));
+
+        assertEquals(2, table.countForeign("b"));
+        assertFalse(table.containsForeign("d"));
+
+        // The foreign index must reflect later insertions...
+        table.insert(KeywordRecord.create(P3, "d"));
+
+        assertTrue(table.containsForeign("d"));
+        assertEquals(PmidSet.of(1, 2, 3), table.primaryKeySet());
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.flat.PmidTableTest");
+    }
+}
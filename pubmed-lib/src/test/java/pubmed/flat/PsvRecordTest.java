@@ -0,0 +1,88 @@
+package pubmed.flat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+import pubmed.io.PsvReader;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PsvRecordTest {
+    private static <V extends PubmedFlatRecord> void assertCodec(String line,
+                                                                 Function<String, V> lineParser,
+                                                                 Function<PsvReader, V> readerParser) {
+        assertCodec(line, "\n", lineParser, readerParser);
+    }
+
+    private static <V extends PubmedFlatRecord> void assertCodec(String line,
+                                                                 String terminator,
+                                                                 Function<String, V> lineParser,
+                                                                 Function<PsvReader, V> readerParser) {
+        V actual = assertParse(line, terminator, lineParser, readerParser);
+        assertEquals(line, actual.format());
+
+        StringBuilder builder = new StringBuilder();
+        actual.formatTo(builder);
+
+        assertEquals(line, builder.toString());
+    }
+
+    private static <V extends PubmedFlatRecord> V assertParse(String line,
+                                                              String terminator,
+                                                              Function<String, V> lineParser,
+                                                              Function<PsvReader, V> readerParser) {
+        PsvReader reader = PsvReader.open(new ByteArrayInputStream((line + terminator).getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(reader.next());
+        assertEquals(line, reader.getLine());
+
+        V actual = readerParser.apply(reader);
+        assertEquals(lineParser.apply(line), actual);
+
+        return actual;
+    }
+
+    @Test public void testCodec() {
+        assertCodec("24451147", PMIDRecord::parse, PMIDRecord::parse);
+        assertCodec("24451147|2014-01-22", PubDateRecord::parse, PubDateRecord::parse);
+        assertCodec("24451147|D051059|Q000235", HeadingRecord::parse, HeadingRecord::parse);
+        assertCodec("1|D000818|-", HeadingRecord::parse, HeadingRecord::parse);
+        assertCodec("1|D000818", ChemicalRecord::parse, ChemicalRecord::parse);
+        assertCodec("1|rhinovirus", KeywordRecord::parse, KeywordRecord::parse);
+        assertCodec("1|Loss of adaptive capacity", ArticleTitleRecord::parse, ArticleTitleRecord::parse);
+        assertCodec("1|Abstract text", ArticleAbstractRecord::parse, ArticleAbstractRecord::parse);
+        assertCodec("1|cancer|2|0|1|3|0|4", RelevanceScoreRecord::parse, RelevanceScoreRecord::parse);
+    }
+
+    @Test public void testEscapedDelimiter() {
+        //
+        // An escaped delimiter does not separate fields, and the byte
+        // tokenizer keeps the escape character just as the line
+        // parser does...
+        //
+        assertParse("1|Loss of adaptive \\| capacity", "\n", ArticleTitleRecord::parse, ArticleTitleRecord::parse);
+        assertParse("1|Left\\|right\\|", "\n", ArticleTitleRecord::parse, ArticleTitleRecord::parse);
+        assertParse("1|Abstract \\| text \\|", "\n", ArticleAbstractRecord::parse, ArticleAbstractRecord::parse);
+        assertParse("1|Loss \\| of \\| capacity", "\r\n", ArticleTitleRecord::parse, ArticleTitleRecord::parse);
+    }
+
+    @Test public void testNull() {
+        assertCodec("1|0028-0836|NULL|Nature", JournalRecord::parse, JournalRecord::parse);
+        assertCodec("1|0028-0836|Nature|NULL", JournalRecord::parse, JournalRecord::parse);
+        assertCodec("1|0028-0836|NULL|NULL", JournalRecord::parse, JournalRecord::parse);
+        assertCodec("1|NULL", ArticleDOIRecord::parse, ArticleDOIRecord::parse);
+        assertCodec("1|10.1038/nature12373", ArticleDOIRecord::parse, ArticleDOIRecord::parse);
+    }
+
+    @Test public void testCarriageReturn() {
+        assertCodec("24451147|2014-01-22", "\r\n", PubDateRecord::parse, PubDateRecord::parse);
+        assertCodec("1|Loss of adaptive capacity", "\r\n", ArticleTitleRecord::parse, ArticleTitleRecord::parse);
+        assertCodec("1|NULL", "\r\n", ArticleDOIRecord::parse, ArticleDOIRecord::parse);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.flat.PsvRecordTest");
+    }
+}
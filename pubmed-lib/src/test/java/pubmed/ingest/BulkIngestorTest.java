@@ -0,0 +1,70 @@
+
+package pubmed.ingest;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import pubmed.bulk.BulkFile;
+import pubmed.xml.ArticleField;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BulkIngestorTest {
+    private static final BulkFile bulkFile = BulkFile.create("data/test/pubmed_sample.xml");
+
+    private static final class RecordingConsumer implements IngestConsumer {
+        private final boolean pending;
+        private final Set<ArticleField> fields;
+        private final List<IngestDocument> consumed = new ArrayList<IngestDocument>();
+
+        private RecordingConsumer(boolean pending, Set<ArticleField> fields) {
+            this.pending = pending;
+            this.fields = fields;
+        }
+
+        @Override public boolean isPending(BulkFile bulkFile) {
+            return pending;
+        }
+
+        @Override public Set<ArticleField> getRequiredFields(BulkFile bulkFile) {
+            return fields;
+        }
+
+        @Override public void consume(IngestDocument document) {
+            consumed.add(document);
+        }
+    }
+
+    @Test public void testSingleParse() {
+        RecordingConsumer title = new RecordingConsumer(true, Set.of(ArticleField.TITLE));
+        RecordingConsumer heading = new RecordingConsumer(true, Set.of(ArticleField.MESH_HEADING_LIST));
+        RecordingConsumer finished = new RecordingConsumer(false, ArticleField.ALL);
+
+        BulkIngestor.create(title, heading, finished).processFile(bulkFile);
+
+        assertEquals(1, title.consumed.size());
+        assertEquals(1, heading.consumed.size());
+        assertTrue(finished.consumed.isEmpty());
+
+        IngestDocument document = title.consumed.get(0);
+
+        assertSame(document, heading.consumed.get(0));
+        assertEquals(EnumSet.of(ArticleField.TITLE, ArticleField.MESH_HEADING_LIST), document.getProjection().getFields());
+
+        assertEquals(6, document.getXmlDocument().getPubmedArticleElements().size());
+        assertEquals(3, document.getXmlDocument().getDeletedCitations().size());
+    }
+
+    @Test public void testNothingPending() {
+        RecordingConsumer finished = new RecordingConsumer(false, ArticleField.ALL);
+        BulkIngestor.create(finished).processFile(BulkFile.create("data/test/no_such_file.xml"));
+        assertTrue(finished.consumed.isEmpty());
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.ingest.BulkIngestorTest");
+    }
+}
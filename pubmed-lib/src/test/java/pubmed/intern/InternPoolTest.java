@@ -0,0 +1,69 @@
+
+package pubmed.intern;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class InternPoolTest {
+    @Test public void testIntern() {
+        InternPool<String, String> pool = InternPool.local("test", Function.identity());
+
+        String s1 = new String("abc");
+        String s2 = new String("abc");
+
+        assertSame(s1, pool.intern(s1));
+        assertSame(s1, pool.intern(s2));
+        assertNull(pool.intern(null));
+
+        InternStatistics statistics = pool.getStatistics();
+
+        assertEquals(1, statistics.getSize());
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(0.5, statistics.getHitRate(), 1.0E-12);
+    }
+
+    @Test public void testConcurrent() {
+        InternPool<Integer, Object> pool = InternPool.local("test", key -> new Object());
+
+        List<Object> instances =
+            IntStream.range(0, 10000).parallel().mapToObj(k -> pool.intern(k % 10)).collect(Collectors.toList());
+
+        assertEquals(10, pool.size());
+
+        for (int k = 0; k < instances.size(); ++k)
+            assertSame(pool.intern(k % 10), instances.get(k));
+    }
+
+    @Test public void testScope() {
+        String s1 = new String("keyword");
+        String s2 = new String("keyword");
+
+        assertNull(InternScope.current());
+        assertSame(s2, InternScope.intern(s2));
+
+        try (InternScope outer = InternScope.open("outer")) {
+            assertSame(s1, InternScope.intern(s1));
+            assertSame(s1, InternScope.intern(s2));
+
+            try (InternScope inner = InternScope.open("inner")) {
+                assertSame(inner, InternScope.current());
+                assertSame(s2, InternScope.intern(s2));
+            }
+
+            assertSame(outer, InternScope.current());
+            assertEquals(1, outer.getStatistics().getHits());
+        }
+
+        assertNull(InternScope.current());
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.intern.InternPoolTest");
+    }
+}
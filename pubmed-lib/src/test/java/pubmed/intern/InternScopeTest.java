@@ -0,0 +1,62 @@
+
+package pubmed.intern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jam.util.StreamUtil;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class InternScopeTest {
+    private static List<String> keywords() {
+        List<String> keywords = new ArrayList<String>();
+
+        for (int k = 0; k < 10000; ++k)
+            keywords.add(new String("keyword" + (k % 10)));
+
+        return keywords;
+    }
+
+    @Test public void testParallel() {
+        List<String> keywords = keywords();
+        List<String> interned;
+
+        try (InternScope scope = InternScope.open("test")) {
+            interned = StreamUtil.applyParallel(keywords, InternScope.propagate(keyword -> InternScope.intern(keyword)));
+            assertEquals(10, scope.getStatistics().getSize());
+        }
+
+        for (int k = 0; k < interned.size(); ++k)
+            assertSame(interned.get(k % 10), interned.get(k));
+    }
+
+    @Test public void testSupplier() {
+        String s1 = new String("abc");
+        String s2 = new String("abc");
+
+        try (InternScope scope = InternScope.open("test")) {
+            assertSame(scope, InternScope.current());
+            assertSame(s1, InternScope.intern(s1));
+            assertSame(s1, CompletableFuture.supplyAsync(InternScope.propagate(() -> InternScope.intern(s2))).join());
+        }
+
+        // The worker thread is left without a scope...
+        assertSame(s2, CompletableFuture.supplyAsync(() -> InternScope.intern(s2)).join());
+    }
+
+    @Test public void testNoScope() {
+        String s1 = new String("abc");
+        String s2 = new String("abc");
+
+        assertNull(InternScope.current());
+        assertSame(s1, InternScope.intern(s1));
+        assertSame(s2, StreamUtil.applyParallel(List.of(s2), InternScope.propagate(s -> InternScope.intern(s))).get(0));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.intern.InternScopeTest");
+    }
+}
@@ -0,0 +1,185 @@
+
+package pubmed.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class BlockGZipTest {
+    private static final int BLOCK_SIZE = 1000;
+
+    private static String readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[777];
+
+        try (InputStream input = stream) {
+            int count = input.read(buffer);
+
+            while (count >= 0) {
+                output.write(buffer, 0, count);
+                count = input.read(buffer);
+            }
+        }
+
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String writeLines(File dataFile, boolean append, int firstPMID, int count) throws IOException {
+        StringBuilder builder = new StringBuilder();
+
+        for (int pmid = firstPMID; pmid < firstPMID + count; ++pmid)
+            builder.append(pmid).append("|Title of article ").append(pmid).append('\n');
+
+        try (BlockGZipOutputStream output = BlockGZipOutputStream.open(dataFile, append, BLOCK_SIZE)) {
+            output.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        return builder.toString();
+    }
+
+    @Test public void testRoundTrip() throws IOException {
+        File dataFile = File.createTempFile("blockgzip", ".psv.gz");
+
+        try {
+            String expected = writeLines(dataFile, false, 1000000, 2000);
+            BlockGZipIndex index = BlockGZipIndex.load(dataFile);
+
+            assertTrue(index.getBlocks().size() > 10);
+            assertEquals(dataFile.length(), index.getDataLength());
+
+            // Any gzip reader can decompress the file serially...
+            assertEquals(expected, readAll(new GZIPInputStream(new FileInputStream(dataFile))));
+            assertEquals(expected, readAll(BlockGZipInputStream.open(dataFile)));
+
+            expected += writeLines(dataFile, true, 2000000, 100);
+            assertEquals(expected, readAll(BlockGZipInputStream.open(dataFile)));
+        }
+        finally {
+            BlockGZipIndex.resolve(dataFile).delete();
+            dataFile.delete();
+        }
+    }
+
+    @Test public void testFind() throws IOException {
+        File dataFile = File.createTempFile("blockgzip", ".psv.gz");
+
+        try {
+            writeLines(dataFile, false, 1000000, 2000);
+            BlockGZipIndex index = BlockGZipIndex.load(dataFile);
+
+            List<BlockGZipIndex.Block> blocks = index.find(1001234);
+            assertEquals(1, blocks.size());
+
+            String content = readAll(BlockGZipInputStream.open(dataFile, blocks));
+
+            assertTrue(content.contains("1001234|Title of article 1001234\n"));
+            assertTrue(content.length() <= 2 * BLOCK_SIZE);
+            assertTrue(content.endsWith("\n"));
+
+            assertTrue(index.find(999999).isEmpty());
+            assertTrue(index.find(1002000).isEmpty());
+        }
+        finally {
+            BlockGZipIndex.resolve(dataFile).delete();
+            dataFile.delete();
+        }
+    }
+
+    @Test public void testUnkeyed() throws IOException {
+        File dataFile = File.createTempFile("blockgzip", ".psv.gz");
+
+        try (BlockGZipOutputStream output = BlockGZipOutputStream.open(dataFile, false)) {
+            output.write("header|line\n123|abc\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            BlockGZipIndex index = BlockGZipIndex.load(dataFile);
+
+            assertEquals(1, index.getBlocks().size());
+            assertEquals(1, index.find(42).size());
+        }
+        finally {
+            BlockGZipIndex.resolve(dataFile).delete();
+            dataFile.delete();
+        }
+    }
+
+    @Test public void testLongLine() throws IOException {
+        File dataFile = File.createTempFile("blockgzip", ".psv.gz");
+        StringBuilder expected = new StringBuilder("1|short\n2|");
+
+        try (BlockGZipOutputStream output = BlockGZipOutputStream.open(dataFile, false, BLOCK_SIZE)) {
+            output.write(expected.toString().getBytes(StandardCharsets.UTF_8));
+
+            // A line ten blocks long, written a few bytes at a time...
+            for (int k = 0; k < 10 * BLOCK_SIZE / 5; ++k) {
+                output.write("abcde".getBytes(StandardCharsets.UTF_8));
+                expected.append("abcde");
+            }
+
+            output.write('\n');
+            expected.append('\n');
+
+            for (int pmid = 3; pmid < 300; ++pmid) {
+                String line = pmid + "|Title of article " + pmid + "\n";
+                output.write(line.getBytes(StandardCharsets.UTF_8));
+                expected.append(line);
+            }
+        }
+
+        try {
+            BlockGZipIndex index = BlockGZipIndex.load(dataFile);
+
+            assertEquals(expected.toString(), readAll(BlockGZipInputStream.open(dataFile)));
+            List<BlockGZipIndex.Block> blocks = index.getBlocks();
+
+            // The short line is cut before the long line begins...
+            assertEquals(8, blocks.get(0).getLength());
+            assertTrue(blocks.get(1).mayContain(2));
+            assertFalse(blocks.get(1).mayContain(3));
+            assertTrue(blocks.get(1).getLength() > 10 * BLOCK_SIZE);
+
+            for (BlockGZipIndex.Block block : blocks.subList(2, blocks.size()))
+                assertTrue(block.getLength() <= BLOCK_SIZE);
+        }
+        finally {
+            BlockGZipIndex.resolve(dataFile).delete();
+            dataFile.delete();
+        }
+    }
+
+    @Test public void testAppendPlain() throws IOException {
+        File dataFile = File.createTempFile("blockgzip", ".psv.gz");
+        String expected = "1|plain\n2|gzip\n";
+
+        try (OutputStream output = new GZIPOutputStream(new FileOutputStream(dataFile))) {
+            output.write(expected.getBytes(StandardCharsets.UTF_8));
+        }
+
+        try {
+            expected += writeLines(dataFile, true, 1000000, 200);
+
+            assertFalse(BlockGZipIndex.exists(dataFile));
+            assertEquals(expected, readAll(new GZIPInputStream(new FileInputStream(dataFile))));
+        }
+        finally {
+            BlockGZipIndex.resolve(dataFile).delete();
+            dataFile.delete();
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.io.BlockGZipTest");
+    }
+}
@@ -0,0 +1,123 @@
+package pubmed.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import jam.io.LineReader;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ColumnarFileTest {
+    private static File write(List<String> lines) throws IOException {
+        File file = File.createTempFile("columnar", ".pcf");
+        file.deleteOnExit();
+
+        ColumnarFile.write(file, lines);
+        return file;
+    }
+
+    private static List<String> roundTrip(List<String> lines) throws IOException {
+        File file = write(lines);
+        assertTrue(ColumnarFile.isColumnar(file));
+
+        ColumnarFile columnar = ColumnarFile.load(file);
+        assertEquals(lines.size(), columnar.countLines());
+
+        List<String> result = new ArrayList<String>();
+
+        try (LineReader reader = LineReader.open(columnar.openReader())) {
+            for (String line : reader)
+                result.add(line);
+        }
+
+        return result;
+    }
+
+    @Test public void testRoundTrip() throws IOException {
+        List<String> lines = new ArrayList<String>();
+
+        for (int k = 0; k < 500; ++k)
+            lines.add(String.format("%d|2019-%02d-%02d|D%06d|%s|Title \u00e9 %d with a\\|pipe",
+                                    30000000 + 7 * (k % 50) - k, 1 + k % 12, 1 + k % 28, k % 10,
+                                    (k % 3 == 0) ? "NULL" : "J" + (k % 4), k));
+
+        // A line with an extra field lands in the final column, and a
+        // non-canonical number or date is kept as text...
+        lines.add("0012|2019-1-1|D000001|NULL|last|field");
+        lines.add("-5|2020-02-29|D000002||");
+
+        assertEquals(lines, roundTrip(lines));
+    }
+
+    @Test public void testFields() throws IOException {
+        List<String> lines = new ArrayList<String>();
+
+        for (int k = 0; k < 100; ++k)
+            lines.add(String.format("%d|2019-%02d-01|D%06d|%s|Title with a\\|pipe %d",
+                                    1000 + k / 3, 1 + k % 12, k % 5, (k % 2 == 0) ? "NULL" : "J" + (k % 4), k));
+
+        File file = write(lines);
+        ColumnarFile columnar = ColumnarFile.load(file);
+        FieldReader reader = columnar.openFieldReader();
+
+        assertTrue(columnar.isUniform());
+
+        for (int k = 0; k < 100; ++k) {
+            assertTrue(reader.next());
+            reader.requireFields(5);
+
+            assertEquals(lines.get(k), reader.getLine());
+            assertEquals(1000 + k / 3, reader.getInt(0));
+            assertEquals(LocalDate.of(2019, 1 + k % 12, 1), reader.getDate(1));
+            assertEquals(String.format("D%06d", k % 5), reader.getToken(2));
+            assertEquals(k % 2 == 0, reader.isNull(3));
+            assertEquals("Title with a\\|pipe " + k, reader.getString(4));
+        }
+
+        assertFalse(reader.next());
+
+        // Dictionary values are shared by every row...
+        reader = columnar.openFieldReader();
+        reader.next();
+        String token = reader.getToken(2);
+
+        for (int k = 0; k < 5; ++k)
+            reader.next();
+
+        assertSame(token, reader.getToken(2));
+
+        // Only the rows for the selected key are decoded...
+        ColumnarFile selected = ColumnarFile.select(file, 1010);
+
+        assertEquals(3, selected.countLines());
+        assertEquals(lines.get(30), selected.getLine(0));
+        assertEquals(lines.get(32), selected.getLine(2));
+        assertEquals(0, ColumnarFile.select(file, 999).countLines());
+
+        // An irregular line makes the file non-uniform...
+        lines.add("1100|2019-01-01|D000001|NULL|extra|field");
+        assertFalse(ColumnarFile.load(write(lines)).isUniform());
+    }
+
+    @Test public void testUnsortedSelect() throws IOException {
+        File file = write(List.of("5|a", "3|b", "5|c", "4|d"));
+        ColumnarFile selected = ColumnarFile.select(file, 5);
+
+        assertEquals(2, selected.countLines());
+        assertEquals("5|a", selected.getLine(0));
+        assertEquals("5|c", selected.getLine(1));
+    }
+
+    @Test public void testEmpty() throws IOException {
+        assertEquals(List.of(), roundTrip(List.of()));
+        assertEquals(List.of("", ""), roundTrip(List.of("", "")));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.io.ColumnarFileTest");
+    }
+}
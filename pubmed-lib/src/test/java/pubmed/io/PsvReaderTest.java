@@ -0,0 +1,84 @@
+package pubmed.io;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PsvReaderTest {
+    private static PsvReader open(String text) {
+        return PsvReader.open(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test public void testFields() {
+        PsvReader reader = open("31687927|2019-11-05|D000818|NULL|Title with a\\|pipe \u00e9\r\n\n-12|+7|D000818|-|\n");
+
+        assertTrue(reader.next());
+        assertEquals(5, reader.countFields());
+        assertEquals(31687927, reader.getInt(0));
+        assertEquals(LocalDate.of(2019, 11, 5), reader.getDate(1));
+        assertTrue(reader.isNull(3));
+        assertNull(reader.getDate(3));
+        assertEquals("Title with a\\|pipe \u00e9", reader.getString(4));
+        assertEquals("31687927|2019-11-05|D000818|NULL|Title with a\\|pipe \u00e9", reader.getLine());
+
+        String token = reader.getToken(2);
+
+        // The blank line is skipped...
+        assertTrue(reader.next());
+        assertEquals(5, reader.countFields());
+        assertEquals(-12, reader.getInt(0));
+        assertEquals(7, reader.getInt(1));
+        assertSame(token, reader.getToken(2));
+        assertTrue(reader.equalsString(3, "-"));
+        assertEquals("", reader.getString(4));
+
+        assertFalse(reader.next());
+        reader.close();
+    }
+
+    @Test public void testLongLines() {
+        StringBuilder builder = new StringBuilder();
+
+        for (int pmid = 1; pmid <= 2000; ++pmid)
+            builder.append(pmid).append('|').append("x".repeat(pmid * 50)).append('\n');
+
+        // The final line has no terminator...
+        builder.append("2001|last");
+
+        PsvReader reader = open(builder.toString());
+
+        for (int pmid = 1; pmid <= 2000; ++pmid) {
+            assertTrue(reader.next());
+            assertEquals(pmid, reader.getInt(0));
+            assertEquals(pmid * 50, reader.getString(1).length());
+        }
+
+        assertTrue(reader.next());
+        assertEquals(2001, reader.getInt(0));
+        assertEquals("last", reader.getString(1));
+        assertFalse(reader.next());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFieldCount() {
+        PsvReader reader = open("1|2|3\n");
+
+        assertTrue(reader.next());
+        reader.requireFields(2);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidInt() {
+        PsvReader reader = open("12a|x\n");
+
+        assertTrue(reader.next());
+        reader.getInt(0);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.io.PsvReaderTest");
+    }
+}
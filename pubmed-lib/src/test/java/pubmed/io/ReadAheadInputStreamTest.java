@@ -0,0 +1,137 @@
+
+package pubmed.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ReadAheadInputStreamTest {
+    private static final String GZIP_FILE = "data/test/pubmed20n0001.xml.gz";
+
+    private static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+
+        int count = stream.read(buffer);
+
+        while (count >= 0) {
+            output.write(buffer, 0, count);
+            count = stream.read(buffer);
+        }
+
+        return output.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(20200101).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test public void testGZip() throws IOException {
+        byte[] expected = readAll(new GZIPInputStream(new FileInputStream(GZIP_FILE)));
+
+        try (InputStream stream = ReadAheadInputStream.create(new GZIPInputStream(new FileInputStream(GZIP_FILE)), "test", 2)) {
+            assertArrayEquals(expected, readAll(stream));
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test public void testBlockBoundaries() throws IOException {
+        for (int length : new int[] { 0, 1, ReadAheadInputStream.BLOCK_SIZE, 3 * ReadAheadInputStream.BLOCK_SIZE + 17 }) {
+            byte[] expected = randomBytes(length);
+
+            try (InputStream stream = ReadAheadInputStream.create(new ByteArrayInputStream(expected), "test", 1)) {
+                assertArrayEquals(expected, readAll(stream));
+            }
+        }
+    }
+
+    @Test public void testSingleBytes() throws IOException {
+        byte[] expected = randomBytes(1000);
+
+        try (InputStream stream = ReadAheadInputStream.create(new ByteArrayInputStream(expected), "test", 1)) {
+            for (int index = 0; index < expected.length; ++index)
+                assertEquals(expected[index] & 0xFF, stream.read());
+
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test public void testEarlyClose() throws IOException {
+        byte[] source = randomBytes(10 * ReadAheadInputStream.BLOCK_SIZE);
+        InputStream stream = ReadAheadInputStream.create(new ByteArrayInputStream(source), "test", 1);
+
+        byte[] prefix = new byte[100];
+        assertEquals(100, stream.read(prefix));
+        assertArrayEquals(Arrays.copyOf(source, 100), prefix);
+
+        stream.close();
+
+        try {
+            stream.read();
+            fail("Read from a closed stream.");
+        }
+        catch (IOException ex) {
+            // Expected...
+        }
+    }
+
+    @Test public void testFailure() throws IOException {
+        InputStream failing = new InputStream() {
+                @Override public int read() throws IOException {
+                    throw new IOException("Corrupt input.");
+                }
+            };
+
+        try (InputStream stream = ReadAheadInputStream.create(failing, "test", 1)) {
+            stream.read();
+            fail("Exception not propagated.");
+        }
+        catch (IOException ex) {
+            assertEquals("Corrupt input.", ex.getMessage());
+        }
+    }
+
+    @Test public void testUncheckedFailure() throws IOException {
+        byte[] source = randomBytes(3 * ReadAheadInputStream.BLOCK_SIZE);
+
+        InputStream failing = new ByteArrayInputStream(source) {
+                @Override public synchronized int read(byte[] buffer, int offset, int length) {
+                    if (pos >= 2 * ReadAheadInputStream.BLOCK_SIZE)
+                        throw new IllegalStateException("Corrupt block.");
+
+                    return super.read(buffer, offset, length);
+                }
+            };
+
+        try (InputStream stream = ReadAheadInputStream.create(failing, "test", 1)) {
+            byte[] prefix = new byte[2 * ReadAheadInputStream.BLOCK_SIZE];
+            int length = 0;
+
+            // The blocks read before the failure are delivered intact...
+            while (length < prefix.length)
+                length += stream.read(prefix, length, prefix.length - length);
+
+            assertArrayEquals(Arrays.copyOf(source, prefix.length), prefix);
+
+            stream.read();
+            fail("Exception not propagated.");
+        }
+        catch (IllegalStateException ex) {
+            assertEquals("Corrupt block.", ex.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.io.ReadAheadInputStreamTest");
+    }
+}
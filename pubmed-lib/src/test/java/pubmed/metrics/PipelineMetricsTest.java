@@ -0,0 +1,160 @@
+
+package pubmed.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import pubmed.bulk.BulkFile;
+import pubmed.xml.PubmedXmlBuilder;
+import pubmed.xml.PubmedXmlSidecar;
+import pubmed.xml.PubmedXmlStream;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+    @Test public void testFileMetrics() {
+        PipelineMetrics run = PipelineMetrics.begin("test");
+
+        try (FileMetrics file = run.openFile("file1", 1000L)) {
+            assertSame(file, PipelineMetrics.recorder());
+
+            PipelineMetrics.recorder().record(Stage.PARSE, 2000000000L, 100L, 0L);
+            PipelineMetrics.recorder().record(Stage.WRITE, 1000000000L, 50L, 500L);
+
+            assertEquals(100L, file.getArticleCount());
+            assertEquals(2.0, file.getStageSeconds(Stage.PARSE), 1.0E-9);
+            assertFalse(file.isClosed());
+        }
+
+        assertSame(run, PipelineMetrics.recorder());
+
+        try (FileMetrics file = run.openFile("file2", 3000L)) {
+            PipelineMetrics.recorder().record(Stage.PARSE, 1000000000L, 20L, 0L);
+        }
+
+        assertEquals(2, run.getFilesStarted());
+        assertEquals(2, run.getFilesCompleted());
+        assertEquals(120L, run.getArticleCount());
+        assertEquals(4000L, run.getByteCount());
+        assertEquals(3.0, run.getStageSeconds(Stage.PARSE), 1.0E-9);
+        assertEquals(120L, run.getStageItems(Stage.PARSE));
+        assertEquals(1.0, run.getStageSeconds().get("WRITE"), 1.0E-9);
+
+        String report = run.getReport();
+        assertTrue(report.contains("\"run\": \"test\""));
+        assertTrue(report.contains("\"file\": \"file1\""));
+        assertTrue(report.contains("\"file\": \"file2\""));
+    }
+
+    @Test public void testJMX() throws JMException {
+        PipelineMetrics run = PipelineMetrics.begin("jmx");
+        run.record(Stage.SCORE, 1000L, 10L, 0L);
+
+        ObjectName name = new ObjectName(PipelineMetrics.OBJECT_NAME);
+
+        assertEquals("jmx", ManagementFactory.getPlatformMBeanServer().getAttribute(name, "RunName"));
+        assertEquals(10L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "ArticleCount"));
+    }
+
+    @Test public void testTimedInputStream() throws IOException {
+        PipelineMetrics run = PipelineMetrics.begin("stream");
+        byte[] bytes = new byte[10000];
+
+        try (InputStream stream = TimedInputStream.wrap(new ByteArrayInputStream(bytes), Stage.READ)) {
+            while (stream.read(bytes, 0, 1000) > 0)
+                ;
+        }
+
+        assertEquals(10000L, run.getStageBytes(Stage.READ));
+        assertEquals(0L, run.getStageItems(Stage.READ));
+    }
+
+    @Test public void testParse() {
+        PipelineMetrics run = PipelineMetrics.begin("parse");
+        BulkFile bulkFile = BulkFile.create("data/test/pubmed_sample.xml");
+
+        try (FileMetrics file = run.openFile(bulkFile.getBaseName(), bulkFile.getFile().length())) {
+            bulkFile.getDocument();
+        }
+
+        assertEquals(7L, run.getStageItems(Stage.PARSE));
+        assertEquals(7L, run.getArticleCount());
+    }
+
+    @Test public void testStream() {
+        PipelineMetrics run = PipelineMetrics.begin("stream");
+        File xmlFile = new File("data/test/pubmed_sample.xml");
+
+        try (FileMetrics file = run.openFile(xmlFile.getName(), xmlFile.length())) {
+            PubmedXmlStream.process(xmlFile, element -> {});
+        }
+
+        assertEquals(7L, run.getStageItems(Stage.PARSE));
+        assertEquals(xmlFile.length(), run.getStageBytes(Stage.READ));
+        assertEquals(xmlFile.length(), run.getStageBytes(Stage.PARSE));
+    }
+
+    @Test public void testSidecar() throws IOException {
+        File tempDir = Files.createTempDirectory("metrics").toFile();
+        File xmlFile = new File(tempDir, "pubmed_sample.xml");
+
+        Files.copy(new File("data/test/pubmed_sample.xml").toPath(), xmlFile.toPath());
+        xmlFile.setLastModified(System.currentTimeMillis() - 60000L);
+
+        System.setProperty(PubmedXmlSidecar.ENABLED_PROPERTY, "true");
+
+        try {
+            PubmedXmlBuilder.build(xmlFile);
+            assertTrue(PubmedXmlSidecar.isFresh(xmlFile));
+
+            PipelineMetrics run = PipelineMetrics.begin("sidecar");
+
+            try (FileMetrics file = run.openFile(xmlFile.getName(), xmlFile.length())) {
+                PubmedXmlBuilder.build(xmlFile);
+            }
+
+            assertEquals(7L, run.getStageItems(Stage.PARSE));
+            assertEquals(PubmedXmlSidecar.resolve(xmlFile).length(), run.getStageBytes(Stage.READ));
+            assertTrue(run.getStageBytes(Stage.INFLATE) > 0L);
+        }
+        finally {
+            System.clearProperty(PubmedXmlSidecar.ENABLED_PROPERTY);
+
+            PubmedXmlSidecar.resolve(xmlFile).delete();
+            xmlFile.delete();
+            tempDir.delete();
+        }
+    }
+
+    @Test public void testReport() throws IOException {
+        File reportDir = Files.createTempDirectory("metrics").toFile();
+        System.setProperty(PipelineMetrics.REPORT_DIR_PROPERTY, reportDir.getPath());
+
+        try {
+            PipelineMetrics run = PipelineMetrics.begin("report");
+            File reportFile = run.writeReport();
+
+            assertNotNull(reportFile);
+            assertEquals(reportDir, reportFile.getParentFile());
+            assertTrue(new String(Files.readAllBytes(reportFile.toPath())).startsWith("{"));
+
+            reportFile.delete();
+        }
+        finally {
+            System.clearProperty(PipelineMetrics.REPORT_DIR_PROPERTY);
+            reportDir.delete();
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.metrics.PipelineMetricsTest");
+    }
+}
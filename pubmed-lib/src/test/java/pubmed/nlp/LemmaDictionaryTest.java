@@ -0,0 +1,120 @@
+
+package pubmed.nlp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class LemmaDictionaryTest {
+    private static LemmaDictionary create(String content) throws IOException {
+        File file = File.createTempFile("lemma", ".txt");
+        file.deleteOnExit();
+
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return LemmaDictionary.open(file);
+    }
+
+    @Test public void testRoundTrip() throws IOException {
+        LemmaDictionary dictionary = create("");
+        LemmaList list = LemmaList.create("cell", "tumor", "cell", "growth");
+
+        String field = dictionary.format(list);
+        assertEquals("V0102", field);
+        assertEquals(3, dictionary.size());
+
+        IntLemmaList parsed = dictionary.parse(field);
+
+        assertEquals(list, parsed);
+        assertEquals(list.hashCode(), parsed.hashCode());
+        assertEquals("cell tumor cell growth", parsed.join());
+
+        assertEquals(2, parsed.count("cell"));
+        assertEquals(0, parsed.count("absent"));
+        assertEquals(1, parsed.countSequence(List.of("tumor", "cell")));
+        assertEquals(0, parsed.countSequence(List.of("cell", "absent")));
+        assertTrue(parsed.containsSequence(LemmaList.create("cell", "growth")));
+        assertFalse(parsed.containsSequence(List.of("growth", "cell")));
+
+        assertTrue(LemmaDictionary.isEncoded(field));
+        assertFalse(LemmaDictionary.isEncoded(list.join()));
+    }
+
+    @Test public void testIndex() throws IOException {
+        LemmaDictionary dictionary = create("");
+
+        LemmaList text = LemmaList.create("a", "b", "a", "a", "c", "a", "b");
+        IntLemmaList list = dictionary.intern(text);
+
+        for (String lemma : List.of("a", "b", "c", "d"))
+            assertEquals(text.count(lemma), list.count(lemma));
+
+        assertEquals(1, list.countSequence(List.of("a", "a")));
+        assertEquals(2, list.countSequence(List.of("a", "b")));
+        assertEquals(1, list.countSequence(List.of("a", "c", "a", "b")));
+        assertEquals(0, list.countSequence(List.of("b", "a", "b")));
+        assertEquals(8, list.countSequence(List.of()));
+
+        assertTrue(list.containsSequence(List.of("c", "a")));
+        assertFalse(list.containsSequence(List.of("b", "c")));
+        assertFalse(list.containsSequence(List.of("a", "b", "a", "b")));
+    }
+
+    @Test public void testVarint() throws IOException {
+        List<String> lemmas = new ArrayList<String>();
+
+        for (int k = 0; k < 1100; ++k)
+            lemmas.add("w" + k);
+
+        LemmaDictionary dictionary = create("");
+        dictionary.encode(lemmas);
+
+        LemmaList list = LemmaList.create("w0", "w31", "w32", "w1023", "w1024", "w1099");
+        String field = dictionary.format(list);
+
+        assertEquals(1 + 1 + 1 + 2 + 2 + 3 + 3, field.length());
+        assertEquals(list, dictionary.parse(field));
+    }
+
+    @Test public void testSharedFile() throws IOException {
+        LemmaDictionary dictionary = create("a\nb\na\n");
+
+        assertEquals(3, dictionary.size());
+        assertEquals(0, dictionary.idOf("a"));
+
+        // The alias decodes to the identifier of the first line...
+        IntLemmaList parsed = dictionary.parse("V2");
+
+        assertEquals(0, parsed.getID(0));
+        assertEquals("a", parsed.get(0));
+
+        // Lemmas appended by another process are read on demand...
+        File file = File.createTempFile("lemma", ".txt");
+        file.deleteOnExit();
+
+        LemmaDictionary shared = LemmaDictionary.open(file);
+        assertEquals(0, shared.size());
+
+        Files.write(file.toPath(), "x\ny".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(List.of("x"), shared.parse("V0"));
+        assertEquals(1, shared.size());
+
+        Files.write(file.toPath(), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(List.of("y", "x"), shared.parse("V10"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownID() throws IOException {
+        create("a\n").parse("V1");
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.nlp.LemmaDictionaryTest");
+    }
+}
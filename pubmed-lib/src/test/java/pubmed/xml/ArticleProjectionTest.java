@@ -0,0 +1,100 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.output.XMLOutputter;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class ArticleProjectionTest {
+    private static final File sampleFile = new File("data/test/pubmed_sample.xml");
+    private static final XMLOutputter outputter = new XMLOutputter();
+
+    private static List<String> format(List<Element> elements) {
+        List<String> strings = new ArrayList<String>();
+
+        for (Element element : elements)
+            strings.add(outputter.outputString(element));
+
+        return strings;
+    }
+
+    private static List<Element> stream(ArticleProjection projection) {
+        List<Element> elements = new ArrayList<Element>();
+        PubmedXmlStream.process(sampleFile, projection, elements::add);
+        return elements;
+    }
+
+    @Test public void testComplete() {
+        assertTrue(ArticleProjection.ALL.isComplete());
+        assertTrue(ArticleProjection.of(ArticleField.values()).isComplete());
+        assertFalse(ArticleProjection.of(ArticleField.TITLE).isComplete());
+        assertFalse(ArticleProjection.of().isComplete());
+
+        assertSame(ArticleProjection.ALL, ArticleProjection.of(ArticleField.ALL));
+        assertEquals(EnumSet.of(ArticleField.TITLE, ArticleField.ABSTRACT),
+                     ArticleProjection.of(ArticleField.TITLE).union(ArticleProjection.of(ArticleField.ABSTRACT)).getFields());
+    }
+
+    @Test public void testProjectedElements() {
+        PubmedXmlDocument full = PubmedXmlDocument.parse(sampleFile);
+        PubmedXmlDocument projected = PubmedXmlDocument.parse(sampleFile, ArticleProjection.of(ArticleField.TITLE));
+
+        List<PubmedArticleElement> fullElements = full.getPubmedArticleElements();
+        List<PubmedArticleElement> projectedElements = projected.getPubmedArticleElements();
+
+        assertEquals(fullElements.size(), projectedElements.size());
+        assertEquals(full.getDeletedCitations(), projected.getDeletedCitations());
+
+        for (int index = 0; index < fullElements.size(); ++index) {
+            PubmedArticleElement fullElement = fullElements.get(index);
+            PubmedArticleElement projectedElement = projectedElements.get(index);
+
+            assertEquals(fullElement.getPMID(), projectedElement.getPMID());
+            assertEquals(fullElement.getArticleTitle(), projectedElement.getArticleTitle());
+
+            assertTrue(projectedElement.getAbstract() == null || projectedElement.getAbstract().isEmpty());
+            assertTrue(projectedElement.getMeshHeadingList().isEmpty());
+        }
+    }
+
+    @Test public void testPublicationDate() {
+        PubmedXmlDocument full = PubmedXmlDocument.parse(sampleFile);
+        PubmedXmlDocument projected = PubmedXmlDocument.parse(sampleFile, ArticleProjection.of(ArticleField.PUBLICATION_DATE));
+
+        List<PubmedArticleElement> fullElements = full.getPubmedArticleElements();
+        List<PubmedArticleElement> projectedElements = projected.getPubmedArticleElements();
+
+        for (int index = 0; index < fullElements.size(); ++index)
+            assertEquals(fullElements.get(index).resolvePublicationDate(),
+                         projectedElements.get(index).resolvePublicationDate());
+    }
+
+    @Test public void testStreamAndChunks() {
+        ArticleProjection projection =
+            ArticleProjection.of(ArticleField.MESH_HEADING_LIST, ArticleField.ARTICLE_ID_LIST);
+
+        Document document = PubmedXmlBuilder.build(sampleFile, projection);
+        List<String> expected = format(document.getRootElement().getChildren());
+
+        assertEquals(expected, format(stream(projection)));
+        assertEquals(expected, format(PubmedXmlChunkParser.parse(sampleFile, 1, new ForkJoinPool(2), projection)
+                                      .getRootElement().getChildren()));
+
+        // The complete projection leaves the elements intact...
+        assertEquals(format(PubmedXmlBuilder.build(sampleFile).getRootElement().getChildren()),
+                     format(stream(ArticleProjection.ALL)));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.ArticleProjectionTest");
+    }
+}
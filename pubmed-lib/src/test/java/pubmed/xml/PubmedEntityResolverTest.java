@@ -0,0 +1,60 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+
+import org.jdom2.Document;
+import org.jdom2.output.XMLOutputter;
+
+import org.xml.sax.InputSource;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PubmedEntityResolverTest {
+    private static final PubmedEntityResolver resolver = PubmedEntityResolver.INSTANCE;
+
+    private static final File pubmedFile = new File("data/test/pubmed_sample.xml");
+    private static final File descFile = new File("data/test/mesh_desc_sample.xml");
+    private static final File suppFile = new File("data/test/mesh_supp_sample.xml");
+
+    private static final XMLOutputter outputter = new XMLOutputter();
+
+    @Test public void testCatalog() {
+        assertEquals("dtd/empty.dtd", resolver.resolveResource("http://dtd.nlm.nih.gov/ncbi/pubmed/out/pubmed_190101.dtd"));
+        assertEquals("dtd/empty.dtd", resolver.resolveResource("https://www.nlm.nih.gov/databases/dtd/nlmdescriptorrecordset_20200101.dtd"));
+        assertEquals("dtd/empty.dtd", resolver.resolveResource("nlmsupplementalrecordset_20200101.dtd"));
+        assertNull(resolver.resolveResource("http://www.example.com/other.dtd"));
+        assertNull(resolver.resolveResource(null));
+    }
+
+    @Test public void testUnresolved() throws IOException {
+        InputSource source = resolver.resolveEntity(null, "http://www.example.com/other.dtd");
+
+        try (Reader reader = source.getCharacterStream()) {
+            assertEquals(-1, reader.read());
+        }
+    }
+
+    private static void assertSameDocument(File xmlFile) {
+        Document standard = PubmedXmlBuilder.build(xmlFile, XmlParseMode.STANDARD);
+
+        // Twice, to exercise the reused fast-mode parser...
+        for (int trial = 0; trial < 2; ++trial) {
+            Document fast = PubmedXmlBuilder.build(xmlFile, XmlParseMode.FAST);
+            assertEquals(outputter.outputString(standard.getRootElement()), outputter.outputString(fast.getRootElement()));
+        }
+    }
+
+    @Test public void testParseModes() {
+        assertSameDocument(pubmedFile);
+        assertSameDocument(descFile);
+        assertSameDocument(suppFile);
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.PubmedEntityResolverTest");
+    }
+}
@@ -0,0 +1,61 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.output.XMLOutputter;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PubmedXmlChunkParserTest {
+    private static final File sampleFile = new File("data/test/pubmed_sample.xml");
+    private static final File gzipFile = new File("data/test/pubmed20n0002.xml.gz");
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+    private static final XMLOutputter outputter = new XMLOutputter();
+
+    private static void assertSameDocument(Document expected, Document actual) {
+        assertEquals(expected.getDocType().getSystemID(), actual.getDocType().getSystemID());
+
+        List<Element> expectedChildren = expected.getRootElement().getChildren();
+        List<Element> actualChildren = actual.getRootElement().getChildren();
+
+        assertEquals(expectedChildren.size(), actualChildren.size());
+
+        for (int index = 0; index < expectedChildren.size(); ++index)
+            assertEquals(outputter.outputString(expectedChildren.get(index)),
+                         outputter.outputString(actualChildren.get(index)));
+    }
+
+    private static void runTest(File xmlFile) {
+        Document expected = PubmedXmlBuilder.build(xmlFile);
+
+        for (int chunkSize : new int[] { 1, 5000, PubmedXmlChunkParser.CHUNK_SIZE_DEFAULT })
+            assertSameDocument(expected, PubmedXmlChunkParser.parse(xmlFile, chunkSize, pool));
+    }
+
+    @Test public void testGZip() {
+        runTest(gzipFile);
+    }
+
+    @Test public void testSample() {
+        runTest(sampleFile);
+
+        // Every article in its own chunk, with the DeleteCitation
+        // block at the end...
+        Document document = PubmedXmlChunkParser.parse(sampleFile, 1, pool);
+        List<Element> children = document.getRootElement().getChildren();
+
+        assertEquals(8, children.size());
+        assertEquals(DeleteCitationElement.TAG_NAME, children.get(7).getName());
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.PubmedXmlChunkParserTest");
+    }
+}
@@ -0,0 +1,88 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Text;
+import org.jdom2.output.Format;
+import org.jdom2.output.XMLOutputter;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PubmedXmlSidecarTest {
+    private static final File sampleFile = new File("data/test/pubmed_sample.xml");
+    private static final XMLOutputter outputter = new XMLOutputter(Format.getRawFormat());
+
+    @Test public void testRoundTrip() throws IOException {
+        File tempDir = Files.createTempDirectory("sidecar").toFile();
+        File xmlFile = new File(tempDir, sampleFile.getName());
+
+        Files.copy(sampleFile.toPath(), xmlFile.toPath());
+        xmlFile.setLastModified(System.currentTimeMillis() - 60000L);
+
+        try {
+            Document parsed = PubmedXmlBuilder.build(xmlFile, XmlParseMode.FAST);
+            assertFalse(PubmedXmlSidecar.isFresh(xmlFile));
+
+            PubmedXmlSidecar.write(xmlFile, parsed);
+            assertTrue(PubmedXmlSidecar.isFresh(xmlFile));
+
+            Document cached = PubmedXmlSidecar.read(xmlFile);
+            assertEquals(outputter.outputString(parsed), outputter.outputString(cached));
+
+            PubmedXmlDocument document = PubmedXmlDocument.wrap(xmlFile, cached);
+            assertEquals(6, document.getPubmedArticleElements().size());
+            assertEquals(3, document.getDeletedCitations().size());
+
+            xmlFile.setLastModified(System.currentTimeMillis() + 60000L);
+            assertFalse(PubmedXmlSidecar.isFresh(xmlFile));
+        }
+        finally {
+            PubmedXmlSidecar.resolve(xmlFile).delete();
+            xmlFile.delete();
+            tempDir.delete();
+        }
+    }
+
+    @Test public void testMixedContent() throws IOException {
+        File tempDir = Files.createTempDirectory("sidecar").toFile();
+        File xmlFile = new File(tempDir, "mixed.xml");
+
+        // An abstract with inline markup separated by a line break...
+        Element abstractText = new Element("AbstractText");
+        abstractText.addContent(new Text("Water is H"));
+        abstractText.addContent(new Element("sub").setText("2"));
+        abstractText.addContent(new Text("O;\n"));
+        abstractText.addContent(new Element("i").setText("in vitro"));
+        abstractText.addContent(new Text("\n"));
+        abstractText.addContent(new Element("sup").setText("3"));
+
+        Element root = new Element("Abstract");
+        root.addContent(new Text("\n  "));
+        root.addContent(abstractText);
+        root.addContent(new Text("\n"));
+
+        Document document = new Document(root);
+
+        try {
+            PubmedXmlSidecar.write(xmlFile, document);
+            Document cached = PubmedXmlSidecar.read(xmlFile);
+
+            assertEquals(outputter.outputString(document), outputter.outputString(cached));
+            assertEquals("Water is H2O;\nin vitro\n3", cached.getRootElement().getChild("AbstractText").getValue());
+        }
+        finally {
+            PubmedXmlSidecar.resolve(xmlFile).delete();
+            tempDir.delete();
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.PubmedXmlSidecarTest");
+    }
+}
@@ -0,0 +1,80 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jdom2.Element;
+
+import pubmed.article.PMID;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class PubmedXmlStreamTest {
+    private static final File sampleFile = new File("data/test/pubmed_sample.xml");
+    private static final File gzipFile = new File("data/test/pubmed20n0001.xml.gz");
+
+    private static List<String> readTagNames(File xmlFile) {
+        List<String> tagNames = new ArrayList<String>();
+        PubmedXmlStream.process(xmlFile, element -> tagNames.add(element.getName()));
+        return tagNames;
+    }
+
+    @Test public void testElements() {
+        List<String> tagNames = readTagNames(sampleFile);
+
+        assertEquals(8, tagNames.size());
+        assertEquals(7, tagNames.stream().filter(name -> name.equals(PubmedArticleElement.TAG_NAME)).count());
+        assertEquals(DeleteCitationElement.TAG_NAME, tagNames.get(7));
+    }
+
+    @Test public void testGzip() {
+        List<String> tagNames = readTagNames(gzipFile);
+
+        assertEquals(10, tagNames.size());
+        assertTrue(tagNames.stream().allMatch(name -> name.equals(PubmedArticleElement.TAG_NAME)));
+    }
+
+    @Test public void testNext() {
+        try (PubmedXmlStream stream = PubmedXmlStream.open(sampleFile)) {
+            Element element = stream.next();
+
+            assertEquals("24451147", element.getChild("MedlineCitation").getChildText("PMID"));
+            assertNull(element.getParent());
+        }
+    }
+
+    @Test public void testStream() {
+        List<PMID> pmids = new ArrayList<PMID>();
+        List<PMID> deleted = PubmedXmlDocument.stream(sampleFile, element -> pmids.add(element.getPMID()));
+
+        // Duplicate PMIDs are not removed in streaming mode...
+        assertEquals(7, pmids.size());
+        assertEquals(PMID.instance(24451147), pmids.get(0));
+        assertEquals(PMID.instance(31383287), pmids.get(1));
+        assertEquals(PMID.instance(31383287), pmids.get(5));
+
+        assertEquals(List.of(PMID.instance(30830050),
+                             PMID.instance(30830053),
+                             PMID.instance(30830055)), deleted);
+    }
+
+    @Test public void testDocument() {
+        List<PubmedArticleElement> elements = PubmedXmlDocument.parse(sampleFile).getPubmedArticleElements();
+
+        //
+        // Duplicate PMIDs are removed in document mode: the last
+        // version takes the position of the first...
+        //
+        assertEquals(6, elements.size());
+        assertEquals(PMID.instance(24451147), elements.get(0).getPMID());
+        assertEquals(PMID.instance(31383287), elements.get(1).getPMID());
+        assertEquals("2", elements.get(1).getElement().getChild("MedlineCitation").getChild("PMID").getAttributeValue("Version"));
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.PubmedXmlStreamTest");
+    }
+}
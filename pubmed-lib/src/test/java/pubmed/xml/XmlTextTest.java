@@ -0,0 +1,60 @@
+
+package pubmed.xml;
+
+import java.io.File;
+import java.util.List;
+
+import org.jdom2.Document;
+import org.jdom2.Element;
+import org.jdom2.Text;
+import org.jdom2.filter.Filters;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class XmlTextTest {
+    private static Iterable<Element> select(Document document, String name) {
+        return document.getDescendants(Filters.element(name));
+    }
+
+    @Test public void testInline() {
+        Element element = new Element("AbstractText");
+
+        element.addContent(new Text("  Gene \n\t expression"));
+        element.addContent(new Element("i").setText("in vivo"));
+        element.addContent(new Text(" was   measured. "));
+
+        assertEquals(element.getTextNormalize(), XmlText.normalize(element));
+        assertEquals(element.getValue().trim(), XmlText.value(element));
+
+        assertEquals("", XmlText.normalize(new Element("AbstractText").setText(" \n ")));
+        assertEquals("", XmlText.value(new Element("ArticleTitle")));
+    }
+
+    @Test public void testBulkFile() {
+        Document document = PubmedXmlBuilder.build(new File("data/test/pubmed20n0001.xml.gz"));
+
+        for (Element element : select(document, "ArticleTitle")) {
+            assertEquals(element.getTextNormalize(), XmlText.normalize(element));
+            assertEquals(element.getValue().trim(), XmlText.value(element));
+        }
+
+        for (Element element : select(document, "Abstract")) {
+            List<Element> sections = element.getChildren("AbstractText");
+            StringBuilder expected = new StringBuilder();
+
+            for (Element section : sections) {
+                if (expected.length() > 0)
+                    expected.append(' ');
+
+                expected.append(section.getTextNormalize());
+            }
+
+            assertEquals(expected.toString(), XmlText.normalizeJoin(sections));
+        }
+    }
+
+    public static void main(String[] args) {
+        org.junit.runner.JUnitCore.main("pubmed.xml.XmlTextTest");
+    }
+}